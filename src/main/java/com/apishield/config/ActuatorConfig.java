@@ -1,18 +1,33 @@
 package com.apishield.config;
 
-import org.springframework.boot.actuate.web.exchanges.HttpExchangeRepository;
-import org.springframework.boot.actuate.web.exchanges.InMemoryHttpExchangeRepository;
+import com.apishield.metrics.EndpointLatencies;
+import com.apishield.metrics.ExchangeRecorder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Set;
+
 @Configuration
 public class ActuatorConfig {
 
     /**
-     * Configure HTTP trace repository for request/response logging
+     * Sampled HTTP exchanges for {@code /actuator/exchanges}. Replaces the in-memory
+     * repository, which copied every request's headers, the Authorization header included.
+     */
+    @Bean
+    public ExchangeRecorder exchangeRecorder(@Value("${apishield.exchanges.capacity:1024}") int capacity,
+                                             @Value("${apishield.exchanges.sample-rate:0.01}") double sampleRate,
+                                             @Value("${apishield.exchanges.slow-ms:1000}") long slowMs,
+                                             @Value("${apishield.exchanges.redact-headers:Authorization,Proxy-Authorization,Cookie,Set-Cookie,X-API-Key}") Set<String> redactHeaders) {
+        return new ExchangeRecorder(capacity, sampleRate, slowMs, redactHeaders);
+    }
+
+    /**
+     * Per-endpoint latency percentiles for {@code /actuator/latency}
      */
     @Bean
-    public HttpExchangeRepository httpExchangeRepository() {
-        return new InMemoryHttpExchangeRepository();
+    public EndpointLatencies endpointLatencies(@Value("${apishield.exchanges.max-endpoints:500}") int maxEndpoints) {
+        return new EndpointLatencies(maxEndpoints);
     }
 }
@@ -0,0 +1,22 @@
+package com.apishield.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+@Configuration
+public class AuditingConfig {
+
+    /**
+     * Audit timestamps at the microsecond precision the columns store, so an entity still in
+     * memory has the same created_at as its row and keyset cursors built from it match
+     */
+    @Bean
+    public DateTimeProvider auditingDateTimeProvider() {
+        return () -> Optional.of(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    }
+}
@@ -53,6 +53,12 @@ public class SwaggerConfig {
                                         .type(SecurityScheme.Type.HTTP)
                                         .scheme("bearer")
                                         .bearerFormat("JWT")
-                                        .description("JWT token for authentication. Format: Bearer {token}")));
+                                        .description("JWT token for authentication. Format: Bearer {token}"))
+                        .addSecuritySchemes("apiKeyAuth",
+                                new SecurityScheme()
+                                        .name("X-API-Key")
+                                        .type(SecurityScheme.Type.APIKEY)
+                                        .in(SecurityScheme.In.HEADER)
+                                        .description("Machine API key for usage ingestion. Format: ask_{prefix}.{secret}")));
     }
 }
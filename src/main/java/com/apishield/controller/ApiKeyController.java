@@ -0,0 +1,57 @@
+package com.apishield.controller;
+
+import com.apishield.dto.apikey.ApiKeyRequest;
+import com.apishield.dto.apikey.ApiKeyResponse;
+import com.apishield.model.User;
+import com.apishield.service.ApiKeyService;
+import com.apishield.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/keys")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "API Keys", description = "Machine API keys for usage ingestion")
+public class ApiKeyController {
+
+    private final ApiKeyService apiKeyService;
+    private final UserService userService;
+
+    @PostMapping
+    @Operation(summary = "Create an API key; the full key is only shown in this response")
+    public ResponseEntity<ApiKeyResponse> createApiKey(
+            Authentication authentication,
+            @Valid @RequestBody ApiKeyRequest request) {
+        User user = userService.getCurrentUserEntity(authentication);
+        ApiKeyResponse response = apiKeyService.createApiKey(user, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping
+    @Operation(summary = "List API keys for the current user")
+    public ResponseEntity<List<ApiKeyResponse>> getApiKeys(Authentication authentication) {
+        User user = userService.getCurrentUserEntity(authentication);
+        return ResponseEntity.ok(apiKeyService.getApiKeys(user));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Revoke an API key")
+    public ResponseEntity<Void> revokeApiKey(
+            Authentication authentication,
+            @Parameter(description = "API key ID") @PathVariable Long id) {
+        User user = userService.getCurrentUserEntity(authentication);
+        apiKeyService.revokeApiKey(user, id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,10 +2,12 @@ package com.apishield.controller;
 
 import com.apishield.dto.auth.AuthResponse;
 import com.apishield.dto.auth.LoginRequest;
+import com.apishield.dto.auth.RefreshTokenRequest;
 import com.apishield.dto.auth.RegisterRequest;
 import com.apishield.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -31,8 +33,26 @@ public class AuthController {
 
     @PostMapping("/login")
     @Operation(summary = "Authenticate user and return JWT token")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
-        AuthResponse response = authService.login(loginRequest);
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest loginRequest,
+                                              HttpServletRequest request) {
+        // The client's address rather than the load balancer's: server.forward-headers-strategy
+        // lets Tomcat resolve it from X-Forwarded-For sent by a trusted proxy
+        AuthResponse response = authService.login(loginRequest, request.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Exchange a refresh token for a new access token and refresh token")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        AuthResponse response = authService.refresh(refreshTokenRequest);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Revoke the bearer token sent with the request, and the refresh token if given")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                       @RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
+        authService.logout(authorization, refreshTokenRequest != null ? refreshTokenRequest.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
 }
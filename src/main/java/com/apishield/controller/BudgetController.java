@@ -1,20 +1,27 @@
 package com.apishield.controller;
 
+import com.apishield.dto.budget.BudgetPeriodResponse;
 import com.apishield.dto.budget.BudgetRequest;
 import com.apishield.dto.budget.BudgetResponse;
 import com.apishield.dto.budget.BudgetUpdateRequest;
+import com.apishield.dto.budget.SpendForecastResponse;
+import com.apishield.dto.budget.SpendLedgerEntryResponse;
 import com.apishield.model.User;
 import com.apishield.service.BudgetService;
+import com.apishield.service.SpendForecastService;
 import com.apishield.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -26,6 +33,7 @@ public class BudgetController {
 
     private final BudgetService budgetService;
     private final UserService userService;
+    private final SpendForecastService spendForecastService;
 
     @PostMapping
     @Operation(summary = "Create or update monthly budget")
@@ -64,6 +72,34 @@ public class BudgetController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/ledger")
+    @Operation(summary = "Get spend ledger entries (audit trail of spent amount changes)")
+    public ResponseEntity<Page<SpendLedgerEntryResponse>> getLedger(
+            Authentication authentication,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        User user = userService.getCurrentUserEntity(authentication);
+        Page<SpendLedgerEntryResponse> ledger = budgetService.getLedger(user, PageRequest.of(page, size));
+        return ResponseEntity.ok(ledger);
+    }
+
+    @GetMapping("/forecast")
+    @Operation(summary = "Get projected end-of-period spend with a confidence interval")
+    public ResponseEntity<SpendForecastResponse> getSpendForecast(Authentication authentication) {
+        User user = userService.getCurrentUserEntity(authentication);
+        return ResponseEntity.ok(spendForecastService.forecast(user));
+    }
+
+    @GetMapping("/history")
+    @Operation(summary = "Get monthly budget periods with month-over-month spend change")
+    public ResponseEntity<List<BudgetPeriodResponse>> getBudgetHistory(
+            Authentication authentication,
+            @RequestParam(defaultValue = "6") int months) {
+        User user = userService.getCurrentUserEntity(authentication);
+        List<BudgetPeriodResponse> history = budgetService.getBudgetHistory(user, Math.max(1, Math.min(months, 24)));
+        return ResponseEntity.ok(history);
+    }
+
     @GetMapping("/status")
     @Operation(summary = "Get budget status summary")
     public ResponseEntity<Map<String, Object>> getBudgetStatus(Authentication authentication) {
@@ -88,6 +124,10 @@ public class BudgetController {
     public ResponseEntity<Map<String, Object>> getBudgetInsights(Authentication authentication) {
         User user = userService.getCurrentUserEntity(authentication);
         BudgetResponse budget = budgetService.getBudget(user);
+        SpendForecastResponse forecast = spendForecastService.forecast(user);
+
+        // Judge the month by the model forecast rather than day-of-month extrapolation
+        budget.setProjectedMonthlySpending(forecast.getExpectedPeriodSpend());
 
         String recommendation = generateRecommendation(budget);
         String spendingTrend = analyzeTrend(budget);
@@ -97,7 +137,8 @@ public class BudgetController {
                 "spendingTrend", spendingTrend,
                 "dailyBudgetRemaining", budget.getRemainingBudget() / budget.getDaysLeftInMonth(),
                 "spendingVelocity", budget.getDailySpendingRate(),
-                "budgetHealthScore", calculateHealthScore(budget)
+                "budgetHealthScore", calculateHealthScore(budget),
+                "forecast", forecast
         );
 
         return ResponseEntity.ok(insights);
@@ -1,6 +1,7 @@
 package com.apishield.controller;
 
 import com.apishield.dto.plan.*;
+import com.apishield.exception.BadRequestException;
 import com.apishield.model.User;
 import com.apishield.model.UserSubscription;
 import com.apishield.service.*;
@@ -13,12 +14,16 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 
@@ -64,10 +69,24 @@ public class PlanController {
     @Operation(summary = "Subscribe to a plan")
     public ResponseEntity<SubscriptionResponse> subscribe(
             Authentication authentication,
-            @Valid @RequestBody SubscribeRequest request) {
+            @Valid @RequestBody SubscribeRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         User user = userService.getCurrentUserEntity(authentication);
-        SubscriptionResponse response = subscriptionService.subscribe(user, request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        SubscriptionResponse response = subscriptionService.subscribe(user, request, idempotencyKey);
+        // Paid plans stay PENDING until the gateway answers
+        HttpStatus status = response.getStatus() == UserSubscription.Status.PENDING
+                ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @GetMapping("/payments/{idempotencyKey}")
+    @Operation(summary = "Get the status of a subscription or renewal payment")
+    public ResponseEntity<PaymentIntentResponse> getPayment(
+            Authentication authentication,
+            @Parameter(description = "Idempotency key of the payment") @PathVariable String idempotencyKey) {
+        User user = userService.getCurrentUserEntity(authentication);
+        PaymentIntentResponse payment = subscriptionService.getPaymentIntent(user, idempotencyKey);
+        return ResponseEntity.ok(payment);
     }
 
     @GetMapping("/current")
@@ -93,9 +112,14 @@ public class PlanController {
 
     @PostMapping("/renew")
     @Operation(summary = "Renew current subscription")
-    public ResponseEntity<SubscriptionResponse> renewSubscription(Authentication authentication) {
+    public ResponseEntity<SubscriptionResponse> renewSubscription(
+            Authentication authentication,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         User user = userService.getCurrentUserEntity(authentication);
-        SubscriptionResponse response = subscriptionService.renewSubscription(user);
+        SubscriptionResponse response = subscriptionService.renewSubscription(user, idempotencyKey);
+        if (response.getPaymentIntentKey() != null) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        }
         return ResponseEntity.ok(response);
     }
 
@@ -119,6 +143,35 @@ public class PlanController {
         return ResponseEntity.ok(history);
     }
 
+    @GetMapping("/billing/history/keyset")
+    @Operation(summary = "Get billing history a page at a time, continuing from the previous page's cursor")
+    public ResponseEntity<BillingHistoryPage> getBillingHistoryPage(
+            Authentication authentication,
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        User user = userService.getCurrentUserEntity(authentication);
+        BillingHistoryPage page = subscriptionService.getBillingHistoryPage(user, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/billing/export")
+    @Operation(summary = "Download the full billing history as CSV or NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportBillingHistory(
+            Authentication authentication,
+            @Parameter(description = "csv or ndjson") @RequestParam(defaultValue = "csv") String format) {
+        User user = userService.getCurrentUserEntity(authentication);
+        BillingExportFormat exportFormat = parseExportFormat(format);
+
+        // Rows are written as they are read, after this method has returned
+        StreamingResponseBody body = out -> subscriptionService.exportBillingHistory(user, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"billing-history." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/payment-methods")
     @Operation(summary = "Get available payment methods")
     public ResponseEntity<Map<String, Object>> getPaymentMethods(
@@ -162,4 +215,12 @@ public class PlanController {
         Map<String, Object> instructions = paymentService.generatePaymentInstructions(paymentMode, amount, currency);
         return ResponseEntity.ok(instructions);
     }
+
+    private BillingExportFormat parseExportFormat(String format) {
+        try {
+            return BillingExportFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported export format: " + format);
+        }
+    }
 }
@@ -14,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -73,8 +74,9 @@ public class SettingsController {
     @PostMapping("/currency/convert")
     @Operation(summary = "Convert currency amounts")
     public ResponseEntity<CurrencyConversionResponse> convertCurrency(
-            @Valid @RequestBody CurrencyConversionRequest request) {
-        CurrencyConversionResponse response = currencyService.convertCurrency(request);
+            @Valid @RequestBody CurrencyConversionRequest request,
+            Locale locale) {
+        CurrencyConversionResponse response = currencyService.convertCurrency(request, locale);
         return ResponseEntity.ok(response);
     }
 
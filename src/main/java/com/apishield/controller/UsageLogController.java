@@ -2,7 +2,9 @@ package com.apishield.controller;
 
 import java.util.Map;
 import com.apishield.dto.usage.*;
+import com.apishield.exception.ResourceNotFoundException;
 import com.apishield.model.User;
+import com.apishield.security.ApiKeyAuthenticationFilter;
 import com.apishield.service.ApiServiceService;
 import com.apishield.service.UsageLogService;
 import com.apishield.service.UserService;
@@ -32,10 +34,15 @@ public class UsageLogController {
     private final ApiServiceService apiServiceService;
 
     @PostMapping
-    @Operation(summary = "Create a new usage log entry")
+    @Operation(summary = "Create a new usage log entry (bearer token or X-API-Key)")
+    @SecurityRequirement(name = "apiKeyAuth")
     public ResponseEntity<UsageLogResponse> createUsageLog(
             Authentication authentication,
             @Valid @RequestBody UsageLogRequest request) {
+        // A key bound to one service sees every other service as missing
+        if (ApiKeyAuthenticationFilter.isOutsideKeyScope(authentication.getDetails(), request.getApiServiceId())) {
+            throw new ResourceNotFoundException("API service not found");
+        }
         User user = userService.getCurrentUserEntity(authentication);
         UsageLogResponse response = usageLogService.createUsageLog(user, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
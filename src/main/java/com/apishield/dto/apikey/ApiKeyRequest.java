@@ -0,0 +1,16 @@
+package com.apishield.dto.apikey;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ApiKeyRequest {
+
+    @NotBlank(message = "Key name is required")
+    @Size(min = 2, max = 128, message = "Name must be between 2 and 128 characters")
+    private String name;
+
+    // Optional: restrict the key to reporting usage for this one service
+    private Long apiServiceId;
+}
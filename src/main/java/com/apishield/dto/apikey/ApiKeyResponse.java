@@ -0,0 +1,27 @@
+package com.apishield.dto.apikey;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiKeyResponse {
+    private Long id;
+    private String name;
+    private String prefix;
+    private Long apiServiceId;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+    private LocalDateTime revokedAt;
+
+    // The full key, present only in the response that creates it
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String key;
+}
@@ -13,5 +13,8 @@ import lombok.NoArgsConstructor;
 public class AuthResponse {
     private String token;
     private String type = "Bearer";
+    // Seconds until the access token expires; exchange the refresh token before then
+    private Long expiresIn;
+    private String refreshToken;
     private UserResponse user;
 }
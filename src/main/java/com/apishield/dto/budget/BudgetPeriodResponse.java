@@ -0,0 +1,30 @@
+package com.apishield.dto.budget;
+
+import com.apishield.model.BudgetPeriod;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetPeriodResponse {
+    private Long id;
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    private String timezone;
+    private Double budgetAmount;
+    private Double spentAmount;
+    private Double remainingBudget;
+    private Double utilizationPercentage;
+    private BudgetPeriod.Status status;
+    private LocalDateTime closedAt;
+
+    // Comparison with the preceding period (null for the oldest period returned)
+    private Double changeFromPreviousPercentage;
+}
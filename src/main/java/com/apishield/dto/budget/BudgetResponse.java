@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
@@ -22,6 +23,12 @@ public class BudgetResponse {
     private Integer daysLeftInMonth;
     private Double dailySpendingRate;
     private Double projectedMonthlySpending;
+
+    // Current calendar budget period (user's timezone)
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    private Double periodSpentAmount;
+    private Double periodRemainingBudget;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -0,0 +1,28 @@
+package com.apishield.dto.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendForecastResponse {
+    private LocalDate periodEnd;
+    private Integer daysRemaining;
+    private Double spentToDate;
+
+    // Projected end-of-period spend with a confidence interval
+    private Double expectedPeriodSpend;
+    private Double lowerBound;
+    private Double upperBound;
+    private Double confidenceLevel;
+
+    private Integer servicesModeled;
+    private Integer holtWintersServices;
+    private Integer ewmaServices;
+}
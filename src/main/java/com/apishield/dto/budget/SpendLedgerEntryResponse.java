@@ -0,0 +1,23 @@
+package com.apishield.dto.budget;
+
+import com.apishield.model.SpendLedgerEntry;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendLedgerEntryResponse {
+    private Long id;
+    private Long apiServiceId;
+    private SpendLedgerEntry.EntryType entryType;
+    private Double usageDelta;
+    private Double costPerUnit;
+    private Double amount;
+    private LocalDateTime createdAt;
+}
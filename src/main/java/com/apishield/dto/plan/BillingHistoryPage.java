@@ -0,0 +1,18 @@
+package com.apishield.dto.plan;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillingHistoryPage {
+    private List<SubscriptionResponse> subscriptions;
+    private String nextCursor; // Pass back as cursor for the next page; null on the last page
+    private Boolean hasMore;
+}
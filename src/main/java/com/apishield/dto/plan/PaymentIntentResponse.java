@@ -0,0 +1,30 @@
+package com.apishield.dto.plan;
+
+import com.apishield.model.PaymentIntent;
+import com.apishield.model.User;
+import com.apishield.model.UserSubscription;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentIntentResponse {
+    private String idempotencyKey;
+    private PaymentIntent.Type type;
+    private PaymentIntent.Status status;
+    private Long subscriptionId;
+    private Double amount;
+    private User.Currency currency;
+    private UserSubscription.PaymentMode paymentMode;
+    private String transactionId;
+    private String failureReason;
+    private Integer attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -34,5 +34,6 @@ public class SubscriptionPlanResponse {
 
     // Plan comparison fields
     private String recommendation; // "Most Popular", "Best Value", etc.
+    private Boolean isRecommended; // Picked for the user by the nightly usage-based run
     private List<String> highlights; // Key selling points
 }
@@ -26,6 +26,8 @@ public class SubscriptionResponse {
     private String formattedAmountPaid;
     private User.Currency currencyPaid;
     private String paymentReference;
+    // Set while a payment is in progress; poll /api/plans/payments/{key} for its outcome
+    private String paymentIntentKey;
     private Boolean autoRenew;
     private LocalDateTime createdAt;
 
@@ -0,0 +1,15 @@
+package com.apishield.event;
+
+/**
+ * Published whenever a user's active subscription starts, ends or moves its end date,
+ * so anything caching what the user is entitled to can drop it.
+ */
+public record SubscriptionChangedEvent(Long userId, Reason reason) {
+
+    public enum Reason {
+        SUBSCRIBED,
+        CANCELLED,
+        RENEWED,
+        EXPIRED
+    }
+}
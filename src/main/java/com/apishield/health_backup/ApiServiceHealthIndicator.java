@@ -2,14 +2,13 @@ package com.apishield.health_backup;
 
 import com.apishield.repository.ApiServiceRepository;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 @Component
-public class ApiServiceHealthIndicator implements HealthIndicator {
+public class ApiServiceHealthIndicator extends CachedHealthIndicator {
 
     private final ApiServiceRepository apiServiceRepository;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -19,7 +18,7 @@ public class ApiServiceHealthIndicator implements HealthIndicator {
     }
 
     @Override
-    public Health health() {
+    protected Health check() {
         try {
             // Get basic service counts - these should work with standard JPA repository
             long totalServices = apiServiceRepository.count();
@@ -0,0 +1,283 @@
+package com.apishield.health_backup;
+
+import com.apishield.model.User;
+import com.apishield.repository.UserRepository;
+import com.apishield.security.JwtTokenUtil;
+import com.apishield.security.UserPrincipal;
+import com.apishield.service.EntitlementService;
+import com.apishield.util.CurrencyConverter;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Warms a new instance before readiness lets traffic in: fills the connection pool, runs
+ * the JWT sign and verify paths until the JIT has seen them, loads the rate snapshot and the
+ * plan catalogue, and sends {@code request-rounds} GETs to each of {@code paths} over the
+ * loopback connector. Those requests carry a token for {@code user-email} when one is set
+ * and so run the controllers in full; without it they stop at the security filters. They
+ * also carry a per-process marker so the rate limit and plan quota let them through.
+ * Starts once the application is ready and runs on a thread of its own; if it has not
+ * finished after {@code timeout-ms}, readiness stops waiting for it.
+ */
+@Component
+@Slf4j
+public class ApplicationWarmup {
+
+    private static final String SYNTHETIC_EMAIL = "warmup@apishield.local";
+    public static final String REQUEST_HEADER = "X-Warmup-Token";
+
+    private final DataSource dataSource;
+    private final JwtTokenUtil jwtTokenUtil;
+    private final CurrencyConverter currencyConverter;
+    private final EntitlementService entitlementService;
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final int iterations;
+    private final int requestRounds;
+    private final long timeoutNanos;
+    private final List<String> paths;
+    private final String userEmail;
+
+    // Random per process and never logged, so only this instance's own warm-up requests carry it
+    private final String requestToken = newRequestToken();
+    private final Map<String, Object> steps = new LinkedHashMap<>();
+    private volatile long startedAtNanos;
+    private volatile boolean started;
+    private volatile boolean complete;
+
+    public ApplicationWarmup(DataSource dataSource,
+                             JwtTokenUtil jwtTokenUtil,
+                             CurrencyConverter currencyConverter,
+                             EntitlementService entitlementService,
+                             UserRepository userRepository,
+                             @Value("${apishield.warmup.enabled:true}") boolean enabled,
+                             @Value("${apishield.warmup.iterations:2000}") int iterations,
+                             @Value("${apishield.warmup.request-rounds:20}") int requestRounds,
+                             @Value("${apishield.warmup.timeout-ms:120000}") long timeoutMs,
+                             @Value("${apishield.warmup.paths:/api/plans,/api/plans/current,/api/services,/api/usage/summary,/api/budget,/api/alerts}") List<String> paths,
+                             @Value("${apishield.warmup.user-email:}") String userEmail) {
+        this.dataSource = dataSource;
+        this.jwtTokenUtil = jwtTokenUtil;
+        this.currencyConverter = currencyConverter;
+        this.entitlementService = entitlementService;
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.requestRounds = requestRounds;
+        this.timeoutNanos = timeoutMs * 1_000_000L;
+        this.paths = paths;
+        this.userEmail = userEmail;
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (!enabled) {
+            started = true;
+            complete = true;
+            log.info("Warm-up disabled, reporting ready immediately");
+            return;
+        }
+
+        // No web server in a mock environment, so there is nothing to send requests to
+        int port = event.getApplicationContext() instanceof WebServerApplicationContext web
+                ? web.getWebServer().getPort() : -1;
+        Thread thread = new Thread(() -> run(port), "warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Run every step in turn. A step that fails is logged and skipped; the rest still run.
+     */
+    void run(int port) {
+        startedAtNanos = System.nanoTime();
+        started = true;
+        log.info("Warming up before accepting traffic");
+
+        step("connection_pool", this::primeConnectionPool);
+        step("jwt", this::primeJwt);
+        step("currency_rates", () -> {
+            currencyConverter.getSnapshot();
+            return "loaded";
+        });
+        step("plan_catalogue", () -> entitlementService.getActivePlans().size() + " active plans");
+        if (port > 0) {
+            step("requests", () -> primeControllers(port));
+        }
+
+        complete = true;
+        log.info("Warm-up finished in {} ms: {}", (System.nanoTime() - startedAtNanos) / 1_000_000, getSteps());
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * True once the warm-up has finished, or has run for longer than {@code timeout-ms}
+     */
+    public boolean isReady() {
+        return complete || (started && System.nanoTime() - startedAtNanos > timeoutNanos);
+    }
+
+    /**
+     * Whether the request is one of this warm-up's own. Always false once the warm-up is over.
+     */
+    public boolean isWarmupRequest(HttpServletRequest request) {
+        String token = request.getHeader(REQUEST_HEADER);
+        return !complete && token != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), requestToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Map<String, Object> getSteps() {
+        synchronized (steps) {
+            return new LinkedHashMap<>(steps);
+        }
+    }
+
+    private void step(String name, WarmupStep step) {
+        long start = System.nanoTime();
+        String outcome;
+        try {
+            outcome = step.run();
+        } catch (Exception e) {
+            log.warn("Warm-up step {} failed: {}", name, e.getMessage());
+            outcome = "failed: " + e.getMessage();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        synchronized (steps) {
+            steps.put(name, outcome + " in " + elapsedMs + " ms");
+        }
+    }
+
+    /**
+     * Hold as many connections at once as the pool keeps idle, so each is opened and
+     * validated now rather than by the first requests
+     */
+    private String primeConnectionPool() throws SQLException {
+        int size = dataSource.isWrapperFor(HikariDataSource.class)
+                ? Math.max(1, dataSource.unwrap(HikariDataSource.class).getMinimumIdle()) : 1;
+        List<Connection> held = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                held.add(connection);
+                connection.isValid(1);
+            }
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+        return held.size() + " connections";
+    }
+
+    private String primeJwt() {
+        User user = User.builder()
+                .id(0L)
+                .name("warmup")
+                .email(SYNTHETIC_EMAIL)
+                .password("")
+                .role(User.Role.USER)
+                .build();
+        Authentication authentication = authenticationFor(UserPrincipal.create(user));
+
+        int done = 0;
+        while (done < iterations && !timedOut()) {
+            String token = jwtTokenUtil.generateJwtToken(authentication);
+            jwtTokenUtil.parseAndValidate(token);
+            jwtTokenUtil.getEmailFromJwtToken(token);
+            done++;
+        }
+        return done + " tokens";
+    }
+
+    private String primeControllers(int port) throws InterruptedException {
+        String authorization = null;
+        if (!userEmail.isBlank()) {
+            User user = userRepository.findByEmail(userEmail).orElse(null);
+            if (user != null) {
+                authorization = "Bearer " + jwtTokenUtil.generateJwtToken(authenticationFor(UserPrincipal.create(user)));
+            } else {
+                log.warn("Warm-up user {} not found, sending requests unauthenticated", userEmail);
+            }
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        int sent = 0;
+        int serverErrors = 0;
+        int clientErrors = 0;
+        for (int round = 0; round < requestRounds && !timedOut(); round++) {
+            for (String path : paths) {
+                HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path.trim()))
+                        .timeout(Duration.ofSeconds(5))
+                        .header(REQUEST_HEADER, requestToken)
+                        .GET();
+                if (authorization != null) {
+                    request.header("Authorization", authorization);
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 500) {
+                        serverErrors++;
+                    } else if (response.statusCode() >= 400) {
+                        clientErrors++;
+                    }
+                } catch (IOException e) {
+                    log.debug("Warm-up request to {} failed: {}", path, e.getMessage());
+                    serverErrors++;
+                }
+                sent++;
+            }
+        }
+        return sent + " requests (" + serverErrors + " failed, " + clientErrors + " rejected, "
+                + (authorization != null ? "authenticated" : "unauthenticated") + ")";
+    }
+
+    private static String newRequestToken() {
+        byte[] bytes = new byte[24];
+        new SecureRandom().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    private boolean timedOut() {
+        return System.nanoTime() - startedAtNanos > timeoutNanos;
+    }
+
+    private static Authentication authenticationFor(UserPrincipal principal) {
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    @FunctionalInterface
+    private interface WarmupStep {
+        String run() throws Exception;
+    }
+}
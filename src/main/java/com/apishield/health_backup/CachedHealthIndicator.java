@@ -0,0 +1,79 @@
+package com.apishield.health_backup;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A health indicator whose check runs in the background on {@link HealthSnapshotRefresher}.
+ * Probes only read the last result, so they never touch the database and return at once
+ * even while it is slow. A result older than {@code stale-after-ms} is reported as UNKNOWN
+ * with the last status as a detail, since it no longer says anything about now.
+ */
+public abstract class CachedHealthIndicator implements HealthIndicator {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Value("${apishield.health.stale-after-ms:60000}")
+    private long staleAfterMs = 60000;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * The actual check; may block on I/O
+     */
+    protected abstract Health check();
+
+    public void refresh() {
+        long start = System.nanoTime();
+        Health health;
+        try {
+            health = check();
+        } catch (Exception e) {
+            health = Health.down()
+                    .withDetail("error", e.getClass().getSimpleName())
+                    .withDetail("error_message", e.getMessage() != null ? e.getMessage() : "Unknown error occurred")
+                    .build();
+        }
+        long now = System.nanoTime();
+        snapshot = new Snapshot(health, LocalDateTime.now(), now, (now - start) / 1_000_000);
+    }
+
+    @Override
+    public Health health() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Health.unknown()
+                    .withDetail("status", "Not checked yet")
+                    .build();
+        }
+
+        long ageMs = (System.nanoTime() - current.takenAtNanos()) / 1_000_000;
+        boolean stale = ageMs > staleAfterMs;
+        Health.Builder builder = stale
+                ? Health.unknown().withDetail("last_status", current.health().getStatus().getCode())
+                : Health.status(current.health().getStatus());
+        return builder
+                .withDetails(current.health().getDetails())
+                .withDetail("checked_at", current.takenAt().format(FORMATTER))
+                .withDetail("age_ms", ageMs)
+                .withDetail("check_duration_ms", current.durationMs())
+                .withDetail("stale", stale)
+                .build();
+    }
+
+    /**
+     * Status of the last check regardless of its age, or UNKNOWN before the first one
+     */
+    public Status getLastStatus() {
+        Snapshot current = snapshot;
+        return current != null ? current.health().getStatus() : Status.UNKNOWN;
+    }
+
+    private record Snapshot(Health health, LocalDateTime takenAt, long takenAtNanos, long durationMs) {
+    }
+}
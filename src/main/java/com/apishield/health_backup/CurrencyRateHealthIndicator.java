@@ -1,14 +1,13 @@
 package com.apishield.health_backup;
 import com.apishield.repository.CurrencyRateRepository;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 @Component
-public class CurrencyRateHealthIndicator implements HealthIndicator {
+public class CurrencyRateHealthIndicator extends CachedHealthIndicator {
 
     private final CurrencyRateRepository currencyRateRepository;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -18,7 +17,7 @@ public class CurrencyRateHealthIndicator implements HealthIndicator {
     }
 
     @Override
-    public Health health() {
+    protected Health check() {
         try {
             // Use basic count method that should exist
             long totalRates = currencyRateRepository.count();
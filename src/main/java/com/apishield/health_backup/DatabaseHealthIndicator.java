@@ -1,14 +1,13 @@
 package com.apishield.health_backup;
 
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 
 @Component
-public class DatabaseHealthIndicator implements HealthIndicator {
+public class DatabaseHealthIndicator extends CachedHealthIndicator {
 
     private final DataSource dataSource;
 
@@ -17,7 +16,7 @@ public class DatabaseHealthIndicator implements HealthIndicator {
     }
 
     @Override
-    public Health health() {
+    protected Health check() {
         try (Connection connection = dataSource.getConnection()) {
             // Just check if we can get a connection
             if (connection.isValid(1)) {
@@ -0,0 +1,58 @@
+package com.apishield.health_backup;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every {@link CachedHealthIndicator}'s check every {@code refresh-ms} on a thread of
+ * its own, rather than on the shared scheduler, so a check stuck on a slow database delays
+ * only the next health refresh and not the application's scheduled jobs.
+ */
+@Component
+@Slf4j
+public class HealthSnapshotRefresher {
+
+    private final List<CachedHealthIndicator> indicators;
+    private final long refreshMs;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "health-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public HealthSnapshotRefresher(List<CachedHealthIndicator> indicators,
+                                   @Value("${apishield.health.refresh-ms:15000}") long refreshMs) {
+        this.indicators = indicators;
+        this.refreshMs = refreshMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::refreshAll, 0L, refreshMs, TimeUnit.MILLISECONDS);
+        log.info("Refreshing {} health indicators every {} ms", indicators.size(), refreshMs);
+    }
+
+    public void refreshAll() {
+        for (CachedHealthIndicator indicator : indicators) {
+            try {
+                indicator.refresh();
+            } catch (Exception e) {
+                // refresh() reports failures as DOWN itself; never let one stop the schedule
+                log.error("Error refreshing health indicator {}", indicator.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
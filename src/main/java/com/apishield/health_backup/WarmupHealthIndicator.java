@@ -0,0 +1,26 @@
+package com.apishield.health_backup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * OUT_OF_SERVICE until {@link ApplicationWarmup} is done, so the readiness group keeps a new
+ * instance out of rotation while it warms up. Reads a flag; the probe itself does no work.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final ApplicationWarmup warmup;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = warmup.isReady() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("complete", warmup.isComplete())
+                .withDetails(warmup.getSteps())
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.apishield.metrics;
+
+import com.apishield.security.PrincipalCache;
+import com.apishield.security.VerifiedTokenCache;
+import com.apishield.service.EntitlementService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the hit and miss counts and sizes of the in-memory caches under the names
+ * Micrometer uses for its own cache binders ({@code cache.gets} tagged {@code result=hit|miss},
+ * and {@code cache.size}), so the usual hit ratio query works unchanged:
+ * {@code rate(cache_gets_total{result="hit"}[5m]) / rate(cache_gets_total[5m])}.
+ * The counters are read when scraped; the caches themselves only bump an atomic.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics implements MeterBinder {
+
+    private final PrincipalCache principalCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final EntitlementService entitlementService;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "principals", principalCache,
+                PrincipalCache::getHitCount, PrincipalCache::getMissCount, PrincipalCache::size);
+        bind(registry, "verified_tokens", verifiedTokenCache,
+                VerifiedTokenCache::getHitCount, VerifiedTokenCache::getMissCount, VerifiedTokenCache::size);
+        bind(registry, "entitlements", entitlementService,
+                EntitlementService::getHitCount, EntitlementService::getMissCount, EntitlementService::size);
+
+        FunctionCounter.builder("cache.evictions", verifiedTokenCache, VerifiedTokenCache::getEvictionCount)
+                .tag("cache", "verified_tokens")
+                .description("Entries dropped to stay under the size limit")
+                .register(registry);
+    }
+
+    private static <T> void bind(MeterRegistry registry, String cache, T source,
+                                 ToDoubleFunction<T> hits, ToDoubleFunction<T> misses, ToDoubleFunction<T> size) {
+        FunctionCounter.builder("cache.gets", source, hits)
+                .tag("cache", cache)
+                .tag("result", "hit")
+                .description("Lookups answered from the cache")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", source, misses)
+                .tag("cache", cache)
+                .tag("result", "miss")
+                .description("Lookups that had to load the value")
+                .register(registry);
+        Gauge.builder("cache.size", source, size)
+                .tag("cache", cache)
+                .description("Entries currently held")
+                .register(registry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.apishield.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link LatencyHistogram} per endpoint, keyed by method and route template
+ * ({@code GET /api/plans/{id}}) so the number of keys stays that of the routes. Past
+ * {@code max-endpoints} new keys are folded into {@link #OTHER}.
+ */
+public class EndpointLatencies {
+
+    public static final String OTHER = "OTHER";
+
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final int maxEndpoints;
+
+    public EndpointLatencies(int maxEndpoints) {
+        this.maxEndpoints = maxEndpoints;
+    }
+
+    public void record(String endpoint, long durationNanos) {
+        LatencyHistogram histogram = histograms.get(endpoint);
+        if (histogram == null) {
+            String key = histograms.size() < maxEndpoints ? endpoint : OTHER;
+            histogram = histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+        }
+        histogram.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count, percentiles and maximum in milliseconds for each endpoint, sorted by endpoint
+     */
+    public Map<String, Map<String, Object>> getPercentiles() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        histograms.forEach((endpoint, histogram) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", histogram.getCount());
+            for (double percentile : PERCENTILES) {
+                stats.put("p" + format(percentile), toMs(histogram.getValueAtPercentile(percentile)));
+            }
+            stats.put("max", toMs(histogram.getMaxMicros()));
+            result.put(endpoint, stats);
+        });
+        return result;
+    }
+
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile)
+                ? String.valueOf((long) percentile)
+                : String.valueOf(percentile).replace(".", "");
+    }
+
+    private static double toMs(long micros) {
+        return micros / 1000.0;
+    }
+}
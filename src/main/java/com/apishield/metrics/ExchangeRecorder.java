@@ -0,0 +1,115 @@
+package com.apishield.metrics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the most recent sampled HTTP exchanges in a fixed ring buffer. A writer claims a slot
+ * with one atomic increment and overwrites whatever was there, so recording never blocks and
+ * memory stays at {@code capacity} entries. Which exchanges are kept is decided up front by
+ * {@link #sample}: every server error and every slow request, and {@code sample-rate} of the rest.
+ * Header values named in {@code redact-headers} are replaced before the entry is stored.
+ */
+public class ExchangeRecorder {
+
+    static final String REDACTED = "******";
+
+    private final AtomicReferenceArray<SampledExchange> slots;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    private final double sampleRate;
+    private final long slowNanos;
+    private final Set<String> redactedHeaders;
+
+    /**
+     * @param capacity entries kept, rounded up to a power of two
+     * @param sampleRate share of ordinary requests kept, 0 to 1
+     * @param slowMs requests at least this slow are always kept
+     * @param redactedHeaders header names, any case, whose values are never stored
+     */
+    public ExchangeRecorder(int capacity, double sampleRate, long slowMs, Set<String> redactedHeaders) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.sampleRate = sampleRate;
+        this.slowNanos = slowMs * 1_000_000L;
+        this.redactedHeaders = redactedHeaders.stream()
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Why this exchange should be kept, or null to drop it
+     */
+    public String sample(int status, long durationNanos) {
+        if (status >= 500) {
+            return "error";
+        }
+        if (durationNanos >= slowNanos) {
+            return "slow";
+        }
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            return "sampled";
+        }
+        return null;
+    }
+
+    public void record(SampledExchange exchange) {
+        slots.set((int) (cursor.getAndIncrement() & mask), exchange);
+    }
+
+    /**
+     * Copy of the headers with sensitive values replaced
+     */
+    public Map<String, List<String>> redact(Map<String, List<String>> headers) {
+        Map<String, List<String>> redacted = new LinkedHashMap<>(headers.size());
+        headers.forEach((name, values) -> redacted.put(name,
+                redactedHeaders.contains(name.toLowerCase(Locale.ROOT)) ? List.of(REDACTED) : values));
+        return redacted;
+    }
+
+    /**
+     * The stored exchanges, newest first
+     */
+    public List<SampledExchange> getExchanges() {
+        long end = cursor.get();
+        long start = Math.max(0L, end - slots.length());
+        List<SampledExchange> exchanges = new ArrayList<>((int) (end - start));
+        for (long i = end - 1; i >= start; i--) {
+            SampledExchange exchange = slots.get((int) (i & mask));
+            if (exchange != null) {
+                exchanges.add(exchange);
+            }
+        }
+        return Collections.unmodifiableList(exchanges);
+    }
+
+    public long getRecordedCount() {
+        return cursor.get();
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    public record SampledExchange(Instant timestamp,
+                                  String method,
+                                  String path,
+                                  String endpoint,
+                                  int status,
+                                  long durationMicros,
+                                  String reason,
+                                  Map<String, List<String>> requestHeaders,
+                                  Map<String, List<String>> responseHeaders) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.apishield.metrics;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times every request into {@link EndpointLatencies} and hands the few that
+ * {@link ExchangeRecorder#sample} keeps to the recorder. Runs first, so the time includes the
+ * security filters; headers are only copied for the sampled requests. Async requests such as
+ * streamed exports are timed to the end of the response, not the end of the first dispatch.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ExchangeSamplingFilter extends OncePerRequestFilter {
+
+    private static final String UNMATCHED = "UNMATCHED";
+
+    private final ExchangeRecorder recorder;
+    private final EndpointLatencies latencies;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, start, false);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, start, failed);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, long start, boolean failed) {
+        long durationNanos = System.nanoTime() - start;
+        // An exception escaping the chain becomes a 500 once the container handles it
+        int status = failed ? 500 : response.getStatus();
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : UNMATCHED);
+        latencies.record(endpoint, durationNanos);
+
+        String reason = recorder.sample(status, durationNanos);
+        if (reason != null) {
+            recorder.record(new ExchangeRecorder.SampledExchange(
+                    Instant.now(),
+                    request.getMethod(),
+                    // The query string is left out; it can carry tokens and personal data
+                    request.getRequestURI(),
+                    endpoint,
+                    status,
+                    durationNanos / 1000,
+                    reason,
+                    recorder.redact(requestHeaders(request)),
+                    recorder.redact(responseHeaders(response))));
+        }
+    }
+
+    private static Map<String, List<String>> requestHeaders(HttpServletRequest request) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            headers.put(name, Collections.list(request.getHeaders(name)));
+        }
+        return headers;
+    }
+
+    private static Map<String, List<String>> responseHeaders(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            headers.putIfAbsent(name, List.copyOf(response.getHeaders(name)));
+        }
+        return headers;
+    }
+}
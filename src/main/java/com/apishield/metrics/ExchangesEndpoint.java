@@ -0,0 +1,32 @@
+package com.apishield.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/exchanges}: the sampled exchanges held by {@link ExchangeRecorder},
+ * newest first, with sensitive headers redacted
+ */
+@Component
+@Endpoint(id = "exchanges")
+@RequiredArgsConstructor
+public class ExchangesEndpoint {
+
+    private final ExchangeRecorder recorder;
+
+    @ReadOperation
+    public Map<String, Object> exchanges() {
+        List<ExchangeRecorder.SampledExchange> exchanges = recorder.getExchanges();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("capacity", recorder.getCapacity());
+        result.put("recorded", recorder.getRecordedCount());
+        result.put("exchanges", exchanges);
+        return result;
+    }
+}
@@ -0,0 +1,46 @@
+package com.apishield.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run durations and item counts of the scheduled jobs: {@code apishield.job.duration} tagged
+ * with the job and whether the run failed, and {@code apishield.job.items} with how many
+ * users, rates or subscriptions it got through.
+ */
+@Component
+@RequiredArgsConstructor
+public class JobMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Record a finished run that started at {@code startNanos} ({@link System#nanoTime()})
+     */
+    public void recordRun(String job, long startNanos, long items) {
+        record(job, startNanos, "success");
+        Counter.builder("apishield.job.items")
+                .description("Items processed by scheduled jobs")
+                .tag("job", job)
+                .register(meterRegistry)
+                .increment(items);
+    }
+
+    public void recordFailure(String job, long startNanos) {
+        record(job, startNanos, "failure");
+    }
+
+    private void record(String job, long startNanos, String outcome) {
+        Timer.builder("apishield.job.duration")
+                .description("Duration of scheduled job runs")
+                .tag("job", job)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,31 @@
+package com.apishield.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/latency}: count, p50, p90, p99, p99.9 and max in milliseconds per
+ * endpoint since start-up or the last {@code DELETE /actuator/latency}
+ */
+@Component
+@Endpoint(id = "latency")
+@RequiredArgsConstructor
+public class LatencyEndpoint {
+
+    private final EndpointLatencies latencies;
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> latencies() {
+        return latencies.getPercentiles();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        latencies.reset();
+    }
+}
@@ -0,0 +1,60 @@
+package com.apishield.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Machine credential for usage ingestion. Only the SHA-256 of the key is stored; the
+ * prefix is the non-secret part of the key that finds the row without scanning.
+ */
+@Entity
+@Table(name = "api_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_api_keys_prefix", columnNames = "prefix"),
+        indexes = @Index(name = "idx_api_keys_user", columnList = "user_id"))
+@EntityListeners(AuditingEntityListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ApiKey {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    // Optional: a key bound to one service may only report usage for that service
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "api_service_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private ApiService apiService;
+
+    @Column(nullable = false, length = 128)
+    private String name;
+
+    @Column(nullable = false, length = 16, updatable = false)
+    private String prefix;
+
+    @Column(name = "key_hash", nullable = false, length = 64, updatable = false)
+    private String keyHash;
+
+    @Builder.Default
+    @Column(name = "is_active", nullable = false)
+    private Boolean isActive = true;
+
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+}
@@ -2,6 +2,7 @@ package com.apishield.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -11,6 +12,9 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "budgets")
 @EntityListeners(AuditingEntityListener.class)
+// spent_amount is moved by single-statement increments from the spend ledger; writing only the
+// changed columns keeps a save of a budget loaded earlier from putting back a stale total
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
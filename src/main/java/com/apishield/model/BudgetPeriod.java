@@ -0,0 +1,97 @@
+package com.apishield.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Entity
+@Table(name = "budget_periods",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "period_start"}),
+        indexes = @Index(name = "idx_budget_periods_status_end", columnList = "status, period_end"))
+@EntityListeners(AuditingEntityListener.class)
+// Like Budget, spent_amount only moves through single-statement increments
+@DynamicUpdate
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BudgetPeriod {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart; // First day of the month in the user's timezone
+
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd; // Last day of the month in the user's timezone
+
+    @Column(name = "timezone", nullable = false)
+    private String timezone;
+
+    @Column(name = "budget_amount", nullable = false)
+    private Double budgetAmount;
+
+    @Builder.Default
+    @Column(name = "spent_amount", nullable = false)
+    private Double spentAmount = 0.0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    @CreatedDate
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Status {
+        OPEN,
+        CLOSED
+    }
+
+    // Helper methods
+    @Transient
+    public ZoneId getZoneId() {
+        try {
+            return ZoneId.of(timezone);
+        } catch (Exception e) {
+            return ZoneId.of("UTC");
+        }
+    }
+
+    @Transient
+    public double getRemainingBudget() {
+        return Math.max(0.0, budgetAmount - spentAmount);
+    }
+
+    @Transient
+    public double getUtilizationPercentage() {
+        if (budgetAmount == null || budgetAmount == 0.0) {
+            return 0.0;
+        }
+        return (spentAmount / budgetAmount) * 100.0;
+    }
+
+    @Transient
+    public boolean isDueForRollover() {
+        return status == Status.OPEN && LocalDate.now(getZoneId()).isAfter(periodEnd);
+    }
+}
@@ -0,0 +1,40 @@
+package com.apishield.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of every exchange rate written, so past amounts can be converted at
+ * the rate in force when they were incurred. Rows are never updated or deleted.
+ */
+@Entity
+@Table(name = "currency_rate_history",
+        indexes = @Index(name = "idx_rate_history_pair_effective", columnList = "from_currency, to_currency, effective_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CurrencyRateHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_currency", nullable = false, updatable = false)
+    private User.Currency fromCurrency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_currency", nullable = false, updatable = false)
+    private User.Currency toCurrency;
+
+    @Column(nullable = false, updatable = false)
+    private Double rate;
+
+    @Column(name = "source", updatable = false)
+    private String source;
+
+    @Column(name = "effective_at", nullable = false, updatable = false)
+    private LocalDateTime effectiveAt;
+}
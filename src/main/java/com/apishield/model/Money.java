@@ -0,0 +1,195 @@
+package com.apishield.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Immutable monetary amount held as a long count of millionths of the currency unit.
+ * Fixed-point arithmetic keeps repeated additions exact, unlike summing doubles, and
+ * six decimal places are enough for per-request costs such as 0.0005.
+ * Amounts in different currencies are never combined implicitly.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 6;
+    private static final long UNIT = 1_000_000L;
+
+    // Currency that unlabelled Double amounts are assumed to be in
+    public static final User.Currency BASE_CURRENCY = User.Currency.USD;
+
+    private static final Money[] ZEROS = new Money[User.Currency.values().length];
+
+    static {
+        for (User.Currency currency : User.Currency.values()) {
+            ZEROS[currency.ordinal()] = new Money(0L, currency);
+        }
+    }
+
+    private final long micros;
+    private final User.Currency currency;
+
+    private Money(long micros, User.Currency currency) {
+        this.micros = micros;
+        this.currency = currency;
+    }
+
+    public static Money of(double amount, User.Currency currency) {
+        Objects.requireNonNull(currency, "currency");
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Amount must be finite: " + amount);
+        }
+        return ofMicros(Math.round(amount * UNIT), currency);
+    }
+
+    public static Money of(BigDecimal amount, User.Currency currency) {
+        Objects.requireNonNull(currency, "currency");
+        return ofMicros(amount.movePointRight(SCALE).setScale(0, RoundingMode.HALF_UP).longValueExact(), currency);
+    }
+
+    public static Money ofMicros(long micros, User.Currency currency) {
+        return micros == 0L ? zero(currency) : new Money(micros, currency);
+    }
+
+    /**
+     * Null-safe wrapper for the Double amounts stored on entities
+     */
+    public static Money ofNullable(Double amount, User.Currency currency) {
+        return amount == null ? zero(currency) : of(amount, currency);
+    }
+
+    public static Money zero(User.Currency currency) {
+        return ZEROS[currency.ordinal()];
+    }
+
+    public long getMicros() {
+        return micros;
+    }
+
+    public User.Currency getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal getAmount() {
+        return BigDecimal.valueOf(micros, SCALE);
+    }
+
+    public double toDouble() {
+        return micros / (double) UNIT;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return other.micros == 0L ? this : ofMicros(Math.addExact(micros, other.micros), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return other.micros == 0L ? this : ofMicros(Math.subtractExact(micros, other.micros), currency);
+    }
+
+    public Money times(long quantity) {
+        return ofMicros(Math.multiplyExact(micros, quantity), currency);
+    }
+
+    public Money times(double factor) {
+        return ofMicros(Math.round(micros * factor), currency);
+    }
+
+    public Money dividedBy(long divisor) {
+        if (divisor == 0L) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return ofMicros(Math.round(micros / (double) divisor), currency);
+    }
+
+    public Money negate() {
+        return ofMicros(Math.negateExact(micros), currency);
+    }
+
+    public Money max(Money other) {
+        requireSameCurrency(other);
+        return micros >= other.micros ? this : other;
+    }
+
+    /**
+     * This amount as a percentage of another (0 when the other amount is zero)
+     */
+    public double percentageOf(Money total) {
+        requireSameCurrency(total);
+        return total.micros == 0L ? 0.0 : micros * 100.0 / total.micros;
+    }
+
+    /**
+     * Round half away from zero to the currency's minor unit (cents for USD, whole yen for JPY)
+     */
+    public Money roundToMinorUnit() {
+        long step = UNIT / pow10(currency.getFractionDigits());
+        long remainder = micros % step;
+        if (remainder == 0L) {
+            return this;
+        }
+        long truncated = micros - remainder;
+        return ofMicros(Math.abs(remainder) * 2 >= step ? truncated + Long.signum(micros) * step : truncated, currency);
+    }
+
+    public boolean isZero() {
+        return micros == 0L;
+    }
+
+    public boolean isPositive() {
+        return micros > 0L;
+    }
+
+    public boolean isNegative() {
+        return micros < 0L;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return compareTo(other) > 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(micros, other.micros);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money other)) return false;
+        return micros == other.micros && currency == other.currency;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(micros) + currency.hashCode();
+    }
+
+    /**
+     * Plain amount followed by the currency code, e.g. "12.500000 USD"
+     */
+    @Override
+    public String toString() {
+        return getAmount().toPlainString() + " " + currency.name();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (other.currency != currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1L;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10L;
+        }
+        return result;
+    }
+}
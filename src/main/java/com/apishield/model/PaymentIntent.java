@@ -0,0 +1,120 @@
+package com.apishield.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A payment that has been asked for but not necessarily made yet. The intent is written in
+ * the same short transaction as the subscription change it pays for; the gateway is called
+ * afterwards with no transaction open, and the outcome is applied in another short one.
+ */
+@Entity
+@Table(name = "payment_intents",
+        uniqueConstraints = @UniqueConstraint(name = PaymentIntent.IDEMPOTENCY_KEY_CONSTRAINT, columnNames = "idempotency_key"),
+        indexes = @Index(name = "idx_payment_intents_status_updated", columnList = "status, updated_at"))
+@EntityListeners(AuditingEntityListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentIntent {
+    public static final String IDEMPOTENCY_KEY_CONSTRAINT = "uk_payment_intents_idempotency_key";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Also sent to the gateway, so a retried charge is never taken twice
+    @Column(name = "idempotency_key", nullable = false, length = 128, updatable = false)
+    private String idempotencyKey;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subscription_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private UserSubscription subscription;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.CREATED;
+
+    @Column(nullable = false)
+    private Double amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private User.Currency currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_mode", nullable = false)
+    private UserSubscription.PaymentMode paymentMode;
+
+    @Column(length = 255)
+    private String description;
+
+    @Column(name = "transaction_id")
+    private String transactionId;
+
+    @Column(name = "payment_details", columnDefinition = "TEXT")
+    private String paymentDetails;
+
+    @Column(name = "failure_reason")
+    private String failureReason;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum Type {
+        SUBSCRIBE,
+        RENEWAL
+    }
+
+    public enum Status {
+        CREATED,
+        PROCESSING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    /**
+     * Key of the renewal payment for one billing period, shared by manual and automatic
+     * renewals so the same period is never charged twice
+     */
+    public static String renewalKey(Long subscriptionId, LocalDate endDate) {
+        return "renewal-" + subscriptionId + "-" + endDate;
+    }
+
+    @Transient
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+}
@@ -0,0 +1,46 @@
+package com.apishield.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The plan the nightly recommendation run picked for a user, with the projection it was
+ * based on. One row per user, overwritten on every run.
+ */
+@Entity
+@Table(name = "plan_recommendations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_plan_recommendations_user", columnNames = "user_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlanRecommendation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "plan_id", nullable = false)
+    private Long planId;
+
+    @Column(name = "projected_requests", nullable = false)
+    private Long projectedRequests;
+
+    @Column(name = "projected_api_services", nullable = false)
+    private Integer projectedApiServices;
+
+    // Full or extrapolated months the projection was drawn from
+    @Column(name = "months_observed", nullable = false)
+    private Integer monthsObserved;
+
+    // Share of the plan's limit left after the projected use, negative if even this plan is too small
+    @Column(name = "headroom", nullable = false)
+    private Double headroom;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,38 @@
+package com.apishield.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Requests a user has made against their plan's monthly quota. Counted in memory and
+ * flushed here periodically as increments, so several instances add up rather than
+ * overwrite each other.
+ */
+@Entity
+@Table(name = "request_quota_usage",
+        uniqueConstraints = @UniqueConstraint(name = "uk_request_quota_user_period", columnNames = {"user_id", "period_start"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RequestQuotaUsage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // First day of the calendar month the count belongs to
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "request_count", nullable = false)
+    private Long requestCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
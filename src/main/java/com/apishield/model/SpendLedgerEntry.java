@@ -0,0 +1,54 @@
+package com.apishield.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "spend_ledger",
+        indexes = @Index(name = "idx_spend_ledger_user_created", columnList = "user_id, created_at"))
+@EntityListeners(AuditingEntityListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpendLedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Plain id rather than a relation so entries outlive the API service they describe
+    @Column(name = "api_service_id")
+    private Long apiServiceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 32)
+    private EntryType entryType;
+
+    @Column(name = "usage_delta", nullable = false)
+    private Double usageDelta;
+
+    @Column(name = "cost_per_unit", nullable = false)
+    private Double costPerUnit;
+
+    @Column(nullable = false)
+    private Double amount; // Signed change applied to the user's spent amount
+
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum EntryType {
+        USAGE,           // Usage count moved at the current cost per unit
+        COST_CHANGE,     // Cost per unit changed, re-pricing existing usage
+        SERVICE_REMOVED, // API service deleted, its spend is reversed
+        ADJUSTMENT       // Reconciliation against the API service totals
+    }
+}
@@ -1,5 +1,7 @@
 package com.apishield.model;
 
+import com.apishield.service.PlanCatalogueInvalidator;
+import com.apishield.util.AmountFormatter;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
@@ -7,11 +9,13 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Entity
 @Table(name = "subscription_plans")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, PlanCatalogueInvalidator.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,6 +34,15 @@ public class SubscriptionPlan {
     @Column(name = "price_inr", nullable = false)
     private Double priceInr;
 
+    // List prices in currencies other than USD and INR; plans without one are charged their USD price converted
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "subscription_plan_prices", joinColumns = @JoinColumn(name = "plan_id"))
+    @MapKeyEnumerated(EnumType.STRING)
+    @MapKeyColumn(name = "currency", length = 3)
+    @Column(name = "price", nullable = false)
+    @Builder.Default
+    private Map<User.Currency, Double> localPrices = new HashMap<>();
+
     @Column(columnDefinition = "TEXT")
     private String features; // JSON string or comma-separated
 
@@ -69,12 +82,26 @@ public class SubscriptionPlan {
     // Helper methods
     @Transient
     public Double getPriceForCurrency(User.Currency currency) {
-        return currency == User.Currency.USD ? priceUsd : priceInr;
+        return switch (currency) {
+            case USD -> priceUsd;
+            case INR -> priceInr;
+            default -> localPrices == null ? null : localPrices.get(currency);
+        };
+    }
+
+    @Transient
+    public boolean hasPriceFor(User.Currency currency) {
+        return getPriceForCurrency(currency) != null;
+    }
+
+    @Transient
+    public Money getPrice(User.Currency currency) {
+        return Money.ofNullable(getPriceForCurrency(currency), currency);
     }
 
     @Transient
     public String getCurrencySymbol(User.Currency currency) {
-        return currency == User.Currency.USD ? "$" : "₹";
+        return currency.getSymbol();
     }
 
     @Transient
@@ -92,9 +119,12 @@ public class SubscriptionPlan {
 
     @Transient
     public String getFormattedPrice(User.Currency currency) {
-        Double price = getPriceForCurrency(currency);
-        String symbol = getCurrencySymbol(currency);
-        return String.format("%s%.2f/month", symbol, price);
+        return getFormattedPrice(getPrice(currency));
+    }
+
+    @Transient
+    public String getFormattedPrice(Money price) {
+        return AmountFormatter.DEFAULT.formatUngrouped(price.toDouble(), price.getCurrency()) + "/month";
     }
 
     // Get the effective max API services (use maxApiServices if available, otherwise maxApis)
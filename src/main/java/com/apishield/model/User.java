@@ -1,5 +1,6 @@
 package com.apishield.model;
 
+import com.apishield.security.UserCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,10 +11,11 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheInvalidator.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class User {
 
     @Id
@@ -66,8 +68,52 @@ public class User {
         this.currency = currency;
     }
 
+    /**
+     * ISO 4217 currencies accounts can be billed and report in. Minor units and numeric
+     * codes come from the JDK's ISO 4217 table; symbols are the display prefixes. The
+     * reference rate is an indicative number of units per one USD, used when no recent
+     * database rate is available.
+     */
     public enum Currency {
-        USD, INR
+        USD("$", 1.0),
+        INR("₹", 83.0),
+        EUR("€", 0.92),
+        GBP("£", 0.79),
+        JPY("¥", 150.0),
+        CAD("CA$", 1.36),
+        AUD("A$", 1.52),
+        CHF("CHF ", 0.88),
+        CNY("CN¥", 7.2),
+        SGD("S$", 1.34);
+
+        private final String symbol;
+        private final double referenceRate;
+        private final int fractionDigits;
+        private final int numericCode;
+
+        Currency(String symbol, double referenceRate) {
+            java.util.Currency iso = java.util.Currency.getInstance(name());
+            this.symbol = symbol;
+            this.referenceRate = referenceRate;
+            this.fractionDigits = iso.getDefaultFractionDigits();
+            this.numericCode = iso.getNumericCode();
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public double getReferenceRate() {
+            return referenceRate;
+        }
+
+        public int getFractionDigits() {
+            return fractionDigits;
+        }
+
+        public int getNumericCode() {
+            return numericCode;
+        }
     }
 
     public enum Role {
@@ -1,5 +1,6 @@
 package com.apishield.model;
 
+import com.apishield.util.AmountFormatter;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
@@ -9,7 +10,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_subscriptions")
+@Table(name = "user_subscriptions",
+        indexes = {
+                @Index(name = "idx_user_subscriptions_status_end", columnList = "status, end_date"),
+                @Index(name = "idx_user_subscriptions_user_created", columnList = "user_id, created_at, id")
+        })
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @NoArgsConstructor
@@ -116,13 +121,17 @@ public class UserSubscription {
         return Math.min(100.0, (elapsedDays / (double) totalDays) * 100.0);
     }
 
+    @Transient
+    public Money getAmountPaidMoney() {
+        return currencyPaid == null ? null : Money.ofNullable(amountPaid, currencyPaid);
+    }
+
     @Transient
     public String getFormattedAmountPaid() {
         if (amountPaid == null || currencyPaid == null) {
             return "N/A";
         }
-        String symbol = currencyPaid == User.Currency.USD ? "$" : "₹";
-        return String.format("%s%.2f", symbol, amountPaid);
+        return AmountFormatter.DEFAULT.formatUngrouped(amountPaid, currencyPaid);
     }
 
     public void activate() {
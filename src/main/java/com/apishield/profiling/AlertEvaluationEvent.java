@@ -0,0 +1,29 @@
+package com.apishield.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.apishield.AlertEvaluation")
+@Label("Alert Evaluation")
+@Description("One alert threshold checked against its API service")
+@Category({"API Shield", "Alerts"})
+@StackTrace(false)
+public class AlertEvaluationEvent extends Event {
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("API Service Id")
+    public long apiServiceId;
+
+    @Label("Threshold Id")
+    public long thresholdId;
+
+    @Label("Rows")
+    @Description("Alerts raised by the check")
+    public int rows;
+}
@@ -0,0 +1,31 @@
+package com.apishield.profiling;
+
+import jdk.jfr.Event;
+
+import java.util.List;
+
+/**
+ * The application's JFR events, all named {@code com.apishield.*} and each carrying a
+ * {@code rows} field with how much data it touched
+ */
+public final class ApplicationEvents {
+
+    public static final String PREFIX = "com.apishield.";
+
+    public static final List<Class<? extends Event>> ALL = List.of(
+            UsageIngestionEvent.class,
+            UsageSummaryEvent.class,
+            AlertEvaluationEvent.class,
+            JwtFilterEvent.class,
+            NotificationSendEvent.class);
+
+    /**
+     * An entity id as an event field; 0 when there is none
+     */
+    public static long id(Long id) {
+        return id != null ? id : 0L;
+    }
+
+    private ApplicationEvents() {
+    }
+}
@@ -0,0 +1,109 @@
+package com.apishield.profiling;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Keeps a JFR recording running for the life of the application with the JDK's
+ * {@code settings} profile plus the application's own events, holding the last
+ * {@code max-age-minutes} on disk up to {@code max-size-mb}. Opt-in with
+ * {@code apishield.jfr.enabled}. The same recording can be dumped from outside with
+ * {@code jcmd <pid> JFR.dump name=apishield-continuous begin=-10m filename=out.jfr}.
+ */
+@Component
+@ConditionalOnProperty(name = "apishield.jfr.enabled", havingValue = "true")
+@Slf4j
+public class ContinuousRecording {
+
+    public static final String NAME = "apishield-continuous";
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Path dumpDir;
+
+    private Recording recording;
+    private Path lastDump;
+
+    public ContinuousRecording(@Value("${apishield.jfr.settings:default}") String settings,
+                               @Value("${apishield.jfr.max-age-minutes:30}") long maxAgeMinutes,
+                               @Value("${apishield.jfr.max-size-mb:250}") long maxSizeMb,
+                               @Value("${apishield.jfr.dump-dir:${java.io.tmpdir}}") String dumpDir) {
+        this.settings = settings;
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.dumpDir = Path.of(dumpDir);
+    }
+
+    @PostConstruct
+    public void start() throws IOException, ParseException {
+        recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName(NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        for (Class<? extends Event> event : ApplicationEvents.ALL) {
+            recording.enable(event);
+        }
+        recording.start();
+        log.info("Started continuous JFR recording '{}' ({} settings, last {} minutes)",
+                NAME, settings, maxAge.toMinutes());
+    }
+
+    /**
+     * Write the last {@code minutes} of the recording to a new file in {@code dump-dir} and
+     * return it. Only the latest dump is kept; the one before it is deleted.
+     */
+    public synchronized Path dump(long minutes) throws Exception {
+        if (minutes <= 0 || minutes > maxAge.toMinutes()) {
+            throw new IllegalArgumentException("minutes must be between 1 and " + maxAge.toMinutes());
+        }
+
+        Files.createDirectories(dumpDir);
+        Path file = dumpDir.resolve("apishield-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+
+        // Recording.dump() has no time range; JFR.dump does
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        String[] arguments = {
+                "name=" + NAME,
+                "filename=" + file.toAbsolutePath(),
+                "begin=-" + minutes + "m"
+        };
+        server.invoke(new ObjectName("com.sun.management:type=DiagnosticCommand"), "jfrDump",
+                new Object[]{arguments}, new String[]{String[].class.getName()});
+
+        if (lastDump != null && !lastDump.equals(file)) {
+            Files.deleteIfExists(lastDump);
+        }
+        lastDump = file;
+        log.info("Dumped last {} minutes of JFR recording to {} ({} bytes)", minutes, file, Files.size(file));
+        return file;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
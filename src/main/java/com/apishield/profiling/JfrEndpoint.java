@@ -0,0 +1,31 @@
+package com.apishield.profiling;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code POST /actuator/jfr} with an optional {@code {"minutes": n}} body downloads the last
+ * n minutes (default 10) of the continuous recording. Admins only; add {@code jfr} to
+ * {@code management.endpoints.web.exposure.include} to reach it over HTTP.
+ */
+@Component
+@Endpoint(id = "jfr")
+@ConditionalOnProperty(name = "apishield.jfr.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class JfrEndpoint {
+
+    private static final long DEFAULT_MINUTES = 10;
+
+    private final ContinuousRecording recording;
+
+    @WriteOperation
+    public Resource dump(@Nullable Long minutes) throws Exception {
+        return new FileSystemResource(recording.dump(minutes != null ? minutes : DEFAULT_MINUTES));
+    }
+}
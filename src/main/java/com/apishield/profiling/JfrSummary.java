@@ -0,0 +1,118 @@
+package com.apishield.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarises the application's events in a {@code .jfr} file: per event type, the count,
+ * duration percentiles and rows touched, and the users that account for most of the time.
+ * Run offline against a dump, from the packaged jar:
+ * {@code java -cp apishield.jar -Dloader.main=com.apishield.profiling.JfrSummary
+ * org.springframework.boot.loader.launch.PropertiesLauncher recording.jfr}
+ */
+public class JfrSummary {
+
+    private static final int TOP_USERS = 5;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrSummary <recording.jfr>");
+            System.exit(2);
+        }
+        print(summarize(Path.of(args[0])), System.out);
+    }
+
+    public static Map<String, EventStats> summarize(Path file) throws IOException {
+        Map<String, Accumulator> byType = new TreeMap<>();
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                String name = event.getEventType().getName();
+                if (!name.startsWith(ApplicationEvents.PREFIX)) {
+                    continue;
+                }
+                byType.computeIfAbsent(name.substring(ApplicationEvents.PREFIX.length()), n -> new Accumulator())
+                        .add(event);
+            }
+        }
+
+        Map<String, EventStats> summary = new TreeMap<>();
+        byType.forEach((name, accumulator) -> summary.put(name, accumulator.toStats()));
+        return summary;
+    }
+
+    static void print(Map<String, EventStats> summary, PrintStream out) {
+        if (summary.isEmpty()) {
+            out.println("No API Shield events in the recording");
+            return;
+        }
+        out.printf("%-18s %8s %10s %10s %10s %10s %12s%n", "event", "count", "p50 ms", "p99 ms", "max ms", "total ms", "rows");
+        summary.forEach((name, stats) -> out.printf("%-18s %8d %10.2f %10.2f %10.2f %10.1f %12d%n",
+                name, stats.count(), stats.p50Ms(), stats.p99Ms(), stats.maxMs(), stats.totalMs(), stats.rows()));
+
+        summary.forEach((name, stats) -> {
+            if (!stats.topUsersByMs().isEmpty()) {
+                out.printf("%n%s, most time by user:%n", name);
+                stats.topUsersByMs().forEach((userId, ms) -> out.printf("  user %-10d %10.1f ms%n", userId, ms));
+            }
+        });
+    }
+
+    public record EventStats(long count, double p50Ms, double p99Ms, double maxMs, double totalMs, long rows,
+                             Map<Long, Double> topUsersByMs) {
+    }
+
+    private static final class Accumulator {
+        private final List<Long> durationsNanos = new ArrayList<>();
+        private final Map<Long, Long> nanosByUser = new HashMap<>();
+        private long rows;
+
+        void add(RecordedEvent event) {
+            long nanos = event.getDuration().toNanos();
+            durationsNanos.add(nanos);
+            if (event.hasField("rows")) {
+                rows += event.getLong("rows");
+            }
+            if (event.hasField("userId")) {
+                long userId = event.getLong("userId");
+                if (userId != 0) {
+                    nanosByUser.merge(userId, nanos, Long::sum);
+                }
+            }
+        }
+
+        EventStats toStats() {
+            Collections.sort(durationsNanos);
+            long total = durationsNanos.stream().mapToLong(Long::longValue).sum();
+
+            Map<Long, Double> topUsers = new LinkedHashMap<>();
+            nanosByUser.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                    .limit(TOP_USERS)
+                    .forEach(entry -> topUsers.put(entry.getKey(), toMs(entry.getValue())));
+
+            return new EventStats(durationsNanos.size(), toMs(percentile(0.50)), toMs(percentile(0.99)),
+                    toMs(durationsNanos.get(durationsNanos.size() - 1)), toMs(total), rows, topUsers);
+        }
+
+        private long percentile(double p) {
+            int index = (int) Math.ceil(p * durationsNanos.size()) - 1;
+            return durationsNanos.get(Math.max(0, index));
+        }
+
+        private static double toMs(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
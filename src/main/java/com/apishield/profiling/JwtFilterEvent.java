@@ -0,0 +1,29 @@
+package com.apishield.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.apishield.JwtFilter")
+@Label("JWT Filter")
+@Description("Time spent authenticating one request from its bearer token")
+@Category({"API Shield", "Security"})
+@StackTrace(false)
+public class JwtFilterEvent extends Event {
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Authenticated")
+    public boolean authenticated;
+
+    @Label("Principal Cached")
+    public boolean principalCached;
+
+    @Label("Rows")
+    @Description("User rows loaded, 0 when the principal came from the cache")
+    public int rows;
+}
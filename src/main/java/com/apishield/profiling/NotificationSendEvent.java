@@ -0,0 +1,29 @@
+package com.apishield.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.apishield.NotificationSend")
+@Label("Notification Send")
+@Description("One notification handed to the mail server")
+@Category({"API Shield", "Notifications"})
+@StackTrace(false)
+public class NotificationSendEvent extends Event {
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Type")
+    public String type;
+
+    @Label("Success")
+    public boolean success;
+
+    @Label("Rows")
+    @Description("Alerts the notification covers")
+    public int rows;
+}
@@ -0,0 +1,28 @@
+package com.apishield.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.apishield.UsageIngestion")
+@Label("Usage Ingestion")
+@Description("A usage log written for one API service")
+@Category({"API Shield", "Usage"})
+@StackTrace(false)
+public class UsageIngestionEvent extends Event {
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("API Service Id")
+    public long apiServiceId;
+
+    @Label("Requests Reported")
+    public long requests;
+
+    @Label("Rows")
+    public int rows;
+}
@@ -0,0 +1,23 @@
+package com.apishield.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.apishield.UsageSummary")
+@Label("Usage Summary")
+@Description("A 30-day usage summary computed for one user")
+@Category({"API Shield", "Usage"})
+@StackTrace(false)
+public class UsageSummaryEvent extends Event {
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Rows")
+    @Description("Usage log rows the summary was computed from")
+    public int rows;
+}
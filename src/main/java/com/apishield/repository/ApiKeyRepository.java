@@ -0,0 +1,28 @@
+package com.apishield.repository;
+
+import com.apishield.model.ApiKey;
+import com.apishield.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ApiKeyRepository extends JpaRepository<ApiKey, Long> {
+
+    List<ApiKey> findByUserOrderByCreatedAtDesc(User user);
+
+    Optional<ApiKey> findByIdAndUser(Long id, User user);
+
+    boolean existsByPrefix(String prefix);
+
+    /**
+     * Everything the in-memory key index needs, in one query:
+     * id, prefix, key hash, owner email, bound service id (or null), created at
+     */
+    @Query("SELECT k.id, k.prefix, k.keyHash, u.email, s.id, k.createdAt FROM ApiKey k " +
+            "JOIN k.user u LEFT JOIN k.apiService s WHERE k.isActive = true")
+    List<Object[]> findActiveKeyIndex();
+}
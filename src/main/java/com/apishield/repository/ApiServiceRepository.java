@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -105,4 +106,10 @@ public interface ApiServiceRepository extends JpaRepository<ApiService, Long> {
      */
     @Query("SELECT COUNT(a) FROM ApiService a WHERE a.user.id = :userId AND a.isActive = :isActive")
     long countByUserIdAndIsActive(@Param("userId") Long userId, @Param("isActive") boolean isActive);
+
+    /**
+     * Number of services per user, as [userId, count], for users that have any
+     */
+    @Query("SELECT a.user.id, COUNT(a) FROM ApiService a WHERE a.user.id IN :userIds GROUP BY a.user.id")
+    List<Object[]> countByUserIds(@Param("userIds") Collection<Long> userIds);
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.apishield.repository;
+
+import com.apishield.model.BudgetPeriod;
+import com.apishield.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BudgetPeriodRepository extends JpaRepository<BudgetPeriod, Long> {
+
+    Optional<BudgetPeriod> findFirstByUserAndStatus(User user, BudgetPeriod.Status status);
+
+    List<BudgetPeriod> findByUserOrderByPeriodStartDesc(User user, Pageable pageable);
+
+    boolean existsByUser(User user);
+
+    /**
+     * Open periods whose end date has passed in UTC terms. Callers re-check each one
+     * against the period's own timezone before rolling it over.
+     */
+    @Query("SELECT p.id FROM BudgetPeriod p WHERE p.status = 'OPEN' AND p.periodEnd < :date")
+    List<Long> findOpenPeriodIdsEndingBefore(@Param("date") LocalDate date);
+
+    @Modifying
+    @Query("UPDATE BudgetPeriod p SET p.spentAmount = p.spentAmount + :delta " +
+           "WHERE p.user = :user AND p.periodStart <= :date AND p.periodEnd >= :date")
+    int incrementSpentOn(@Param("user") User user, @Param("date") LocalDate date, @Param("delta") Double delta);
+
+    @Modifying
+    @Query("UPDATE BudgetPeriod p SET p.status = 'CLOSED', p.closedAt = :closedAt WHERE p.id = :id AND p.status = 'OPEN'")
+    int closeOpenPeriod(@Param("id") Long id, @Param("closedAt") LocalDateTime closedAt);
+
+    @Modifying
+    @Query("UPDATE BudgetPeriod p SET p.spentAmount = p.spentAmount + :delta WHERE p.user = :user AND p.status = 'OPEN'")
+    int incrementOpenPeriodSpent(@Param("user") User user, @Param("delta") Double delta);
+
+    @Modifying
+    @Query("UPDATE BudgetPeriod p SET p.budgetAmount = :budgetAmount WHERE p.user = :user AND p.status = 'OPEN'")
+    int updateOpenPeriodBudget(@Param("user") User user, @Param("budgetAmount") Double budgetAmount);
+}
@@ -25,6 +25,10 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
     @Query("UPDATE Budget b SET b.spentAmount = :spentAmount WHERE b.user = :user")
     int updateSpentAmount(@Param("user") User user, @Param("spentAmount") Double spentAmount);
 
+    @Modifying
+    @Query("UPDATE Budget b SET b.spentAmount = b.spentAmount + :delta WHERE b.user = :user")
+    int incrementSpentAmount(@Param("user") User user, @Param("delta") Double delta);
+
     @Query("SELECT b FROM Budget b WHERE (b.spentAmount / b.monthlyBudget) * 100 >= :threshold")
     List<Budget> findBudgetsOverThreshold(@Param("threshold") double threshold);
 
@@ -33,4 +37,8 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
 
     @Query("SELECT COUNT(b) FROM Budget b WHERE b.spentAmount > b.monthlyBudget")
     long countOverBudgetUsers();
+
+    @Query("SELECT b.user FROM Budget b WHERE NOT EXISTS " +
+            "(SELECT p.id FROM BudgetPeriod p WHERE p.user = b.user AND p.status = 'OPEN')")
+    List<User> findUsersWithoutOpenPeriod();
 }
@@ -0,0 +1,21 @@
+package com.apishield.repository;
+
+import com.apishield.model.CurrencyRateHistory;
+import com.apishield.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CurrencyRateHistoryRepository extends JpaRepository<CurrencyRateHistory, Long> {
+
+    // Rates between the base and one currency in either direction, oldest first: [fromCurrency, effectiveAt, rate]
+    @Query("SELECT h.fromCurrency, h.effectiveAt, h.rate FROM CurrencyRateHistory h " +
+            "WHERE (h.fromCurrency = :base AND h.toCurrency = :currency) " +
+            "OR (h.fromCurrency = :currency AND h.toCurrency = :base) " +
+            "ORDER BY h.effectiveAt ASC, h.id ASC")
+    List<Object[]> findSeries(@Param("base") User.Currency base, @Param("currency") User.Currency currency);
+}
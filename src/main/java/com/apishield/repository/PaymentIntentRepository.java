@@ -0,0 +1,57 @@
+package com.apishield.repository;
+
+import com.apishield.model.PaymentIntent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentIntentRepository extends JpaRepository<PaymentIntent, Long> {
+
+    Optional<PaymentIntent> findByIdempotencyKey(String idempotencyKey);
+
+    // What the gateway call needs, read without keeping a transaction open for the call
+    @Query("SELECT p FROM PaymentIntent p JOIN FETCH p.user WHERE p.id = :id")
+    Optional<PaymentIntent> findByIdWithUser(@Param("id") Long id);
+
+    /**
+     * Take an intent for gateway execution. Succeeds for a new intent, or for one whose
+     * previous attempt has gone quiet; only one caller can win. Commits on its own.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentIntent p SET p.status = 'PROCESSING', p.attempts = p.attempts + 1, p.updatedAt = :now " +
+            "WHERE p.id = :id AND (p.status = 'CREATED' OR (p.status = 'PROCESSING' AND p.updatedAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Record the gateway outcome of an intent that is still processing. Only one of two
+     * executions racing on a reclaimed intent gets a row back.
+     */
+    @Modifying
+    @Query("UPDATE PaymentIntent p SET p.status = :status, p.transactionId = :transactionId, " +
+            "p.failureReason = :failureReason, p.paymentDetails = :paymentDetails, " +
+            "p.completedAt = :now, p.updatedAt = :now " +
+            "WHERE p.id = :id AND p.status = 'PROCESSING'")
+    int finish(@Param("id") Long id,
+               @Param("status") PaymentIntent.Status status,
+               @Param("transactionId") String transactionId,
+               @Param("failureReason") String failureReason,
+               @Param("paymentDetails") String paymentDetails,
+               @Param("now") LocalDateTime now);
+
+    @Query("SELECT p.id FROM PaymentIntent p WHERE (p.status = 'CREATED' AND p.createdAt < :createdBefore) " +
+            "OR (p.status = 'PROCESSING' AND p.updatedAt < :staleBefore)")
+    List<Long> findStalledIds(@Param("createdBefore") LocalDateTime createdBefore,
+                              @Param("staleBefore") LocalDateTime staleBefore);
+
+    long countByStatusIn(Collection<PaymentIntent.Status> statuses);
+}
@@ -0,0 +1,17 @@
+package com.apishield.repository;
+
+import com.apishield.model.PlanRecommendation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PlanRecommendationRepository extends JpaRepository<PlanRecommendation, Long> {
+
+    Optional<PlanRecommendation> findByUserId(Long userId);
+
+    List<PlanRecommendation> findByUserIdIn(Collection<Long> userIds);
+}
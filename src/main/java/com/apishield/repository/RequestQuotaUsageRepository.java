@@ -0,0 +1,32 @@
+package com.apishield.repository;
+
+import com.apishield.model.RequestQuotaUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RequestQuotaUsageRepository extends JpaRepository<RequestQuotaUsage, Long> {
+
+    @Query("SELECT q.requestCount FROM RequestQuotaUsage q WHERE q.userId = :userId AND q.periodStart = :periodStart")
+    Optional<Long> findRequestCount(@Param("userId") Long userId, @Param("periodStart") LocalDate periodStart);
+
+    List<RequestQuotaUsage> findByUserIdInAndPeriodStartGreaterThanEqual(Collection<Long> userIds, LocalDate from);
+
+    // Each flush of one user's counter commits on its own
+    @Transactional
+    @Modifying
+    @Query("UPDATE RequestQuotaUsage q SET q.requestCount = q.requestCount + :delta, q.updatedAt = :now " +
+            "WHERE q.userId = :userId AND q.periodStart = :periodStart")
+    int incrementRequestCount(@Param("userId") Long userId, @Param("periodStart") LocalDate periodStart,
+                              @Param("delta") Long delta, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,21 @@
+package com.apishield.repository;
+
+import com.apishield.model.SpendLedgerEntry;
+import com.apishield.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SpendLedgerRepository extends JpaRepository<SpendLedgerEntry, Long> {
+
+    Page<SpendLedgerEntry> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
+
+    @Query("SELECT SUM(e.amount) FROM SpendLedgerEntry e WHERE e.user = :user")
+    Optional<Double> getBalanceByUser(@Param("user") User user);
+}
@@ -35,6 +35,17 @@ public interface UsageLogRepository extends JpaRepository<UsageLog, Long> {
     List<UsageLog> findByUserAndDateRangeOrderByLogDateDesc(
             @Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
+    @Query("SELECT SUM(ul.requestsMade * ul.apiService.costPerUnit) FROM UsageLog ul " +
+            "WHERE ul.apiService.user = :user AND ul.logDate BETWEEN :startDate AND :endDate")
+    Optional<Double> getTotalCostByUserAndDateRange(
+            @Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Daily cost rollup per service: [apiServiceId, logDate, cost]
+    @Query("SELECT ul.apiService.id, ul.logDate, ul.requestsMade * ul.apiService.costPerUnit FROM UsageLog ul " +
+            "WHERE ul.apiService.user = :user AND ul.logDate BETWEEN :startDate AND :endDate ORDER BY ul.logDate")
+    List<Object[]> getDailyCostByUserAndDateRange(
+            @Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
     @Query("SELECT SUM(ul.requestsMade) FROM UsageLog ul WHERE ul.apiService.user = :user")
     Optional<Long> getTotalRequestsByUser(@Param("user") User user);
 
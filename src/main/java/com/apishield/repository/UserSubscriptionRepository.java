@@ -2,10 +2,14 @@ package com.apishield.repository;
 
 import com.apishield.model.User;
 import com.apishield.model.UserSubscription;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +17,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserSubscriptionRepository extends JpaRepository<UserSubscription, Long> {
@@ -26,9 +31,32 @@ public interface UserSubscriptionRepository extends JpaRepository<UserSubscripti
     @Query("SELECT us FROM UserSubscription us WHERE us.user = :user AND us.status = 'ACTIVE' AND (us.endDate IS NULL OR us.endDate > CURRENT_DATE)")
     Optional<UserSubscription> findActiveSubscription(@Param("user") User user);
 
+    /**
+     * The user's active subscription as id, plan id and end date, newest first
+     */
+    @Query("SELECT us.id, us.plan.id, us.endDate FROM UserSubscription us " +
+            "WHERE us.user.id = :userId AND us.status = 'ACTIVE' AND (us.endDate IS NULL OR us.endDate > CURRENT_DATE) " +
+            "ORDER BY us.createdAt DESC")
+    List<Object[]> findActiveEntitlement(@Param("userId") Long userId);
+
     @Query("SELECT us FROM UserSubscription us WHERE us.status = 'ACTIVE' AND us.endDate = :date")
     List<UserSubscription> findSubscriptionsExpiringOn(@Param("date") LocalDate date);
 
+    // Keyset page of auto-renewing subscriptions due on the date, in id order
+    @Query("SELECT us.id FROM UserSubscription us WHERE us.status = 'ACTIVE' AND us.autoRenew = true " +
+            "AND us.endDate = :date AND us.id > :afterId ORDER BY us.id")
+    List<Long> findRenewalIdsAfter(@Param("date") LocalDate date, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT us FROM UserSubscription us JOIN FETCH us.user JOIN FETCH us.plan WHERE us.id = :id")
+    Optional<UserSubscription> findByIdWithUserAndPlan(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT us.user.id FROM UserSubscription us WHERE us.status = 'ACTIVE' AND us.endDate < :today")
+    List<Long> findUserIdsWithLapsedSubscriptions(@Param("today") LocalDate today);
+
+    @Modifying
+    @Query("UPDATE UserSubscription us SET us.status = 'EXPIRED' WHERE us.status = 'ACTIVE' AND us.endDate < :today")
+    int expireLapsed(@Param("today") LocalDate today);
+
     @Query("SELECT us FROM UserSubscription us WHERE us.status = 'ACTIVE' AND us.endDate BETWEEN :startDate AND :endDate")
     List<UserSubscription> findSubscriptionsExpiringBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
@@ -47,5 +75,63 @@ public interface UserSubscriptionRepository extends JpaRepository<UserSubscripti
     @Query("SELECT us FROM UserSubscription us WHERE us.user = :user AND us.status IN ('ACTIVE', 'EXPIRED') ORDER BY us.createdAt DESC")
     List<UserSubscription> findBillingHistory(@Param("user") User user);
 
+    // Keyset pages of a user's billed subscriptions, newest first; (createdAt, id) is unique and indexed
+    @Query("SELECT us FROM UserSubscription us JOIN FETCH us.plan WHERE us.user = :user " +
+            "AND us.status IN ('ACTIVE', 'EXPIRED') " +
+            "ORDER BY us.createdAt DESC, us.id DESC")
+    List<UserSubscription> findBillingPage(@Param("user") User user, Pageable pageable);
+
+    @Query("SELECT us FROM UserSubscription us JOIN FETCH us.plan WHERE us.user = :user " +
+            "AND us.status IN ('ACTIVE', 'EXPIRED') " +
+            "AND (us.createdAt < :createdAt OR (us.createdAt = :createdAt AND us.id < :id)) " +
+            "ORDER BY us.createdAt DESC, us.id DESC")
+    List<UserSubscription> findBillingPageBefore(@Param("user") User user, @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Every billed subscription of the user, newest first, read through a cursor rather than all at
+     * once. The stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT us FROM UserSubscription us JOIN FETCH us.plan WHERE us.user = :user " +
+            "AND us.status IN ('ACTIVE', 'EXPIRED') " +
+            "ORDER BY us.createdAt DESC, us.id DESC")
+    Stream<UserSubscription> streamBillingHistory(@Param("user") User user);
+
+    /**
+     * Billing history totals: [count, first start date, last created at, active months].
+     * Active months follow ChronoUnit.MONTHS: whole months, one less if the end day is before the start day.
+     */
+    @Query("SELECT COUNT(us), MIN(us.startDate), MAX(us.createdAt), " +
+            "COALESCE(SUM(CASE WHEN us.startDate IS NOT NULL AND us.endDate IS NOT NULL THEN " +
+            "(EXTRACT(YEAR FROM us.endDate) - EXTRACT(YEAR FROM us.startDate)) * 12 " +
+            "+ EXTRACT(MONTH FROM us.endDate) - EXTRACT(MONTH FROM us.startDate) " +
+            "- CASE WHEN EXTRACT(DAY FROM us.endDate) < EXTRACT(DAY FROM us.startDate) THEN 1 ELSE 0 END " +
+            "ELSE 0 END), 0) " +
+            "FROM UserSubscription us WHERE us.user = :user AND us.status IN ('ACTIVE', 'EXPIRED')")
+    List<Object[]> getBillingTotals(@Param("user") User user);
+
+    /**
+     * Amount paid per currency and day: [currency, first payment time, first start date, sum].
+     * Grouped by day so each group can be converted at that day's rate.
+     */
+    @Query("SELECT us.currencyPaid, MIN(us.createdAt), MIN(us.startDate), SUM(us.amountPaid) " +
+            "FROM UserSubscription us WHERE us.user = :user AND us.status IN ('ACTIVE', 'EXPIRED') " +
+            "GROUP BY us.currencyPaid, CAST(us.createdAt AS LocalDate)")
+    List<Object[]> getBillingAmountsByCurrencyAndDay(@Param("user") User user);
+
+    @Query("SELECT us.paymentMode, COUNT(us) FROM UserSubscription us " +
+            "WHERE us.user = :user AND us.status IN ('ACTIVE', 'EXPIRED') " +
+            "GROUP BY us.paymentMode ORDER BY COUNT(us) DESC")
+    List<Object[]> countBillingByPaymentMode(@Param("user") User user);
+
+    @Query("SELECT us.currencyPaid, COUNT(us) FROM UserSubscription us " +
+            "WHERE us.user = :user AND us.status IN ('ACTIVE', 'EXPIRED') AND us.currencyPaid IS NOT NULL " +
+            "GROUP BY us.currencyPaid ORDER BY COUNT(us) DESC")
+    List<Object[]> countBillingByCurrency(@Param("user") User user);
+
     boolean existsByUserAndStatus(User user, UserSubscription.Status status);
 }
@@ -1,5 +1,6 @@
 package com.apishield.scheduler;
 
+import com.apishield.metrics.JobMetrics;
 import com.apishield.model.User;
 import com.apishield.repository.UserRepository;
 import com.apishield.service.AlertService;
@@ -19,6 +20,7 @@ public class AlertScheduler {
     private final AlertService alertService;
     private final NotificationService notificationService;
     private final UserRepository userRepository;
+    private final JobMetrics jobMetrics;
 
     /**
      * Daily alert check - runs every day at 2 AM
@@ -26,6 +28,7 @@ public class AlertScheduler {
     @Scheduled(cron = "0 0 2 * * *")
     public void dailyAlertCheck() {
         log.info("Starting daily alert check...");
+        long start = System.nanoTime();
 
         try {
             List<User> users = userRepository.findAll();
@@ -41,7 +44,9 @@ public class AlertScheduler {
             }
 
             log.info("Completed daily alert check for {} users", alertsGenerated);
+            jobMetrics.recordRun("alert.daily", start, alertsGenerated);
         } catch (Exception e) {
+            jobMetrics.recordFailure("alert.daily", start);
             log.error("Error during daily alert check", e);
         }
     }
@@ -52,10 +57,13 @@ public class AlertScheduler {
     @Scheduled(fixedRate = 900000) // 15 minutes
     public void processNotificationQueue() {
         log.debug("Processing notification queue...");
+        long start = System.nanoTime();
 
         try {
-            notificationService.sendBatchNotifications();
+            int sent = notificationService.sendBatchNotifications();
+            jobMetrics.recordRun("alert.notifications", start, sent);
         } catch (Exception e) {
+            jobMetrics.recordFailure("alert.notifications", start);
             log.error("Error processing notification queue", e);
         }
     }
@@ -66,19 +74,24 @@ public class AlertScheduler {
     @Scheduled(cron = "0 0 * * * *")
     public void hourlyAlertCheck() {
         log.debug("Starting hourly critical alert check...");
+        long start = System.nanoTime();
 
         try {
             List<User> users = userRepository.findAll();
+            int checked = 0;
 
             for (User user : users) {
                 try {
                     // Only check for immediate/critical alerts more frequently
                     alertService.checkAndGenerateAlerts(user);
+                    checked++;
                 } catch (Exception e) {
                     log.error("Error in hourly alert check for user: {}", user.getEmail(), e);
                 }
             }
+            jobMetrics.recordRun("alert.hourly", start, checked);
         } catch (Exception e) {
+            jobMetrics.recordFailure("alert.hourly", start);
             log.error("Error during hourly alert check", e);
         }
     }
@@ -0,0 +1,59 @@
+package com.apishield.scheduler;
+
+import com.apishield.model.User;
+import com.apishield.repository.BudgetRepository;
+import com.apishield.service.BudgetPeriodService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetPeriodScheduler {
+
+    private final BudgetPeriodService budgetPeriodService;
+    private final BudgetRepository budgetRepository;
+
+    /**
+     * Budget period rollover - runs hourly so each timezone rolls over shortly after its midnight
+     */
+    @Scheduled(cron = "0 5 * * * *")
+    public void rollOverBudgetPeriods() {
+        log.debug("Starting budget period rollover...");
+
+        try {
+            int rolledOver = 0;
+            for (Long periodId : budgetPeriodService.findPeriodsDueForRollover()) {
+                try {
+                    if (budgetPeriodService.rollOver(periodId)) {
+                        rolledOver++;
+                    }
+                } catch (Exception e) {
+                    log.error("Error rolling over budget period ID: {}", periodId, e);
+                }
+            }
+
+            // Budgets created before periods existed get their first period here
+            List<User> usersWithoutPeriod = budgetPeriodService.findUsersWithoutOpenPeriod();
+            for (User user : usersWithoutPeriod) {
+                try {
+                    budgetRepository.findByUser(user).ifPresent(budget ->
+                            budgetPeriodService.syncOpenPeriod(user, budget.getMonthlyBudget()));
+                } catch (Exception e) {
+                    log.error("Error opening budget period for user: {}", user.getEmail(), e);
+                }
+            }
+
+            if (rolledOver > 0 || !usersWithoutPeriod.isEmpty()) {
+                log.info("Budget period rollover complete: {} rolled over, {} opened",
+                        rolledOver, usersWithoutPeriod.size());
+            }
+        } catch (Exception e) {
+            log.error("Error during budget period rollover", e);
+        }
+    }
+}
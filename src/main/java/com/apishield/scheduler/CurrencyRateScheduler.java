@@ -1,5 +1,6 @@
 package com.apishield.scheduler;
 
+import com.apishield.metrics.JobMetrics;
 import com.apishield.service.CurrencyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Component;
 public class CurrencyRateScheduler {
 
     private final CurrencyService currencyService;
+    private final JobMetrics jobMetrics;
 
     /**
      * Update exchange rates every 6 hours
@@ -20,14 +22,18 @@ public class CurrencyRateScheduler {
     @Scheduled(fixedRate = 21600000) // 6 hours in milliseconds
     public void updateExchangeRates() {
         log.info("Starting scheduled exchange rate update...");
+        long start = System.nanoTime();
 
         try {
             currencyService.updateExchangeRates();
+            jobMetrics.recordRun("currency.update_rates", start, 1);
             log.info("Successfully completed scheduled exchange rate update");
         } catch (DataIntegrityViolationException e) {
             // Handle duplicate key errors gracefully - don't crash the app
+            jobMetrics.recordFailure("currency.update_rates", start);
             log.warn("Duplicate currency rate detected - skipping this update cycle: {}", e.getMessage());
         } catch (Exception e) {
+            jobMetrics.recordFailure("currency.update_rates", start);
             log.error("Error during scheduled exchange rate update", e);
             // Don't rethrow - let the scheduler continue running
         }
@@ -39,9 +45,11 @@ public class CurrencyRateScheduler {
     @Scheduled(cron = "0 0 3 * * *")
     public void cleanupOldRates() {
         log.info("Starting cleanup of old exchange rates...");
+        long start = System.nanoTime();
 
         try {
             var staleRates = currencyService.getStaleRates();
+            jobMetrics.recordRun("currency.stale_rates", start, staleRates.size());
             log.info("Found {} stale exchange rates", staleRates.size());
 
             if (staleRates.size() > 10) {
@@ -49,6 +57,7 @@ public class CurrencyRateScheduler {
             }
 
         } catch (Exception e) {
+            jobMetrics.recordFailure("currency.stale_rates", start);
             log.error("Error during exchange rate cleanup", e);
             // Don't rethrow - let the scheduler continue
         }
@@ -0,0 +1,35 @@
+package com.apishield.scheduler;
+
+import com.apishield.metrics.JobMetrics;
+import com.apishield.service.PaymentExecutionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentScheduler {
+
+    private final PaymentExecutionService paymentExecutionService;
+    private final JobMetrics jobMetrics;
+
+    /**
+     * Poll for payment intents that never started or whose gateway call went quiet - every minute
+     */
+    @Scheduled(fixedDelayString = "${apishield.payments.poll-ms:60000}")
+    public void resubmitStalledPayments() {
+        long start = System.nanoTime();
+        try {
+            int resubmitted = paymentExecutionService.resubmitStalled(30);
+            jobMetrics.recordRun("payment.resubmit", start, resubmitted);
+            if (resubmitted > 0) {
+                log.info("Resubmitted {} stalled payment intents", resubmitted);
+            }
+        } catch (Exception e) {
+            jobMetrics.recordFailure("payment.resubmit", start);
+            log.error("Error resubmitting stalled payment intents", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.apishield.scheduler;
+
+import com.apishield.metrics.JobMetrics;
+import com.apishield.service.PlanRecommendationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PlanRecommendationScheduler {
+
+    private final PlanRecommendationService recommendationService;
+    private final JobMetrics jobMetrics;
+
+    /**
+     * Recompute every user's plan recommendation - runs daily at 2 AM, after the renewal run
+     */
+    @Scheduled(cron = "0 0 2 * * *")
+    public void recomputeRecommendations() {
+        long start = System.nanoTime();
+        try {
+            PlanRecommendationService.RecommendationRun run = recommendationService.recomputeAll(LocalDate.now());
+            jobMetrics.recordRun("plan.recommendations", start, run.stored());
+        } catch (Exception e) {
+            jobMetrics.recordFailure("plan.recommendations", start);
+            log.error("Error during plan recommendation run", e);
+        }
+    }
+}
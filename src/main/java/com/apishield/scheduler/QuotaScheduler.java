@@ -0,0 +1,47 @@
+package com.apishield.scheduler;
+
+import com.apishield.service.QuotaService;
+import com.apishield.util.RateLimiter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QuotaScheduler {
+
+    private final QuotaService quotaService;
+    private final RateLimiter rateLimiter;
+
+    /**
+     * Persist in-memory request counts every 30 seconds
+     */
+    @Scheduled(fixedDelayString = "${apishield.quota.flush-ms:30000}")
+    public void flushRequestCounts() {
+        try {
+            int flushed = quotaService.flushCounters();
+            log.debug("Flushed request counts for {} users", flushed);
+        } catch (Exception e) {
+            log.error("Error flushing request counts", e);
+        }
+    }
+
+    /**
+     * Don't lose the last interval's counts on a clean shutdown
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushRequestCounts();
+    }
+
+    /**
+     * Drop idle rate limit buckets every 5 minutes
+     */
+    @Scheduled(fixedRate = 300000)
+    public void evictIdleBuckets() {
+        rateLimiter.evictIdle();
+    }
+}
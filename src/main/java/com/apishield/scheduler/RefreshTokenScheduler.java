@@ -0,0 +1,28 @@
+package com.apishield.scheduler;
+
+import com.apishield.service.RefreshTokenService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenScheduler {
+
+    private final RefreshTokenService refreshTokenService;
+
+    /**
+     * Delete expired refresh tokens - runs daily at 4 AM
+     */
+    @Scheduled(cron = "0 0 4 * * *")
+    public void deleteExpiredTokens() {
+        try {
+            int deleted = refreshTokenService.deleteExpired();
+            log.info("Deleted {} expired refresh tokens", deleted);
+        } catch (Exception e) {
+            log.error("Error deleting expired refresh tokens", e);
+        }
+    }
+}
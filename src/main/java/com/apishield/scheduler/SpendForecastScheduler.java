@@ -0,0 +1,52 @@
+package com.apishield.scheduler;
+
+import com.apishield.model.User;
+import com.apishield.repository.UserRepository;
+import com.apishield.service.SpendForecastService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SpendForecastScheduler {
+
+    private final SpendForecastService spendForecastService;
+    private final UserRepository userRepository;
+
+    /**
+     * Daily forecast refit - runs every day at 00:30 and feeds each model the day that just ended
+     */
+    @Scheduled(cron = "0 30 0 * * *")
+    public void refreshForecastModels() {
+        log.info("Starting daily forecast model refresh...");
+
+        try {
+            Set<Long> activeServiceIds = new HashSet<>();
+            boolean complete = true;
+
+            for (User user : userRepository.findAll()) {
+                try {
+                    activeServiceIds.addAll(spendForecastService.refreshModels(user));
+                } catch (Exception e) {
+                    complete = false;
+                    log.error("Error refreshing forecast models for user: {}", user.getEmail(), e);
+                }
+            }
+
+            // Only prune after a full pass, so a failed user's models are not dropped
+            if (complete) {
+                spendForecastService.retainModels(activeServiceIds);
+            }
+
+            log.info("Completed forecast model refresh for {} services", activeServiceIds.size());
+        } catch (Exception e) {
+            log.error("Error during forecast model refresh", e);
+        }
+    }
+}
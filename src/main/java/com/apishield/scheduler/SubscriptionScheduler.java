@@ -0,0 +1,50 @@
+package com.apishield.scheduler;
+
+import com.apishield.metrics.JobMetrics;
+import com.apishield.service.SubscriptionRenewalEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SubscriptionScheduler {
+
+    private final SubscriptionRenewalEngine renewalEngine;
+    private final JobMetrics jobMetrics;
+
+    /**
+     * Expire subscriptions that ended before today - runs daily at 00:10
+     */
+    @Scheduled(cron = "0 10 0 * * *")
+    public void expireLapsedSubscriptions() {
+        long start = System.nanoTime();
+        try {
+            int users = renewalEngine.expireLapsed(LocalDate.now());
+            jobMetrics.recordRun("subscription.expire", start, users);
+            log.info("Expired lapsed subscriptions for {} users", users);
+        } catch (Exception e) {
+            jobMetrics.recordFailure("subscription.expire", start);
+            log.error("Error expiring lapsed subscriptions", e);
+        }
+    }
+
+    /**
+     * Renew auto-renewing subscriptions that end tomorrow - runs daily at 1 AM
+     */
+    @Scheduled(cron = "0 0 1 * * *")
+    public void renewSubscriptionsDueTomorrow() {
+        long start = System.nanoTime();
+        try {
+            SubscriptionRenewalEngine.RenewalRun run = renewalEngine.renewDueOn(LocalDate.now().plusDays(1));
+            jobMetrics.recordRun("subscription.renew", start, run.scanned());
+        } catch (Exception e) {
+            jobMetrics.recordFailure("subscription.renew", start);
+            log.error("Error during subscription renewal run", e);
+        }
+    }
+}
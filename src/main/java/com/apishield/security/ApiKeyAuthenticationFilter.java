@@ -0,0 +1,81 @@
+package com.apishield.security;
+
+import com.apishield.service.CustomUserDetailsService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Authenticates machine traffic on the usage-ingestion endpoints by the X-API-Key header.
+ * Runs before {@link JwtRequestFilter}; on every other path the header is ignored, so a
+ * leaked ingestion key cannot read or change anything else.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private final ApiKeyRegistry apiKeyRegistry;
+    private final CustomUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+        return !isIngestionEndpoint(request) || request.getHeader(API_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            Optional<ApiKeyRegistry.ActiveKey> key = apiKeyRegistry.verify(request.getHeader(API_KEY_HEADER));
+            if (key.isPresent()) {
+                ApiKeyRegistry.ActiveKey activeKey = key.get();
+                UserPrincipal principal = principalCache.get(activeKey.email(), activeKey.issuedAt());
+                if (principal == null) {
+                    principal = (UserPrincipal) userDetailsService.loadUserByUsername(activeKey.email());
+                    principalCache.put(activeKey.email(), activeKey.issuedAt(), principal);
+                }
+
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+                // Controllers read the bound service from here to enforce per-service keys
+                authentication.setDetails(activeKey);
+
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                log.debug("API key {} authenticated for user: {}", activeKey.prefix(), activeKey.email());
+            } else {
+                log.debug("Invalid API key presented for path: {}", request.getRequestURI());
+            }
+        } catch (Exception e) {
+            log.error("Cannot set API key authentication for path {}: {}", request.getRequestURI(), e.getMessage());
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Whether the authenticated caller used a key bound to a different service than this one
+     */
+    public static boolean isOutsideKeyScope(Object authenticationDetails, Long apiServiceId) {
+        return authenticationDetails instanceof ApiKeyRegistry.ActiveKey key
+                && key.apiServiceId() != null
+                && !key.apiServiceId().equals(apiServiceId);
+    }
+
+    private boolean isIngestionEndpoint(HttpServletRequest request) {
+        return "POST".equals(request.getMethod()) && "/api/usage".equals(request.getRequestURI());
+    }
+}
@@ -0,0 +1,177 @@
+package com.apishield.security;
+
+import com.apishield.repository.ApiKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory index of active API keys by prefix. Keys look like {@code ask_<prefix>.<secret>};
+ * verifying one is a map lookup on the prefix and a constant-time compare of SHA-256 hashes,
+ * with no database access. The whole index is swapped after any key is created or revoked
+ * here, and every {@code reload-ms} to pick up changes made on other instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ApiKeyRegistry {
+
+    public static final String KEY_MARKER = "ask_";
+    public static final int PREFIX_LENGTH = 8;
+    private static final char SEPARATOR = '.';
+
+    private final ApiKeyRepository apiKeyRepository;
+
+    private final AtomicReference<Map<String, ActiveKey>> index = new AtomicReference<>();
+
+    /**
+     * The active key matching this raw key, or empty if it is malformed, unknown or revoked
+     */
+    public Optional<ActiveKey> verify(String rawKey) {
+        String prefix = prefixOf(rawKey);
+        if (prefix == null) {
+            return Optional.empty();
+        }
+        ActiveKey key = getIndex().get(prefix);
+        if (key == null || !MessageDigest.isEqual(sha256(rawKey), key.keyHash())) {
+            return Optional.empty();
+        }
+        return Optional.of(key);
+    }
+
+    public boolean containsPrefix(String prefix) {
+        return getIndex().containsKey(prefix);
+    }
+
+    public void reload() {
+        List<Object[]> rows = apiKeyRepository.findActiveKeyIndex();
+        Map<String, ActiveKey> keys = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            ActiveKey key = new ActiveKey(
+                    (Long) row[0],
+                    (String) row[1],
+                    HexFormat.of().parseHex((String) row[2]),
+                    (String) row[3],
+                    (Long) row[4],
+                    toDate((LocalDateTime) row[5]));
+            keys.put(key.prefix(), key);
+        }
+        index.set(Map.copyOf(keys));
+        log.debug("Loaded {} active API keys", keys.size());
+    }
+
+    /**
+     * Rebuild an index that has been loaded, so a key revoked on another instance stops
+     * working here within one interval. A failed reload keeps the current index.
+     */
+    @Scheduled(fixedDelayString = "${apishield.security.api-keys.reload-ms:30000}")
+    public void refresh() {
+        if (index.get() == null) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Failed to refresh API key index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the index once the current transaction commits, so a revoked key stops
+     * working as soon as the revocation is durable and a rolled-back key never works
+     */
+    public void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(index)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(index, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    reload();
+                } catch (Exception e) {
+                    // Drop the index so the next request loads it rather than trusting a stale one
+                    index.set(null);
+                    log.error("Failed to reload API key index", e);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(index);
+            }
+        });
+    }
+
+    public static String prefixOf(String rawKey) {
+        if (rawKey == null
+                || rawKey.length() <= KEY_MARKER.length() + PREFIX_LENGTH + 1
+                || !rawKey.startsWith(KEY_MARKER)
+                || rawKey.charAt(KEY_MARKER.length() + PREFIX_LENGTH) != SEPARATOR) {
+            return null;
+        }
+        return rawKey.substring(KEY_MARKER.length(), KEY_MARKER.length() + PREFIX_LENGTH);
+    }
+
+    public static String format(String prefix, String secret) {
+        return KEY_MARKER + prefix + SEPARATOR + secret;
+    }
+
+    public static String hashHex(String rawKey) {
+        return HexFormat.of().formatHex(sha256(rawKey));
+    }
+
+    private static byte[] sha256(String rawKey) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(rawKey.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Map<String, ActiveKey> getIndex() {
+        Map<String, ActiveKey> current = index.get();
+        if (current == null) {
+            synchronized (index) {
+                current = index.get();
+                if (current == null) {
+                    reload();
+                    current = index.get();
+                }
+            }
+        }
+        return current;
+    }
+
+    private static Date toDate(LocalDateTime createdAt) {
+        return createdAt != null ? Date.from(createdAt.atZone(ZoneId.systemDefault()).toInstant()) : null;
+    }
+
+    /**
+     * An active key as held in memory. {@code issuedAt} doubles as the principal cache key,
+     * so requests made with one key share a cached principal.
+     */
+    public record ActiveKey(Long id, String prefix, byte[] keyHash, String email, Long apiServiceId, Date issuedAt) {
+    }
+}
@@ -1,6 +1,9 @@
 package com.apishield.security;
 
+import com.apishield.profiling.ApplicationEvents;
+import com.apishield.profiling.JwtFilterEvent;
 import com.apishield.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,6 +19,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -24,6 +28,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final JwtTokenUtil jwtTokenUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
@@ -49,11 +54,21 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         String path = request.getRequestURI();
         log.debug("Processing JWT validation for protected path: {}", path);
 
+        JwtFilterEvent event = new JwtFilterEvent();
+        event.begin();
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtTokenUtil.validateJwtToken(jwt)) {
-                String email = jwtTokenUtil.getEmailFromJwtToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            Optional<Claims> claims = jwt != null ? jwtTokenUtil.parseAndValidate(jwt) : Optional.empty();
+            if (claims.isPresent()) {
+                String email = claims.get().getSubject();
+                UserDetails userDetails = principalCache.get(email, claims.get().getIssuedAt());
+                event.principalCached = userDetails != null;
+                if (userDetails == null) {
+                    UserPrincipal principal = (UserPrincipal) userDetailsService.loadUserByUsername(email);
+                    principalCache.put(email, claims.get().getIssuedAt(), principal);
+                    userDetails = principal;
+                    event.rows = 1;
+                }
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -61,6 +76,10 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                event.authenticated = true;
+                if (userDetails instanceof UserPrincipal principal) {
+                    event.userId = ApplicationEvents.id(principal.getId());
+                }
                 log.debug("Authentication set for user: {}", email);
             } else {
                 log.debug("No valid JWT token found for protected endpoint: {}", path);
@@ -68,6 +87,8 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         } catch (Exception e) {
             log.error("Cannot set user authentication for path {}: {}", path, e.getMessage());
         }
+        // Ends before the rest of the chain so it measures authentication only
+        event.commit();
 
         filterChain.doFilter(request, response);
     }
@@ -2,24 +2,53 @@ package com.apishield.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtTokenUtil {
 
+    private final VerifiedTokenCache tokenCache;
+
     @Value("${apishield.jwt.secret}")
     private String jwtSecret;
 
     @Value("${apishield.jwt.expirationMs}")
     private int jwtExpirationMs;
 
+    // Key and the parser that verifies with it, swapped together on rotation; both immutable and thread-safe
+    private volatile SigningKey signingKey;
+
+    @PostConstruct
+    void init() {
+        signingKey = SigningKey.of(jwtSecret);
+    }
+
+    /**
+     * Sign and verify with a new secret from now on. Tokens signed with the old one stop
+     * validating, including those already in the verified-token cache, which is purged.
+     */
+    public void rotateSigningKey(String secret) {
+        signingKey = SigningKey.of(secret);
+        tokenCache.invalidateAll();
+        log.info("JWT signing key rotated");
+    }
+
+    public long getAccessTokenTtlSeconds() {
+        return jwtExpirationMs / 1000L;
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
@@ -27,35 +56,65 @@ public class JwtTokenUtil {
                 .subject(userPrincipal.getEmail())
                 .issuedAt(new Date())
                 .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey())
+                .signWith(signingKey.key())
                 .compact();
     }
 
-    public String getEmailFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
-    }
-
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Verify the token's signature and expiry and return its claims, parsing it only once.
+     * Tokens verified before are answered from the cache until they expire. Empty if the
+     * token is invalid or revoked.
+     */
+    public Optional<Claims> parseAndValidate(String token) {
+        VerifiedTokenCache.TokenHash hash = token != null ? VerifiedTokenCache.hash(token) : null;
+        if (hash != null) {
+            Claims cached = tokenCache.get(hash);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            if (tokenCache.isRevoked(hash)) {
+                log.debug("Rejected revoked JWT token");
+                return Optional.empty();
+            }
+        }
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            Claims claims = signingKey.parser().parseSignedClaims(token).getPayload();
+            if (hash != null) {
+                tokenCache.put(hash, claims);
+            }
+            return Optional.of(claims);
         } catch (JwtException e) {
             log.error("JWT validation error: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             log.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    public String getEmailFromJwtToken(String token) {
+        return signingKey.parser().parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
     }
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    public boolean validateJwtToken(String authToken) {
+        return parseAndValidate(authToken).isPresent();
+    }
+
+    /**
+     * Reject this token from now until it expires, e.g. on logout. Returns false if the
+     * token was not valid to begin with.
+     */
+    public boolean revokeToken(String token) {
+        Optional<Claims> claims = parseAndValidate(token);
+        claims.ifPresent(c -> tokenCache.revoke(VerifiedTokenCache.hash(token), c.getExpiration()));
+        return claims.isPresent();
+    }
+
+    private record SigningKey(SecretKey key, JwtParser parser) {
+        static SigningKey of(String secret) {
+            SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+            return new SigningKey(key, Jwts.parser().verifyWith(key).build());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.apishield.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory throttling of failed sign-ins, per account and per client IP. Each key gets a
+ * fixed window; once its failures reach the limit it is locked until the window ends, so
+ * credential stuffing is stopped before it reaches BCrypt. A successful sign-in clears the
+ * account's failures but not the IP's.
+ */
+@Component
+public class LoginAttemptThrottle {
+
+    private final ConcurrentHashMap<String, Window> accounts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Window> addresses = new ConcurrentHashMap<>();
+
+    private final int maxAccountFailures;
+    private final int maxIpFailures;
+    private final long windowNanos;
+
+    public LoginAttemptThrottle(@Value("${apishield.security.login.max-account-failures:5}") int maxAccountFailures,
+                                @Value("${apishield.security.login.max-ip-failures:20}") int maxIpFailures,
+                                @Value("${apishield.security.login.window-seconds:900}") long windowSeconds) {
+        this.maxAccountFailures = maxAccountFailures;
+        this.maxIpFailures = maxIpFailures;
+        this.windowNanos = windowSeconds * 1_000_000_000L;
+    }
+
+    /**
+     * Seconds until this account and address may try again, or 0 if they may try now
+     */
+    public long retryAfterSeconds(String email, String ip) {
+        long now = System.nanoTime();
+        long wait = Math.max(
+                lockedFor(accounts.get(normalize(email)), maxAccountFailures, now),
+                lockedFor(ip != null ? addresses.get(ip) : null, maxIpFailures, now));
+        return wait > 0 ? Math.max(1L, (wait + 999_999_999L) / 1_000_000_000L) : 0L;
+    }
+
+    public void recordFailure(String email, String ip) {
+        long now = System.nanoTime();
+        accounts.compute(normalize(email), (key, window) -> increment(window, now));
+        if (ip != null) {
+            addresses.compute(ip, (key, window) -> increment(window, now));
+        }
+    }
+
+    public void recordSuccess(String email) {
+        accounts.remove(normalize(email));
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        accounts.values().removeIf(window -> now - window.startedAtNanos >= windowNanos);
+        addresses.values().removeIf(window -> now - window.startedAtNanos >= windowNanos);
+    }
+
+    private Window increment(Window window, long now) {
+        if (window == null || now - window.startedAtNanos >= windowNanos) {
+            return new Window(now, 1);
+        }
+        return new Window(window.startedAtNanos, window.failures + 1);
+    }
+
+    private long lockedFor(Window window, int maxFailures, long now) {
+        if (window == null || window.failures < maxFailures) {
+            return 0L;
+        }
+        return Math.max(0L, window.startedAtNanos + windowNanos - now);
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Window(long startedAtNanos, int failures) {
+    }
+}
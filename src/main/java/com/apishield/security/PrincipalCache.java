@@ -0,0 +1,144 @@
+package com.apishield.security;
+
+import com.apishield.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authenticated principals keyed by token subject and issue time, so a request with a token
+ * already seen skips the user lookup. Bounded in size, entries expire after a fixed TTL, and
+ * any write to a user drops that user's entries (see {@link UserCacheInvalidator}).
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PrincipalCache(@Value("${apishield.security.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${apishield.security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+    }
+
+    /**
+     * The cached principal for this token, or null on a miss
+     */
+    public UserPrincipal get(String subject, Date issuedAt) {
+        Key key = new Key(subject, toSeconds(issuedAt));
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.expiresAtNanos - System.nanoTime() <= 0) {
+            entries.remove(key, entry);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.principal;
+    }
+
+    public void put(String subject, Date issuedAt, UserPrincipal principal) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            shrink();
+        }
+        entries.put(new Key(subject, toSeconds(issuedAt)), new Entry(principal, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Drop every entry for this user, by email and by id so an email change is covered too.
+     * Inside a transaction the entries are dropped again once it completes, in case a
+     * concurrent request cached the old row in between.
+     */
+    public void invalidate(User user) {
+        String email = user.getEmail();
+        Long id = user.getId();
+        evict(email, id);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(email, id);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${apishield.security.principal-cache.sweep-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.expiresAtNanos - now <= 0);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private void evict(String email, Long id) {
+        entries.entrySet().removeIf(e -> e.getKey().subject().equals(email)
+                || (id != null && Objects.equals(e.getValue().principal.getId(), id)));
+    }
+
+    /**
+     * Make room when full: expired entries first, then the oldest tenth. Runs once per
+     * tenth of the capacity at most, so the sort is amortised across many puts.
+     */
+    private void shrink() {
+        evictExpired();
+        if (entries.size() < maxSize) {
+            return;
+        }
+        long[] expiries = entries.values().stream().mapToLong(entry -> entry.expiresAtNanos).toArray();
+        if (expiries.length == 0) {
+            return;
+        }
+        Arrays.sort(expiries);
+        long cutoff = expiries[Math.min(expiries.length - 1, Math.max(1, maxSize / 10) - 1)];
+        entries.values().removeIf(entry -> entry.expiresAtNanos - cutoff <= 0);
+        log.debug("Principal cache full, evicted down to {} entries", entries.size());
+    }
+
+    private static long toSeconds(Date issuedAt) {
+        // JWT timestamps have second precision
+        return issuedAt != null ? issuedAt.getTime() / 1000L : 0L;
+    }
+
+    private record Key(String subject, long issuedAtSeconds) {
+    }
+
+    private record Entry(UserPrincipal principal, long expiresAtNanos) {
+    }
+}
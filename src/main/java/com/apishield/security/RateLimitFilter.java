@@ -0,0 +1,88 @@
+package com.apishield.security;
+
+import com.apishield.exception.ErrorResponse;
+import com.apishield.health_backup.ApplicationWarmup;
+import com.apishield.service.QuotaService;
+import com.apishield.util.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Runs after {@link JwtRequestFilter}: each authenticated user gets a token bucket for
+ * request rate and a monthly request quota from their plan. Either running out answers
+ * 429 with Retry-After. Unauthenticated requests and the instance's own warm-up requests
+ * pass through untouched.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final QuotaService quotaService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationWarmup applicationWarmup;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)
+                || applicationWarmup.isWarmupRequest(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(principal.getId());
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1L, (waitNanos + 999_999_999L) / 1_000_000_000L);
+            reject(response, retryAfter, "Rate limit exceeded, retry in " + retryAfter + "s");
+            return;
+        }
+
+        boolean withinQuota;
+        try {
+            withinQuota = quotaService.tryConsumeRequest(principal.getId());
+        } catch (Exception e) {
+            // Failing to load limits must not take the API down; let the request through
+            log.error("Quota check failed for user {}: {}", principal.getId(), e.getMessage());
+            withinQuota = true;
+        }
+        if (!withinQuota) {
+            reject(response, quotaService.secondsUntilReset(), "Monthly request quota of your plan is used up");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        log.debug("Rejected request with 429: {}", message);
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Too Many Requests")
+                .message(message)
+                .build();
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
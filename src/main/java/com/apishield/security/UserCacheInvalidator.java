@@ -0,0 +1,27 @@
+package com.apishield.security;
+
+import com.apishield.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link User}: any insert, update or delete of a user (password, role,
+ * currency, a re-registered email) drops that user's cached principals. Hibernate gets the
+ * instance from the Spring context, so the cache is injected.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidator {
+
+    private final PrincipalCache principalCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        principalCache.invalidate(user);
+    }
+}
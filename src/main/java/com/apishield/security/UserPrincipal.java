@@ -1,8 +1,12 @@
 package com.apishield.security;
 
 import com.apishield.model.User;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,6 +23,12 @@ public class UserPrincipal implements UserDetails {
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
 
+    // Detached copy of the row the principal was built from, so controllers need not reload it
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User user;
+
     public static UserPrincipal create(User user) {
         Collection<GrantedAuthority> authorities = Collections.singletonList(
                 new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
@@ -29,10 +39,19 @@ public class UserPrincipal implements UserDetails {
                 user.getName(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities
+                authorities,
+                user.toBuilder().build()
         );
     }
 
+    /**
+     * A fresh copy of the user per call; the principal may be cached and shared between
+     * requests, so callers must not be handed the same instance. Null if not built from a User.
+     */
+    public User getUser() {
+        return user != null ? user.toBuilder().build() : null;
+    }
+
     @Override
     public String getUsername() {
         return email;
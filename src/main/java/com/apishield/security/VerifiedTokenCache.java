@@ -0,0 +1,178 @@
+package com.apishield.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Claims of tokens whose signature has already been verified, keyed by a SHA-256 of the
+ * token so raw tokens are never held. A hot token costs one hash and one map lookup instead
+ * of a base64 decode, HMAC and JSON parse. Entries go at the token's own expiry; when the
+ * cache is full the least recently used tenth is dropped.
+ *
+ * Revoked tokens are remembered separately until they expire, so a logout cannot be undone
+ * by a later cache miss re-verifying the still validly signed token.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    // Only record an access this long after the last one, so hot entries are not rewritten per hit
+    private static final long ACCESS_GRANULARITY_NANOS = 1_000_000_000L;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final ConcurrentHashMap<TokenHash, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TokenHash, Long> revoked = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public VerifiedTokenCache(@Value("${apishield.security.token-cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public static TokenHash hash(String token) {
+        byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buffer = ByteBuffer.wrap(digest);
+        return new TokenHash(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Verified claims for this token, or null if it is not cached or has expired
+     */
+    public Claims get(TokenHash hash) {
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAtMillis) {
+            entries.remove(hash, entry);
+            misses.incrementAndGet();
+            return null;
+        }
+        long now = System.nanoTime();
+        if (now - entry.lastAccessNanos > ACCESS_GRANULARITY_NANOS) {
+            entry.lastAccessNanos = now;
+        }
+        hits.incrementAndGet();
+        return entry.claims;
+    }
+
+    /**
+     * Remember claims that have just been verified. Tokens without an expiry, already
+     * expired or revoked are not cached.
+     */
+    public void put(TokenHash hash, Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (maxSize <= 0 || expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            shrink();
+        }
+        entries.put(hash, new Entry(claims, expiration.getTime(), System.nanoTime()));
+        // A revoke racing with this put must win
+        if (revoked.containsKey(hash)) {
+            entries.remove(hash);
+        }
+    }
+
+    public boolean isRevoked(TokenHash hash) {
+        return !revoked.isEmpty() && revoked.containsKey(hash);
+    }
+
+    /**
+     * Revocation hook for logout: the token is rejected until it would have expired anyway
+     */
+    public void revoke(TokenHash hash, Date expiresAt) {
+        revoked.put(hash, expiresAt != null ? expiresAt.getTime() : Long.MAX_VALUE);
+        entries.remove(hash);
+    }
+
+    /**
+     * Revocation hook for key rotation: forget everything verified with the old key
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${apishield.security.token-cache.sweep-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> now >= entry.expiresAtMillis);
+        revoked.values().removeIf(expiresAt -> now >= expiresAt);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Make room when full: expired entries first, then the least recently used tenth
+     */
+    private void shrink() {
+        int before = entries.size();
+        evictExpired();
+        if (entries.size() >= maxSize) {
+            long[] accesses = entries.values().stream().mapToLong(entry -> entry.lastAccessNanos).toArray();
+            if (accesses.length > 0) {
+                Arrays.sort(accesses);
+                long cutoff = accesses[Math.min(accesses.length - 1, Math.max(1, maxSize / 10) - 1)];
+                entries.values().removeIf(entry -> entry.lastAccessNanos - cutoff <= 0);
+            }
+        }
+        evictions.addAndGet(Math.max(0, before - entries.size()));
+    }
+
+    public record TokenHash(long h0, long h1, long h2, long h3) {
+    }
+
+    private static final class Entry {
+        private final Claims claims;
+        private final long expiresAtMillis;
+        private volatile long lastAccessNanos;
+
+        private Entry(Claims claims, long expiresAtMillis, long lastAccessNanos) {
+            this.claims = claims;
+            this.expiresAtMillis = expiresAtMillis;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.apishield.dto.alert.*;
 import com.apishield.exception.BadRequestException;
 import com.apishield.exception.ResourceNotFoundException;
 import com.apishield.model.*;
+import com.apishield.profiling.AlertEvaluationEvent;
+import com.apishield.profiling.ApplicationEvents;
 import com.apishield.repository.*;
 import com.apishield.util.AlertProcessor;
 import com.apishield.util.AnalyticsCalculator;
@@ -186,30 +188,47 @@ public class AlertService {
     @Transactional
     public void checkApiServiceAlerts(AlertThreshold threshold) {
         ApiService apiService = threshold.getApiService();
+        AlertEvaluationEvent event = new AlertEvaluationEvent();
+        event.begin();
+        int alertsRaised = 0;
 
         try {
             // Check budget utilization alerts
             double utilizationPercent = apiService.getUtilizationPercentage();
             Alert budgetAlert = alertProcessor.processBudgetAlert(apiService, threshold, utilizationPercent);
             if (budgetAlert != null) {
+                alertsRaised++;
                 log.info("Generated budget alert for API service: {}", apiService.getName());
             }
 
             // Check usage spike alerts
-            checkUsageSpikes(threshold);
+            if (checkUsageSpikes(threshold)) {
+                alertsRaised++;
+            }
 
             // Check error rate alerts
-            checkErrorRates(threshold);
+            if (checkErrorRates(threshold)) {
+                alertsRaised++;
+            }
 
             // Auto-resolve old alerts
             alertProcessor.autoResolveOldAlerts(apiService);
 
         } catch (Exception e) {
             log.error("Error checking alerts for API service: {}", apiService.getName(), e);
+        } finally {
+            if (event.shouldCommit()) {
+                // getId() on an uninitialised user proxy does not load it
+                event.userId = apiService.getUser() != null ? ApplicationEvents.id(apiService.getUser().getId()) : 0L;
+                event.apiServiceId = ApplicationEvents.id(apiService.getId());
+                event.thresholdId = ApplicationEvents.id(threshold.getId());
+                event.rows = alertsRaised;
+                event.commit();
+            }
         }
     }
 
-    private void checkUsageSpikes(AlertThreshold threshold) {
+    private boolean checkUsageSpikes(AlertThreshold threshold) {
         ApiService apiService = threshold.getApiService();
         LocalDate yesterday = LocalDate.now().minusDays(1);
         LocalDate dayBeforeYesterday = LocalDate.now().minusDays(2);
@@ -227,11 +246,13 @@ public class AlertService {
                     spikePercent, currentUsage, previousUsage);
             if (spikeAlert != null) {
                 log.info("Generated usage spike alert for API service: {}", apiService.getName());
+                return true;
             }
         }
+        return false;
     }
 
-    private void checkErrorRates(AlertThreshold threshold) {
+    private boolean checkErrorRates(AlertThreshold threshold) {
         ApiService apiService = threshold.getApiService();
         LocalDate yesterday = LocalDate.now().minusDays(1);
 
@@ -245,8 +266,10 @@ public class AlertService {
                     errorRate, usageLog.getRequestsMade());
             if (errorAlert != null) {
                 log.info("Generated error rate alert for API service: {}", apiService.getName());
+                return true;
             }
         }
+        return false;
     }
 
 
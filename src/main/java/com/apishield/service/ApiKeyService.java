@@ -0,0 +1,121 @@
+package com.apishield.service;
+
+import com.apishield.dto.apikey.ApiKeyRequest;
+import com.apishield.dto.apikey.ApiKeyResponse;
+import com.apishield.exception.BadRequestException;
+import com.apishield.exception.ResourceNotFoundException;
+import com.apishield.model.ApiKey;
+import com.apishield.model.ApiService;
+import com.apishield.model.User;
+import com.apishield.repository.ApiKeyRepository;
+import com.apishield.repository.ApiServiceRepository;
+import com.apishield.security.ApiKeyRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ApiKeyService {
+
+    private static final int SECRET_BYTES = 32;
+    private static final int MAX_PREFIX_ATTEMPTS = 5;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final ApiServiceRepository apiServiceRepository;
+    private final ApiKeyRegistry apiKeyRegistry;
+
+    /**
+     * Issue a new key. The full key is only ever returned here; afterwards only its
+     * prefix is shown.
+     */
+    @Transactional
+    public ApiKeyResponse createApiKey(User user, ApiKeyRequest request) {
+        log.info("Creating API key '{}' for user: {}", request.getName(), user.getEmail());
+
+        ApiService apiService = null;
+        if (request.getApiServiceId() != null) {
+            apiService = apiServiceRepository.findByIdAndUser(request.getApiServiceId(), user)
+                    .orElseThrow(() -> new ResourceNotFoundException("API service not found"));
+        }
+
+        String prefix = newPrefix();
+        byte[] secret = new byte[SECRET_BYTES];
+        RANDOM.nextBytes(secret);
+        String rawKey = ApiKeyRegistry.format(prefix, Base64.getUrlEncoder().withoutPadding().encodeToString(secret));
+
+        ApiKey apiKey = ApiKey.builder()
+                .user(user)
+                .apiService(apiService)
+                .name(request.getName())
+                .prefix(prefix)
+                .keyHash(ApiKeyRegistry.hashHex(rawKey))
+                .build();
+
+        ApiKey savedKey = apiKeyRepository.save(apiKey);
+        apiKeyRegistry.reloadAfterCommit();
+        log.info("Created API key with prefix {} for user: {}", prefix, user.getEmail());
+
+        ApiKeyResponse response = mapToResponse(savedKey, request.getApiServiceId());
+        response.setKey(rawKey);
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ApiKeyResponse> getApiKeys(User user) {
+        return apiKeyRepository.findByUserOrderByCreatedAtDesc(user).stream()
+                .map(key -> mapToResponse(key, key.getApiService() != null ? key.getApiService().getId() : null))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public void revokeApiKey(User user, Long id) {
+        log.info("Revoking API key with ID: {} for user: {}", id, user.getEmail());
+
+        ApiKey apiKey = apiKeyRepository.findByIdAndUser(id, user)
+                .orElseThrow(() -> new ResourceNotFoundException("API key not found with ID: " + id));
+
+        if (!apiKey.getIsActive()) {
+            return;
+        }
+        apiKey.setIsActive(false);
+        apiKey.setRevokedAt(LocalDateTime.now());
+        apiKeyRepository.save(apiKey);
+        apiKeyRegistry.reloadAfterCommit();
+    }
+
+    private String newPrefix() {
+        byte[] bytes = new byte[ApiKeyRegistry.PREFIX_LENGTH / 2];
+        for (int attempt = 0; attempt < MAX_PREFIX_ATTEMPTS; attempt++) {
+            RANDOM.nextBytes(bytes);
+            String prefix = HexFormat.of().formatHex(bytes);
+            if (!apiKeyRepository.existsByPrefix(prefix)) {
+                return prefix;
+            }
+        }
+        throw new BadRequestException("Could not allocate a unique API key prefix, please retry");
+    }
+
+    private ApiKeyResponse mapToResponse(ApiKey apiKey, Long apiServiceId) {
+        return ApiKeyResponse.builder()
+                .id(apiKey.getId())
+                .name(apiKey.getName())
+                .prefix(apiKey.getPrefix())
+                .apiServiceId(apiServiceId)
+                .isActive(apiKey.getIsActive())
+                .createdAt(apiKey.getCreatedAt())
+                .revokedAt(apiKey.getRevokedAt())
+                .build();
+    }
+}
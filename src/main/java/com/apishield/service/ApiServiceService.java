@@ -26,6 +26,8 @@ public class ApiServiceService {
 
     private final ApiServiceRepository apiServiceRepository;
     private final BudgetCalculator budgetCalculator;
+    private final SpendLedgerService spendLedgerService;
+    private final QuotaService quotaService;
 
     @Transactional
     public ApiServiceResponse createApiService(User user, ApiServiceRequest request) {
@@ -36,6 +38,11 @@ public class ApiServiceService {
             throw new BadRequestException("API service with name '" + request.getName() + "' already exists");
         }
 
+        int maxApiServices = quotaService.getMaxApiServices(user.getId());
+        if (maxApiServices > 0 && apiServiceRepository.countByUser(user) >= maxApiServices) {
+            throw new BadRequestException("Your plan allows at most " + maxApiServices + " API services");
+        }
+
         ApiService apiService = ApiService.builder()
                 .user(user)
                 .name(request.getName())
@@ -46,6 +53,7 @@ public class ApiServiceService {
                 .build();
 
         ApiService savedApiService = apiServiceRepository.save(apiService);
+        spendLedgerService.recordUsage(savedApiService, savedApiService.getUsageCount());
         log.info("Successfully created API service with ID: {}", savedApiService.getId());
 
         return mapToResponse(savedApiService, user);
@@ -86,6 +94,9 @@ public class ApiServiceService {
         ApiService apiService = apiServiceRepository.findByIdAndUser(id, user)
                 .orElseThrow(() -> new ResourceNotFoundException("API service not found with ID: " + id));
 
+        double previousUsageCount = apiService.getUsageCount();
+        double previousCostPerUnit = apiService.getCostPerUnit();
+
         // Check for name uniqueness if name is being updated
         if (request.getName() != null && !request.getName().equals(apiService.getName())) {
             if (apiServiceRepository.existsByNameAndUserAndIdNot(request.getName(), user, id)) {
@@ -109,6 +120,10 @@ public class ApiServiceService {
         }
 
         ApiService updatedApiService = apiServiceRepository.save(apiService);
+
+        // Re-price existing usage first, then record the usage movement at the new cost
+        spendLedgerService.recordCostChange(updatedApiService, previousUsageCount, previousCostPerUnit);
+        spendLedgerService.recordUsage(updatedApiService, updatedApiService.getUsageCount() - previousUsageCount);
         log.info("Successfully updated API service with ID: {}", updatedApiService.getId());
 
         return mapToResponse(updatedApiService, user);
@@ -121,6 +136,7 @@ public class ApiServiceService {
         ApiService apiService = apiServiceRepository.findByIdAndUser(id, user)
                 .orElseThrow(() -> new ResourceNotFoundException("API service not found with ID: " + id));
 
+        spendLedgerService.recordServiceRemoval(apiService);
         apiServiceRepository.delete(apiService);
         log.info("Successfully deleted API service with ID: {}", id);
     }
@@ -132,8 +148,10 @@ public class ApiServiceService {
         ApiService apiService = apiServiceRepository.findByIdAndUser(id, user)
                 .orElseThrow(() -> new ResourceNotFoundException("API service not found with ID: " + id));
 
+        double previousUsageCount = apiService.getUsageCount();
         apiService.setUsageCount(newUsageCount);
         ApiService updatedApiService = apiServiceRepository.save(apiService);
+        spendLedgerService.recordUsage(updatedApiService, newUsageCount - previousUsageCount);
 
         return mapToResponse(updatedApiService, user);
     }
@@ -171,8 +189,8 @@ public class ApiServiceService {
                 .costPerUnit(apiService.getCostPerUnit())
                 .usageCount(apiService.getUsageCount())
                 .utilizationPercentage(Math.round(utilizationPercentage * 100.0) / 100.0)
-                .remainingBudget(Math.round(remainingBudget * 100.0) / 100.0)
-                .totalSpent(Math.round(totalSpent * 100.0) / 100.0)
+                .remainingBudget(remainingBudget)
+                .totalSpent(totalSpent)
                 .status(status)
                 .createdAt(apiService.getCreatedAt())
                 .updatedAt(apiService.getUpdatedAt())
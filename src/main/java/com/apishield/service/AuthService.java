@@ -3,27 +3,34 @@ package com.apishield.service;
 import com.apishield.dto.UserResponse;
 import com.apishield.dto.auth.AuthResponse;
 import com.apishield.dto.auth.LoginRequest;
+import com.apishield.dto.auth.RefreshTokenRequest;
 import com.apishield.dto.auth.RegisterRequest;
 import com.apishield.exception.BadRequestException;
+import com.apishield.exception.TooManyRequestsException;
 import com.apishield.model.User;
 import com.apishield.repository.UserRepository;
 import com.apishield.security.JwtTokenUtil;
+import com.apishield.security.LoginAttemptThrottle;
+import com.apishield.security.PasswordHasher;
+import com.apishield.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AuthService {
 
-    private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final LoginAttemptThrottle loginAttemptThrottle;
     private final JwtTokenUtil jwtTokenUtil;
+    private final RefreshTokenService refreshTokenService;
 
     public AuthResponse register(RegisterRequest registerRequest) {
         if (userRepository.existsByEmail(registerRequest.getEmail())) {
@@ -34,49 +41,90 @@ public class AuthService {
                 .name(registerRequest.getName())
                 .username(registerRequest.getEmail()) // Use email as username or generate one
                 .email(registerRequest.getEmail())
-                .password(passwordEncoder.encode(registerRequest.getPassword()))
+                .password(passwordHasher.encode(registerRequest.getPassword()))
                 .role(User.Role.USER)
                 .currency(User.Currency.USD) // Set default currency
                 .build();
 
         User savedUser = userRepository.save(user);
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        registerRequest.getEmail(),
-                        registerRequest.getPassword()
-                )
-        );
+        // The password was hashed a moment ago, no need to check it again
+        return issueTokens(savedUser, refreshTokenService.issue(savedUser));
+    }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtTokenUtil.generateJwtToken(authentication);
+    /**
+     * Credentials are looked up on the request thread and only the BCrypt comparison runs on
+     * the hashing pool. Repeated failures for the account or client address are refused before
+     * any hashing, and a hash made at an old cost is replaced once the password is known good.
+     */
+    public AuthResponse login(LoginRequest loginRequest, String clientIp) {
+        String email = loginRequest.getEmail();
+        long retryAfter = loginAttemptThrottle.retryAfterSeconds(email, clientIp);
+        if (retryAfter > 0) {
+            throw new TooManyRequestsException("Too many failed sign-in attempts, please try again later", retryAfter);
+        }
 
-        return AuthResponse.builder()
-                .token(jwt)
-                .user(mapToUserResponse(savedUser))
-                .build();
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null) {
+            passwordHasher.matchDummy(loginRequest.getPassword());
+            loginAttemptThrottle.recordFailure(email, clientIp);
+            throw new BadCredentialsException("Bad credentials");
+        }
+        if (!passwordHasher.matches(loginRequest.getPassword(), user.getPassword())) {
+            loginAttemptThrottle.recordFailure(email, clientIp);
+            throw new BadCredentialsException("Bad credentials");
+        }
+        loginAttemptThrottle.recordSuccess(email);
+
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHasher.encode(loginRequest.getPassword()));
+            user = userRepository.save(user);
+            log.info("Rehashed password for user {} at the configured cost", user.getId());
+        }
+
+        return issueTokens(user, refreshTokenService.issue(user));
     }
 
-    public AuthResponse login(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getEmail(),
-                        loginRequest.getPassword()
-                )
-        );
+    /**
+     * New access token for a valid refresh token, which is rotated in the same step.
+     * No password check and no BCrypt.
+     */
+    public AuthResponse refresh(RefreshTokenRequest refreshTokenRequest) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshTokenRequest.getRefreshToken());
+        return issueTokens(rotation.user(), rotation.refreshToken());
+    }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtTokenUtil.generateJwtToken(authentication);
+    public void logout(String authorizationHeader, String refreshToken) {
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            jwtTokenUtil.revokeToken(authorizationHeader.substring(7));
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        SecurityContextHolder.clearContext();
+    }
 
-        User user = userRepository.findByEmail(loginRequest.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private AuthResponse issueTokens(User user, String refreshToken) {
+        Authentication authentication = authenticate(user);
+        String jwt = jwtTokenUtil.generateJwtToken(authentication);
 
         return AuthResponse.builder()
                 .token(jwt)
+                .type("Bearer")
+                .expiresIn(jwtTokenUtil.getAccessTokenTtlSeconds())
+                .refreshToken(refreshToken)
                 .user(mapToUserResponse(user))
                 .build();
     }
 
+    private Authentication authenticate(User user) {
+        UserPrincipal principal = UserPrincipal.create(user);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                principal, null, principal.getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return authentication;
+    }
+
     private UserResponse mapToUserResponse(User user) {
         return UserResponse.builder()
                 .id(user.getId())
@@ -0,0 +1,200 @@
+package com.apishield.service;
+
+import com.apishield.dto.budget.BudgetPeriodResponse;
+import com.apishield.model.Budget;
+import com.apishield.model.BudgetPeriod;
+import com.apishield.model.User;
+import com.apishield.model.UserSettings;
+import com.apishield.repository.BudgetPeriodRepository;
+import com.apishield.repository.BudgetRepository;
+import com.apishield.repository.UsageLogRepository;
+import com.apishield.repository.UserSettingsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Calendar-month budget periods, one row per user per month in the user's timezone.
+ * The open period carries a running spend counter fed by the spend ledger; closed
+ * periods are the history that month-over-month comparisons are served from.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetPeriodService {
+
+    private final BudgetPeriodRepository budgetPeriodRepository;
+    private final BudgetRepository budgetRepository;
+    private final UserSettingsRepository userSettingsRepository;
+    private final UsageLogRepository usageLogRepository;
+
+    @Transactional(readOnly = true)
+    public Optional<BudgetPeriod> findOpenPeriod(User user) {
+        return budgetPeriodRepository.findFirstByUserAndStatus(user, BudgetPeriod.Status.OPEN);
+    }
+
+    /**
+     * Make sure the user has an open period carrying the given budget amount
+     */
+    @Transactional
+    public BudgetPeriod syncOpenPeriod(User user, double monthlyBudget) {
+        Optional<BudgetPeriod> openPeriod = findOpenPeriod(user);
+
+        if (openPeriod.isPresent()) {
+            BudgetPeriod period = openPeriod.get();
+            period.setBudgetAmount(monthlyBudget);
+            return budgetPeriodRepository.save(period);
+        }
+
+        ZoneId zoneId = resolveZone(user);
+        YearMonth month = YearMonth.now(zoneId);
+
+        // The very first period starts mid-month, so seed it from this month's usage logs
+        double initialSpend = 0.0;
+        if (!budgetPeriodRepository.existsByUser(user)) {
+            initialSpend = usageLogRepository.getTotalCostByUserAndDateRange(
+                    user, month.atDay(1), month.atEndOfMonth()).orElse(0.0);
+        }
+
+        return openPeriod(user, month, zoneId, monthlyBudget, initialSpend);
+    }
+
+    /**
+     * Add spend to the period containing usageDate (today in the user's timezone when null).
+     * An open period whose month has ended is rolled over first, so spend never lands in a
+     * month it was not incurred in. No-op when the user has no budget yet, or when the date
+     * falls before the first period.
+     */
+    @Transactional
+    public void recordSpend(User user, double amount, LocalDate usageDate) {
+        LocalDate date = usageDate != null ? usageDate : LocalDate.now(resolveZone(user));
+        if (budgetPeriodRepository.incrementSpentOn(user, date, amount) > 0) {
+            return;
+        }
+
+        BudgetPeriod openPeriod = findOpenPeriod(user).orElse(null);
+        if (openPeriod == null || !date.isAfter(openPeriod.getPeriodEnd())) {
+            log.debug("No budget period covers {} for user: {}", date, user.getEmail());
+            return;
+        }
+
+        // The scheduler has not rolled this user over yet; do it now rather than wait
+        rollOver(openPeriod.getId());
+        if (budgetPeriodRepository.incrementSpentOn(user, date, amount) == 0) {
+            // Dated beyond the current month; it still counts against the open period
+            budgetPeriodRepository.incrementOpenPeriodSpent(user, amount);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findPeriodsDueForRollover() {
+        // No timezone is more than a day ahead of UTC, so this over-selects slightly;
+        // rollOver re-checks each period against its own timezone
+        return budgetPeriodRepository.findOpenPeriodIdsEndingBefore(LocalDate.now(ZoneOffset.UTC).plusDays(1));
+    }
+
+    @Transactional(readOnly = true)
+    public List<User> findUsersWithoutOpenPeriod() {
+        return budgetRepository.findUsersWithoutOpenPeriod();
+    }
+
+    /**
+     * Close the period if its month has ended in its timezone and open the current month
+     *
+     * @return true if the period was rolled over
+     */
+    @Transactional
+    public boolean rollOver(Long periodId) {
+        BudgetPeriod period = budgetPeriodRepository.findById(periodId).orElse(null);
+        if (period == null || !period.isDueForRollover()) {
+            return false;
+        }
+
+        // Conditional close: of a scheduled and an inline rollover racing, only one opens the next month
+        if (budgetPeriodRepository.closeOpenPeriod(periodId, LocalDateTime.now()) == 0) {
+            return false;
+        }
+
+        User user = period.getUser();
+        double monthlyBudget = budgetRepository.findByUser(user)
+                .map(Budget::getMonthlyBudget)
+                .orElse(period.getBudgetAmount());
+
+        // Pick up timezone changes made during the closed month
+        ZoneId zoneId = resolveZone(user);
+        openPeriod(user, YearMonth.now(zoneId), zoneId, monthlyBudget, 0.0);
+
+        log.info("Rolled over budget period {} for user: {} (spent {} of {})",
+                period.getPeriodStart(), user.getEmail(), period.getSpentAmount(), period.getBudgetAmount());
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public List<BudgetPeriodResponse> getHistory(User user, int months) {
+        List<BudgetPeriod> periods = budgetPeriodRepository
+                .findByUserOrderByPeriodStartDesc(user, PageRequest.of(0, months));
+
+        List<BudgetPeriodResponse> history = new ArrayList<>(periods.size());
+        for (int i = 0; i < periods.size(); i++) {
+            BudgetPeriod previous = i + 1 < periods.size() ? periods.get(i + 1) : null;
+            history.add(mapToResponse(periods.get(i), previous));
+        }
+        return history;
+    }
+
+    private BudgetPeriod openPeriod(User user, YearMonth month, ZoneId zoneId,
+                                    double budgetAmount, double initialSpend) {
+        BudgetPeriod period = BudgetPeriod.builder()
+                .user(user)
+                .periodStart(month.atDay(1))
+                .periodEnd(month.atEndOfMonth())
+                .timezone(zoneId.getId())
+                .budgetAmount(budgetAmount)
+                .spentAmount(initialSpend)
+                .status(BudgetPeriod.Status.OPEN)
+                .build();
+
+        BudgetPeriod savedPeriod = budgetPeriodRepository.save(period);
+        log.info("Opened budget period {} ({}) for user: {}", month, zoneId, user.getEmail());
+        return savedPeriod;
+    }
+
+    private ZoneId resolveZone(User user) {
+        return userSettingsRepository.findByUser(user)
+                .map(UserSettings::getZoneId)
+                .orElse(ZoneId.of("UTC"));
+    }
+
+    private BudgetPeriodResponse mapToResponse(BudgetPeriod period, BudgetPeriod previous) {
+        Double changeFromPrevious = null;
+        if (previous != null && previous.getSpentAmount() > 0) {
+            double change = (period.getSpentAmount() - previous.getSpentAmount()) / previous.getSpentAmount() * 100.0;
+            changeFromPrevious = Math.round(change * 100.0) / 100.0;
+        }
+
+        return BudgetPeriodResponse.builder()
+                .id(period.getId())
+                .periodStart(period.getPeriodStart())
+                .periodEnd(period.getPeriodEnd())
+                .timezone(period.getTimezone())
+                .budgetAmount(period.getBudgetAmount())
+                .spentAmount(Math.round(period.getSpentAmount() * 100.0) / 100.0)
+                .remainingBudget(Math.round(period.getRemainingBudget() * 100.0) / 100.0)
+                .utilizationPercentage(Math.round(period.getUtilizationPercentage() * 100.0) / 100.0)
+                .status(period.getStatus())
+                .closedAt(period.getClosedAt())
+                .changeFromPreviousPercentage(changeFromPrevious)
+                .build();
+    }
+}
@@ -1,10 +1,14 @@
 package com.apishield.service;
 
+import com.apishield.dto.budget.BudgetPeriodResponse;
 import com.apishield.dto.budget.BudgetRequest;
 import com.apishield.dto.budget.BudgetResponse;
 import com.apishield.dto.budget.BudgetUpdateRequest;
+import com.apishield.dto.budget.SpendLedgerEntryResponse;
 import com.apishield.exception.ResourceNotFoundException;
 import com.apishield.model.Budget;
+import com.apishield.model.BudgetPeriod;
+import com.apishield.model.SpendLedgerEntry;
 import com.apishield.model.User;
 import com.apishield.repository.ApiServiceRepository;
 import com.apishield.repository.BudgetRepository;
@@ -12,9 +16,15 @@ import com.apishield.util.BudgetCalculator;
 import com.apishield.util.DateUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -24,27 +34,31 @@ public class BudgetService {
     private final ApiServiceRepository apiServiceRepository;
     private final BudgetCalculator budgetCalculator;
     private final DateUtil dateUtil;
+    private final SpendLedgerService spendLedgerService;
+    private final BudgetPeriodService budgetPeriodService;
 
     @Transactional
     public BudgetResponse createOrUpdateBudget(User user, BudgetRequest request) {
         log.info("Creating/updating budget for user: {} with amount: {}", user.getEmail(), request.getMonthlyBudget());
 
-        Budget budget = budgetRepository.findByUser(user)
-                .orElse(Budget.builder()
-                        .user(user)
-                        .spentAmount(0.0)
-                        .build());
+        Optional<Budget> existingBudget = budgetRepository.findByUser(user);
+        Budget budget = existingBudget.orElseGet(() -> Budget.builder()
+                .user(user)
+                .spentAmount(0.0)
+                .build());
 
         budget.setMonthlyBudget(request.getMonthlyBudget());
 
-        // Recalculate spent amount from API services
-        Double totalSpent = calculateTotalSpentFromApiServices(user);
-        budget.setSpentAmount(totalSpent);
+        // Seed a new budget from the reconciled ledger; afterwards the ledger keeps it current
+        if (existingBudget.isEmpty()) {
+            budget.setSpentAmount(spendLedgerService.reconcile(user));
+        }
 
         Budget savedBudget = budgetRepository.save(budget);
+        BudgetPeriod period = budgetPeriodService.syncOpenPeriod(user, savedBudget.getMonthlyBudget());
         log.info("Successfully created/updated budget with ID: {}", savedBudget.getId());
 
-        return mapToBudgetResponse(savedBudget, user);
+        return mapToBudgetResponse(savedBudget, period, user);
     }
 
     @Transactional
@@ -58,33 +72,23 @@ public class BudgetService {
             budget.setMonthlyBudget(request.getMonthlyBudget());
         }
 
-        // Recalculate spent amount
-        Double totalSpent = calculateTotalSpentFromApiServices(user);
-        budget.setSpentAmount(totalSpent);
-
         Budget updatedBudget = budgetRepository.save(budget);
+        BudgetPeriod period = budgetPeriodService.syncOpenPeriod(user, updatedBudget.getMonthlyBudget());
         log.info("Successfully updated budget with ID: {}", updatedBudget.getId());
 
-        return mapToBudgetResponse(updatedBudget, user);
+        return mapToBudgetResponse(updatedBudget, period, user);
     }
 
     @Transactional(readOnly = true)
     public BudgetResponse getBudget(User user) {
         log.info("Fetching budget for user: {}", user.getEmail());
 
+        // Spent amount is maintained by the spend ledger, so this is a plain lookup
         Budget budget = budgetRepository.findByUser(user)
-                .orElse(createDefaultBudget(user));
+                .orElseGet(() -> createDefaultBudget(user));
+        BudgetPeriod period = budgetPeriodService.findOpenPeriod(user).orElse(null);
 
-        // Always recalculate spent amount for accuracy
-        Double totalSpent = calculateTotalSpentFromApiServices(user);
-        if (!budget.getSpentAmount().equals(totalSpent)) {
-            budget.setSpentAmount(totalSpent);
-            if (budget.getId() != null) {
-                budgetRepository.save(budget);
-            }
-        }
-
-        return mapToBudgetResponse(budget, user);
+        return mapToBudgetResponse(budget, period, user);
     }
 
     @Transactional
@@ -93,13 +97,27 @@ public class BudgetService {
 
         Budget budget = budgetRepository.findByUser(user).orElse(null);
         if (budget != null) {
-            Double totalSpent = calculateTotalSpentFromApiServices(user);
+            double totalSpent = spendLedgerService.reconcile(user);
             budget.setSpentAmount(totalSpent);
             budgetRepository.save(budget);
             log.info("Updated spent amount to: {} for user: {}", totalSpent, user.getEmail());
         }
     }
 
+    @Transactional(readOnly = true)
+    public Page<SpendLedgerEntryResponse> getLedger(User user, Pageable pageable) {
+        log.info("Fetching spend ledger for user: {} with page: {}", user.getEmail(), pageable.getPageNumber());
+
+        return spendLedgerService.getEntries(user, pageable)
+                .map(this::mapToLedgerEntryResponse);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BudgetPeriodResponse> getBudgetHistory(User user, int months) {
+        log.info("Fetching {} months of budget history for user: {}", months, user.getEmail());
+        return budgetPeriodService.getHistory(user, months);
+    }
+
     @Transactional(readOnly = true)
     public boolean hasBudget(User user) {
         return budgetRepository.existsByUser(user);
@@ -119,22 +137,34 @@ public class BudgetService {
                 .orElse(0.0);
     }
 
-    private Double calculateTotalSpentFromApiServices(User user) {
-        return apiServiceRepository.getTotalSpentByUser(user).orElse(0.0);
-    }
-
     private Budget createDefaultBudget(User user) {
         return Budget.builder()
                 .user(user)
                 .monthlyBudget(0.0)
-                .spentAmount(0.0)
+                .spentAmount(spendLedgerService.getBalance(user))
                 .build();
     }
 
-    private BudgetResponse mapToBudgetResponse(Budget budget, User user) {
-        int daysLeftInMonth = dateUtil.getDaysLeftInMonth();
-        double dailySpendingRate = dateUtil.calculateDailySpendingRate(budget.getSpentAmount());
-        double projectedSpending = dateUtil.projectMonthlySpending(budget.getSpentAmount());
+    private SpendLedgerEntryResponse mapToLedgerEntryResponse(SpendLedgerEntry entry) {
+        return SpendLedgerEntryResponse.builder()
+                .id(entry.getId())
+                .apiServiceId(entry.getApiServiceId())
+                .entryType(entry.getEntryType())
+                .usageDelta(entry.getUsageDelta())
+                .costPerUnit(entry.getCostPerUnit())
+                .amount(Math.round(entry.getAmount() * 100.0) / 100.0)
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+
+    private BudgetResponse mapToBudgetResponse(Budget budget, BudgetPeriod period, User user) {
+        // Month-to-date figures come from the open period, in the timezone the period was opened in
+        ZoneId zoneId = period != null ? period.getZoneId() : ZoneId.of("UTC");
+        double periodSpent = period != null ? period.getSpentAmount() : 0.0;
+
+        int daysLeftInMonth = dateUtil.getDaysLeftInMonth(zoneId);
+        double dailySpendingRate = dateUtil.calculateDailySpendingRate(periodSpent, zoneId);
+        double projectedSpending = dateUtil.projectMonthlySpending(periodSpent, zoneId);
 
         // Get API services statistics
         long totalApiServices = apiServiceRepository.countByUser(user);
@@ -154,6 +184,11 @@ public class BudgetService {
                 .daysLeftInMonth(daysLeftInMonth)
                 .dailySpendingRate(Math.round(dailySpendingRate * 100.0) / 100.0)
                 .projectedMonthlySpending(Math.round(projectedSpending * 100.0) / 100.0)
+                .periodStart(period != null ? period.getPeriodStart() : null)
+                .periodEnd(period != null ? period.getPeriodEnd() : null)
+                .periodSpentAmount(Math.round(periodSpent * 100.0) / 100.0)
+                .periodRemainingBudget(period != null ?
+                        Math.round(period.getRemainingBudget() * 100.0) / 100.0 : null)
                 .createdAt(budget.getCreatedAt())
                 .updatedAt(budget.getUpdatedAt())
                 .currencySymbol(currencySymbol)
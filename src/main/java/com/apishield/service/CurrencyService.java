@@ -5,7 +5,9 @@ import com.apishield.dto.settings.CurrencyConversionResponse;
 import com.apishield.model.CurrencyRate;
 import com.apishield.model.User;
 import com.apishield.repository.CurrencyRateRepository;
+import com.apishield.util.AmountFormatter;
 import com.apishield.util.CurrencyConverter;
+import com.apishield.util.ExchangeRateHistory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 
@@ -24,6 +27,7 @@ public class CurrencyService {
 
     private final CurrencyRateRepository currencyRateRepository;
     private final CurrencyConverter currencyConverter;
+    private final ExchangeRateHistory exchangeRateHistory;
 
     // Add this method for the refresh endpoint
     @Transactional
@@ -52,6 +56,7 @@ public class CurrencyService {
                 }
             }
 
+            currencyConverter.reloadRatesAfterCommit();
             log.info("Successfully refreshed {} exchange rates", latestRates.size());
         } catch (Exception e) {
             log.error("Error during currency rates refresh: ", e);
@@ -122,6 +127,8 @@ public class CurrencyService {
                     currencyRateRepository.save(newCurrencyRate);
                 }
             }
+
+            exchangeRateHistory.record(fromCurrency, toCurrency, newRate, "EXTERNAL_API", LocalDateTime.now());
         } catch (Exception e) {
             log.error("Error processing rate {} -> {}: {}", fromCurrency, toCurrency, e.getMessage());
             throw e;
@@ -129,27 +136,27 @@ public class CurrencyService {
     }
 
     @Transactional(readOnly = true)
-    public CurrencyConversionResponse convertCurrency(CurrencyConversionRequest request) {
+    public CurrencyConversionResponse convertCurrency(CurrencyConversionRequest request, Locale locale) {
         log.info("Converting {} {} to {}", request.getAmount(), request.getFromCurrency(), request.getToCurrency());
 
-        double exchangeRate = currencyConverter.getExchangeRate(request.getFromCurrency(), request.getToCurrency());
+        // The rate and its metadata come from one snapshot, so a reload in between cannot mix them
+        CurrencyConverter.RateSnapshot rates = currencyConverter.getSnapshot();
+        double snapshotRate = rates.getRate(request.getFromCurrency(), request.getToCurrency());
+        double exchangeRate = Double.isNaN(snapshotRate) ? 1.0 : snapshotRate;
         double convertedAmount = request.getAmount() * exchangeRate;
 
-        // Get rate information
-        Optional<CurrencyRate> rateInfo = currencyRateRepository
-                .findLatestRate(request.getFromCurrency(), request.getToCurrency());
-
-        LocalDateTime rateTimestamp = rateInfo.map(CurrencyRate::getUpdatedAt).orElse(null);
-        String rateSource = rateInfo.map(CurrencyRate::getSource).orElse("Fallback");
-        boolean isRateRecent = rateInfo.map(CurrencyRate::isRecent).orElse(false);
+        LocalDateTime rateTimestamp = rates.getUpdatedAt(request.getFromCurrency(), request.getToCurrency());
+        String rateSource = rates.getSource(request.getFromCurrency(), request.getToCurrency());
+        boolean isRateRecent = rates.isRecent(request.getFromCurrency(), request.getToCurrency());
 
         String fromSymbol = currencyConverter.getCurrencySymbol(request.getFromCurrency());
         String toSymbol = currencyConverter.getCurrencySymbol(request.getToCurrency());
 
-        String formattedOriginal = currencyConverter.formatAmount(request.getAmount(), request.getFromCurrency());
-        String formattedConverted = currencyConverter.formatAmount(convertedAmount, request.getToCurrency());
+        // Display strings follow the client's locale; the numeric fields stay locale-free
+        String formattedOriginal = currencyConverter.formatAmount(request.getAmount(), request.getFromCurrency(), locale);
+        String formattedConverted = currencyConverter.formatAmount(convertedAmount, request.getToCurrency(), locale);
         String conversionSummary = currencyConverter.getConversionSummary(
-                request.getAmount(), request.getFromCurrency(), convertedAmount, request.getToCurrency());
+                request.getAmount(), request.getFromCurrency(), convertedAmount, request.getToCurrency(), locale);
 
         return CurrencyConversionResponse.builder()
                 .originalAmount(request.getAmount())
@@ -177,7 +184,7 @@ public class CurrencyService {
         Map<String, Double> rates = currencyConverter.getAllExchangeRates();
 
         response.put("rates", rates);
-        response.put("base_currency", "USD");
+        response.put("base_currency", CurrencyConverter.BASE_CURRENCY.name());
         response.put("timestamp", LocalDateTime.now());
         response.put("source", "API Spend Shield");
 
@@ -186,7 +193,9 @@ public class CurrencyService {
         rates.forEach((pair, rate) -> {
             String[] currencies = pair.split("_TO_");
             if (currencies.length == 2) {
-                formattedRates.put(pair, String.format("1 %s = %.4f %s", currencies[0], rate, currencies[1]));
+                StringBuilder formatted = new StringBuilder(32).append("1 ").append(currencies[0]).append(" = ");
+                AmountFormatter.DEFAULT.appendDecimal(formatted, rate, 4).append(' ').append(currencies[1]);
+                formattedRates.put(pair, formatted.toString());
             }
         });
         response.put("formatted_rates", formattedRates);
@@ -260,16 +269,18 @@ public class CurrencyService {
         // Mock rates with slight variations to simulate real API
         Map<String, Double> rates = new HashMap<>();
 
-        // Base rates with small random variations (±2%)
-        double usdToInrBase = 83.0;
-        double variation = (Math.random() - 0.5) * 0.04; // ±2%
-        double currentUsdToInr = usdToInrBase * (1 + variation);
-
-        rates.put("USD_TO_INR", Math.round(currentUsdToInr * 10000.0) / 10000.0);
-        rates.put("INR_TO_USD", Math.round((1.0 / currentUsdToInr) * 10000.0) / 10000.0);
+        // Rates are quoted against the base currency only; cross rates are triangulated
+        User.Currency base = CurrencyConverter.BASE_CURRENCY;
+        for (User.Currency currency : User.Currency.values()) {
+            if (currency == base) {
+                continue;
+            }
+            double variation = (Math.random() - 0.5) * 0.04; // ±2%
+            double currentRate = currency.getReferenceRate() / base.getReferenceRate() * (1 + variation);
+            rates.put(base.name() + "_TO_" + currency.name(), Math.round(currentRate * 10000.0) / 10000.0);
+        }
 
-        log.debug("Fetched mock rates: USD to INR = {}, INR to USD = {}",
-                rates.get("USD_TO_INR"), rates.get("INR_TO_USD"));
+        log.debug("Fetched {} mock rates against {}", rates.size(), CurrencyConverter.BASE_CURRENCY);
 
         return rates;
     }
@@ -0,0 +1,291 @@
+package com.apishield.service;
+
+import com.apishield.event.SubscriptionChangedEvent;
+import com.apishield.model.SubscriptionPlan;
+import com.apishield.repository.SubscriptionPlanRepository;
+import com.apishield.repository.UserSubscriptionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the plan catalogue and what each user's active subscription entitles them to in
+ * memory, so quota and feature checks are a map read instead of a query. A user's entry is
+ * dropped when a {@link SubscriptionChangedEvent} is published for them, and reloaded after
+ * {@code ttl-seconds} or once the subscription's end date arrives, whichever is first. The
+ * catalogue is dropped whenever a plan is saved and reloaded at least every
+ * {@code catalogue-ttl-seconds}, which bounds how long another instance's changes take to show.
+ * Looking up a plan the catalogue doesn't have reloads it too, but at most once every
+ * {@code catalogue-miss-reload-seconds}, so lookups of an id that doesn't exist can't turn
+ * into a query each.
+ */
+@Service
+@Slf4j
+public class EntitlementService {
+
+    private final SubscriptionPlanRepository planRepository;
+    private final UserSubscriptionRepository subscriptionRepository;
+    private final long ttlNanos;
+    private final long catalogueTtlNanos;
+    private final long missReloadNanos;
+
+    private final ConcurrentHashMap<Long, Entitlement> entitlements = new ConcurrentHashMap<>();
+    private final AtomicReference<Catalogue> catalogue = new AtomicReference<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public EntitlementService(SubscriptionPlanRepository planRepository,
+                              UserSubscriptionRepository subscriptionRepository,
+                              @Value("${apishield.entitlements.ttl-seconds:300}") long ttlSeconds,
+                              @Value("${apishield.entitlements.catalogue-ttl-seconds:600}") long catalogueTtlSeconds,
+                              @Value("${apishield.entitlements.catalogue-miss-reload-seconds:10}") long missReloadSeconds) {
+        this.planRepository = planRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.catalogueTtlNanos = catalogueTtlSeconds * 1_000_000_000L;
+        this.missReloadNanos = missReloadSeconds * 1_000_000_000L;
+    }
+
+    public Entitlement getEntitlement(Long userId) {
+        Entitlement current = entitlements.get(userId);
+        if (current != null && !current.isStale(System.nanoTime())) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            current = entitlements.compute(userId, (id, existing) ->
+                    existing != null && !existing.isStale(System.nanoTime()) ? existing : load(id));
+        }
+        return current;
+    }
+
+    /**
+     * The plan of the user's active subscription, or null if there is none
+     */
+    public SubscriptionPlan getCurrentPlan(Long userId) {
+        Entitlement entitlement = getEntitlement(userId);
+        return entitlement.isActive() ? getCatalogue().byId().get(entitlement.planId()) : null;
+    }
+
+    public boolean hasFeature(Long userId, String feature) {
+        return getEntitlement(userId).hasFeature(feature);
+    }
+
+    /**
+     * Plans open for subscription, in display order. The instances are shared; don't modify them.
+     */
+    public List<SubscriptionPlan> getActivePlans() {
+        return getCatalogue().active();
+    }
+
+    public Optional<SubscriptionPlan> findPlan(Long planId) {
+        Catalogue current = getCatalogue();
+        SubscriptionPlan plan = current.byId().get(planId);
+        if (plan == null) {
+            // May have been created on another instance since the catalogue was loaded
+            plan = reloadAfterMiss(current).byId().get(planId);
+        }
+        return Optional.ofNullable(plan);
+    }
+
+    @EventListener
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        log.debug("Dropping entitlement of user {} ({})", event.userId(), event.reason());
+        invalidate(event.userId());
+    }
+
+    /**
+     * Drop the user's entitlement. Inside a transaction it is dropped again once that
+     * completes, so a concurrent request cannot cache the subscription as it was before the commit.
+     */
+    public void invalidate(Long userId) {
+        entitlements.remove(userId);
+        afterCompletion(() -> entitlements.remove(userId));
+    }
+
+    public void invalidateCatalogue() {
+        catalogue.set(null);
+        afterCompletion(() -> catalogue.set(null));
+    }
+
+    /**
+     * Drop stale entitlements every 5 minutes so users who went quiet don't stay in memory
+     */
+    @Scheduled(fixedRate = 300000)
+    public void evictStale() {
+        long now = System.nanoTime();
+        entitlements.values().removeIf(entitlement -> entitlement.isStale(now));
+    }
+
+    public int size() {
+        return entitlements.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private Entitlement load(Long userId) {
+        long now = System.nanoTime();
+        List<Object[]> rows = subscriptionRepository.findActiveEntitlement(userId);
+        if (rows.isEmpty()) {
+            return Entitlement.none(now + ttlNanos);
+        }
+
+        Object[] row = rows.get(0);
+        Long subscriptionId = (Long) row[0];
+        Long planId = (Long) row[1];
+        LocalDate endDate = (LocalDate) row[2];
+
+        SubscriptionPlan plan = findPlan(planId).orElse(null);
+        if (plan == null) {
+            log.warn("Subscription {} of user {} refers to missing plan {}", subscriptionId, userId, planId);
+            return Entitlement.none(now + ttlNanos);
+        }
+
+        long validUntil = now + ttlNanos;
+        if (endDate != null) {
+            // The subscription stops counting as active on its end date
+            Duration untilEnd = Duration.between(LocalDateTime.now(), endDate.atStartOfDay());
+            if (untilEnd.compareTo(Duration.ofNanos(ttlNanos)) < 0) {
+                validUntil = now + Math.max(0L, untilEnd.toNanos());
+            }
+        }
+
+        Integer maxApiServices = plan.getEffectiveMaxApiServices();
+        Long maxRequests = plan.getMaxRequestsPerMonth();
+        return new Entitlement(
+                subscriptionId,
+                planId,
+                plan.getName(),
+                maxApiServices != null ? maxApiServices : 0,
+                maxRequests != null ? maxRequests : 0L,
+                plan.getSupportLevel(),
+                plan.getFeatureList().stream()
+                        .map(feature -> feature.trim().toLowerCase(Locale.ROOT))
+                        .collect(Collectors.toUnmodifiableSet()),
+                endDate,
+                validUntil);
+    }
+
+    private Catalogue getCatalogue() {
+        Catalogue current = catalogue.get();
+        if (current != null && !current.isStale(System.nanoTime())) {
+            return current;
+        }
+        synchronized (catalogue) {
+            current = catalogue.get();
+            if (current != null && !current.isStale(System.nanoTime())) {
+                return current;
+            }
+            return loadCatalogue();
+        }
+    }
+
+    /**
+     * Reload the catalogue unless it was loaded within {@code catalogue-miss-reload-seconds},
+     * either as {@code seen} or by another thread since
+     */
+    private Catalogue reloadAfterMiss(Catalogue seen) {
+        if (System.nanoTime() - seen.loadedAtNanos() < missReloadNanos) {
+            return seen;
+        }
+        synchronized (catalogue) {
+            Catalogue current = catalogue.get();
+            if (current != null && System.nanoTime() - current.loadedAtNanos() < missReloadNanos) {
+                return current;
+            }
+            return loadCatalogue();
+        }
+    }
+
+    private Catalogue loadCatalogue() {
+        List<SubscriptionPlan> plans = planRepository.findAll();
+        List<SubscriptionPlan> active = plans.stream()
+                .filter(plan -> Boolean.TRUE.equals(plan.getIsActive()))
+                .sorted(Comparator.comparing(SubscriptionPlan::getDisplayOrder,
+                        Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        Map<Long, SubscriptionPlan> byId = plans.stream()
+                .collect(Collectors.toUnmodifiableMap(SubscriptionPlan::getId, Function.identity()));
+
+        long now = System.nanoTime();
+        Catalogue loaded = new Catalogue(active, byId, now, now + catalogueTtlNanos);
+        catalogue.set(loaded);
+        log.debug("Loaded plan catalogue: {} plans, {} active", byId.size(), active.size());
+        return loaded;
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * What a user may do right now. Limits of 0 or below are not enforced.
+     */
+    public record Entitlement(Long subscriptionId,
+                              Long planId,
+                              String planName,
+                              int maxApiServices,
+                              long maxRequestsPerMonth,
+                              SubscriptionPlan.SupportLevel supportLevel,
+                              Set<String> features,
+                              LocalDate expiresOn,
+                              long validUntilNanos) {
+
+        static Entitlement none(long validUntilNanos) {
+            return new Entitlement(null, null, null, 0, 0L, null, Set.of(), null, validUntilNanos);
+        }
+
+        public boolean isActive() {
+            return subscriptionId != null;
+        }
+
+        public boolean hasFeature(String feature) {
+            return feature != null && features.contains(feature.trim().toLowerCase(Locale.ROOT));
+        }
+
+        boolean isStale(long nowNanos) {
+            return nowNanos - validUntilNanos >= 0;
+        }
+    }
+
+    private record Catalogue(List<SubscriptionPlan> active,
+                             Map<Long, SubscriptionPlan> byId,
+                             long loadedAtNanos,
+                             long validUntilNanos) {
+        boolean isStale(long nowNanos) {
+            return nowNanos - validUntilNanos >= 0;
+        }
+    }
+}
@@ -2,7 +2,11 @@ package com.apishield.service;
 
 import com.apishield.model.Alert;
 import com.apishield.model.User;
+import com.apishield.profiling.ApplicationEvents;
+import com.apishield.profiling.NotificationSendEvent;
 import com.apishield.repository.AlertRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.mail.SimpleMailMessage;
@@ -14,6 +18,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +27,7 @@ public class NotificationService {
 
     private final JavaMailSender mailSender;
     private final AlertRepository alertRepository;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Send notification for a single alert
@@ -33,7 +39,7 @@ public class NotificationService {
             String subject = buildEmailSubject(alert);
             String body = buildEmailBody(alert);
 
-            sendEmail(user.getEmail(), subject, body);
+            sendEmail("alert", user.getId(), 1, user.getEmail(), subject, body);
 
             alert.markNotificationSent();
             alertRepository.save(alert);
@@ -49,7 +55,7 @@ public class NotificationService {
      * Send notifications for multiple alerts (batch processing)
      */
     @Transactional
-    public void sendBatchNotifications() {
+    public int sendBatchNotifications() {
         LocalDateTime cutoff = LocalDateTime.now().minusMinutes(30); // Don't send very old notifications
         List<Alert> unsentAlerts = alertRepository.findUnsentNotifications(cutoff);
 
@@ -58,6 +64,7 @@ public class NotificationService {
         for (Alert alert : unsentAlerts) {
             sendAlertNotification(alert);
         }
+        return unsentAlerts.size();
     }
 
     /**
@@ -73,7 +80,7 @@ public class NotificationService {
                     dailyAlerts.size());
             String body = buildDailySummaryBody(user, dailyAlerts);
 
-            sendEmail(user.getEmail(), subject, body);
+            sendEmail("daily_summary", user.getId(), dailyAlerts.size(), user.getEmail(), subject, body);
 
             log.info("Sent daily alert summary to user: {} with {} alerts",
                     user.getEmail(), dailyAlerts.size());
@@ -91,7 +98,7 @@ public class NotificationService {
             String body = "This is a test notification from API Spend Shield. " +
                     "Your alert notifications are configured correctly!";
 
-            sendEmail(email, subject, body);
+            sendEmail("test", null, 0, email, subject, body);
             log.info("Sent test notification to: {}", email);
         } catch (Exception e) {
             log.error("Failed to send test notification to: {}", email, e);
@@ -99,7 +106,15 @@ public class NotificationService {
         }
     }
 
-    private void sendEmail(String to, String subject, String body) {
+    /**
+     * Send one email covering {@code alerts} alerts, timed as {@code apishield.notification.send}
+     * by type and outcome and recorded as a JFR event with the user
+     */
+    private void sendEmail(String type, Long userId, int alerts, String to, String subject, String body) {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        NotificationSendEvent event = new NotificationSendEvent();
+        event.begin();
         try {
             SimpleMailMessage message = new SimpleMailMessage();
             message.setFrom("noreply@apispendshield.com");
@@ -117,9 +132,25 @@ public class NotificationService {
             } else {
                 mailSender.send(message);
             }
+            outcome = "success";
         } catch (Exception e) {
             log.error("Failed to send email to: {}", to, e);
             throw e;
+        } finally {
+            Timer.builder("apishield.notification.send")
+                    .description("Time to hand a notification to the mail server")
+                    .tag("type", type)
+                    .tag("channel", "email")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (event.shouldCommit()) {
+                event.userId = ApplicationEvents.id(userId);
+                event.type = type;
+                event.success = "success".equals(outcome);
+                event.rows = alerts;
+                event.commit();
+            }
         }
     }
 
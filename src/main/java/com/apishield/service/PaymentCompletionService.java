@@ -0,0 +1,130 @@
+package com.apishield.service;
+
+import com.apishield.event.SubscriptionChangedEvent;
+import com.apishield.model.PaymentIntent;
+import com.apishield.model.UserSubscription;
+import com.apishield.repository.PaymentIntentRepository;
+import com.apishield.repository.UserSubscriptionRepository;
+import com.apishield.util.PaymentProcessor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Applies a gateway outcome to its intent and subscription in one short transaction.
+ * An intent that is already finished is left alone, so a late or repeated outcome for
+ * the same payment changes nothing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentCompletionService {
+
+    private final PaymentIntentRepository paymentIntentRepository;
+    private final UserSubscriptionRepository subscriptionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public PaymentIntent.Status complete(Long intentId, PaymentProcessor.PaymentResult result) {
+        boolean succeeded = Boolean.TRUE.equals(result.getSuccess());
+        PaymentIntent.Status status = succeeded ? PaymentIntent.Status.SUCCEEDED : PaymentIntent.Status.FAILED;
+
+        // The status check and the write are one statement, so side effects run at most once
+        String paymentDetails = convertMapToJson(result.getPaymentDetails());
+        int finished = paymentIntentRepository.finish(intentId, status,
+                succeeded ? result.getTransactionId() : null,
+                succeeded ? null : result.getMessage(),
+                paymentDetails,
+                LocalDateTime.now());
+
+        PaymentIntent intent = paymentIntentRepository.findById(intentId)
+                .orElseThrow(() -> new IllegalStateException("Payment intent not found: " + intentId));
+
+        if (finished == 0) {
+            log.info("Payment intent {} already {}, ignoring repeated outcome", intentId, intent.getStatus());
+            return intent.getStatus();
+        }
+
+        // Outcome values come from the result: the loaded intent may predate the update
+        if (succeeded) {
+            applySuccess(intent, result.getTransactionId(), paymentDetails);
+        } else {
+            applyFailure(intent, result.getMessage());
+        }
+        return status;
+    }
+
+    private void applySuccess(PaymentIntent intent, String transactionId, String paymentDetails) {
+        UserSubscription subscription = intent.getSubscription();
+        Long userId = intent.getUser().getId();
+
+        if (intent.getType() == PaymentIntent.Type.RENEWAL) {
+            subscription.setEndDate(subscription.getEndDate().plusMonths(1));
+            subscriptionRepository.save(subscription);
+            eventPublisher.publishEvent(new SubscriptionChangedEvent(userId, SubscriptionChangedEvent.Reason.RENEWED));
+            log.info("Renewed subscription {} until {}", subscription.getId(), subscription.getEndDate());
+            return;
+        }
+
+        if (subscription.getStatus() != UserSubscription.Status.PENDING) {
+            log.warn("Payment {} succeeded for subscription {} which is now {}, not activating",
+                    transactionId, subscription.getId(), subscription.getStatus());
+            return;
+        }
+
+        // Cancel existing subscription if upgrading/downgrading
+        subscriptionRepository.findActiveSubscription(intent.getUser())
+                .filter(existing -> !existing.getId().equals(subscription.getId()))
+                .ifPresent(existing -> {
+                    existing.cancel("Upgraded to " + subscription.getPlan().getName() + " plan");
+                    subscriptionRepository.save(existing);
+                    log.info("Cancelled existing subscription {} for user: {}", existing.getId(), userId);
+                });
+
+        subscription.setPaymentReference(transactionId);
+        subscription.setPaymentDetails(paymentDetails);
+        subscription.setStartDate(LocalDate.now());
+        subscription.setEndDate(LocalDate.now().plusMonths(1));
+        subscription.activate();
+        subscriptionRepository.save(subscription);
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(userId, SubscriptionChangedEvent.Reason.SUBSCRIBED));
+        log.info("Activated subscription {} for user: {}", subscription.getId(), userId);
+    }
+
+    private void applyFailure(PaymentIntent intent, String failureReason) {
+        log.warn("Payment intent {} failed: {}", intent.getId(), failureReason);
+
+        UserSubscription subscription = intent.getSubscription();
+        if (intent.getType() == PaymentIntent.Type.SUBSCRIBE
+                && subscription.getStatus() == UserSubscription.Status.PENDING) {
+            subscription.setStatus(UserSubscription.Status.FAILED);
+            subscriptionRepository.save(subscription);
+        }
+    }
+
+    private String convertMapToJson(Map<String, Object> map) {
+        if (map == null || map.isEmpty()) return "{}";
+
+        try {
+            // Simple JSON conversion - in production use ObjectMapper
+            StringBuilder json = new StringBuilder("{");
+            boolean first = true;
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                if (!first) json.append(",");
+                json.append("\"").append(entry.getKey()).append("\":\"")
+                        .append(entry.getValue()).append("\"");
+                first = false;
+            }
+            json.append("}");
+            return json.toString();
+        } catch (Exception e) {
+            return "{}";
+        }
+    }
+}
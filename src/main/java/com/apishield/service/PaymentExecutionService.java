@@ -0,0 +1,166 @@
+package com.apishield.service;
+
+import com.apishield.model.PaymentIntent;
+import com.apishield.repository.PaymentIntentRepository;
+import com.apishield.util.DatabasePermits;
+import com.apishield.util.PaymentProcessor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Calls the payment gateway for intents on virtual threads. No transaction or JDBC
+ * connection is held while the gateway is working: the intent is claimed with one
+ * committed UPDATE, read, and the outcome is applied by {@link PaymentCompletionService}.
+ * Only the gateway call is bounded by {@code max-in-flight}; the database steps around it
+ * share the much smaller {@link DatabasePermits}, so in-flight payments cannot drain the pool.
+ * An attempt that dies half way stays PROCESSING and is picked up again by the scheduler;
+ * the gateway sees the same idempotency key, so the customer is not charged twice.
+ */
+@Service
+@Slf4j
+public class PaymentExecutionService {
+
+    private final PaymentIntentRepository paymentIntentRepository;
+    private final PaymentCompletionService paymentCompletionService;
+    private final PaymentProcessor paymentProcessor;
+    private final DatabasePermits databasePermits;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final long staleAfterSeconds;
+
+    public PaymentExecutionService(PaymentIntentRepository paymentIntentRepository,
+                                   PaymentCompletionService paymentCompletionService,
+                                   PaymentProcessor paymentProcessor,
+                                   DatabasePermits databasePermits,
+                                   @Value("${apishield.payments.max-in-flight:500}") int maxInFlight,
+                                   @Value("${apishield.payments.stale-after-seconds:120}") long staleAfterSeconds) {
+        this.paymentIntentRepository = paymentIntentRepository;
+        this.paymentCompletionService = paymentCompletionService;
+        this.paymentProcessor = paymentProcessor;
+        this.databasePermits = databasePermits;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.staleAfterSeconds = staleAfterSeconds;
+    }
+
+    /**
+     * Start the gateway call once the transaction that created the intent has committed,
+     * or straight away when there is no transaction
+     */
+    public void submitAfterCommit(Long intentId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(intentId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(intentId);
+            }
+        });
+    }
+
+    public void submit(Long intentId) {
+        try {
+            executor.execute(() -> executeNow(intentId));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the scheduler picks the intent up after a restart
+            log.warn("Payment executor is shut down, intent {} left for the next run", intentId);
+        }
+    }
+
+    /**
+     * Re-drive intents whose after-commit start was lost or whose attempt went quiet
+     */
+    public int resubmitStalled(long createdGraceSeconds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> stalled = paymentIntentRepository.findStalledIds(
+                now.minusSeconds(createdGraceSeconds), now.minusSeconds(staleAfterSeconds));
+        stalled.forEach(this::submit);
+        return stalled.size();
+    }
+
+    public int getInFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run one intent on the calling thread: claim, call the gateway, apply the outcome.
+     * Returns the final status, or null if the intent was not ours to run or did not finish.
+     */
+    public PaymentIntent.Status executeNow(Long intentId) {
+        PaymentIntent intent = databasePermits.withPermit(() -> claim(intentId));
+        if (intent == null) {
+            return null;
+        }
+
+        PaymentProcessor.PaymentResult result;
+        try {
+            inFlight.acquire();
+            try {
+                result = paymentProcessor.processPayment(PaymentProcessor.PaymentRequest.builder()
+                        .amount(intent.getAmount())
+                        .currency(intent.getCurrency().name())
+                        .paymentMode(intent.getPaymentMode())
+                        .customerEmail(intent.getUser().getEmail())
+                        .description(intent.getDescription())
+                        .metadata(Map.of(
+                                "userId", intent.getUser().getId(),
+                                "intentId", intent.getId(),
+                                "type", intent.getType().name()))
+                        .idempotencyKey(intent.getIdempotencyKey())
+                        .build());
+            } finally {
+                inFlight.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            log.error("Gateway call failed for payment intent {}, will retry", intentId, e);
+            return null;
+        }
+
+        try {
+            PaymentIntent.Status status = databasePermits.withPermit(
+                    () -> paymentCompletionService.complete(intentId, result));
+            log.info("Payment intent {} completed: {}", intentId, status);
+            return status;
+        } catch (Exception e) {
+            log.error("Error completing payment intent {}, will retry", intentId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Take the intent for this attempt and read what the gateway call needs, or null if it
+     * is finished or being processed elsewhere
+     */
+    private PaymentIntent claim(Long intentId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (paymentIntentRepository.claim(intentId, now, now.minusSeconds(staleAfterSeconds)) == 0) {
+            log.debug("Payment intent {} is finished or being processed elsewhere", intentId);
+            return null;
+        }
+        return paymentIntentRepository.findByIdWithUser(intentId).orElse(null);
+    }
+}
@@ -0,0 +1,29 @@
+package com.apishield.service;
+
+import com.apishield.model.SubscriptionPlan;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link SubscriptionPlan}: creating, changing or deleting a plan drops the
+ * cached plan catalogue so the next read loads it again. Hibernate builds the listener while
+ * the entity manager factory is being created, before the repositories that
+ * {@link EntitlementService} needs exist, so the service is looked up on first use.
+ */
+@Component
+@RequiredArgsConstructor
+public class PlanCatalogueInvalidator {
+
+    private final ObjectProvider<EntitlementService> entitlementService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onPlanChanged(SubscriptionPlan plan) {
+        entitlementService.getObject().invalidateCatalogue();
+    }
+}
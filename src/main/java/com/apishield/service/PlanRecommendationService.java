@@ -0,0 +1,179 @@
+package com.apishield.service;
+
+import com.apishield.model.PlanRecommendation;
+import com.apishield.model.RequestQuotaUsage;
+import com.apishield.model.SubscriptionPlan;
+import com.apishield.repository.ApiServiceRepository;
+import com.apishield.repository.PlanRecommendationRepository;
+import com.apishield.repository.RequestQuotaUsageRepository;
+import com.apishield.repository.UserRepository;
+import com.apishield.util.PlanRecommender;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Precomputes a plan recommendation for every user from their monthly request counts
+ * and API service count, so the recommendations endpoint only reads a stored row. Users are
+ * read a page at a time by keyset; each page loads its usage with two queries, is scored in
+ * memory and written back in one batch, and up to {@code parallelism} pages run at once.
+ */
+@Service
+@Slf4j
+public class PlanRecommendationService {
+
+    // Full months of request counts a projection is drawn from
+    private static final int HISTORY_MONTHS = 3;
+
+    private final UserRepository userRepository;
+    private final RequestQuotaUsageRepository quotaUsageRepository;
+    private final ApiServiceRepository apiServiceRepository;
+    private final PlanRecommendationRepository recommendationRepository;
+    private final EntitlementService entitlementService;
+    private final PlanRecommender planRecommender;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public PlanRecommendationService(UserRepository userRepository,
+                                     RequestQuotaUsageRepository quotaUsageRepository,
+                                     ApiServiceRepository apiServiceRepository,
+                                     PlanRecommendationRepository recommendationRepository,
+                                     EntitlementService entitlementService,
+                                     PlanRecommender planRecommender,
+                                     @Value("${apishield.recommendations.chunk-size:500}") int chunkSize,
+                                     @Value("${apishield.recommendations.parallelism:4}") int parallelism) {
+        this.userRepository = userRepository;
+        this.quotaUsageRepository = quotaUsageRepository;
+        this.apiServiceRepository = apiServiceRepository;
+        this.recommendationRepository = recommendationRepository;
+        this.entitlementService = entitlementService;
+        this.planRecommender = planRecommender;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    public Optional<PlanRecommendation> findRecommendation(Long userId) {
+        return recommendationRepository.findByUserId(userId);
+    }
+
+    public RecommendationRun recomputeAll(LocalDate today) {
+        long start = System.nanoTime();
+        List<SubscriptionPlan> plans = entitlementService.getActivePlans();
+        AtomicInteger stored = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore permits = new Semaphore(parallelism);
+        int scanned = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long afterId = 0L;
+            List<Long> userIds;
+            while (!(userIds = userRepository.findIdsAfter(afterId, PageRequest.of(0, chunkSize))).isEmpty()) {
+                List<Long> chunk = userIds;
+                permits.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        stored.addAndGet(recomputeChunk(chunk, plans, today));
+                    } catch (Exception e) {
+                        errors.addAndGet(chunk.size());
+                        log.error("Failed to compute plan recommendations for users {} to {}",
+                                chunk.get(0), chunk.get(chunk.size() - 1), e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+                scanned += userIds.size();
+                afterId = userIds.get(userIds.size() - 1);
+            }
+        }
+
+        RecommendationRun run = new RecommendationRun(scanned, stored.get(), errors.get(),
+                (System.nanoTime() - start) / 1_000_000);
+        log.info("Plan recommendation run for {}: {}", today, run);
+        return run;
+    }
+
+    /**
+     * Score one page of users and overwrite their stored recommendations.
+     * Returns how many were written.
+     */
+    int recomputeChunk(List<Long> userIds, List<SubscriptionPlan> plans, LocalDate today) {
+        LocalDate currentPeriod = today.withDayOfMonth(1);
+        LocalDate historyStart = currentPeriod.minusMonths(HISTORY_MONTHS);
+        double monthElapsed = (today.getDayOfMonth() - 1) / (double) today.lengthOfMonth();
+
+        Map<Long, Map<LocalDate, Long>> usage = new HashMap<>();
+        for (RequestQuotaUsage row : quotaUsageRepository.findByUserIdInAndPeriodStartGreaterThanEqual(userIds, historyStart)) {
+            usage.computeIfAbsent(row.getUserId(), id -> new HashMap<>()).put(row.getPeriodStart(), row.getRequestCount());
+        }
+
+        Map<Long, Integer> apiServices = new HashMap<>();
+        for (Object[] row : apiServiceRepository.countByUserIds(userIds)) {
+            apiServices.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+
+        Map<Long, PlanRecommendation> existing = recommendationRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(PlanRecommendation::getUserId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PlanRecommendation> toSave = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            Map<LocalDate, Long> months = usage.getOrDefault(userId, Map.of());
+            PlanRecommender.Projection projection = planRecommender.project(
+                    fullMonths(months, historyStart, currentPeriod),
+                    months.getOrDefault(currentPeriod, 0L),
+                    monthElapsed,
+                    apiServices.getOrDefault(userId, 0));
+
+            Optional<PlanRecommender.Scored> best = planRecommender.recommend(projection, plans);
+            if (best.isEmpty()) {
+                continue;
+            }
+
+            PlanRecommendation recommendation = existing.getOrDefault(userId, new PlanRecommendation());
+            recommendation.setUserId(userId);
+            recommendation.setPlanId(best.get().plan().getId());
+            recommendation.setProjectedRequests(projection.requests());
+            recommendation.setProjectedApiServices(projection.apiServices());
+            recommendation.setMonthsObserved(projection.monthsObserved());
+            recommendation.setHeadroom(best.get().headroom());
+            recommendation.setComputedAt(now);
+            toSave.add(recommendation);
+        }
+
+        recommendationRepository.saveAll(toSave);
+        return toSave.size();
+    }
+
+    /**
+     * Counts of the full months before the current one, oldest first, starting at the
+     * user's first recorded month so a new user's history is not padded with zeros
+     */
+    private List<Long> fullMonths(Map<LocalDate, Long> months, LocalDate historyStart, LocalDate currentPeriod) {
+        List<Long> counts = new ArrayList<>(HISTORY_MONTHS);
+        for (LocalDate month = historyStart; month.isBefore(currentPeriod); month = month.plusMonths(1)) {
+            Long count = months.get(month);
+            if (count != null || !counts.isEmpty()) {
+                counts.add(count != null ? count : 0L);
+            }
+        }
+        return counts;
+    }
+
+    public record RecommendationRun(int users, int stored, int errors, long durationMs) {
+    }
+}
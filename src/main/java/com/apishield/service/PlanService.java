@@ -1,86 +1,108 @@
 package com.apishield.service;
 
 import com.apishield.dto.plan.SubscriptionPlanResponse;
+import com.apishield.model.Money;
+import com.apishield.model.PlanRecommendation;
 import com.apishield.model.SubscriptionPlan;
 import com.apishield.model.User;
-import com.apishield.model.UserSubscription;
-import com.apishield.repository.SubscriptionPlanRepository;
-import com.apishield.repository.UserSubscriptionRepository;
+import com.apishield.util.AmountFormatter;
+import com.apishield.util.CurrencyConverter;
+import com.apishield.util.PlanRecommender;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Plan listings are built from the cached catalogue and the user's cached entitlement,
+ * so browsing plans does not touch the database.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PlanService {
 
-    private final SubscriptionPlanRepository planRepository;
-    private final UserSubscriptionRepository subscriptionRepository;
+    private final EntitlementService entitlementService;
+    private final PlanRecommendationService recommendationService;
+    private final PlanRecommender planRecommender;
+    private final CurrencyConverter currencyConverter;
 
-    @Transactional(readOnly = true)
     public List<SubscriptionPlanResponse> getAllPlans(User user) {
         log.info("Fetching all active plans for user: {}", user.getEmail());
 
-        List<SubscriptionPlan> plans = planRepository.findByIsActiveTrueOrderByDisplayOrderAsc();
-        Optional<UserSubscription> currentSubscription = subscriptionRepository.findActiveSubscription(user);
+        List<SubscriptionPlan> plans = entitlementService.getActivePlans();
+        SubscriptionPlan currentPlan = entitlementService.getCurrentPlan(user.getId());
 
         return plans.stream()
-                .map(plan -> mapToPlanResponse(plan, user, currentSubscription.orElse(null)))
+                .map(plan -> mapToPlanResponse(plan, user, currentPlan))
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
     public SubscriptionPlanResponse getPlanById(Long planId, User user) {
         log.info("Fetching plan ID: {} for user: {}", planId, user.getEmail());
 
-        SubscriptionPlan plan = planRepository.findById(planId)
+        SubscriptionPlan plan = entitlementService.findPlan(planId)
                 .orElseThrow(() -> new RuntimeException("Plan not found"));
 
-        Optional<UserSubscription> currentSubscription = subscriptionRepository.findActiveSubscription(user);
-
-        return mapToPlanResponse(plan, user, currentSubscription.orElse(null));
+        return mapToPlanResponse(plan, user, entitlementService.getCurrentPlan(user.getId()));
     }
 
-    @Transactional(readOnly = true)
     public List<SubscriptionPlanResponse> getRecommendedPlans(User user) {
         log.info("Getting plan recommendations for user: {}", user.getEmail());
 
-        List<SubscriptionPlan> allPlans = planRepository.findByIsActiveTrueOrderByDisplayOrderAsc();
-        Optional<UserSubscription> currentSubscription = subscriptionRepository.findActiveSubscription(user);
+        List<SubscriptionPlan> allPlans = entitlementService.getActivePlans();
+        SubscriptionPlan currentPlan = entitlementService.getCurrentPlan(user.getId());
+        // Computed nightly by PlanRecommendationService; new users have none until the next run
+        Optional<PlanRecommendation> stored = recommendationService.findRecommendation(user.getId());
 
-        // Logic to recommend plans based on user's current usage, API count, etc.
-        // For now, return all plans with recommendations
         return allPlans.stream()
                 .map(plan -> {
-                    SubscriptionPlanResponse response = mapToPlanResponse(plan, user, currentSubscription.orElse(null));
-                    response.setRecommendation(generateRecommendation(plan, user));
+                    SubscriptionPlanResponse response = mapToPlanResponse(plan, user, currentPlan);
+                    if (stored.isPresent()) {
+                        PlanRecommendation recommendation = stored.get();
+                        response.setIsRecommended(plan.getId().equals(recommendation.getPlanId()));
+                        response.setRecommendation(describeFit(plan, recommendation));
+                    } else {
+                        response.setIsRecommended(false);
+                        response.setRecommendation(generateRecommendation(plan, user));
+                    }
                     response.setHighlights(generateHighlights(plan));
                     return response;
                 })
                 .collect(Collectors.toList());
     }
 
-    private SubscriptionPlanResponse mapToPlanResponse(SubscriptionPlan plan, User user, UserSubscription currentSubscription) {
+    private String describeFit(SubscriptionPlan plan, PlanRecommendation recommendation) {
+        String usage = formatNumber(recommendation.getProjectedRequests()) + " requests/month across "
+                + recommendation.getProjectedApiServices() + " API services";
+        if (plan.getId().equals(recommendation.getPlanId())) {
+            return recommendation.getHeadroom() >= 0
+                    ? "Recommended for your projected " + usage
+                    : "Largest plan available for your projected " + usage;
+        }
+        PlanRecommender.Scored scored = planRecommender.score(plan,
+                new PlanRecommender.Projection(recommendation.getProjectedRequests(),
+                        recommendation.getProjectedApiServices(), recommendation.getMonthsObserved()));
+        return scored.fits() ? "Covers your projected " + usage : "Too small for your projected " + usage;
+    }
+
+    private SubscriptionPlanResponse mapToPlanResponse(SubscriptionPlan plan, User user, SubscriptionPlan currentPlan) {
         User.Currency userCurrency = user.getCurrencyPreference();
-        Double planPrice = plan.getPriceForCurrency(userCurrency);
-        String formattedPrice = plan.getFormattedPrice(userCurrency);
+        Money planPrice = currencyConverter.getPlanPrice(plan, userCurrency);
+        String formattedPrice = plan.getFormattedPrice(planPrice);
         String currencySymbol = plan.getCurrencySymbol(userCurrency);
 
-        boolean isCurrentPlan = currentSubscription != null &&
-                currentSubscription.getPlan().getId().equals(plan.getId());
+        boolean isCurrentPlan = currentPlan != null && currentPlan.getId().equals(plan.getId());
 
         boolean isUpgrade = false;
         boolean isDowngrade = false;
 
-        if (currentSubscription != null && !isCurrentPlan) {
-            Double currentPlanPrice = currentSubscription.getPlan().getPriceForCurrency(userCurrency);
-            isUpgrade = planPrice > currentPlanPrice;
-            isDowngrade = planPrice < currentPlanPrice;
+        if (currentPlan != null && !isCurrentPlan) {
+            Money currentPlanPrice = currencyConverter.getPlanPrice(currentPlan, userCurrency);
+            isUpgrade = planPrice.isGreaterThan(currentPlanPrice);
+            isDowngrade = planPrice.isLessThan(currentPlanPrice);
         }
 
         return SubscriptionPlanResponse.builder()
@@ -151,9 +173,9 @@ public class PlanService {
 
     private String formatNumber(Long number) {
         if (number >= 1_000_000) {
-            return String.format("%.1fM", number / 1_000_000.0);
+            return AmountFormatter.DEFAULT.formatDecimal(number / 1_000_000.0, 1) + "M";
         } else if (number >= 1_000) {
-            return String.format("%.1fK", number / 1_000.0);
+            return AmountFormatter.DEFAULT.formatDecimal(number / 1_000.0, 1) + "K";
         } else {
             return number.toString();
         }
@@ -0,0 +1,168 @@
+package com.apishield.service;
+
+import com.apishield.model.RequestQuotaUsage;
+import com.apishield.repository.RequestQuotaUsageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforces the active plan's monthly request quota and API service limit without a
+ * database hit per request. Plan limits come from {@link EntitlementService}; request
+ * counts live in memory, seeded from the stored count for the month on first use, and are
+ * flushed as increments by {@link com.apishield.scheduler.QuotaScheduler}, re-reading the
+ * stored total after each flush. With several instances each one enforces against the
+ * stored total plus its own traffic, so the quota can be overshot by at most one flush
+ * interval of the others' requests.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuotaService {
+
+    private final EntitlementService entitlementService;
+    private final RequestQuotaUsageRepository quotaUsageRepository;
+
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+    // Counters replaced at a month boundary that may still hold unflushed requests
+    private final Queue<Counter> retired = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Count one request against the user's monthly quota.
+     *
+     * @return false if the quota is used up, in which case nothing is counted
+     */
+    public boolean tryConsumeRequest(Long userId) {
+        long maxRequests = entitlementService.getEntitlement(userId).maxRequestsPerMonth();
+        Counter counter = getCounter(userId);
+
+        long used = counter.used.incrementAndGet();
+        if (maxRequests > 0 && used > maxRequests) {
+            counter.used.decrementAndGet();
+            return false;
+        }
+        counter.unflushed.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Requests counted so far this month, including any not yet flushed
+     */
+    public long getRequestsUsed(Long userId) {
+        return getCounter(userId).used.get();
+    }
+
+    /**
+     * The plan's API service limit, 0 when unlimited or when there is no active plan
+     */
+    public int getMaxApiServices(Long userId) {
+        return entitlementService.getEntitlement(userId).maxApiServices();
+    }
+
+    public long secondsUntilReset() {
+        LocalDateTime nextPeriod = currentPeriod().plusMonths(1).atStartOfDay();
+        return Math.max(1L, Duration.between(LocalDateTime.now(), nextPeriod).getSeconds());
+    }
+
+    /**
+     * Write the requests counted since the last flush. Each user's increment commits on its
+     * own; a failed one is put back and retried on the next flush.
+     */
+    public int flushCounters() {
+        int flushed = 0;
+        Counter old;
+        while ((old = retired.poll()) != null) {
+            flushed += flush(old) ? 1 : 0;
+        }
+        LocalDate period = currentPeriod();
+        for (Counter counter : counters.values()) {
+            flushed += flush(counter) ? 1 : 0;
+            if (!counter.periodStart.equals(period) && counter.unflushed.get() == 0) {
+                counters.remove(counter.userId, counter);
+            }
+        }
+        return flushed;
+    }
+
+    private boolean flush(Counter counter) {
+        long delta = counter.unflushed.getAndSet(0);
+        if (delta == 0) {
+            return false;
+        }
+        try {
+            int updated = quotaUsageRepository.incrementRequestCount(
+                    counter.userId, counter.periodStart, delta, LocalDateTime.now());
+            if (updated == 0) {
+                quotaUsageRepository.save(RequestQuotaUsage.builder()
+                        .userId(counter.userId)
+                        .periodStart(counter.periodStart)
+                        .requestCount(delta)
+                        .updatedAt(LocalDateTime.now())
+                        .build());
+            }
+        } catch (Exception e) {
+            // Another instance may have inserted the row first; the next flush will increment it
+            counter.unflushed.addAndGet(delta);
+            log.warn("Failed to flush {} requests for user {}: {}", delta, counter.userId, e.getMessage());
+            return false;
+        }
+        refresh(counter);
+        return true;
+    }
+
+    /**
+     * Pick up the requests other instances have flushed since the counter was seeded. Requests
+     * counted while this runs may be off by one until the next flush.
+     */
+    private void refresh(Counter counter) {
+        try {
+            long stored = quotaUsageRepository.findRequestCount(counter.userId, counter.periodStart).orElse(0L);
+            counter.used.set(stored + counter.unflushed.get());
+        } catch (Exception e) {
+            log.warn("Failed to refresh request count for user {}: {}", counter.userId, e.getMessage());
+        }
+    }
+
+    private Counter getCounter(Long userId) {
+        LocalDate period = currentPeriod();
+        Counter counter = counters.get(userId);
+        if (counter != null && counter.periodStart.equals(period)) {
+            return counter;
+        }
+        return counters.compute(userId, (id, existing) -> {
+            if (existing != null && existing.periodStart.equals(period)) {
+                return existing;
+            }
+            if (existing != null) {
+                retired.add(existing);
+            }
+            long stored = quotaUsageRepository.findRequestCount(id, period).orElse(0L);
+            return new Counter(id, period, stored);
+        });
+    }
+
+    private static LocalDate currentPeriod() {
+        return LocalDate.now().withDayOfMonth(1);
+    }
+
+    private static final class Counter {
+        private final Long userId;
+        private final LocalDate periodStart;
+        private final AtomicLong used;
+        private final AtomicLong unflushed = new AtomicLong();
+
+        private Counter(Long userId, LocalDate periodStart, long stored) {
+            this.userId = userId;
+            this.periodStart = periodStart;
+            this.used = new AtomicLong(stored);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.apishield.service;
+
+import com.apishield.model.RefreshToken;
+import com.apishield.model.User;
+import com.apishield.repository.RefreshTokenRepository;
+import com.apishield.security.ApiKeyRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens. Exchanging one is a single indexed lookup by
+ * hash and never touches the password, so clients can hold short-lived access tokens
+ * without signing in again. Each token can be exchanged once; presenting it a second time
+ * means it was copied, and every token from that login is revoked.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${apishield.jwt.refresh-expiration-days:30}")
+    private long refreshExpirationDays;
+
+    /**
+     * Start a new token family, for a fresh login or registration
+     */
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchange a refresh token for its successor in the same family
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHashWithUser(ApiKeyRegistry.hashHex(rawToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (token.getRevokedAt() != null || !token.getExpiresAt().isAfter(now)) {
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            // Kept on purpose: the revocation must commit even though the exchange fails
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            log.warn("Refresh token reuse for user {}, revoked {} tokens in the family",
+                    token.getUser().getId(), revoked);
+            throw new BadCredentialsException("Refresh token has already been used");
+        }
+
+        User user = token.getUser();
+        return new Rotation(user, issue(user, token.getFamilyId()));
+    }
+
+    /**
+     * Revoke the family a token belongs to; unknown tokens are ignored
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHashWithUser(ApiKeyRegistry.hashHex(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    @Transactional
+    public int deleteExpired() {
+        return refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+    }
+
+    private String issue(User user, String familyId) {
+        byte[] secret = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(secret);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .tokenHash(ApiKeyRegistry.hashHex(rawToken))
+                .familyId(familyId)
+                .expiresAt(LocalDateTime.now().plusDays(refreshExpirationDays))
+                .build());
+        return rawToken;
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+}
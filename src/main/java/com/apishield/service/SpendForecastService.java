@@ -0,0 +1,191 @@
+package com.apishield.service;
+
+import com.apishield.dto.budget.SpendForecastResponse;
+import com.apishield.model.ApiService;
+import com.apishield.model.BudgetPeriod;
+import com.apishield.model.User;
+import com.apishield.repository.ApiServiceRepository;
+import com.apishield.repository.UsageLogRepository;
+import com.apishield.util.SpendForecaster;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Projects end-of-period spend from per-service forecasting models. Models live in memory
+ * keyed by service id and are advanced one day at a time from the daily usage-log cost
+ * rollups, so a refit only reads the days since the model's last observation.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SpendForecastService {
+
+    // History read when a service has no model yet (e.g. after a restart)
+    private static final int HISTORY_DAYS = 56;
+
+    private final UsageLogRepository usageLogRepository;
+    private final ApiServiceRepository apiServiceRepository;
+    private final BudgetPeriodService budgetPeriodService;
+    private final SpendForecaster spendForecaster;
+
+    private final Map<Long, SpendForecaster.Model> models = new ConcurrentHashMap<>();
+
+    @Transactional(readOnly = true)
+    public SpendForecastResponse forecast(User user) {
+        Optional<BudgetPeriod> period = budgetPeriodService.findOpenPeriod(user);
+        LocalDate today = LocalDate.now(period.map(BudgetPeriod::getZoneId).orElse(ZoneId.of("UTC")));
+        LocalDate periodEnd = period.map(BudgetPeriod::getPeriodEnd)
+                .orElse(today.withDayOfMonth(today.lengthOfMonth()));
+        double spentToDate = period.map(BudgetPeriod::getSpentAmount).orElse(0.0);
+
+        List<ApiService> services = apiServiceRepository.findByUserOrderByCreatedAtDesc(user);
+        Map<Long, Map<LocalDate, Double>> rollups = advanceModels(user, services, today);
+
+        double expected = 0.0;
+        double variance = 0.0;
+        int modeled = 0;
+        int holtWinters = 0;
+
+        for (ApiService service : services) {
+            SpendForecaster.Model model = models.get(service.getId());
+            if (model == null) {
+                continue;
+            }
+
+            SpendForecaster.Forecast forecast = spendForecaster.forecast(model, today, periodEnd);
+            // Today's usage is already in the period counter, so only project the rest of today
+            double loggedToday = rollups.getOrDefault(service.getId(), Map.of()).getOrDefault(today, 0.0);
+            expected += Math.max(0.0, forecast.getExpected() - loggedToday);
+            // Services are treated as independent, so variances add
+            variance += forecast.getVariance();
+
+            modeled++;
+            if (forecast.getMethod() == SpendForecaster.Method.HOLT_WINTERS) {
+                holtWinters++;
+            }
+        }
+
+        double expectedPeriodSpend = spentToDate + expected;
+
+        return SpendForecastResponse.builder()
+                .periodEnd(periodEnd)
+                .daysRemaining((int) ChronoUnit.DAYS.between(today, periodEnd) + 1)
+                .spentToDate(round(spentToDate))
+                .expectedPeriodSpend(round(expectedPeriodSpend))
+                .lowerBound(round(spentToDate + spendForecaster.lowerBound(expected, variance)))
+                .upperBound(round(spentToDate + spendForecaster.upperBound(expected, variance)))
+                .confidenceLevel(SpendForecaster.CONFIDENCE_LEVEL)
+                .servicesModeled(modeled)
+                .holtWintersServices(holtWinters)
+                .ewmaServices(modeled - holtWinters)
+                .build();
+    }
+
+    /**
+     * Feed the days completed in the user's timezone into their models.
+     * Returns the ids of the user's services.
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> refreshModels(User user) {
+        ZoneId zoneId = budgetPeriodService.findOpenPeriod(user)
+                .map(BudgetPeriod::getZoneId)
+                .orElse(ZoneId.of("UTC"));
+
+        List<ApiService> services = apiServiceRepository.findByUserOrderByCreatedAtDesc(user);
+        advanceModels(user, services, LocalDate.now(zoneId));
+
+        Set<Long> serviceIds = new HashSet<>();
+        for (ApiService service : services) {
+            serviceIds.add(service.getId());
+        }
+        return serviceIds;
+    }
+
+    /**
+     * Drop models for services that no longer exist
+     */
+    public void retainModels(Set<Long> activeServiceIds) {
+        int before = models.size();
+        models.keySet().retainAll(activeServiceIds);
+        log.debug("Pruned {} forecast models, {} remaining", before - models.size(), models.size());
+    }
+
+    /**
+     * Advance each model through yesterday, reading only the days it has not seen yet.
+     * Returns the rollups that were read, keyed by service id and date.
+     */
+    private Map<Long, Map<LocalDate, Double>> advanceModels(User user, List<ApiService> services, LocalDate today) {
+        if (services.isEmpty()) {
+            return Map.of();
+        }
+
+        LocalDate yesterday = today.minusDays(1);
+        LocalDate historyStart = today.minusDays(HISTORY_DAYS);
+
+        // Read from the earliest day any model still needs (today at the latest)
+        LocalDate readFrom = today;
+        for (ApiService service : services) {
+            SpendForecaster.Model model = models.get(service.getId());
+            LocalDate next = model != null && model.getLastDate() != null
+                    ? model.getLastDate().plusDays(1)
+                    : historyStart;
+            if (next.isBefore(readFrom)) {
+                readFrom = next;
+            }
+        }
+
+        Map<Long, Map<LocalDate, Double>> rollups = new HashMap<>();
+        for (Object[] row : usageLogRepository.getDailyCostByUserAndDateRange(user, readFrom, today)) {
+            Long serviceId = (Long) row[0];
+            LocalDate date = (LocalDate) row[1];
+            double cost = row[2] != null ? ((Number) row[2]).doubleValue() : 0.0;
+            rollups.computeIfAbsent(serviceId, id -> new HashMap<>()).merge(date, cost, Double::sum);
+        }
+
+        for (ApiService service : services) {
+            Map<LocalDate, Double> daily = rollups.getOrDefault(service.getId(), Map.of());
+            SpendForecaster.Model model = models.get(service.getId());
+
+            LocalDate firstLogged = firstLoggedDay(daily, yesterday);
+            if (model == null) {
+                if (firstLogged == null) {
+                    continue;
+                }
+                model = models.computeIfAbsent(service.getId(), id -> new SpendForecaster.Model());
+            }
+
+            // Concurrent requests for the same user may race here; starting from lastDate keeps updates in order
+            synchronized (model) {
+                // A new model starts at the service's first logged day
+                LocalDate next = model.getLastDate() != null ? model.getLastDate().plusDays(1) : firstLogged;
+                for (LocalDate date = next; date != null && !date.isAfter(yesterday); date = date.plusDays(1)) {
+                    spendForecaster.update(model, date, daily.getOrDefault(date, 0.0));
+                }
+            }
+        }
+
+        return rollups;
+    }
+
+    private LocalDate firstLoggedDay(Map<LocalDate, Double> daily, LocalDate yesterday) {
+        LocalDate first = null;
+        for (LocalDate date : daily.keySet()) {
+            if (!date.isAfter(yesterday) && (first == null || date.isBefore(first))) {
+                first = date;
+            }
+        }
+        return first;
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,142 @@
+package com.apishield.service;
+
+import com.apishield.model.ApiService;
+import com.apishield.model.SpendLedgerEntry;
+import com.apishield.model.User;
+import com.apishield.repository.ApiServiceRepository;
+import com.apishield.repository.BudgetRepository;
+import com.apishield.repository.SpendLedgerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Append-only record of every change to a user's spend.
+ * Each entry is applied to the materialized Budget.spentAmount in the same transaction,
+ * so budget reads never have to re-sum usage across API services.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SpendLedgerService {
+
+    private static final double EPSILON = 1e-9;
+
+    private final SpendLedgerRepository spendLedgerRepository;
+    private final BudgetRepository budgetRepository;
+    private final ApiServiceRepository apiServiceRepository;
+    private final BudgetPeriodService budgetPeriodService;
+
+    /**
+     * Record a change in usage count made today, priced at the service's current cost per unit
+     */
+    @Transactional
+    public void recordUsage(ApiService apiService, double usageDelta) {
+        recordUsage(apiService, usageDelta, null);
+    }
+
+    /**
+     * Record a change in usage count, priced at the service's current cost per unit and
+     * booked to the budget period containing usageDate (today when null)
+     */
+    @Transactional
+    public void recordUsage(ApiService apiService, double usageDelta, LocalDate usageDate) {
+        if (Math.abs(usageDelta) < EPSILON) {
+            return;
+        }
+        double costPerUnit = apiService.getCostPerUnit();
+        append(apiService.getUser(), apiService.getId(), SpendLedgerEntry.EntryType.USAGE,
+                usageDelta, costPerUnit, usageDelta * costPerUnit, usageDate);
+    }
+
+    /**
+     * Record a cost per unit change, re-pricing the usage that existed before the change
+     */
+    @Transactional
+    public void recordCostChange(ApiService apiService, double usageCount, double previousCostPerUnit) {
+        double costPerUnit = apiService.getCostPerUnit();
+        double amount = usageCount * (costPerUnit - previousCostPerUnit);
+        if (Math.abs(amount) < EPSILON) {
+            return;
+        }
+        append(apiService.getUser(), apiService.getId(), SpendLedgerEntry.EntryType.COST_CHANGE,
+                0.0, costPerUnit, amount, null);
+    }
+
+    /**
+     * Reverse all spend of an API service that is being deleted
+     */
+    @Transactional
+    public void recordServiceRemoval(ApiService apiService) {
+        double usageCount = apiService.getUsageCount();
+        double amount = -(usageCount * apiService.getCostPerUnit());
+        if (Math.abs(amount) < EPSILON) {
+            return;
+        }
+        append(apiService.getUser(), apiService.getId(), SpendLedgerEntry.EntryType.SERVICE_REMOVED,
+                -usageCount, apiService.getCostPerUnit(), amount, null);
+    }
+
+    /**
+     * Bring the ledger in line with the API service totals, recording any drift as an adjustment.
+     * Used when a budget is first created and on explicit refresh; the caller owns the budget write.
+     *
+     * @return the reconciled total spent for the user
+     */
+    @Transactional
+    public double reconcile(User user) {
+        double actual = apiServiceRepository.getTotalSpentByUser(user).orElse(0.0);
+        double ledgerBalance = getBalance(user);
+        double drift = actual - ledgerBalance;
+
+        if (Math.abs(drift) >= EPSILON) {
+            spendLedgerRepository.save(SpendLedgerEntry.builder()
+                    .user(user)
+                    .entryType(SpendLedgerEntry.EntryType.ADJUSTMENT)
+                    .usageDelta(0.0)
+                    .costPerUnit(0.0)
+                    .amount(drift)
+                    .build());
+            log.info("Recorded ledger adjustment of {} for user: {}", drift, user.getEmail());
+        }
+
+        return actual;
+    }
+
+    @Transactional(readOnly = true)
+    public double getBalance(User user) {
+        return spendLedgerRepository.getBalanceByUser(user).orElse(0.0);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<SpendLedgerEntry> getEntries(User user, Pageable pageable) {
+        return spendLedgerRepository.findByUserOrderByCreatedAtDesc(user, pageable);
+    }
+
+    private void append(User user, Long apiServiceId, SpendLedgerEntry.EntryType entryType,
+                        double usageDelta, double costPerUnit, double amount, LocalDate usageDate) {
+        spendLedgerRepository.save(SpendLedgerEntry.builder()
+                .user(user)
+                .apiServiceId(apiServiceId)
+                .entryType(entryType)
+                .usageDelta(usageDelta)
+                .costPerUnit(costPerUnit)
+                .amount(amount)
+                .build());
+
+        // Single-statement increments keep concurrent writers from losing updates
+        budgetRepository.incrementSpentAmount(user, amount);
+
+        // Only usage is spend incurred this month; re-pricing and removals adjust lifetime totals
+        if (entryType == SpendLedgerEntry.EntryType.USAGE) {
+            budgetPeriodService.recordSpend(user, amount, usageDate);
+        }
+
+        log.debug("Ledger {} entry of {} for API service {}", entryType, amount, apiServiceId);
+    }
+}
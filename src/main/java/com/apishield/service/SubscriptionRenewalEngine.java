@@ -0,0 +1,115 @@
+package com.apishield.service;
+
+import com.apishield.event.SubscriptionChangedEvent;
+import com.apishield.model.PaymentIntent;
+import com.apishield.util.DatabasePermits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renews everything due on a date without loading it all or holding one transaction.
+ * Subscription ids are read a page at a time by keyset (id greater than the last one seen),
+ * and each renewal runs on a virtual thread: its intent commits on its own, then the payment
+ * is taken and applied. At most {@code parallelism} renewals are in flight, which also holds
+ * the paging back so memory stays flat however many subscriptions are due; of those, only
+ * as many as {@link DatabasePermits} allows are in a database step at once.
+ */
+@Service
+@Slf4j
+public class SubscriptionRenewalEngine {
+
+    private final SubscriptionRenewalService renewalService;
+    private final PaymentExecutionService paymentExecutionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatabasePermits databasePermits;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public SubscriptionRenewalEngine(SubscriptionRenewalService renewalService,
+                                     PaymentExecutionService paymentExecutionService,
+                                     ApplicationEventPublisher eventPublisher,
+                                     DatabasePermits databasePermits,
+                                     @Value("${apishield.renewals.chunk-size:500}") int chunkSize,
+                                     @Value("${apishield.renewals.parallelism:500}") int parallelism) {
+        this.renewalService = renewalService;
+        this.paymentExecutionService = paymentExecutionService;
+        this.eventPublisher = eventPublisher;
+        this.databasePermits = databasePermits;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    public RenewalRun renewDueOn(LocalDate dueDate) {
+        long start = System.nanoTime();
+        AtomicInteger withoutPayment = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore permits = new Semaphore(parallelism);
+        int scanned = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long afterId = 0L;
+            List<Long> ids;
+            while (!(ids = renewalService.findDueIds(dueDate, afterId, chunkSize)).isEmpty()) {
+                for (Long id : ids) {
+                    permits.acquireUninterruptibly();
+                    executor.execute(() -> {
+                        try {
+                            Long intentId = databasePermits.withPermit(() -> renewalService.prepareRenewal(id, dueDate));
+                            if (intentId == null) {
+                                withoutPayment.incrementAndGet();
+                                return;
+                            }
+                            PaymentIntent.Status status = paymentExecutionService.executeNow(intentId);
+                            if (status == PaymentIntent.Status.SUCCEEDED) {
+                                succeeded.incrementAndGet();
+                            } else {
+                                // Declined, or left for the payment poller to finish
+                                failed.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            log.error("Failed to renew subscription {}", id, e);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+                scanned += ids.size();
+                afterId = ids.get(ids.size() - 1);
+                log.debug("Queued {} renewals due on {}, up to subscription {}", scanned, dueDate, afterId);
+            }
+        }
+
+        RenewalRun run = new RenewalRun(scanned, withoutPayment.get(), succeeded.get(), failed.get(), errors.get(),
+                (System.nanoTime() - start) / 1_000_000);
+        log.info("Renewal run for {}: {}", dueDate, run);
+        return run;
+    }
+
+    /**
+     * Expire lapsed subscriptions and announce the change for each owner
+     */
+    public int expireLapsed(LocalDate today) {
+        List<Long> userIds = renewalService.expireLapsed(today);
+        userIds.forEach(userId -> eventPublisher.publishEvent(
+                new SubscriptionChangedEvent(userId, SubscriptionChangedEvent.Reason.EXPIRED)));
+        return userIds.size();
+    }
+
+    /**
+     * Outcome of one run; {@code withoutPayment} counts free plans extended and subscriptions skipped
+     */
+    public record RenewalRun(int scanned, int withoutPayment, int paid, int declined, int errors, long durationMs) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.apishield.service;
+
+import com.apishield.event.SubscriptionChangedEvent;
+import com.apishield.model.Money;
+import com.apishield.model.PaymentIntent;
+import com.apishield.model.User;
+import com.apishield.model.UserSubscription;
+import com.apishield.repository.PaymentIntentRepository;
+import com.apishield.repository.UserSubscriptionRepository;
+import com.apishield.util.CurrencyConverter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The transactional steps of the nightly renewal run. Each method is its own short
+ * transaction so one subscription's renewal never waits on, or rolls back, another's.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubscriptionRenewalService {
+
+    private final UserSubscriptionRepository subscriptionRepository;
+    private final PaymentIntentRepository paymentIntentRepository;
+    private final CurrencyConverter currencyConverter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<Long> findDueIds(LocalDate dueDate, long afterId, int limit) {
+        return subscriptionRepository.findRenewalIdsAfter(dueDate, afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Extend a free subscription, or record the renewal payment for a paid one.
+     * Returns the id of the intent still to be charged, or null if there is nothing to pay.
+     */
+    @Transactional
+    public Long prepareRenewal(Long subscriptionId, LocalDate dueDate) {
+        UserSubscription subscription = subscriptionRepository.findByIdWithUserAndPlan(subscriptionId).orElse(null);
+        if (subscription == null
+                || subscription.getStatus() != UserSubscription.Status.ACTIVE
+                || !Boolean.TRUE.equals(subscription.getAutoRenew())
+                || !dueDate.equals(subscription.getEndDate())) {
+            // Changed since the page was read
+            return null;
+        }
+
+        User user = subscription.getUser();
+        Money amount = currencyConverter.getPlanPrice(subscription.getPlan(), user.getCurrencyPreference());
+        if (!amount.isPositive()) {
+            subscription.setEndDate(subscription.getEndDate().plusMonths(1));
+            subscriptionRepository.save(subscription);
+            eventPublisher.publishEvent(new SubscriptionChangedEvent(user.getId(), SubscriptionChangedEvent.Reason.RENEWED));
+            return null;
+        }
+
+        String key = PaymentIntent.renewalKey(subscription.getId(), subscription.getEndDate());
+        PaymentIntent intent = paymentIntentRepository.findByIdempotencyKey(key)
+                .orElseGet(() -> paymentIntentRepository.save(PaymentIntent.builder()
+                        .idempotencyKey(key)
+                        .user(user)
+                        .subscription(subscription)
+                        .type(PaymentIntent.Type.RENEWAL)
+                        .amount(amount.toDouble())
+                        .currency(user.getCurrencyPreference())
+                        .paymentMode(subscription.getPaymentMode())
+                        .description("Renewal of " + subscription.getPlan().getName() + " plan")
+                        .build()));
+        return intent.isFinished() ? null : intent.getId();
+    }
+
+    /**
+     * Expire every active subscription that ended before today with one UPDATE.
+     * Returns the owners, whose cached entitlements are now stale.
+     */
+    @Transactional
+    public List<Long> expireLapsed(LocalDate today) {
+        List<Long> userIds = subscriptionRepository.findUserIdsWithLapsedSubscriptions(today);
+        int expired = subscriptionRepository.expireLapsed(today);
+        log.info("Marked {} subscriptions as expired for {} users", expired, userIds.size());
+        return userIds;
+    }
+}
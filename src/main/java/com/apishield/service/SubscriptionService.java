@@ -1,35 +1,81 @@
 package com.apishield.service;
 
 import com.apishield.dto.plan.*;
+import com.apishield.event.SubscriptionChangedEvent;
 import com.apishield.exception.BadRequestException;
 import com.apishield.exception.ResourceNotFoundException;
 import com.apishield.model.*;
 import com.apishield.repository.*;
-import com.apishield.util.PaymentProcessor;
+import com.apishield.util.AmountFormatter;
+import com.apishield.util.CurrencyConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SubscriptionService {
 
+    private static final int MAX_BILLING_PAGE_SIZE = 100;
+
     private final UserSubscriptionRepository subscriptionRepository;
     private final SubscriptionPlanRepository planRepository;
-    private final PaymentProcessor paymentProcessor;
+    private final PaymentIntentRepository paymentIntentRepository;
+    private final PaymentExecutionService paymentExecutionService;
+    private final CurrencyConverter currencyConverter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
-    public SubscriptionResponse subscribe(User user, SubscribeRequest request) {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Free plans are activated straight away. For paid plans this only records a PENDING
+     * subscription and a payment intent; the gateway is called after commit and the
+     * subscription becomes ACTIVE or FAILED when it answers. Sending the same idempotency
+     * key again returns the subscription created the first time.
+     */
+    public SubscriptionResponse subscribe(User user, SubscribeRequest request, String idempotencyKey) {
+        return replayingKeyConflicts(() -> createSubscription(user, request, idempotencyKey));
+    }
+
+    private SubscriptionResponse createSubscription(User user, SubscribeRequest request, String idempotencyKey) {
         log.info("Processing subscription for user: {} to plan: {}", user.getEmail(), request.getPlanId());
 
+        if (idempotencyKey != null) {
+            Optional<PaymentIntent> previous = findOwnIntent(user, idempotencyKey);
+            if (previous.isPresent()) {
+                log.info("Replaying subscription for idempotency key {}", idempotencyKey);
+                return mapPendingResponse(previous.get());
+            }
+        }
+
         // Validate plan
         SubscriptionPlan plan = planRepository.findById(request.getPlanId())
                 .orElseThrow(() -> new ResourceNotFoundException("Subscription plan not found"));
@@ -38,44 +84,31 @@ public class SubscriptionService {
             throw new BadRequestException("This subscription plan is no longer available");
         }
 
-        // Check if user has active subscription
-        Optional<UserSubscription> existingSubscription = subscriptionRepository.findActiveSubscription(user);
-
         // Calculate amount to charge
-        Double amount = plan.getPriceForCurrency(user.getCurrencyPreference());
+        Money amount = currencyConverter.getPlanPrice(plan, user.getCurrencyPreference());
 
-        // Process payment (only if not free plan)
-        String paymentReference = null;
-        String paymentDetails = null;
-
-        if (amount > 0) {
-            PaymentProcessor.PaymentRequest paymentRequest = PaymentProcessor.PaymentRequest.builder()
-                    .amount(amount)
-                    .currency(user.getCurrencyPreference().name())
+        if (amount.isPositive()) {
+            UserSubscription pending = subscriptionRepository.save(UserSubscription.builder()
+                    .user(user)
+                    .plan(plan)
                     .paymentMode(request.getPaymentMode())
-                    .customerEmail(user.getEmail())
-                    .description("Subscription to " + plan.getName() + " plan")
-                    .metadata(Map.of(
-                            "userId", user.getId(),
-                            "planId", plan.getId(),
-                            "planName", plan.getName()
-                    ))
-                    .build();
-
-            PaymentProcessor.PaymentResult paymentResult = paymentProcessor.processPayment(paymentRequest);
-
-            if (!paymentResult.getSuccess()) {
-                log.error("Payment failed for user: {} - {}", user.getEmail(), paymentResult.getMessage());
-                throw new BadRequestException("Payment failed: " + paymentResult.getMessage());
-            }
-
-            paymentReference = paymentResult.getTransactionId();
-            paymentDetails = convertMapToJson(paymentResult.getPaymentDetails());
-        } else {
-            paymentReference = "FREE_PLAN_" + System.currentTimeMillis();
+                    .status(UserSubscription.Status.PENDING)
+                    .startDate(LocalDate.now())
+                    .amountPaid(amount.toDouble())
+                    .currencyPaid(user.getCurrencyPreference())
+                    .autoRenew(request.getAutoRenew())
+                    .build());
+
+            PaymentIntent intent = createIntent(user, pending, PaymentIntent.Type.SUBSCRIBE, amount,
+                    request.getPaymentMode(), "Subscription to " + plan.getName() + " plan",
+                    idempotencyKey != null ? idempotencyKey : UUID.randomUUID().toString());
+            log.info("Created payment intent {} for subscription ID: {}", intent.getId(), pending.getId());
+
+            return mapPendingResponse(intent);
         }
 
         // Cancel existing subscription if upgrading/downgrading
+        Optional<UserSubscription> existingSubscription = subscriptionRepository.findActiveSubscription(user);
         if (existingSubscription.isPresent()) {
             UserSubscription existing = existingSubscription.get();
             existing.cancel("Upgraded to " + plan.getName() + " plan");
@@ -91,19 +124,26 @@ public class SubscriptionService {
                 .status(UserSubscription.Status.ACTIVE)
                 .startDate(LocalDate.now())
                 .endDate(LocalDate.now().plusMonths(1))
-                .amountPaid(amount)
+                .amountPaid(amount.toDouble())
                 .currencyPaid(user.getCurrencyPreference())
-                .paymentReference(paymentReference)
-                .paymentDetails(paymentDetails)
+                .paymentReference("FREE_PLAN_" + System.currentTimeMillis())
                 .autoRenew(request.getAutoRenew())
                 .build();
 
         UserSubscription savedSubscription = subscriptionRepository.save(subscription);
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(user.getId(), SubscriptionChangedEvent.Reason.SUBSCRIBED));
         log.info("Successfully created subscription ID: {} for user: {}", savedSubscription.getId(), user.getEmail());
 
         return mapToSubscriptionResponse(savedSubscription);
     }
 
+    @Transactional(readOnly = true)
+    public PaymentIntentResponse getPaymentIntent(User user, String idempotencyKey) {
+        return findOwnIntent(user, idempotencyKey)
+                .map(this::mapToPaymentIntentResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
+    }
+
     @Transactional(readOnly = true)
     public Optional<SubscriptionResponse> getCurrentSubscription(User user) {
         log.info("Fetching current subscription for user: {}", user.getEmail());
@@ -112,57 +152,111 @@ public class SubscriptionService {
                 .map(this::mapToSubscriptionResponse);
     }
 
+    /**
+     * Totals and stats are SQL aggregates; only the listed subscriptions are loaded. For long
+     * histories use {@link #getBillingHistoryPage} or {@link #exportBillingHistory}.
+     */
     @Transactional(readOnly = true)
     public BillingHistoryResponse getBillingHistory(User user) {
         log.info("Fetching billing history for user: {}", user.getEmail());
 
-        List<UserSubscription> subscriptions = subscriptionRepository.findBillingHistory(user);
-        List<SubscriptionResponse> subscriptionResponses = subscriptions.stream()
+        List<SubscriptionResponse> subscriptionResponses = subscriptionRepository.findBillingHistory(user).stream()
                 .map(this::mapToSubscriptionResponse)
                 .collect(Collectors.toList());
 
-        // Calculate statistics
-        double totalAmount = subscriptions.stream()
-                .filter(s -> s.getAmountPaid() != null)
-                .mapToDouble(UserSubscription::getAmountPaid)
-                .sum();
+        Object[] totals = subscriptionRepository.getBillingTotals(user).get(0);
+        int totalSubscriptions = ((Number) totals[0]).intValue();
+        LocalDate firstSubscriptionDate = (LocalDate) totals[1];
+        LocalDateTime lastCreatedAt = (LocalDateTime) totals[2];
+        long totalMonths = totals[3] != null ? ((Number) totals[3]).longValue() : 0L;
+
+        Money totalPaid = sumAmountPaid(user, user.getCurrencyPreference());
+        double totalAmount = totalPaid.toDouble();
 
         Optional<UserSubscription> currentSub = subscriptionRepository.findActiveSubscription(user);
         String currentPlan = currentSub.map(s -> s.getPlan().getName()).orElse("None");
 
-        LocalDate firstSubscriptionDate = subscriptions.stream()
-                .map(UserSubscription::getStartDate)
-                .filter(Objects::nonNull)
-                .min(LocalDate::compareTo)
-                .orElse(null);
-
-        LocalDate lastPaymentDate = subscriptions.stream()
-                .map(UserSubscription::getCreatedAt)
-                .filter(Objects::nonNull)
-                .max(Comparator.naturalOrder())
-                .map(dateTime -> dateTime.toLocalDate())
-                .orElse(null);
-
         // Generate billing stats
-        BillingHistoryResponse.BillingStats stats = generateBillingStats(subscriptions);
+        BillingHistoryResponse.BillingStats stats = generateBillingStats(user, totalSubscriptions, totalMonths, totalPaid);
 
-        String totalFormatted = String.format("%s%.2f",
-                user.getCurrencyPreference() == User.Currency.USD ? "$" : "₹",
-                totalAmount);
+        String totalFormatted = AmountFormatter.DEFAULT.formatUngrouped(totalAmount, user.getCurrencyPreference());
 
         return BillingHistoryResponse.builder()
                 .subscriptions(subscriptionResponses)
                 .totalAmountPaid(totalAmount)
                 .totalAmountFormatted(totalFormatted)
-                .totalSubscriptions(subscriptions.size())
+                .totalSubscriptions(totalSubscriptions)
                 .firstSubscriptionDate(firstSubscriptionDate)
-                .lastPaymentDate(lastPaymentDate)
+                .lastPaymentDate(lastCreatedAt != null ? lastCreatedAt.toLocalDate() : null)
                 .currentPlan(currentPlan)
                 .hasActiveSubscription(currentSub.isPresent())
                 .stats(stats)
                 .build();
     }
 
+    /**
+     * One page of the user's subscriptions, newest first. The cursor is the last row of the
+     * previous page, so a page costs the same however deep it is, and rows added meanwhile
+     * neither shift nor repeat entries the way OFFSET pages do.
+     */
+    @Transactional(readOnly = true)
+    public BillingHistoryPage getBillingHistoryPage(User user, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_BILLING_PAGE_SIZE));
+        // One extra row tells whether there is a next page
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<UserSubscription> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = subscriptionRepository.findBillingPage(user, pageable);
+        } else {
+            BillingCursor position = BillingCursor.decode(cursor);
+            rows = subscriptionRepository.findBillingPageBefore(user, position.createdAt(), position.id(), pageable);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<UserSubscription> page = hasMore ? rows.subList(0, pageSize) : rows;
+        UserSubscription last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        return BillingHistoryPage.builder()
+                .subscriptions(page.stream().map(this::mapToSubscriptionResponse).collect(Collectors.toList()))
+                .nextCursor(hasMore ? new BillingCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Write every subscription of the user to {@code out} as it is read from the database
+     * cursor. Each row is detached once written, so memory stays flat however long the
+     * history is. Must be called through the proxy, from the thread that writes the response.
+     */
+    @Transactional(readOnly = true)
+    public int exportBillingHistory(User user, BillingExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == BillingExportFormat.CSV) {
+            writer.write("id,plan,status,payment_mode,amount_paid,currency_paid,start_date,end_date," +
+                    "payment_reference,auto_renew,created_at\n");
+        }
+
+        int written = 0;
+        try (Stream<UserSubscription> subscriptions = subscriptionRepository.streamBillingHistory(user)) {
+            Iterator<UserSubscription> iterator = subscriptions.iterator();
+            while (iterator.hasNext()) {
+                UserSubscription subscription = iterator.next();
+                if (format == BillingExportFormat.CSV) {
+                    writeCsvRow(writer, subscription);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(toExportRow(subscription)));
+                    writer.write('\n');
+                }
+                entityManager.detach(subscription);
+                written++;
+            }
+        }
+        writer.flush();
+        log.info("Exported {} subscriptions as {} for user: {}", written, format, user.getEmail());
+        return written;
+    }
+
     @Transactional
     public SubscriptionResponse cancelSubscription(User user, String reason) {
         log.info("Cancelling subscription for user: {} - Reason: {}", user.getEmail(), reason);
@@ -172,12 +266,25 @@ public class SubscriptionService {
 
         subscription.cancel(reason);
         UserSubscription savedSubscription = subscriptionRepository.save(subscription);
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(user.getId(), SubscriptionChangedEvent.Reason.CANCELLED));
 
         return mapToSubscriptionResponse(savedSubscription);
     }
 
-    @Transactional
     public SubscriptionResponse renewSubscription(User user) {
+        return renewSubscription(user, null);
+    }
+
+    /**
+     * Free plans are extended straight away; paid ones once the renewal payment succeeds.
+     * Without an explicit key the renewal of one billing period always maps to the same
+     * intent, so asking twice does not charge twice.
+     */
+    public SubscriptionResponse renewSubscription(User user, String idempotencyKey) {
+        return replayingKeyConflicts(() -> renew(user, idempotencyKey));
+    }
+
+    private SubscriptionResponse renew(User user, String idempotencyKey) {
         log.info("Renewing subscription for user: {}", user.getEmail());
 
         UserSubscription currentSubscription = subscriptionRepository.findActiveSubscription(user)
@@ -189,27 +296,34 @@ public class SubscriptionService {
 
         // Process payment for renewal
         SubscriptionPlan plan = currentSubscription.getPlan();
-        Double amount = plan.getPriceForCurrency(user.getCurrencyPreference());
-
-        if (amount > 0) {
-            PaymentProcessor.PaymentRequest paymentRequest = PaymentProcessor.PaymentRequest.builder()
-                    .amount(amount)
-                    .currency(user.getCurrencyPreference().name())
-                    .paymentMode(currentSubscription.getPaymentMode())
-                    .customerEmail(user.getEmail())
-                    .description("Renewal of " + plan.getName() + " plan")
-                    .build();
+        Money amount = currencyConverter.getPlanPrice(plan, user.getCurrencyPreference());
+
+        if (amount.isPositive()) {
+            String key = idempotencyKey != null ? idempotencyKey
+                    : PaymentIntent.renewalKey(currentSubscription.getId(), currentSubscription.getEndDate());
+            Optional<PaymentIntent> previous = findOwnIntent(user, key);
+            if (idempotencyKey == null && previous.isPresent()
+                    && previous.get().getStatus() == PaymentIntent.Status.FAILED) {
+                // A failed attempt for this period may be retried with a fresh charge
+                key = key + "-" + UUID.randomUUID();
+                previous = Optional.empty();
+            }
 
-            PaymentProcessor.PaymentResult paymentResult = paymentProcessor.processPayment(paymentRequest);
+            PaymentIntent intent = previous.isPresent() ? previous.get()
+                    : createIntent(user, currentSubscription, PaymentIntent.Type.RENEWAL, amount,
+                    currentSubscription.getPaymentMode(), "Renewal of " + plan.getName() + " plan", key);
 
-            if (!paymentResult.getSuccess()) {
-                throw new BadRequestException("Renewal payment failed: " + paymentResult.getMessage());
+            SubscriptionResponse response = mapToSubscriptionResponse(currentSubscription);
+            if (!intent.isFinished()) {
+                response.setPaymentIntentKey(intent.getIdempotencyKey());
             }
+            return response;
         }
 
         // Extend subscription
         currentSubscription.setEndDate(currentSubscription.getEndDate().plusMonths(1));
         UserSubscription savedSubscription = subscriptionRepository.save(currentSubscription);
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(user.getId(), SubscriptionChangedEvent.Reason.RENEWED));
 
         return mapToSubscriptionResponse(savedSubscription);
     }
@@ -225,46 +339,77 @@ public class SubscriptionService {
     }
 
     /**
-     * Check and process subscription renewals (for scheduler)
+     * Run the attempt in a transaction of its own. Two requests with the same idempotency key
+     * can both find no intent and both insert one; the second insert breaks the unique key and
+     * rolls its transaction back, so the attempt is run once more and replays the first one.
      */
-    @Transactional
-    public void processSubscriptionRenewals() {
-        log.info("Processing subscription renewals...");
-
-        LocalDate tomorrow = LocalDate.now().plusDays(1);
-        List<UserSubscription> expiringSubscriptions = subscriptionRepository
-                .findSubscriptionsExpiringOn(tomorrow);
-
-        for (UserSubscription subscription : expiringSubscriptions) {
-            if (subscription.getAutoRenew() && subscription.getStatus() == UserSubscription.Status.ACTIVE) {
-                try {
-                    renewSubscription(subscription.getUser());
-                    log.info("Auto-renewed subscription for user: {}", subscription.getUser().getEmail());
-                } catch (Exception e) {
-                    log.error("Failed to auto-renew subscription for user: {}",
-                            subscription.getUser().getEmail(), e);
-                    // Could send notification about failed renewal
-                }
+    private SubscriptionResponse replayingKeyConflicts(Supplier<SubscriptionResponse> attempt) {
+        try {
+            return transactionTemplate.execute(status -> attempt.get());
+        } catch (DataIntegrityViolationException e) {
+            if (!isIdempotencyKeyConflict(e)) {
+                throw e;
             }
+            log.info("Idempotency key taken by a concurrent request, replaying its result");
+            return transactionTemplate.execute(status -> attempt.get());
         }
     }
 
-    /**
-     * Mark expired subscriptions
-     */
-    @Transactional
-    public void markExpiredSubscriptions() {
-        LocalDate today = LocalDate.now();
-        List<UserSubscription> expiredSubscriptions = subscriptionRepository
-                .findSubscriptionsExpiringOn(today.minusDays(1));
-
-        for (UserSubscription subscription : expiredSubscriptions) {
-            if (subscription.getStatus() == UserSubscription.Status.ACTIVE) {
-                subscription.expire();
-                subscriptionRepository.save(subscription);
-                log.info("Marked subscription as expired for user: {}", subscription.getUser().getEmail());
-            }
+    private static boolean isIdempotencyKeyConflict(DataIntegrityViolationException e) {
+        // The database reports the name in its own case, sometimes qualified with the table
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(PaymentIntent.IDEMPOTENCY_KEY_CONSTRAINT);
+    }
+
+    private PaymentIntent createIntent(User user, UserSubscription subscription, PaymentIntent.Type type,
+                                       Money amount, UserSubscription.PaymentMode paymentMode,
+                                       String description, String idempotencyKey) {
+        PaymentIntent intent = paymentIntentRepository.save(PaymentIntent.builder()
+                .idempotencyKey(idempotencyKey)
+                .user(user)
+                .subscription(subscription)
+                .type(type)
+                .amount(amount.toDouble())
+                .currency(user.getCurrencyPreference())
+                .paymentMode(paymentMode)
+                .description(description)
+                .build());
+        paymentExecutionService.submitAfterCommit(intent.getId());
+        return intent;
+    }
+
+    private Optional<PaymentIntent> findOwnIntent(User user, String idempotencyKey) {
+        Optional<PaymentIntent> intent = paymentIntentRepository.findByIdempotencyKey(idempotencyKey);
+        if (intent.isPresent() && !intent.get().getUser().getId().equals(user.getId())) {
+            throw new BadRequestException("Idempotency key has already been used");
+        }
+        return intent;
+    }
+
+    private SubscriptionResponse mapPendingResponse(PaymentIntent intent) {
+        SubscriptionResponse response = mapToSubscriptionResponse(intent.getSubscription());
+        if (!intent.isFinished()) {
+            response.setPaymentIntentKey(intent.getIdempotencyKey());
         }
+        return response;
+    }
+
+    private PaymentIntentResponse mapToPaymentIntentResponse(PaymentIntent intent) {
+        return PaymentIntentResponse.builder()
+                .idempotencyKey(intent.getIdempotencyKey())
+                .type(intent.getType())
+                .status(intent.getStatus())
+                .subscriptionId(intent.getSubscription().getId())
+                .amount(intent.getAmount())
+                .currency(intent.getCurrency())
+                .paymentMode(intent.getPaymentMode())
+                .transactionId(intent.getTransactionId())
+                .failureReason(intent.getFailureReason())
+                .attempts(intent.getAttempts())
+                .createdAt(intent.getCreatedAt())
+                .completedAt(intent.getCompletedAt())
+                .build();
     }
 
     private SubscriptionResponse mapToSubscriptionResponse(UserSubscription subscription) {
@@ -332,8 +477,9 @@ public class SubscriptionService {
         return subscription.getStatus() == UserSubscription.Status.ACTIVE;
     }
 
-    private BillingHistoryResponse.BillingStats generateBillingStats(List<UserSubscription> subscriptions) {
-        if (subscriptions.isEmpty()) {
+    private BillingHistoryResponse.BillingStats generateBillingStats(User user, int totalSubscriptions,
+                                                                     long totalMonths, Money totalSpent) {
+        if (totalSubscriptions == 0) {
             return BillingHistoryResponse.BillingStats.builder()
                     .averageMonthlySpend(0.0)
                     .subscriptionChanges(0)
@@ -343,62 +489,131 @@ public class SubscriptionService {
                     .build();
         }
 
-        // Calculate average monthly spend
-        double totalSpent = subscriptions.stream()
-                .filter(s -> s.getAmountPaid() != null)
-                .mapToDouble(UserSubscription::getAmountPaid)
-                .sum();
-
-        long totalMonths = subscriptions.stream()
-                .filter(s -> s.getStartDate() != null && s.getEndDate() != null)
-                .mapToLong(s -> java.time.temporal.ChronoUnit.MONTHS.between(s.getStartDate(), s.getEndDate()))
-                .sum();
-
-        double averageMonthlySpend = totalMonths > 0 ? totalSpent / totalMonths : 0.0;
-
-        // Most used payment mode
-        String mostUsedPaymentMode = subscriptions.stream()
-                .collect(Collectors.groupingBy(UserSubscription::getPaymentMode, Collectors.counting()))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(entry -> entry.getKey().name())
+        Money averageMonthlySpend = totalMonths > 0
+                ? totalSpent.dividedBy(totalMonths) : Money.zero(user.getCurrencyPreference());
+
+        // Both lists are ordered by count, most frequent first
+        String mostUsedPaymentMode = subscriptionRepository.countBillingByPaymentMode(user).stream()
+                .findFirst()
+                .map(row -> ((UserSubscription.PaymentMode) row[0]).name())
                 .orElse("None");
 
-        // Preferred currency
-        String preferredCurrency = subscriptions.stream()
-                .filter(s -> s.getCurrencyPaid() != null)
-                .collect(Collectors.groupingBy(UserSubscription::getCurrencyPaid, Collectors.counting()))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(entry -> entry.getKey().name())
+        String preferredCurrency = subscriptionRepository.countBillingByCurrency(user).stream()
+                .findFirst()
+                .map(row -> ((User.Currency) row[0]).name())
                 .orElse("None");
 
         return BillingHistoryResponse.BillingStats.builder()
-                .averageMonthlySpend(Math.round(averageMonthlySpend * 100.0) / 100.0)
-                .subscriptionChanges(subscriptions.size() - 1) // Number of plan changes
+                .averageMonthlySpend(averageMonthlySpend.roundToMinorUnit().toDouble())
+                .subscriptionChanges(totalSubscriptions - 1) // Number of plan changes
                 .totalActiveMonths(totalMonths)
                 .mostUsedPaymentMode(mostUsedPaymentMode)
                 .preferredCurrency(preferredCurrency)
                 .build();
     }
 
-    private String convertMapToJson(Map<String, Object> map) {
-        if (map == null || map.isEmpty()) return "{}";
+    private void writeCsvRow(Writer writer, UserSubscription subscription) throws IOException {
+        writer.write(String.valueOf(subscription.getId()));
+        writer.write(',');
+        writer.write(csv(subscription.getPlan().getName()));
+        writer.write(',');
+        writer.write(csv(subscription.getStatus()));
+        writer.write(',');
+        writer.write(csv(subscription.getPaymentMode()));
+        writer.write(',');
+        writer.write(csv(subscription.getAmountPaid()));
+        writer.write(',');
+        writer.write(csv(subscription.getCurrencyPaid()));
+        writer.write(',');
+        writer.write(csv(subscription.getStartDate()));
+        writer.write(',');
+        writer.write(csv(subscription.getEndDate()));
+        writer.write(',');
+        writer.write(csv(subscription.getPaymentReference()));
+        writer.write(',');
+        writer.write(csv(subscription.getAutoRenew()));
+        writer.write(',');
+        writer.write(csv(subscription.getCreatedAt()));
+        writer.write('\n');
+    }
 
-        try {
-            // Simple JSON conversion - in production use ObjectMapper
-            StringBuilder json = new StringBuilder("{");
-            boolean first = true;
-            for (Map.Entry<String, Object> entry : map.entrySet()) {
-                if (!first) json.append(",");
-                json.append("\"").append(entry.getKey()).append("\":\"")
-                        .append(entry.getValue()).append("\"");
-                first = false;
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private BillingExportRow toExportRow(UserSubscription subscription) {
+        return new BillingExportRow(
+                subscription.getId(),
+                subscription.getPlan().getName(),
+                subscription.getStatus(),
+                subscription.getPaymentMode(),
+                subscription.getAmountPaid(),
+                subscription.getCurrencyPaid(),
+                subscription.getStartDate(),
+                subscription.getEndDate(),
+                subscription.getPaymentReference(),
+                subscription.getAutoRenew(),
+                subscription.getCreatedAt());
+    }
+
+    /**
+     * Total paid across the billing history in the given currency. Amounts are summed per
+     * currency and day in SQL; each sum paid in another currency is converted at the rate in
+     * force at the day's first payment.
+     */
+    private Money sumAmountPaid(User user, User.Currency currency) {
+        List<Object[]> groups = subscriptionRepository.getBillingAmountsByCurrencyAndDay(user);
+        double[] amounts = new double[groups.size()];
+        User.Currency[] paidIn = new User.Currency[groups.size()];
+        LocalDateTime[] paidAt = new LocalDateTime[groups.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            Object[] group = groups.get(i);
+            LocalDateTime createdAt = (LocalDateTime) group[1];
+            LocalDate startDate = (LocalDate) group[2];
+            paidIn[i] = group[0] != null ? (User.Currency) group[0] : currency;
+            paidAt[i] = createdAt != null ? createdAt : startDate != null ? startDate.atStartOfDay() : null;
+            amounts[i] = group[3] != null ? ((Number) group[3]).doubleValue() : 0.0;
+        }
+
+        Money total = Money.zero(currency);
+        for (double amount : currencyConverter.batchConvertAsOf(amounts, paidIn, paidAt, currency)) {
+            total = total.plus(Money.of(amount, currency));
+        }
+        return total.roundToMinorUnit();
+    }
+
+    /**
+     * Position after the last row of a billing page, passed to the client as an opaque string
+     */
+    private record BillingCursor(LocalDateTime createdAt, Long id) {
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static BillingCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new BillingCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Invalid cursor");
             }
-            json.append("}");
-            return json.toString();
-        } catch (Exception e) {
-            return "{}";
         }
     }
+
+    private record BillingExportRow(Long id, String plan, UserSubscription.Status status,
+                                    UserSubscription.PaymentMode paymentMode, Double amountPaid,
+                                    User.Currency currencyPaid, LocalDate startDate, LocalDate endDate,
+                                    String paymentReference, Boolean autoRenew, LocalDateTime createdAt) {
+    }
 }
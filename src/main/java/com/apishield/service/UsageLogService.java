@@ -4,8 +4,12 @@ import com.apishield.dto.usage.*;
 import com.apishield.exception.BadRequestException;
 import com.apishield.exception.ResourceNotFoundException;
 import com.apishield.model.ApiService;
+import com.apishield.model.Money;
 import com.apishield.model.UsageLog;
 import com.apishield.model.User;
+import com.apishield.profiling.ApplicationEvents;
+import com.apishield.profiling.UsageIngestionEvent;
+import com.apishield.profiling.UsageSummaryEvent;
 import com.apishield.repository.ApiServiceRepository;
 import com.apishield.repository.UsageLogRepository;
 import com.apishield.util.AnalyticsCalculator;
@@ -30,10 +34,13 @@ public class UsageLogService {
     private final UsageLogRepository usageLogRepository;
     private final ApiServiceRepository apiServiceRepository;
     private final AnalyticsCalculator analyticsCalculator;
+    private final SpendLedgerService spendLedgerService;
 
     @Transactional
     public UsageLogResponse createUsageLog(User user, UsageLogRequest request) {
         log.info("Creating usage log for user: {} and API service: {}", user.getEmail(), request.getApiServiceId());
+        UsageIngestionEvent event = new UsageIngestionEvent();
+        event.begin();
 
         // Validate API service ownership
         ApiService apiService = apiServiceRepository.findByIdAndUser(request.getApiServiceId(), user)
@@ -65,9 +72,16 @@ public class UsageLogService {
         log.info("Successfully created usage log with ID: {}", savedLog.getId());
 
         // Update API service usage count
-        updateApiServiceUsageCount(apiService, request.getRequestsMade());
-
-        return mapToUsageLogResponse(savedLog, Collections.emptyList());
+        updateApiServiceUsageCount(apiService, request.getRequestsMade(), request.getDate());
+
+        if (event.shouldCommit()) {
+            event.userId = ApplicationEvents.id(user.getId());
+            event.apiServiceId = ApplicationEvents.id(apiService.getId());
+            event.requests = request.getRequestsMade() != null ? request.getRequestsMade() : 0;
+            event.rows = 1;
+            event.commit();
+        }
+        return mapToUsageLogResponse(savedLog, Collections.emptyList(), user.getCurrencyPreference());
     }
 
     @Transactional(readOnly = true)
@@ -79,7 +93,7 @@ public class UsageLogService {
 
         List<UsageLog> logs = usageLogRepository.findByApiServiceOrderByLogDateDesc(apiService);
         return logs.stream()
-                .map(log -> mapToUsageLogResponse(log, logs))
+                .map(log -> mapToUsageLogResponse(log, logs, user.getCurrencyPreference()))
                 .collect(Collectors.toList());
     }
 
@@ -107,9 +121,12 @@ public class UsageLogService {
         double avgSuccessRate = analyticsCalculator.calculateOverallSuccessRate(logs);
         double avgErrorRate = analyticsCalculator.calculateOverallErrorRate(logs);
         Integer peakHour = analyticsCalculator.findMostCommonPeakHour(logs);
+        Money costPerUnit = Money.of(apiService.getCostPerUnit(), user.getCurrencyPreference());
         double totalCost = logs.stream()
-                .mapToDouble(log -> analyticsCalculator.calculateCostIncurred(log, apiService.getCostPerUnit()))
-                .sum();
+                .map(log -> analyticsCalculator.calculateCostIncurred(log, costPerUnit))
+                .reduce(Money.zero(user.getCurrencyPreference()), Money::plus)
+                .roundToMinorUnit()
+                .toDouble();
 
         String status = determineApiStatus(avgSuccessRate, avgErrorRate);
 
@@ -122,7 +139,7 @@ public class UsageLogService {
                 .averageErrorRate(avgErrorRate)
                 .mostCommonPeakHour(peakHour)
                 .mostCommonPeakHourFormatted(peakHour != null ? String.format("%02d:00", peakHour) : null)
-                .totalCostIncurred(Math.round(totalCost * 100.0) / 100.0)
+                .totalCostIncurred(totalCost)
                 .status(status)
                 .build();
     }
@@ -130,12 +147,15 @@ public class UsageLogService {
     @Transactional(readOnly = true)
     public UsageSummaryResponse getUsageSummary(User user) {
         log.info("Generating usage summary for user: {}", user.getEmail());
+        UsageSummaryEvent event = new UsageSummaryEvent();
+        event.begin();
 
         LocalDate thirtyDaysAgo = LocalDate.now().minusDays(30);
         List<UsageLog> recentLogs = usageLogRepository
                 .findByUserAndDateRangeOrderByLogDateDesc(user, thirtyDaysAgo, LocalDate.now());
 
         if (recentLogs.isEmpty()) {
+            commit(event, user, 0);
             return createEmptySummary();
         }
 
@@ -163,7 +183,7 @@ public class UsageLogService {
         List<String> insights = analyticsCalculator.generateInsights(recentLogs);
         List<String> recommendations = analyticsCalculator.generateRecommendations(recentLogs);
 
-        return UsageSummaryResponse.builder()
+        UsageSummaryResponse summary = UsageSummaryResponse.builder()
                 .totalRequests(totalRequests)
                 .averageSuccessRate(avgSuccessRate)
                 .averageErrorRate(avgErrorRate)
@@ -183,6 +203,8 @@ public class UsageLogService {
                 .insights(insights)
                 .recommendations(recommendations)
                 .build();
+        commit(event, user, recentLogs.size());
+        return summary;
     }
 
     @Transactional(readOnly = true)
@@ -198,14 +220,14 @@ public class UsageLogService {
                 .findRecentHighUsageLogs(user, sevenDaysAgo, recent10);
 
         List<UsageLogResponse> recentLogs = recentHighUsageLogs.stream()
-                .map(log -> mapToUsageLogResponse(log, Collections.emptyList()))
+                .map(log -> mapToUsageLogResponse(log, Collections.emptyList(), user.getCurrencyPreference()))
                 .collect(Collectors.toList());
 
         // Get high error rate logs
         List<UsageLog> highErrorLogs = usageLogRepository.findHighErrorRateLogs(user, 0.05); // >5% error rate
         List<UsageLogResponse> highErrorLogResponses = highErrorLogs.stream()
                 .limit(10)
-                .map(log -> mapToUsageLogResponse(log, Collections.emptyList()))
+                .map(log -> mapToUsageLogResponse(log, Collections.emptyList(), user.getCurrencyPreference()))
                 .collect(Collectors.toList());
 
         // Generate alerts
@@ -224,18 +246,27 @@ public class UsageLogService {
     }
 
     @Transactional
-    private void updateApiServiceUsageCount(ApiService apiService, Integer newRequests) {
+    private static void commit(UsageSummaryEvent event, User user, int rows) {
+        if (event.shouldCommit()) {
+            event.userId = ApplicationEvents.id(user.getId());
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    private void updateApiServiceUsageCount(ApiService apiService, Integer newRequests, LocalDate usageDate) {
         // Update the usage count in the API service
         apiService.setUsageCount(apiService.getUsageCount() + newRequests);
         apiServiceRepository.save(apiService);
+        spendLedgerService.recordUsage(apiService, newRequests, usageDate);
 
         log.info("Updated API service {} usage count to: {}",
                 apiService.getId(), apiService.getUsageCount());
     }
 
-    private UsageLogResponse mapToUsageLogResponse(UsageLog log, List<UsageLog> historicalLogs) {
+    private UsageLogResponse mapToUsageLogResponse(UsageLog log, List<UsageLog> historicalLogs, User.Currency currency) {
         String status = analyticsCalculator.determineUsageStatus(log, historicalLogs);
-        double costIncurred = analyticsCalculator.calculateCostIncurred(log, log.getApiService().getCostPerUnit());
+        double costIncurred = analyticsCalculator.calculateCostIncurred(log, log.getApiService().getCostPerUnit(), currency);
 
         return UsageLogResponse.builder()
                 .id(log.getId())
@@ -252,7 +283,7 @@ public class UsageLogService {
                 .isHighErrorRate(log.isHighErrorRate())
                 .createdAt(log.getCreatedAt())
                 .status(status)
-                .costIncurred(Math.round(costIncurred * 100.0) / 100.0)
+                .costIncurred(costIncurred)
                 .build();
     }
 
@@ -3,9 +3,11 @@ package com.apishield.service;
 import com.apishield.dto.UserResponse;
 import com.apishield.model.User;
 import com.apishield.repository.UserRepository;
+import com.apishield.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -15,18 +17,27 @@ public class UserService {
 
     private final UserRepository userRepository;
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserResponse getCurrentUser(Authentication authentication) {
-        String email = extractEmail(authentication);
-
-        User user = userRepository.findByEmail(email)  // ← Changed from findByUsername to findByEmail
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
-
-        return convertToUserResponse(user);
+        return convertToUserResponse(getCurrentUserEntity(authentication));
     }
 
+    /**
+     * The authenticated user. The JWT filter has already loaded it into the principal, so
+     * this is a detached copy of that row rather than a second query; it is fine for reads
+     * and as a query parameter, but changes to it must be saved explicitly.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public User getCurrentUserEntity(Authentication authentication) {
         String email = extractEmail(authentication);
 
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            User user = principal.getUser();
+            if (user != null) {
+                return user;
+            }
+        }
+
         return userRepository.findByEmail(email)  // ← Changed from findByUsername to findByEmail
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
     }
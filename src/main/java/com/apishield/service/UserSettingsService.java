@@ -4,6 +4,7 @@ import com.apishield.dto.settings.UserSettingsRequest;
 import com.apishield.dto.settings.UserSettingsResponse;
 import com.apishield.model.User;
 import com.apishield.model.UserSettings;
+import com.apishield.repository.UserRepository;
 import com.apishield.repository.UserSettingsRepository;
 import com.apishield.util.CurrencyConverter;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +22,7 @@ import java.util.List;
 public class UserSettingsService {
 
     private final UserSettingsRepository settingsRepository;
+    private final UserRepository userRepository;
     private final CurrencyConverter currencyConverter;
 
     @Transactional
@@ -33,7 +35,7 @@ public class UserSettingsService {
         // Update currency preference in both settings and user entity
         if (request.getCurrencyPreference() != null) {
             settings.setCurrencyPreference(request.getCurrencyPreference());
-            user.setCurrencyPreference(request.getCurrencyPreference());
+            updateUserCurrency(user, request.getCurrencyPreference());
         }
 
         // Update other preferences
@@ -84,7 +86,7 @@ public class UserSettingsService {
                 .orElse(createDefaultSettings(user));
 
         settings.setCurrencyPreference(currency);
-        user.setCurrencyPreference(currency);
+        updateUserCurrency(user, currency);
 
         UserSettings savedSettings = settingsRepository.save(settings);
         return mapToResponse(savedSettings);
@@ -130,6 +132,17 @@ public class UserSettingsService {
         return settingsRepository.findUsersWithWeeklyReportsEnabled();
     }
 
+    /**
+     * The user from the principal is a detached copy; merging it would write back every column
+     * as it was when the token was first seen, undoing password or role changes made since.
+     * Set the currency on the managed row instead and let the flush write it.
+     */
+    private void updateUserCurrency(User user, User.Currency currency) {
+        userRepository.findById(user.getId())
+                .ifPresent(managedUser -> managedUser.setCurrencyPreference(currency));
+        user.setCurrencyPreference(currency);
+    }
+
     private UserSettings createDefaultSettings(User user) {
         return UserSettings.builder()
                 .user(user)
@@ -140,9 +140,14 @@ public class AlertProcessor {
             return null;
         }
 
+        // Service costs are kept in the owner's currency
+        User.Currency currency = apiService.getUser().getCurrencyPreference() != null
+                ? apiService.getUser().getCurrencyPreference() : User.Currency.USD;
         String direction = anomalyPercent > 0 ? "higher" : "lower";
-        String message = String.format("Cost anomaly detected: %.1f%% %s than expected ($%.2f vs $%.2f expected)",
-                Math.abs(anomalyPercent), direction, currentCost, expectedCost);
+        String message = String.format("Cost anomaly detected: %.1f%% %s than expected (%s vs %s expected)",
+                Math.abs(anomalyPercent), direction,
+                AmountFormatter.DEFAULT.format(currentCost, currency),
+                AmountFormatter.DEFAULT.format(expectedCost, currency));
 
         Alert alert = Alert.builder()
                 .user(apiService.getUser())
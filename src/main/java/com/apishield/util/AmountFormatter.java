@@ -0,0 +1,168 @@
+package com.apishield.util;
+
+import com.apishield.model.Money;
+import com.apishield.model.User;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-point amount formatting. Amounts are rounded half away from zero to whole minor
+ * units (cents, paise, yen) as a long, and the digits are written straight into a
+ * StringBuilder, so there is no DecimalFormat or Formatter to build, share or lock.
+ * Instances are immutable and safe to share; one is cached per locale.
+ */
+public final class AmountFormatter {
+
+    // Separators the API has always used, whatever the JVM default locale
+    public static final AmountFormatter DEFAULT = new AmountFormatter(',', '.');
+
+    private static final Map<Locale, AmountFormatter> BY_LOCALE = new ConcurrentHashMap<>();
+
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1L;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10L;
+        }
+    }
+
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+
+    private AmountFormatter(char groupingSeparator, char decimalSeparator) {
+        this.groupingSeparator = groupingSeparator;
+        this.decimalSeparator = decimalSeparator;
+    }
+
+    /**
+     * Grouping and decimal separators of the locale, e.g. "1.234,50" for Germany
+     */
+    public static AmountFormatter forLocale(Locale locale) {
+        return BY_LOCALE.computeIfAbsent(locale, key -> {
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(key);
+            return new AmountFormatter(symbols.getGroupingSeparator(), symbols.getDecimalSeparator());
+        });
+    }
+
+    /**
+     * Symbol, grouped digits and the currency's minor units, e.g. "$1,234.50" or "¥1,235"
+     */
+    public String format(double amount, User.Currency currency) {
+        int digits = currency.getFractionDigits();
+        if (!isFinite(amount)) {
+            return currency.getSymbol() + amount;
+        }
+        StringBuilder out = new StringBuilder(24).append(currency.getSymbol());
+        return appendMinorUnits(out, toMinorUnits(amount, digits), digits, true).toString();
+    }
+
+    public String format(Money amount) {
+        int digits = amount.getCurrency().getFractionDigits();
+        StringBuilder out = new StringBuilder(24).append(amount.getCurrency().getSymbol());
+        return appendMinorUnits(out, toMinorUnits(amount), digits, true).toString();
+    }
+
+    /**
+     * Symbol and plain digits without grouping, e.g. "$1234.50"
+     */
+    public String formatUngrouped(double amount, User.Currency currency) {
+        int digits = currency.getFractionDigits();
+        if (!isFinite(amount)) {
+            return currency.getSymbol() + amount;
+        }
+        StringBuilder out = new StringBuilder(24).append(currency.getSymbol());
+        return appendMinorUnits(out, toMinorUnits(amount, digits), digits, false).toString();
+    }
+
+    /**
+     * Grouped digits followed by the ISO code, e.g. "1,234.50 USD"
+     */
+    public String formatWithCode(double amount, User.Currency currency) {
+        return appendWithCode(new StringBuilder(24), amount, currency).toString();
+    }
+
+    public StringBuilder appendWithCode(StringBuilder out, double amount, User.Currency currency) {
+        int digits = currency.getFractionDigits();
+        if (!isFinite(amount)) {
+            return out.append(amount).append(' ').append(currency.name());
+        }
+        return appendMinorUnits(out, toMinorUnits(amount, digits), digits, true).append(' ').append(currency.name());
+    }
+
+    /**
+     * Plain decimal with a fixed number of places, e.g. an exchange rate as "83.1234"
+     */
+    public String formatDecimal(double value, int decimals) {
+        return appendDecimal(new StringBuilder(24), value, decimals).toString();
+    }
+
+    public StringBuilder appendDecimal(StringBuilder out, double value, int decimals) {
+        if (!isFinite(value)) {
+            return out.append(value);
+        }
+        return appendMinorUnits(out, toMinorUnits(value, decimals), decimals, false);
+    }
+
+    /**
+     * Write a fixed-point value held as a count of 10^-fractionDigits units. Allocation-free
+     * apart from any growth of the builder.
+     */
+    public StringBuilder appendMinorUnits(StringBuilder out, long minorUnits, int fractionDigits, boolean grouped) {
+        if (minorUnits < 0) {
+            out.append('-');
+        }
+        // Work on the negative magnitude so Long.MIN_VALUE needs no special case
+        long negative = minorUnits < 0 ? minorUnits : -minorUnits;
+        long unit = POW10[fractionDigits];
+        long integerPart = -(negative / unit);
+        long fraction = -(negative % unit);
+
+        int length = digitCount(integerPart);
+        for (int position = length - 1; position >= 0; position--) {
+            out.append((char) ('0' + (integerPart / POW10[position]) % 10));
+            if (grouped && position > 0 && position % 3 == 0) {
+                out.append(groupingSeparator);
+            }
+        }
+
+        if (fractionDigits > 0) {
+            out.append(decimalSeparator);
+            for (int position = fractionDigits - 1; position >= 0; position--) {
+                out.append((char) ('0' + (fraction / POW10[position]) % 10));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Round half away from zero to the given number of decimal places
+     */
+    public static long toMinorUnits(double amount, int fractionDigits) {
+        double scaled = Math.abs(amount) * POW10[fractionDigits];
+        long rounded = (long) (scaled + 0.5);
+        return amount < 0 ? -rounded : rounded;
+    }
+
+    public static long toMinorUnits(Money amount) {
+        long step = POW10[Money.SCALE - amount.getCurrency().getFractionDigits()];
+        long micros = amount.getMicros();
+        long magnitude = (Math.abs(micros) + step / 2) / step;
+        return micros < 0 ? -magnitude : magnitude;
+    }
+
+    private static int digitCount(long value) {
+        int count = 1;
+        while (count < POW10.length && value >= POW10[count]) {
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isFinite(double value) {
+        return !Double.isNaN(value) && !Double.isInfinite(value);
+    }
+}
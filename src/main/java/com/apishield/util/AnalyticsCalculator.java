@@ -1,6 +1,8 @@
 package com.apishield.util;
 
+import com.apishield.model.Money;
 import com.apishield.model.UsageLog;
+import com.apishield.model.User;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
@@ -246,8 +248,16 @@ public class AnalyticsCalculator {
     /**
      * Calculate cost incurred based on usage and cost per unit
      */
-    public double calculateCostIncurred(UsageLog log, double costPerUnit) {
-        return log.getRequestsMade() * costPerUnit;
+    public Money calculateCostIncurred(UsageLog log, Money costPerUnit) {
+        return costPerUnit.times((long) log.getRequestsMade());
+    }
+
+    /**
+     * Calculate cost incurred for a Double cost per unit, which like every stored API service
+     * amount is in the owner's currency, rounded to that currency's minor unit
+     */
+    public double calculateCostIncurred(UsageLog log, double costPerUnit, User.Currency currency) {
+        return calculateCostIncurred(log, Money.of(costPerUnit, currency)).roundToMinorUnit().toDouble();
     }
 
     /**
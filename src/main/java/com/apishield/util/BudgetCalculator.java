@@ -1,12 +1,29 @@
 package com.apishield.util;
 
 import com.apishield.model.ApiService;
+import com.apishield.model.Money;
 import com.apishield.model.User;
 import org.springframework.stereotype.Component;
 
 @Component
 public class BudgetCalculator {
 
+    /**
+     * Calculate total cost incurred by an API service (usage x cost per unit)
+     */
+    public Money calculateTotalCost(ApiService apiService, User.Currency currency) {
+        return Money.ofNullable(apiService.getCostPerUnit(), currency)
+                .times(apiService.getUsageCount() != null ? apiService.getUsageCount() : 0.0);
+    }
+
+    /**
+     * Calculate remaining budget for an API service, never below zero
+     */
+    public Money calculateRemainingBudget(ApiService apiService, User.Currency currency) {
+        Money budget = Money.ofNullable(apiService.getBudget(), currency);
+        return budget.minus(calculateTotalCost(apiService, currency)).max(Money.zero(currency));
+    }
+
     /**
      * Calculate utilization percentage for an API service
      */
@@ -14,23 +31,29 @@ public class BudgetCalculator {
         if (apiService.getBudget() == null || apiService.getBudget() == 0.0) {
             return 0.0;
         }
-        double totalCost = apiService.getUsageCount() * apiService.getCostPerUnit();
-        return Math.min(100.0, (totalCost / apiService.getBudget()) * 100.0);
+        Money totalCost = calculateTotalCost(apiService, Money.BASE_CURRENCY);
+        return Math.min(100.0, totalCost.percentageOf(Money.of(apiService.getBudget(), Money.BASE_CURRENCY)));
     }
 
     /**
-     * Calculate remaining budget for an API service
+     * Calculate remaining budget for an API service, rounded to the minor unit of its owner's currency
      */
     public double calculateRemainingBudget(ApiService apiService) {
-        double totalCost = apiService.getUsageCount() * apiService.getCostPerUnit();
-        return Math.max(0.0, apiService.getBudget() - totalCost);
+        return calculateRemainingBudget(apiService, ownerCurrency(apiService)).roundToMinorUnit().toDouble();
     }
 
     /**
-     * Calculate total spent for an API service
+     * Calculate total spent for an API service, rounded to the minor unit of its owner's currency
      */
     public double calculateTotalSpent(ApiService apiService) {
-        return apiService.getUsageCount() * apiService.getCostPerUnit();
+        return calculateTotalCost(apiService, ownerCurrency(apiService)).roundToMinorUnit().toDouble();
+    }
+
+    // Budgets and unit costs are stored in the owner's currency
+    private static User.Currency ownerCurrency(ApiService apiService) {
+        User owner = apiService.getUser();
+        return owner != null && owner.getCurrencyPreference() != null
+                ? owner.getCurrencyPreference() : Money.BASE_CURRENCY;
     }
 
     /**
@@ -57,31 +80,10 @@ public class BudgetCalculator {
         }
     }
 
-    /**
-     * Convert amount based on user's currency preference
-     */
-    public double convertCurrency(double amount, User.Currency fromCurrency, User.Currency toCurrency) {
-        if (fromCurrency == toCurrency) {
-            return amount;
-        }
-
-        // Mock conversion rates (in real app, use external API)
-        final double USD_TO_INR = 83.0;
-        final double INR_TO_USD = 1.0 / USD_TO_INR;
-
-        if (fromCurrency == User.Currency.USD && toCurrency == User.Currency.INR) {
-            return amount * USD_TO_INR;
-        } else if (fromCurrency == User.Currency.INR && toCurrency == User.Currency.USD) {
-            return amount * INR_TO_USD;
-        }
-
-        return amount;
-    }
-
     /**
      * Get currency symbol
      */
     public String getCurrencySymbol(User.Currency currency) {
-        return currency == User.Currency.USD ? "$" : "₹";
+        return currency.getSymbol();
     }
 }
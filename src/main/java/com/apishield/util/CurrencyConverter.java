@@ -1,30 +1,50 @@
 package com.apishield.util;
 
 import com.apishield.model.CurrencyRate;
+import com.apishield.model.Money;
+import com.apishield.model.SubscriptionPlan;
 import com.apishield.model.User;
 import com.apishield.repository.CurrencyRateRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.text.DecimalFormat;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Currency conversion against a single base currency. Every stored rate is a base-to-currency
+ * rate; cross rates are triangulated through the base into a dense matrix indexed by
+ * {@code Currency.ordinal()}, so a conversion is one array read.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class CurrencyConverter {
 
+    public static final User.Currency BASE_CURRENCY = Money.BASE_CURRENCY;
+
     private final CurrencyRateRepository currencyRateRepository;
+    private final ExchangeRateHistory exchangeRateHistory;
+
+    // Database rates older than this are ignored in favour of the fallback rates
+    private static final Duration RATE_MAX_AGE = Duration.ofHours(24);
 
-    // Fallback rates if database rates are not available
-    private static final Map<String, Double> FALLBACK_RATES = Map.of(
-            "USD_TO_INR", 83.0,
-            "INR_TO_USD", 0.012048
-    );
+    // Active rates as last read from the database; replaced whole, never modified in place
+    private final AtomicReference<RateSnapshot> snapshot = new AtomicReference<>();
+    // Numbers reloads in the order they read the database
+    private final AtomicLong loadSequence = new AtomicLong();
 
     /**
      * Convert amount from one currency to another
@@ -38,6 +58,27 @@ public class CurrencyConverter {
         return amount * rate;
     }
 
+    /**
+     * Convert a Money amount into another currency at the current rate
+     */
+    public Money convert(Money amount, User.Currency toCurrency) {
+        if (amount.getCurrency() == toCurrency) {
+            return amount;
+        }
+        return Money.of(convertCurrency(amount.toDouble(), amount.getCurrency(), toCurrency), toCurrency);
+    }
+
+    /**
+     * Monthly price of a plan in the given currency: the plan's own price when it has one for
+     * that currency, otherwise its USD price converted and rounded to the currency's minor unit
+     */
+    public Money getPlanPrice(SubscriptionPlan plan, User.Currency currency) {
+        if (plan.hasPriceFor(currency)) {
+            return plan.getPrice(currency);
+        }
+        return convert(plan.getPrice(BASE_CURRENCY), currency).roundToMinorUnit();
+    }
+
     /**
      * Get current exchange rate between two currencies
      */
@@ -46,72 +87,147 @@ public class CurrencyConverter {
             return 1.0;
         }
 
-        // Try to get rate from database first
-        Optional<CurrencyRate> currencyRate = currencyRateRepository
-                .findLatestRate(fromCurrency, toCurrency);
+        double rate = getSnapshot().getRate(fromCurrency, toCurrency);
+        if (!Double.isNaN(rate)) {
+            return rate;
+        }
+
+        log.warn("No exchange rate found for {} to {}, using rate 1.0", fromCurrency, toCurrency);
+        return 1.0;
+    }
+
+    /**
+     * Current rate snapshot, loaded from the database on first use. When a database rate
+     * in the snapshot ages past 24 hours the matrix is re-derived with the fallback rate
+     * for that currency, without going back to the database.
+     */
+    public RateSnapshot getSnapshot() {
+        RateSnapshot current = snapshot.get();
+        if (current == null) {
+            return reloadRates();
+        }
 
-        if (currencyRate.isPresent() && currencyRate.get().isRecent()) {
-            log.debug("Using database rate: {} {} to {}", currencyRate.get().getRate(), fromCurrency, toCurrency);
-            return currencyRate.get().getRate();
+        long now = System.currentTimeMillis();
+        if (current.isExpired(now)) {
+            RateSnapshot refreshed = current.reevaluate(now);
+            snapshot.compareAndSet(current, refreshed);
+            return refreshed;
         }
+        return current;
+    }
 
-        // Fallback to hardcoded rates
-        String rateKey = fromCurrency.name() + "_TO_" + toCurrency.name();
-        Double fallbackRate = FALLBACK_RATES.get(rateKey);
+    /**
+     * Re-read the active rates and swap them in atomically. Conversions running
+     * concurrently keep using the snapshot they already hold. A reload that read the
+     * database before another one did never replaces the other's snapshot, so a slow
+     * first load cannot put back rates older than a reload that finished before it.
+     */
+    public RateSnapshot reloadRates() {
+        long version = loadSequence.incrementAndGet();
+        RateSnapshot loaded = RateSnapshot.of(currencyRateRepository.findAllActiveRates(),
+                System.currentTimeMillis(), version);
+        RateSnapshot published = snapshot.accumulateAndGet(loaded,
+                (current, candidate) -> current == null || candidate.version > current.version ? candidate : current);
+        if (published == loaded) {
+            log.info("Loaded {} exchange rates into the rate snapshot", loaded.getRateCount());
+        } else {
+            log.debug("Discarded rate snapshot {} superseded by {}", version, published.version);
+        }
+        return published;
+    }
 
-        if (fallbackRate != null) {
-            log.debug("Using fallback rate: {} {} to {}", fallbackRate, fromCurrency, toCurrency);
-            return fallbackRate;
+    /**
+     * Reload the snapshot once the current transaction commits, so rolled-back writes are
+     * never published. Without a transaction the reload happens immediately.
+     */
+    public void reloadRatesAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reloadRates();
+            return;
         }
+        // One reload per transaction, however many rates it writes
+        if (TransactionSynchronizationManager.hasResource(snapshot)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(snapshot, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    reloadRates();
+                } catch (Exception e) {
+                    // The rates are committed; keep serving the previous snapshot until the next reload
+                    log.error("Failed to reload exchange rate snapshot", e);
+                }
+            }
 
-        log.warn("No exchange rate found for {} to {}, using rate 1.0", fromCurrency, toCurrency);
-        return 1.0;
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(snapshot);
+            }
+        });
     }
 
     /**
      * Get currency symbol
      */
     public String getCurrencySymbol(User.Currency currency) {
-        return switch (currency) {
-            case USD -> "$";
-            case INR -> "₹";
-        };
+        return currency.getSymbol();
     }
 
     /**
      * Format amount with currency symbol
      */
     public String formatAmount(double amount, User.Currency currency) {
-        String symbol = getCurrencySymbol(currency);
-        DecimalFormat formatter = new DecimalFormat("#,##0.00");
-        return symbol + formatter.format(amount);
+        return AmountFormatter.DEFAULT.format(amount, currency);
+    }
+
+    /**
+     * Format amount with currency symbol and the locale's separators
+     */
+    public String formatAmount(double amount, User.Currency currency, Locale locale) {
+        return AmountFormatter.forLocale(locale).format(amount, currency);
     }
 
     /**
      * Format amount with currency code
      */
     public String formatAmountWithCode(double amount, User.Currency currency) {
-        DecimalFormat formatter = new DecimalFormat("#,##0.00");
-        return formatter.format(amount) + " " + currency.name();
+        return AmountFormatter.DEFAULT.formatWithCode(amount, currency);
     }
 
     /**
      * Get conversion summary string
      */
     public String getConversionSummary(double originalAmount, User.Currency fromCurrency,
-                                       double convertedAmount, User.Currency toCurrency) {
-        return String.format("%s = %s",
-                formatAmountWithCode(originalAmount, fromCurrency),
-                formatAmountWithCode(convertedAmount, toCurrency));
+                                       double convertedAmount, User.Currency toCurrency, Locale locale) {
+        AmountFormatter formatter = AmountFormatter.forLocale(locale);
+        StringBuilder summary = new StringBuilder(48);
+        formatter.appendWithCode(summary, originalAmount, fromCurrency).append(" = ");
+        return formatter.appendWithCode(summary, convertedAmount, toCurrency).toString();
     }
 
     /**
-     * Update exchange rate in database
+     * Update exchange rate in database. Rates are stored against the base currency, so a
+     * rate into the base is stored as its inverse; cross rates are derived, never stored.
      */
     public void updateExchangeRate(User.Currency fromCurrency, User.Currency toCurrency,
                                    double rate, String source) {
+        if (fromCurrency == toCurrency || rate <= 0.0 || Double.isNaN(rate) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("Invalid exchange rate " + rate + " for " + fromCurrency + " to " + toCurrency);
+        }
+        if (fromCurrency != BASE_CURRENCY && toCurrency != BASE_CURRENCY) {
+            throw new IllegalArgumentException("Only rates against " + BASE_CURRENCY + " are stored, got "
+                    + fromCurrency + " to " + toCurrency);
+        }
+        if (toCurrency == BASE_CURRENCY) {
+            updateExchangeRate(BASE_CURRENCY, fromCurrency, 1.0 / rate, source);
+            return;
+        }
+
         Optional<CurrencyRate> existingRate = currencyRateRepository
                 .findByFromCurrencyAndToCurrencyAndIsActive(fromCurrency, toCurrency, true);
+        LocalDateTime now = LocalDateTime.now();
 
         if (existingRate.isPresent()) {
             CurrencyRate currencyRate = existingRate.get();
@@ -124,28 +240,31 @@ public class CurrencyConverter {
                     .toCurrency(toCurrency)
                     .rate(rate)
                     .source(source)
-                    .updatedAt(LocalDateTime.now())
+                    .updatedAt(now)
                     .build();
             currencyRateRepository.save(newRate);
             log.info("Created new exchange rate: {} {} to {} from {}", rate, fromCurrency, toCurrency, source);
         }
+
+        exchangeRateHistory.record(fromCurrency, toCurrency, rate, source, now);
+        reloadRatesAfterCommit();
     }
 
     /**
-     * Get all available currency rates
+     * Get all available currency rates, to and from the base currency
      */
     public Map<String, Double> getAllExchangeRates() {
         Map<String, Double> rates = new HashMap<>();
 
-        var allRates = currencyRateRepository.findAllActiveRates();
-        for (CurrencyRate rate : allRates) {
-            String key = rate.getFromCurrency().name() + "_TO_" + rate.getToCurrency().name();
-            rates.put(key, rate.getRate());
+        RateSnapshot current = getSnapshot();
+        for (User.Currency currency : User.Currency.values()) {
+            if (currency == BASE_CURRENCY || !current.hasRate(BASE_CURRENCY, currency)) {
+                continue;
+            }
+            rates.put(BASE_CURRENCY.name() + "_TO_" + currency.name(), current.getRate(BASE_CURRENCY, currency));
+            rates.put(currency.name() + "_TO_" + BASE_CURRENCY.name(), current.getRate(currency, BASE_CURRENCY));
         }
 
-        // Add fallback rates if not present
-        FALLBACK_RATES.forEach(rates::putIfAbsent);
-
         return rates;
     }
 
@@ -153,18 +272,18 @@ public class CurrencyConverter {
      * Check if rate is stale (older than 24 hours)
      */
     public boolean isRateStale(User.Currency fromCurrency, User.Currency toCurrency) {
-        Optional<CurrencyRate> rate = currencyRateRepository.findLatestRate(fromCurrency, toCurrency);
-        return rate.isEmpty() || !rate.get().isRecent();
+        return !getSnapshot().isRecent(fromCurrency, toCurrency);
     }
 
     /**
      * Get rate source information
      */
     public String getRateSource(User.Currency fromCurrency, User.Currency toCurrency) {
-        Optional<CurrencyRate> rate = currencyRateRepository.findLatestRate(fromCurrency, toCurrency);
+        RateSnapshot current = getSnapshot();
+        LocalDateTime updatedAt = current.getUpdatedAt(fromCurrency, toCurrency);
 
-        if (rate.isPresent()) {
-            return rate.get().getSource() + " (Updated: " + rate.get().getUpdatedAt() + ")";
+        if (updatedAt != null) {
+            return current.getSource(fromCurrency, toCurrency) + " (Updated: " + updatedAt + ")";
         }
 
         return "Fallback rate";
@@ -182,13 +301,332 @@ public class CurrencyConverter {
      */
     public Map<String, Double> batchConvert(Map<String, Double> amounts,
                                             User.Currency fromCurrency, User.Currency toCurrency) {
-        Map<String, Double> converted = new HashMap<>();
+        Map<String, Double> converted = new HashMap<>((int) (amounts.size() / 0.75f) + 1);
         double rate = getExchangeRate(fromCurrency, toCurrency);
 
-        amounts.forEach((key, amount) -> {
-            converted.put(key, amount * rate);
-        });
+        for (Map.Entry<String, Double> entry : amounts.entrySet()) {
+            converted.put(entry.getKey(), entry.getValue() * rate);
+        }
+
+        return converted;
+    }
+
+    /**
+     * Convert amounts that share a currency. One rate lookup, then a plain loop over the array.
+     */
+    public double[] batchConvert(double[] amounts, User.Currency fromCurrency, User.Currency toCurrency) {
+        double rate = getExchangeRate(fromCurrency, toCurrency);
+        double[] converted = new double[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            converted[i] = amounts[i] * rate;
+        }
+        return converted;
+    }
+
+    /**
+     * Convert amounts in mixed currencies into one target currency. The target's column of
+     * the rate matrix is read once, so each element costs an array read and a multiply.
+     */
+    public double[] batchConvert(double[] amounts, User.Currency[] fromCurrencies, User.Currency toCurrency) {
+        if (amounts.length != fromCurrencies.length) {
+            throw new IllegalArgumentException("Got " + amounts.length + " amounts but "
+                    + fromCurrencies.length + " currencies");
+        }
+
+        User.Currency[] currencies = User.Currency.values();
+        double[] column = new double[currencies.length];
+        for (User.Currency currency : currencies) {
+            column[currency.ordinal()] = getExchangeRate(currency, toCurrency);
+        }
+
+        double[] converted = new double[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            converted[i] = amounts[i] * column[fromCurrencies[i].ordinal()];
+        }
+        return converted;
+    }
+
+    /**
+     * Exchange rate in force at the given time, from the rate history. Currencies with no
+     * history use their current rate; a null time means now.
+     */
+    public double getExchangeRateAsOf(User.Currency fromCurrency, User.Currency toCurrency, LocalDateTime at) {
+        if (fromCurrency == toCurrency) {
+            return 1.0;
+        }
+        if (at == null) {
+            return getExchangeRate(fromCurrency, toCurrency);
+        }
+
+        RateSnapshot current = getSnapshot();
+        double rate = unitsPerBaseAsOf(toCurrency, at, current) / unitsPerBaseAsOf(fromCurrency, at, current);
+        if (!Double.isNaN(rate)) {
+            return rate;
+        }
+
+        log.warn("No exchange rate found for {} to {} as of {}, using rate 1.0", fromCurrency, toCurrency, at);
+        return 1.0;
+    }
+
+    /**
+     * Convert each amount at the rate in force at its own time, e.g. payments at their payment
+     * date. Each currency's history series is fetched once; each element is then two binary
+     * searches. Null times convert at the current rate.
+     */
+    public double[] batchConvertAsOf(double[] amounts, User.Currency[] fromCurrencies, LocalDateTime[] times,
+                                     User.Currency toCurrency) {
+        if (amounts.length != fromCurrencies.length || amounts.length != times.length) {
+            throw new IllegalArgumentException("Got " + amounts.length + " amounts, " + fromCurrencies.length
+                    + " currencies and " + times.length + " times");
+        }
+
+        RateSnapshot current = getSnapshot();
+        ExchangeRateHistory.Series[] series = new ExchangeRateHistory.Series[User.Currency.values().length];
+        double[] currentLegs = new double[series.length];
+        for (User.Currency currency : User.Currency.values()) {
+            currentLegs[currency.ordinal()] = current.getRate(BASE_CURRENCY, currency);
+        }
 
+        double[] converted = new double[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            User.Currency fromCurrency = fromCurrencies[i];
+            if (fromCurrency == toCurrency) {
+                converted[i] = amounts[i];
+                continue;
+            }
+
+            double rate;
+            if (times[i] == null) {
+                rate = current.getRate(fromCurrency, toCurrency);
+            } else {
+                long key = ExchangeRateHistory.toKey(times[i]);
+                rate = leg(toCurrency, key, series, currentLegs) / leg(fromCurrency, key, series, currentLegs);
+            }
+            converted[i] = amounts[i] * (Double.isNaN(rate) ? 1.0 : rate);
+        }
         return converted;
     }
+
+    private double unitsPerBaseAsOf(User.Currency currency, LocalDateTime at, RateSnapshot current) {
+        double historical = exchangeRateHistory.unitsPerBaseAsOf(currency, at);
+        return Double.isNaN(historical) ? current.getRate(BASE_CURRENCY, currency) : historical;
+    }
+
+    private double leg(User.Currency currency, long key, ExchangeRateHistory.Series[] series, double[] currentLegs) {
+        if (currency == BASE_CURRENCY) {
+            return 1.0;
+        }
+        int index = currency.ordinal();
+        if (series[index] == null) {
+            series[index] = exchangeRateHistory.series(currency);
+        }
+        double historical = series[index].rateAsOf(key);
+        return Double.isNaN(historical) ? currentLegs[index] : historical;
+    }
+
+    /**
+     * Immutable rate matrix indexed by {@code Currency.ordinal()}, triangulated through the
+     * base currency from one rate per currency. Each currency's rate is its database rate
+     * while that is under 24 hours old, otherwise its fallback rate; pairs with no rate for
+     * either leg hold NaN. Per-currency source and timestamp travel with the matrix so
+     * callers never need a second lookup.
+     */
+    public static final class RateSnapshot {
+
+        private static final int BASE = BASE_CURRENCY.ordinal();
+
+        // Per currency: database units per one base unit (NaN if none) and its metadata
+        private final double[] storedRates;
+        private final long[] recentUntilMillis;
+        private final LocalDateTime[] updatedAt;
+        private final String[] sources;
+        private final double[] fallbackRates;
+        private final int rateCount;
+
+        // Derived at build time: whether each currency's database rate is in use, and the matrix
+        private final boolean[] usingStored;
+        private final double[][] rates;
+        private final long expiresAtMillis;
+        private final LocalDateTime loadedAt;
+        private final long version;
+
+        private RateSnapshot(double[] storedRates, long[] recentUntilMillis, LocalDateTime[] updatedAt,
+                             String[] sources, double[] fallbackRates, int rateCount, long nowMillis,
+                             LocalDateTime loadedAt, long version) {
+            this.storedRates = storedRates;
+            this.recentUntilMillis = recentUntilMillis;
+            this.updatedAt = updatedAt;
+            this.sources = sources;
+            this.fallbackRates = fallbackRates;
+            this.rateCount = rateCount;
+            this.loadedAt = loadedAt;
+            this.version = version;
+
+            int n = storedRates.length;
+            double[] unitsPerBase = new double[n];
+            this.usingStored = new boolean[n];
+            long expiresAt = Long.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                if (i == BASE) {
+                    unitsPerBase[i] = 1.0;
+                    usingStored[i] = true;
+                } else if (!Double.isNaN(storedRates[i]) && nowMillis < recentUntilMillis[i]) {
+                    unitsPerBase[i] = storedRates[i];
+                    usingStored[i] = true;
+                    expiresAt = Math.min(expiresAt, recentUntilMillis[i]);
+                } else {
+                    unitsPerBase[i] = fallbackRates[i];
+                }
+            }
+            this.expiresAtMillis = expiresAt;
+
+            // from -> to = (to per base) / (from per base); NaN propagates for unknown legs
+            this.rates = new double[n][n];
+            for (int from = 0; from < n; from++) {
+                for (int to = 0; to < n; to++) {
+                    rates[from][to] = from == to ? 1.0 : unitsPerBase[to] / unitsPerBase[from];
+                }
+            }
+        }
+
+        /**
+         * Build from active rates ordered newest first. Base-to-currency rates win over the
+         * inverse of a currency-to-base rate; the first rate seen for a currency wins.
+         */
+        static RateSnapshot of(List<CurrencyRate> activeRates, long nowMillis, long version) {
+            int n = User.Currency.values().length;
+            double[] storedRates = new double[n];
+            long[] recentUntilMillis = new long[n];
+            LocalDateTime[] updatedAt = new LocalDateTime[n];
+            String[] sources = new String[n];
+            boolean[] inverse = new boolean[n];
+            Arrays.fill(storedRates, Double.NaN);
+
+            int count = 0;
+            ZoneId zone = ZoneId.systemDefault();
+            for (CurrencyRate rate : activeRates) {
+                if (rate.getFromCurrency() == null || rate.getToCurrency() == null
+                        || rate.getRate() == null || rate.getRate() <= 0.0) {
+                    continue;
+                }
+
+                int currency;
+                boolean isInverse;
+                if (rate.getFromCurrency() == BASE_CURRENCY && rate.getToCurrency() != BASE_CURRENCY) {
+                    currency = rate.getToCurrency().ordinal();
+                    isInverse = false;
+                } else if (rate.getToCurrency() == BASE_CURRENCY && rate.getFromCurrency() != BASE_CURRENCY) {
+                    currency = rate.getFromCurrency().ordinal();
+                    isInverse = true;
+                } else {
+                    // Cross rates are derived from the base rates, never read
+                    continue;
+                }
+
+                boolean seen = !Double.isNaN(storedRates[currency]);
+                if (seen && (isInverse || !inverse[currency])) {
+                    continue;
+                }
+                if (!seen) {
+                    count++;
+                }
+
+                storedRates[currency] = isInverse ? 1.0 / rate.getRate() : rate.getRate();
+                inverse[currency] = isInverse;
+                updatedAt[currency] = rate.getUpdatedAt();
+                sources[currency] = rate.getSource();
+                // Long.MIN_VALUE marks a rate without a timestamp as never recent, like CurrencyRate.isRecent()
+                recentUntilMillis[currency] = rate.getUpdatedAt() == null ? Long.MIN_VALUE
+                        : rate.getUpdatedAt().plus(RATE_MAX_AGE).atZone(zone).toInstant().toEpochMilli();
+            }
+
+            // Falling back to each currency's reference rate against the base
+            double[] fallbackRates = new double[n];
+            for (User.Currency currency : User.Currency.values()) {
+                fallbackRates[currency.ordinal()] = currency.getReferenceRate() / BASE_CURRENCY.getReferenceRate();
+            }
+
+            return new RateSnapshot(storedRates, recentUntilMillis, updatedAt, sources, fallbackRates,
+                    count, nowMillis, LocalDateTime.now(), version);
+        }
+
+        /**
+         * Whether a database rate in use has since aged past 24 hours
+         */
+        boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+
+        /**
+         * Same stored rates, with the matrix re-derived for the given time
+         */
+        RateSnapshot reevaluate(long nowMillis) {
+            return new RateSnapshot(storedRates, recentUntilMillis, updatedAt, sources, fallbackRates,
+                    rateCount, nowMillis, loadedAt, version);
+        }
+
+        public boolean hasRate(User.Currency from, User.Currency to) {
+            return !Double.isNaN(rates[from.ordinal()][to.ordinal()]);
+        }
+
+        /**
+         * Effective rate for the pair, or NaN if either currency has no rate at all
+         */
+        public double getRate(User.Currency from, User.Currency to) {
+            return rates[from.ordinal()][to.ordinal()];
+        }
+
+        /**
+         * Whether both legs of the pair come from database rates updated within 24 hours
+         */
+        public boolean isRecent(User.Currency from, User.Currency to) {
+            return usingStored[from.ordinal()] && usingStored[to.ordinal()];
+        }
+
+        /**
+         * Timestamp of the older database rate behind the pair, or null if a leg has none
+         */
+        public LocalDateTime getUpdatedAt(User.Currency from, User.Currency to) {
+            int older = olderLeg(from.ordinal(), to.ordinal());
+            return older < 0 ? null : updatedAt[older];
+        }
+
+        /**
+         * Source of the older database rate behind the pair, or "Fallback" if a leg has none
+         */
+        public String getSource(User.Currency from, User.Currency to) {
+            int older = olderLeg(from.ordinal(), to.ordinal());
+            return older < 0 ? "Fallback" : sources[older];
+        }
+
+        public int getRateCount() {
+            return rateCount;
+        }
+
+        public LocalDateTime getLoadedAt() {
+            return loadedAt;
+        }
+
+        private int olderLeg(int from, int to) {
+            if (from == to || !hasStoredLeg(from) || !hasStoredLeg(to)) {
+                return -1;
+            }
+            if (from == BASE) {
+                return to;
+            }
+            if (to == BASE) {
+                return from;
+            }
+            LocalDateTime fromUpdated = updatedAt[from];
+            LocalDateTime toUpdated = updatedAt[to];
+            if (fromUpdated == null || toUpdated == null) {
+                return fromUpdated == null ? from : to;
+            }
+            return fromUpdated.isBefore(toUpdated) ? from : to;
+        }
+
+        private boolean hasStoredLeg(int currency) {
+            return currency == BASE || !Double.isNaN(storedRates[currency]);
+        }
+    }
 }
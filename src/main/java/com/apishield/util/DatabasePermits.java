@@ -0,0 +1,46 @@
+package com.apishield.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Bounds how many background tasks (renewals, payment claims and completions) are in a
+ * database step at once. Those tasks run hundreds at a time on virtual threads; without a
+ * bound they would all queue on the connection pool and leave none for requests. Sized by
+ * {@code max-concurrency}, or half the Hikari pool when that is 0.
+ */
+@Component
+@Slf4j
+public class DatabasePermits {
+
+    private final Semaphore permits;
+
+    public DatabasePermits(DataSource dataSource,
+                           @Value("${apishield.batch.db.max-concurrency:0}") int maxConcurrency) throws SQLException {
+        int poolSize = dataSource.isWrapperFor(HikariDataSource.class)
+                ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() : 10;
+        int size = maxConcurrency > 0 ? maxConcurrency : Math.max(1, poolSize / 2);
+        this.permits = new Semaphore(size, true);
+        log.info("Background database steps limited to {} at once (pool of {})", size, poolSize);
+    }
+
+    /**
+     * Run a database step once a permit is free. Waits uninterruptibly: the steps are short
+     * and a task interrupted half way would leave its work for the stall poller.
+     */
+    public <T> T withPermit(Supplier<T> step) {
+        permits.acquireUninterruptibly();
+        try {
+            return step.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
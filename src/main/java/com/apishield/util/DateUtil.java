@@ -4,6 +4,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 
 @Component
@@ -13,7 +14,14 @@ public class DateUtil {
      * Get the number of days left in the current month
      */
     public int getDaysLeftInMonth() {
-        LocalDate today = LocalDate.now();
+        return getDaysLeftInMonth(ZoneId.systemDefault());
+    }
+
+    /**
+     * Get the number of days left in the current month in the given timezone
+     */
+    public int getDaysLeftInMonth(ZoneId zoneId) {
+        LocalDate today = LocalDate.now(zoneId);
         LocalDate lastDayOfMonth = today.withDayOfMonth(today.lengthOfMonth());
         return (int) ChronoUnit.DAYS.between(today, lastDayOfMonth) + 1;
     }
@@ -22,22 +30,42 @@ public class DateUtil {
      * Get the number of days elapsed in the current month
      */
     public int getDaysElapsedInMonth() {
-        LocalDate today = LocalDate.now();
-        return today.getDayOfMonth();
+        return getDaysElapsedInMonth(ZoneId.systemDefault());
+    }
+
+    /**
+     * Get the number of days elapsed in the current month in the given timezone
+     */
+    public int getDaysElapsedInMonth(ZoneId zoneId) {
+        return LocalDate.now(zoneId).getDayOfMonth();
     }
 
     /**
      * Get the total number of days in the current month
      */
     public int getDaysInCurrentMonth() {
-        return YearMonth.now().lengthOfMonth();
+        return getDaysInCurrentMonth(ZoneId.systemDefault());
+    }
+
+    /**
+     * Get the total number of days in the current month in the given timezone
+     */
+    public int getDaysInCurrentMonth(ZoneId zoneId) {
+        return YearMonth.now(zoneId).lengthOfMonth();
     }
 
     /**
      * Calculate daily spending rate based on current spending and days elapsed
      */
     public double calculateDailySpendingRate(double spentAmount) {
-        int daysElapsed = getDaysElapsedInMonth();
+        return calculateDailySpendingRate(spentAmount, ZoneId.systemDefault());
+    }
+
+    /**
+     * Calculate daily spending rate for spend accumulated in the current month of the given timezone
+     */
+    public double calculateDailySpendingRate(double spentAmount, ZoneId zoneId) {
+        int daysElapsed = getDaysElapsedInMonth(zoneId);
         if (daysElapsed == 0) {
             return 0.0;
         }
@@ -48,8 +76,16 @@ public class DateUtil {
      * Project monthly spending based on current daily spending rate
      */
     public double projectMonthlySpending(double spentAmount) {
-        double dailyRate = calculateDailySpendingRate(spentAmount);
-        int totalDaysInMonth = getDaysInCurrentMonth();
+        return projectMonthlySpending(spentAmount, ZoneId.systemDefault());
+    }
+
+    /**
+     * Project month-end spending from spend accumulated in the current month of the given timezone.
+     * The amount must be this month's spend (e.g. a budget period counter), not lifetime spend.
+     */
+    public double projectMonthlySpending(double spentAmount, ZoneId zoneId) {
+        double dailyRate = calculateDailySpendingRate(spentAmount, zoneId);
+        int totalDaysInMonth = getDaysInCurrentMonth(zoneId);
         return dailyRate * totalDaysInMonth;
     }
 
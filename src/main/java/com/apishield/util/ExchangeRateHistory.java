@@ -0,0 +1,183 @@
+package com.apishield.util;
+
+import com.apishield.model.CurrencyRateHistory;
+import com.apishield.model.Money;
+import com.apishield.model.User;
+import com.apishield.repository.CurrencyRateHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * As-of exchange-rate lookups over the append-only rate history. Each currency's rates
+ * against the base currency are loaded on first use into sorted primitive arrays and
+ * cached, so converting a report's rows is a binary search per row rather than a query.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExchangeRateHistory {
+
+    private static final User.Currency BASE_CURRENCY = Money.BASE_CURRENCY;
+
+    private final CurrencyRateHistoryRepository historyRepository;
+
+    private final AtomicReferenceArray<Series> cache = new AtomicReferenceArray<>(User.Currency.values().length);
+    private final Object[] loadLocks = createLocks();
+
+    /**
+     * Append a rate to the history. The cached series for the currency is dropped once
+     * the surrounding transaction commits.
+     */
+    public void record(User.Currency fromCurrency, User.Currency toCurrency, double rate,
+                       String source, LocalDateTime effectiveAt) {
+        historyRepository.save(CurrencyRateHistory.builder()
+                .fromCurrency(fromCurrency)
+                .toCurrency(toCurrency)
+                .rate(rate)
+                .source(source)
+                .effectiveAt(effectiveAt)
+                .build());
+
+        User.Currency currency = fromCurrency == BASE_CURRENCY ? toCurrency : fromCurrency;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(currency);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(currency);
+            }
+        });
+    }
+
+    /**
+     * Units of the currency per one base unit in force at the given time. Times before the
+     * first recorded rate get the earliest rate; NaN if the currency has no history.
+     */
+    public double unitsPerBaseAsOf(User.Currency currency, LocalDateTime at) {
+        if (currency == BASE_CURRENCY) {
+            return 1.0;
+        }
+        return series(currency).rateAsOf(toKey(at));
+    }
+
+    /**
+     * Cached series for the currency, loading it from the history on first use
+     */
+    public Series series(User.Currency currency) {
+        int index = currency.ordinal();
+        Series cached = cache.get(index);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Loading under the lock means an invalidation can never be overtaken by an older load
+        synchronized (loadLocks[index]) {
+            cached = cache.get(index);
+            if (cached == null) {
+                cached = load(currency);
+                cache.set(index, cached);
+            }
+            return cached;
+        }
+    }
+
+    public void invalidate(User.Currency currency) {
+        synchronized (loadLocks[currency.ordinal()]) {
+            cache.set(currency.ordinal(), null);
+        }
+    }
+
+    /**
+     * Sortable key for a timestamp; rates and lookups use the same local clock
+     */
+    public static long toKey(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private Series load(User.Currency currency) {
+        if (currency == BASE_CURRENCY) {
+            return Series.EMPTY;
+        }
+
+        List<Object[]> rows = historyRepository.findSeries(BASE_CURRENCY, currency);
+        long[] keys = new long[rows.size()];
+        double[] rates = new double[rows.size()];
+        int size = 0;
+        for (Object[] row : rows) {
+            User.Currency from = (User.Currency) row[0];
+            LocalDateTime effectiveAt = (LocalDateTime) row[1];
+            double rate = ((Number) row[2]).doubleValue();
+            if (effectiveAt == null || rate <= 0.0) {
+                continue;
+            }
+            keys[size] = toKey(effectiveAt);
+            rates[size] = from == BASE_CURRENCY ? rate : 1.0 / rate;
+            size++;
+        }
+
+        log.debug("Loaded {} historical {} rates", size, currency);
+        return new Series(keys, rates, size);
+    }
+
+    private static Object[] createLocks() {
+        Object[] locks = new Object[User.Currency.values().length];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    /**
+     * Immutable rate history for one currency: ascending timestamp keys and the units per
+     * base unit in force from each key onwards
+     */
+    public static final class Series {
+
+        static final Series EMPTY = new Series(new long[0], new double[0], 0);
+
+        private final long[] keys;
+        private final double[] rates;
+        private final int size;
+
+        Series(long[] keys, double[] rates, int size) {
+            this.keys = keys;
+            this.rates = rates;
+            this.size = size;
+        }
+
+        public double rateAsOf(long key) {
+            if (size == 0) {
+                return Double.NaN;
+            }
+
+            // Last entry at or before the key
+            int low = 0;
+            int high = size - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] <= key) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return rates[found < 0 ? 0 : found];
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -9,18 +9,54 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentProcessor {
 
+    // How many idempotency keys the mock gateway remembers, like a real gateway's replay window
+    private static final int MAX_REMEMBERED_KEYS = 10_000;
+
     private final Random random = new Random();
 
+    private final ConcurrentHashMap<String, CompletableFuture<PaymentResult>> paymentsByKey = new ConcurrentHashMap<>();
+
     /**
-     * Process payment through various payment gateways (mocked)
+     * Process payment through various payment gateways (mocked). A request carrying an
+     * idempotency key that was seen before gets the first result back instead of a second
+     * charge, including while the first call is still in progress.
      */
     public PaymentResult processPayment(PaymentRequest request) {
+        String idempotencyKey = request.getIdempotencyKey();
+        if (idempotencyKey == null) {
+            return charge(request);
+        }
+
+        CompletableFuture<PaymentResult> pending = new CompletableFuture<>();
+        CompletableFuture<PaymentResult> existing = paymentsByKey.putIfAbsent(idempotencyKey, pending);
+        if (existing != null) {
+            log.info("Replaying payment result for idempotency key {}", idempotencyKey);
+            return existing.join();
+        }
+        if (paymentsByKey.size() > MAX_REMEMBERED_KEYS) {
+            paymentsByKey.entrySet().removeIf(entry -> entry.getValue().isDone() && entry.getValue() != pending);
+        }
+
+        try {
+            PaymentResult result = charge(request);
+            pending.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            paymentsByKey.remove(idempotencyKey, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private PaymentResult charge(PaymentRequest request) {
         log.info("Processing payment via {} for amount: {} {}",
                 request.getPaymentMode(), request.getAmount(), request.getCurrency());
 
@@ -175,6 +211,7 @@ public class PaymentProcessor {
         private String customerEmail;
         private String description;
         private Map<String, Object> metadata;
+        private String idempotencyKey;
     }
 
     @lombok.Data
@@ -0,0 +1,130 @@
+package com.apishield.util;
+
+import com.apishield.model.SubscriptionPlan;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Projects next month's requests from a user's monthly request counts and picks the
+ * cheapest plan that covers the projected requests and the current API services with
+ * {@link #HEADROOM} to spare on both. The projection is a least-squares trend through the
+ * recent months: growth is followed in full, a decline only halfway, so a quiet month does
+ * not push a user onto a plan they will outgrow.
+ */
+@Component
+public class PlanRecommender {
+
+    // Spare capacity a plan must have above the projection to count as a fit
+    public static final double HEADROOM = 0.2;
+
+    // A partial month is only extrapolated once this much of it has passed
+    private static final double MIN_MONTH_ELAPSED = 0.25;
+
+    /**
+     * @param monthlyRequests requests in each full month, oldest first
+     * @param currentMonthRequests requests so far in the current month
+     * @param monthElapsed fraction of the current month that has passed, 0 to 1
+     * @param apiServices API services the user has now
+     */
+    public Projection project(List<Long> monthlyRequests, long currentMonthRequests, double monthElapsed,
+                              int apiServices) {
+        int n = monthlyRequests.size() + (monthElapsed >= MIN_MONTH_ELAPSED ? 1 : 0);
+        if (n == 0) {
+            return new Projection(currentMonthRequests, apiServices, 0);
+        }
+
+        double[] values = new double[n];
+        for (int i = 0; i < monthlyRequests.size(); i++) {
+            values[i] = monthlyRequests.get(i);
+        }
+        if (n > monthlyRequests.size()) {
+            values[n - 1] = currentMonthRequests / monthElapsed;
+        }
+
+        double meanX = (n - 1) / 2.0;
+        double meanY = 0.0;
+        for (double value : values) {
+            meanY += value;
+        }
+        meanY /= n;
+
+        double covariance = 0.0;
+        double varianceX = 0.0;
+        for (int i = 0; i < n; i++) {
+            covariance += (i - meanX) * (values[i] - meanY);
+            varianceX += (i - meanX) * (i - meanX);
+        }
+        double slope = varianceX > 0 ? covariance / varianceX : 0.0;
+        double next = meanY + slope * (n - meanX);
+        double projected = next >= meanY ? next : (next + meanY) / 2;
+
+        // Never project below what has already been used this month
+        long requests = Math.max(currentMonthRequests, Math.round(Math.max(0.0, projected)));
+        return new Projection(requests, apiServices, n);
+    }
+
+    /**
+     * The cheapest active plan that fits the projection, the one with the most headroom among
+     * equally priced ones; if none fits, the plan with the most capacity
+     */
+    public Optional<Scored> recommend(Projection projection, List<SubscriptionPlan> plans) {
+        List<Scored> scored = plans.stream()
+                .map(plan -> score(plan, projection))
+                .toList();
+
+        Optional<Scored> cheapestFit = scored.stream()
+                .filter(Scored::fits)
+                .min(Comparator.comparingDouble((Scored s) -> price(s.plan()))
+                        .thenComparing(Comparator.comparingDouble(Scored::headroom).reversed()));
+        if (cheapestFit.isPresent()) {
+            return cheapestFit;
+        }
+        return scored.stream().max(Comparator.comparingDouble(Scored::headroom));
+    }
+
+    public Scored score(SubscriptionPlan plan, Projection projection) {
+        double requestHeadroom = headroom(plan.getMaxRequestsPerMonth(), projection.requests());
+        Integer maxApiServices = plan.getEffectiveMaxApiServices();
+        double apiHeadroom = headroom(maxApiServices != null ? maxApiServices.longValue() : null,
+                projection.apiServices());
+        boolean fits = fits(plan.getMaxRequestsPerMonth(), projection.requests() * (1 + HEADROOM))
+                && fits(maxApiServices != null ? maxApiServices.longValue() : null,
+                        projection.apiServices() * (1 + HEADROOM));
+        return new Scored(plan, fits, Math.min(requestHeadroom, apiHeadroom));
+    }
+
+    private static boolean fits(Long limit, double needed) {
+        return isUnlimited(limit) || needed <= limit;
+    }
+
+    /**
+     * Share of the limit left over after the projected use, 1 for unlimited, negative when over
+     */
+    private static double headroom(Long limit, long projected) {
+        if (isUnlimited(limit)) {
+            return 1.0;
+        }
+        return (limit - projected) / (double) limit;
+    }
+
+    // Limits of 0 or below (-1 in the seed data) mean unlimited, as in QuotaService
+    private static boolean isUnlimited(Long limit) {
+        return limit == null || limit <= 0;
+    }
+
+    private static double price(SubscriptionPlan plan) {
+        return plan.getPriceUsd() != null ? plan.getPriceUsd() : 0.0;
+    }
+
+    /**
+     * Expected use next month, and how many months of history it was drawn from
+     */
+    public record Projection(long requests, int apiServices, int monthsObserved) {
+    }
+
+    public record Scored(SubscriptionPlan plan, boolean fits, double headroom) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.apishield.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-key token bucket, kept as a single "theoretical arrival time" per key (the GCRA form
+ * of a token bucket) so taking a token is one compare-and-set with no locks. A key may
+ * burst up to {@code burst} requests and then gets {@code requestsPerSecond} on average.
+ */
+@Component
+public class RateLimiter {
+
+    private final ConcurrentHashMap<Long, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+
+    public RateLimiter(@Value("${apishield.rate-limit.requests-per-second:20}") double requestsPerSecond,
+                       @Value("${apishield.rate-limit.burst:40}") int burst) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit needs a positive rate and a burst of at least 1");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        this.burstNanos = emissionIntervalNanos * burst;
+    }
+
+    /**
+     * Take one token for this key.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a token is free
+     */
+    public long tryAcquire(Long key) {
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long now = System.nanoTime();
+            long arrival = bucket.get();
+            long start = arrival - now > 0 ? arrival : now;
+            long next = start + emissionIntervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Forget keys whose bucket has refilled completely; a new bucket starts full, so this
+     * changes nothing but memory
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,201 @@
+package com.apishield.util;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Per-service daily spend forecasting. Each service keeps a small {@link Model} that is
+ * updated one day at a time: an EWMA level from the first observation, and an additive
+ * Holt-Winters model with weekly seasonality once two full weeks have been seen. The
+ * forecast uses Holt-Winters only while its one-step error beats the EWMA's, so services
+ * without a weekly pattern fall back to the EWMA.
+ */
+@Component
+public class SpendForecaster {
+
+    public static final int SEASON_LENGTH = 7;
+    public static final int WARMUP_DAYS = 2 * SEASON_LENGTH;
+    public static final double CONFIDENCE_LEVEL = 0.95;
+
+    private static final double Z_SCORE = 1.96;
+
+    // Smoothing constants
+    private static final double EWMA_ALPHA = 0.3;
+    private static final double ALPHA = 0.3;
+    private static final double BETA = 0.05;
+    private static final double GAMMA = 0.2;
+
+    // Floor for the weight of the newest error in the running mean squared error
+    private static final double MIN_ERROR_WEIGHT = 0.05;
+
+    /**
+     * Feed the spend of the day after {@link Model#getLastDate()} into the model
+     */
+    public void update(Model model, LocalDate date, double value) {
+        synchronized (model) {
+            int n = model.observations;
+
+            if (n == 0) {
+                model.ewmaLevel = value;
+            } else {
+                double error = value - model.ewmaLevel;
+                model.ewmaMse = blendSquaredError(model.ewmaMse, error, n - 1);
+                model.ewmaLevel += EWMA_ALPHA * error;
+            }
+
+            if (n >= WARMUP_DAYS) {
+                int slot = seasonSlot(date);
+                double error = value - (model.level + model.trend + model.season[slot]);
+                model.hwMse = blendSquaredError(model.hwMse, error, n - WARMUP_DAYS);
+
+                double previousLevel = model.level;
+                model.level = ALPHA * (value - model.season[slot]) + (1 - ALPHA) * (model.level + model.trend);
+                model.trend = BETA * (model.level - previousLevel) + (1 - BETA) * model.trend;
+                model.season[slot] = GAMMA * (value - model.level) + (1 - GAMMA) * model.season[slot];
+            } else {
+                model.warmup[n] = value;
+                if (n + 1 == WARMUP_DAYS) {
+                    initialiseSeasonal(model, date);
+                }
+            }
+
+            model.observations = n + 1;
+            model.lastDate = date;
+        }
+    }
+
+    /**
+     * Forecast total spend over [from, to]. Days between the model's last observation and
+     * {@code from} are projected but not counted.
+     */
+    public Forecast forecast(Model model, LocalDate from, LocalDate to) {
+        synchronized (model) {
+            if (model.observations == 0 || to.isBefore(from)) {
+                return Forecast.builder().expected(0.0).variance(0.0).method(Method.NONE).build();
+            }
+
+            boolean holtWinters = model.usesHoltWinters();
+            double mse = holtWinters ? model.hwMse : model.ewmaMse;
+            int horizon = (int) (to.toEpochDay() - model.lastDate.toEpochDay());
+            int firstCounted = (int) Math.max(1, from.toEpochDay() - model.lastDate.toEpochDay());
+
+            // prefix[k] = sum of the error-propagation coefficients c_0..c_k, with c_0 = 1
+            double[] prefix = new double[horizon];
+            double expected = 0.0;
+
+            for (int h = 1; h <= horizon; h++) {
+                int j = h - 1;
+                double c = j == 0 ? 1.0
+                        : holtWinters ? ALPHA * (1 + j * BETA) + (j % SEASON_LENGTH == 0 ? GAMMA : 0.0)
+                        : EWMA_ALPHA;
+                prefix[j] = (j == 0 ? 0.0 : prefix[j - 1]) + c;
+
+                if (h >= firstCounted) {
+                    LocalDate date = model.lastDate.plusDays(h);
+                    double point = holtWinters
+                            ? model.level + h * model.trend + model.season[seasonSlot(date)]
+                            : model.ewmaLevel;
+                    expected += Math.max(0.0, point);
+                }
+            }
+
+            // Errors persist through the level, so the total's variance is not the sum of the daily
+            // variances: the innovation at step i feeds every counted day h >= i with weight c_(h-i)
+            double variance = 0.0;
+            for (int i = 1; i <= horizon; i++) {
+                int skipped = Math.max(i, firstCounted) - i;
+                double weight = prefix[horizon - i] - (skipped > 0 ? prefix[skipped - 1] : 0.0);
+                variance += weight * weight;
+            }
+            variance *= mse;
+
+            return Forecast.builder()
+                    .expected(expected)
+                    .variance(variance)
+                    .method(holtWinters ? Method.HOLT_WINTERS : Method.EWMA)
+                    .build();
+        }
+    }
+
+    /**
+     * Lower and upper bounds of the confidence interval around an expected value
+     */
+    public double lowerBound(double expected, double variance) {
+        return Math.max(0.0, expected - Z_SCORE * Math.sqrt(variance));
+    }
+
+    public double upperBound(double expected, double variance) {
+        return expected + Z_SCORE * Math.sqrt(variance);
+    }
+
+    private void initialiseSeasonal(Model model, LocalDate lastWarmupDate) {
+        double firstWeekMean = 0.0;
+        double secondWeekMean = 0.0;
+        for (int i = 0; i < SEASON_LENGTH; i++) {
+            firstWeekMean += model.warmup[i];
+            secondWeekMean += model.warmup[i + SEASON_LENGTH];
+        }
+        firstWeekMean /= SEASON_LENGTH;
+        secondWeekMean /= SEASON_LENGTH;
+
+        model.trend = (secondWeekMean - firstWeekMean) / SEASON_LENGTH;
+        // The second week's mean sits mid-week; carry it forward to the last warm-up day
+        model.level = secondWeekMean + model.trend * (SEASON_LENGTH - 1) / 2.0;
+
+        for (int i = 0; i < WARMUP_DAYS; i++) {
+            double weekMean = i < SEASON_LENGTH ? firstWeekMean : secondWeekMean;
+            LocalDate date = lastWarmupDate.minusDays(WARMUP_DAYS - 1 - i);
+            model.season[seasonSlot(date)] += (model.warmup[i] - weekMean) / 2.0;
+        }
+    }
+
+    private double blendSquaredError(double mse, double error, int previousErrors) {
+        double weight = Math.max(1.0 / (previousErrors + 1), MIN_ERROR_WEIGHT);
+        return mse + weight * (error * error - mse);
+    }
+
+    private int seasonSlot(LocalDate date) {
+        return date.getDayOfWeek().getValue() - 1;
+    }
+
+    public enum Method {
+        NONE, EWMA, HOLT_WINTERS
+    }
+
+    /**
+     * Incrementally fitted state for one service's daily spend series
+     */
+    public static class Model {
+        private double ewmaLevel;
+        private double ewmaMse;
+        private double level;
+        private double trend;
+        private final double[] season = new double[SEASON_LENGTH];
+        private double hwMse;
+        private final double[] warmup = new double[WARMUP_DAYS];
+        private int observations;
+        private LocalDate lastDate;
+
+        public synchronized LocalDate getLastDate() {
+            return lastDate;
+        }
+
+        public synchronized int getObservations() {
+            return observations;
+        }
+
+        synchronized boolean usesHoltWinters() {
+            // Require a week of Holt-Winters errors before comparing it with the EWMA
+            return observations >= WARMUP_DAYS + SEASON_LENGTH && hwMse <= ewmaMse;
+        }
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class Forecast {
+        private Double expected;
+        private Double variance;
+        private Method method;
+    }
+}
@@ -1,6 +1,7 @@
 package com.apishield.controller;
 
 import com.apishield.dto.auth.LoginRequest;
+import com.apishield.dto.auth.RefreshTokenRequest;
 import com.apishield.dto.auth.RegisterRequest;
 import com.apishield.model.User;
 import com.apishield.repository.UserRepository;
@@ -120,4 +121,46 @@ class AuthControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isUnauthorized());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRefresh_RotatesTokenAndRejectsReuse() throws Exception {
+        RegisterRequest registerRequest = new RegisterRequest();
+        registerRequest.setName("Refresh User");
+        registerRequest.setEmail("refresh@example.com");
+        registerRequest.setPassword("password123");
+
+        String registerJson = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.refreshToken").exists())
+                .andExpect(jsonPath("$.expiresIn").isNumber())
+                .andReturn().getResponse().getContentAsString();
+        String firstRefreshToken = objectMapper.readTree(registerJson).get("refreshToken").asText();
+
+        RefreshTokenRequest refreshRequest = new RefreshTokenRequest();
+        refreshRequest.setRefreshToken(firstRefreshToken);
+
+        String refreshJson = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists())
+                .andExpect(jsonPath("$.user.email").value("refresh@example.com"))
+                .andReturn().getResponse().getContentAsString();
+        String secondRefreshToken = objectMapper.readTree(refreshJson).get("refreshToken").asText();
+
+        // The first token was already exchanged
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isUnauthorized());
+
+        // Reuse revoked the whole family, including the token issued in its place
+        refreshRequest.setRefreshToken(secondRefreshToken);
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -10,7 +10,9 @@ import com.apishield.repository.BudgetRepository;
 import com.apishield.repository.UserRepository;
 import com.apishield.security.JwtTokenUtil;
 import com.apishield.security.UserPrincipal;
+import com.apishield.service.SpendLedgerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -54,6 +56,12 @@ class BudgetControllerTest {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
+    @Autowired
+    private SpendLedgerService spendLedgerService;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private String jwtToken;
     private User testUser;
 
@@ -127,8 +135,8 @@ class BudgetControllerTest {
                 .usageCount(3000.0) // $150 spent
                 .build();
 
-        apiServiceRepository.save(service1);
-        apiServiceRepository.save(service2);
+        saveWithSpend(service1);
+        saveWithSpend(service2);
 
         mockMvc.perform(get("/api/budget")
                         .header("Authorization", "Bearer " + jwtToken))
@@ -170,7 +178,7 @@ class BudgetControllerTest {
         Budget budget = Budget.builder()
                 .user(testUser)
                 .monthlyBudget(100.0)
-                .spentAmount(0.0) // Will be calculated from API services
+                .spentAmount(0.0) // Booked through the spend ledger below
                 .build();
         budgetRepository.save(budget);
 
@@ -183,7 +191,7 @@ class BudgetControllerTest {
                 .costPerUnit(0.01)
                 .usageCount(9500.0) // $95 spent (95% utilization)
                 .build();
-        apiServiceRepository.save(service);
+        saveWithSpend(service);
 
         mockMvc.perform(get("/api/budget/status")
                         .header("Authorization", "Bearer " + jwtToken))
@@ -286,7 +294,7 @@ class BudgetControllerTest {
                 .costPerUnit(1.0)
                 .usageCount(150.0) // $150 spent, over $100 budget
                 .build();
-        apiServiceRepository.save(service);
+        saveWithSpend(service);
 
         mockMvc.perform(get("/api/budget")
                         .header("Authorization", "Bearer " + jwtToken))
@@ -297,4 +305,16 @@ class BudgetControllerTest {
                 .andExpect(jsonPath("$.status").value("over_budget"));
         // Removed the isOverBudget check since it's not available in this endpoint
     }
-}
\ No newline at end of file
+
+    /**
+     * Save the service and book its usage through the spend ledger, as the API does. The
+     * ledger updates the budget with a bulk UPDATE, so the persistence context is cleared
+     * for the request to read the new total.
+     */
+    private void saveWithSpend(ApiService service) {
+        ApiService saved = apiServiceRepository.save(service);
+        spendLedgerService.recordUsage(saved, saved.getUsageCount());
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -1,10 +1,13 @@
 package com.apishield.controller;
 
+import com.apishield.dto.plan.BillingExportFormat;
 import com.apishield.dto.plan.SubscribeRequest;
 import com.apishield.model.*;
 import com.apishield.repository.*;
 import com.apishield.security.JwtTokenUtil;
 import com.apishield.security.UserPrincipal;
+import com.apishield.service.SubscriptionService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,9 +20,16 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -50,6 +60,9 @@ class PlanControllerTest {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
+    @Autowired
+    private SubscriptionService subscriptionService;
+
     private String jwtToken;
     private User testUser;
     private SubscriptionPlan starterPlan;
@@ -165,8 +178,10 @@ class PlanControllerTest {
                         .header("Authorization", "Bearer " + jwtToken)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
-                // Let's first see what the actual response is by expecting a range of possible statuses
-                .andExpect(status().isCreated()) // Keep this for now, but we might need to adjust
+                // The gateway is called after commit, so the subscription starts out pending
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(jsonPath("$.paymentIntentKey").exists())
                 .andExpect(jsonPath("$.planName").value("Pro"))
                 .andExpect(jsonPath("$.paymentMode").value("PAYPAL"))
                 .andExpect(jsonPath("$.autoRenew").value(true))
@@ -271,6 +286,99 @@ class PlanControllerTest {
                 .andExpect(jsonPath("$.stats.mostUsedPaymentMode").exists());
     }
 
+    @Test
+    void testGetBillingHistoryPage_FollowsCursorToTheEnd() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            subscriptionRepository.save(billingEntry(i % 2 == 0 ? starterPlan : proPlan, UserSubscription.Status.EXPIRED));
+        }
+
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/plans/billing/history/keyset")
+                    .header("Authorization", "Bearer " + jwtToken)
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult result = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            for (JsonNode subscription : page.get("subscriptions")) {
+                assertTrue(seen.add(subscription.get("id").asLong()), "Rows must not repeat across pages");
+            }
+            cursor = page.get("hasMore").asBoolean() ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(5, seen.size());
+        assertEquals(3, pages);
+
+        mockMvc.perform(get("/api/plans/billing/history/keyset")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportBillingHistory_WritesEveryRow() throws Exception {
+        subscriptionRepository.save(billingEntry(starterPlan, UserSubscription.Status.EXPIRED));
+        // Never billed, so left out of the export
+        subscriptionRepository.save(billingEntry(proPlan, UserSubscription.Status.CANCELLED));
+        UserSubscription current = billingEntry(proPlan, UserSubscription.Status.ACTIVE);
+        current.setPaymentReference("REF,\"1\"");
+        subscriptionRepository.save(current);
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertEquals(2, subscriptionService.exportBillingHistory(testUser, BillingExportFormat.CSV, csv));
+        String[] lines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,plan,status"));
+        assertTrue(csv.toString(StandardCharsets.UTF_8).contains("\"REF,\"\"1\"\"\""));
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        subscriptionService.exportBillingHistory(testUser, BillingExportFormat.NDJSON, ndjson);
+        String[] records = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, records.length);
+        assertEquals("Pro", objectMapper.readTree(records[0]).get("plan").asText());
+
+        mockMvc.perform(get("/api/plans/billing/export")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportBillingHistory_StreamsOverHttp() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/plans/billing/export")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // The body is written on another thread outside this test's transaction, so only the header row is certain
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("billing-history.csv")))
+                .andExpect(content().string(startsWith("id,plan,status")));
+    }
+
+    private UserSubscription billingEntry(SubscriptionPlan plan, UserSubscription.Status status) {
+        return UserSubscription.builder()
+                .user(testUser)
+                .plan(plan)
+                .paymentMode(UserSubscription.PaymentMode.PAYPAL)
+                .status(status)
+                .startDate(java.time.LocalDate.now().minusMonths(1))
+                .endDate(java.time.LocalDate.now().plusMonths(1))
+                .amountPaid(plan.getPriceUsd())
+                .currencyPaid(User.Currency.USD)
+                .build();
+    }
+
     @Test
     void testGetPaymentMethods() throws Exception {
         mockMvc.perform(get("/api/plans/payment-methods")
@@ -343,4 +451,35 @@ class PlanControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value(containsString("no longer available")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSubscribeToPaidPlan_SameIdempotencyKeyReturnsSameSubscription() throws Exception {
+        SubscribeRequest request = new SubscribeRequest();
+        request.setPlanId(proPlan.getId());
+        request.setPaymentMode(UserSubscription.PaymentMode.STRIPE);
+
+        String first = mockMvc.perform(post("/api/plans/subscribe")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header("Idempotency-Key", "subscribe-pro-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        long subscriptionId = objectMapper.readTree(first).get("id").asLong();
+
+        mockMvc.perform(post("/api/plans/subscribe")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header("Idempotency-Key", "subscribe-pro-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(subscriptionId));
+
+        mockMvc.perform(get("/api/plans/payments/subscribe-pro-1")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CREATED"))
+                .andExpect(jsonPath("$.subscriptionId").value(subscriptionId))
+                .andExpect(jsonPath("$.amount").value(25.0));
+    }
+}
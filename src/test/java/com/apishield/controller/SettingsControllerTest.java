@@ -180,6 +180,30 @@ class SettingsControllerTest {
                 .andExpect(jsonPath("$.toCurrency").value("INR"));
     }
 
+    @Test
+    void testConvertCurrency_FormatsForAcceptLanguage() throws Exception {
+        CurrencyConversionRequest request = new CurrencyConversionRequest();
+        request.setAmount(1234.5);
+        request.setFromCurrency(User.Currency.EUR);
+        request.setToCurrency(User.Currency.EUR);
+
+        mockMvc.perform(post("/api/user/currency/convert")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header("Accept-Language", "de-DE")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.formattedOriginal").value("€1.234,50"))
+                .andExpect(jsonPath("$.conversionSummary").value("1.234,50 EUR = 1.234,50 EUR"));
+
+        mockMvc.perform(post("/api/user/currency/convert")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.formattedOriginal").value("€1,234.50"));
+    }
+
     @Test
     void testConvertCurrency_SameCurrency() throws Exception {
         CurrencyConversionRequest request = new CurrencyConversionRequest();
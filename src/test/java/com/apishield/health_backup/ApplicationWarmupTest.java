@@ -0,0 +1,91 @@
+package com.apishield.health_backup;
+
+import com.apishield.repository.UserRepository;
+import com.apishield.security.JwtTokenUtil;
+import com.apishield.service.EntitlementService;
+import com.apishield.util.CurrencyConverter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.security.core.Authentication;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationWarmupTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Mock
+    private CurrencyConverter currencyConverter;
+
+    @Mock
+    private EntitlementService entitlementService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private ApplicationWarmup warmup;
+    private WarmupHealthIndicator indicator;
+
+    @BeforeEach
+    void setUp() {
+        warmup = new ApplicationWarmup(dataSource, jwtTokenUtil, currencyConverter, entitlementService,
+                userRepository, true, 5, 1, 60_000L, List.of("/api/plans"), "");
+        indicator = new WarmupHealthIndicator(warmup);
+    }
+
+    @Test
+    void testHealth_OutOfServiceUntilWarm() throws SQLException {
+        when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(false);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(jwtTokenUtil.generateJwtToken(any(Authentication.class))).thenReturn("token");
+        when(jwtTokenUtil.parseAndValidate("token")).thenReturn(Optional.empty());
+        when(entitlementService.getActivePlans()).thenReturn(List.of());
+
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+
+        warmup.run(-1);
+
+        assertEquals(Status.UP, indicator.health().getStatus());
+        verify(connection).close();
+        verify(jwtTokenUtil, times(5)).parseAndValidate("token");
+        verify(currencyConverter).getSnapshot();
+        // No web server, so no synthetic requests
+        assertFalse(warmup.getSteps().containsKey("requests"));
+    }
+
+    @Test
+    void testRun_FailedStepDoesNotBlockReadiness() throws SQLException {
+        when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(false);
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(jwtTokenUtil.generateJwtToken(any(Authentication.class))).thenReturn("token");
+        when(entitlementService.getActivePlans()).thenReturn(List.of());
+
+        warmup.run(-1);
+
+        assertTrue(warmup.isComplete());
+        assertEquals(Status.UP, indicator.health().getStatus());
+        assertTrue(warmup.getSteps().get("connection_pool").toString().startsWith("failed"));
+        verify(entitlementService).getActivePlans();
+    }
+}
@@ -0,0 +1,76 @@
+package com.apishield.health_backup;
+
+import com.apishield.repository.ApiServiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachedHealthIndicatorTest {
+
+    @Mock
+    private ApiServiceRepository apiServiceRepository;
+
+    private ApiServiceHealthIndicator indicator;
+
+    @BeforeEach
+    void setUp() {
+        indicator = new ApiServiceHealthIndicator(apiServiceRepository);
+    }
+
+    @Test
+    void testHealth_UnknownBeforeFirstCheck() {
+        assertEquals(Status.UNKNOWN, indicator.health().getStatus());
+        verifyNoInteractions(apiServiceRepository);
+    }
+
+    @Test
+    void testHealth_ReadsSnapshotWithoutQuerying() {
+        when(apiServiceRepository.count()).thenReturn(10L);
+        when(apiServiceRepository.countByIsActive(true)).thenReturn(9L);
+
+        indicator.refresh();
+        Health first = indicator.health();
+        Health second = indicator.health();
+
+        assertEquals(Status.UP, first.getStatus());
+        assertEquals(10L, first.getDetails().get("total_services"));
+        assertEquals(false, first.getDetails().get("stale"));
+        assertNotNull(first.getDetails().get("checked_at"));
+        assertEquals(Status.UP, second.getStatus());
+        // Only the refresh ran the counts
+        verify(apiServiceRepository, times(1)).count();
+    }
+
+    @Test
+    void testHealth_StaleSnapshotIsUnknown() {
+        ReflectionTestUtils.setField(indicator, "staleAfterMs", -1L);
+        when(apiServiceRepository.count()).thenReturn(0L);
+        when(apiServiceRepository.countByIsActive(true)).thenReturn(0L);
+
+        indicator.refresh();
+        Health health = indicator.health();
+
+        assertEquals(Status.UNKNOWN, health.getStatus());
+        assertEquals("UP", health.getDetails().get("last_status"));
+        assertEquals(true, health.getDetails().get("stale"));
+    }
+
+    @Test
+    void testRefresh_FailureIsReportedAsDown() {
+        when(apiServiceRepository.count()).thenThrow(new IllegalStateException("Connection refused"));
+
+        indicator.refresh();
+
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+        assertEquals(Status.DOWN, indicator.getLastStatus());
+    }
+}
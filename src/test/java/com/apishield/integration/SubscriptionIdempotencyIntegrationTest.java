@@ -0,0 +1,157 @@
+package com.apishield.integration;
+
+import com.apishield.dto.plan.SubscribeRequest;
+import com.apishield.model.PaymentIntent;
+import com.apishield.model.SubscriptionPlan;
+import com.apishield.model.User;
+import com.apishield.model.UserSubscription;
+import com.apishield.repository.PaymentIntentRepository;
+import com.apishield.repository.SubscriptionPlanRepository;
+import com.apishield.repository.UserRepository;
+import com.apishield.repository.UserSubscriptionRepository;
+import com.apishield.security.JwtTokenUtil;
+import com.apishield.security.UserPrincipal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Concurrent retries of one subscribe request, as a client does after a timeout. Runs without
+ * a test transaction so each request commits on its own and the unique key is really contended.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SubscriptionIdempotencyIntegrationTest {
+
+    private static final int REQUESTS = 8;
+    private static final String KEY = "retry-after-timeout";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SubscriptionPlanRepository planRepository;
+
+    @Autowired
+    private UserSubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private PaymentIntentRepository paymentIntentRepository;
+
+    private User user;
+    private SubscriptionPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        plan = planRepository.save(SubscriptionPlan.builder()
+                .name("Idempotency Plan")
+                .priceUsd(25.0)
+                .priceInr(2075.0)
+                .features("Retries")
+                .maxApis(20)
+                .maxRequestsPerMonth(100000L)
+                .supportLevel(SubscriptionPlan.SupportLevel.PRIORITY)
+                .isActive(true)
+                .displayOrder(98)
+                .build());
+
+        user = userRepository.save(User.builder()
+                .name("Idempotency User")
+                .username("idempotency@example.com")
+                .email("idempotency@example.com")
+                .password("not-used")
+                .role(User.Role.USER)
+                .currency(User.Currency.USD)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        // Let the gateway call finish so it doesn't complete against deleted rows
+        long deadline = System.currentTimeMillis() + 10_000;
+        EnumSet<PaymentIntent.Status> finished = EnumSet.of(PaymentIntent.Status.SUCCEEDED, PaymentIntent.Status.FAILED);
+        while (paymentIntentRepository.countByStatusIn(finished) < paymentIntentRepository.count()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        paymentIntentRepository.deleteAll();
+        subscriptionRepository.deleteAll(subscriptionRepository.findAll().stream()
+                .filter(subscription -> subscription.getPlan().getId().equals(plan.getId()))
+                .toList());
+        userRepository.delete(user);
+        planRepository.delete(plan);
+    }
+
+    @Test
+    void testConcurrentSubscribesWithOneKeyReplayTheFirst() throws Exception {
+        UserPrincipal principal = UserPrincipal.create(user);
+        String token = jwtTokenUtil.generateJwtToken(
+                new TestingAuthenticationToken(principal, null, principal.getAuthorities()));
+        SubscribeRequest request = new SubscribeRequest();
+        request.setPlanId(plan.getId());
+        request.setPaymentMode(UserSubscription.PaymentMode.STRIPE);
+        String body = objectMapper.writeValueAsString(request);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(REQUESTS);
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(clients.submit(() -> {
+                start.await();
+                return mockMvc.perform(post("/api/plans/subscribe")
+                                .header("Authorization", "Bearer " + token)
+                                .header("Idempotency-Key", KEY)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                        .andReturn()
+                        .getResponse();
+            }));
+        }
+        start.countDown();
+
+        Set<Long> subscriptionIds = new HashSet<>();
+        for (Future<MockHttpServletResponse> future : responses) {
+            MockHttpServletResponse response = future.get();
+            assertEquals(202, response.getStatus(), response.getContentAsString());
+            subscriptionIds.add(objectMapper.readTree(response.getContentAsString()).get("id").asLong());
+        }
+        clients.shutdown();
+
+        assertEquals(1, subscriptionIds.size(), "Every retry should return the first subscription");
+        assertEquals(1, paymentIntentRepository.count());
+        assertEquals(KEY, paymentIntentRepository.findAll().get(0).getIdempotencyKey());
+    }
+}
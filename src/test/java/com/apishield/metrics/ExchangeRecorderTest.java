@@ -0,0 +1,58 @@
+package com.apishield.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExchangeRecorderTest {
+
+    @Test
+    void testSample_AlwaysKeepsErrorsAndSlowRequests() {
+        ExchangeRecorder recorder = new ExchangeRecorder(8, 0.0, 1000, Set.of());
+
+        assertEquals("error", recorder.sample(503, 1_000_000L));
+        assertEquals("slow", recorder.sample(200, 2_000_000_000L));
+        assertNull(recorder.sample(200, 1_000_000L));
+        assertEquals("sampled", new ExchangeRecorder(8, 1.0, 1000, Set.of()).sample(200, 1_000_000L));
+    }
+
+    @Test
+    void testRecord_KeepsNewestInRing() {
+        ExchangeRecorder recorder = new ExchangeRecorder(5, 1.0, 1000, Set.of());
+        assertEquals(8, recorder.getCapacity());
+
+        for (int i = 0; i < 10; i++) {
+            recorder.record(exchange("/api/plans/" + i));
+        }
+
+        List<ExchangeRecorder.SampledExchange> exchanges = recorder.getExchanges();
+        assertEquals(8, exchanges.size());
+        assertEquals("/api/plans/9", exchanges.get(0).path());
+        assertEquals("/api/plans/2", exchanges.get(7).path());
+        assertEquals(10, recorder.getRecordedCount());
+    }
+
+    @Test
+    void testRedact_ReplacesSensitiveHeadersInAnyCase() {
+        ExchangeRecorder recorder = new ExchangeRecorder(8, 1.0, 1000, Set.of("Authorization", "X-API-Key"));
+
+        Map<String, List<String>> redacted = recorder.redact(Map.of(
+                "authorization", List.of("Bearer secret"),
+                "X-Api-Key", List.of("ask_secret"),
+                "Accept", List.of("application/json")));
+
+        assertEquals(List.of(ExchangeRecorder.REDACTED), redacted.get("authorization"));
+        assertEquals(List.of(ExchangeRecorder.REDACTED), redacted.get("X-Api-Key"));
+        assertEquals(List.of("application/json"), redacted.get("Accept"));
+    }
+
+    private static ExchangeRecorder.SampledExchange exchange(String path) {
+        return new ExchangeRecorder.SampledExchange(Instant.now(), "GET", path, "GET /api/plans/{id}",
+                200, 1_000, "sampled", Map.of(), Map.of());
+    }
+}
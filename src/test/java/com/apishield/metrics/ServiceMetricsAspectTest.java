@@ -0,0 +1,83 @@
+package com.apishield.metrics;
+
+import com.apishield.repository.SubscriptionPlanRepository;
+import com.apishield.repository.UserSubscriptionRepository;
+import com.apishield.security.PrincipalCache;
+import com.apishield.security.VerifiedTokenCache;
+import com.apishield.service.EntitlementService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceMetricsAspectTest {
+
+    @Mock
+    private SubscriptionPlanRepository planRepository;
+
+    @Mock
+    private UserSubscriptionRepository subscriptionRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EntitlementService target;
+    private EntitlementService proxy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = new EntitlementService(planRepository, subscriptionRepository, 300L, 600L, 10L);
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    void testTime_TagsClassMethodAndException() {
+        when(planRepository.findAll())
+                .thenReturn(List.of())
+                .thenThrow(new IllegalStateException("database down"));
+
+        proxy.getActivePlans();
+        proxy.invalidateCatalogue();
+        assertThrows(IllegalStateException.class, () -> proxy.getActivePlans());
+
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.METRIC)
+                .tags("class", "EntitlementService", "method", "getActivePlans", "exception", "none")
+                .timer().count());
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.METRIC)
+                .tags("class", "EntitlementService", "method", "getActivePlans", "exception", "IllegalStateException")
+                .timer().count());
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.METRIC)
+                .tags("method", "invalidateCatalogue")
+                .timer().count());
+    }
+
+    @Test
+    void testCacheMetrics_CountHitsAndMisses() {
+        when(subscriptionRepository.findActiveEntitlement(1L)).thenReturn(List.of());
+        new CacheMetrics(new PrincipalCache(100, 300), new VerifiedTokenCache(100), target).bindTo(meterRegistry);
+
+        target.getEntitlement(1L);
+        target.getEntitlement(1L);
+        target.getEntitlement(1L);
+
+        assertEquals(2.0, meterRegistry.get("cache.gets")
+                .tags("cache", "entitlements", "result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tags("cache", "entitlements", "result", "miss").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.size").tags("cache", "entitlements").gauge().value());
+        assertEquals(0.0, meterRegistry.get("cache.gets")
+                .tags("cache", "principals", "result", "hit").functionCounter().count());
+    }
+}
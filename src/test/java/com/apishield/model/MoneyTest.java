@@ -0,0 +1,77 @@
+package com.apishield.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testRepeatedAdditionDoesNotDrift() {
+        Money increment = Money.of(0.1, User.Currency.USD);
+        Money total = Money.zero(User.Currency.USD);
+        for (int i = 0; i < 1_000_000; i++) {
+            total = total.plus(increment);
+        }
+
+        assertEquals(Money.of(100_000.0, User.Currency.USD), total);
+        assertEquals(100_000_000_000L, total.getMicros());
+    }
+
+    @Test
+    void testSmallCostPerUnitIsExact() {
+        Money costPerUnit = Money.of(0.0005, User.Currency.USD);
+
+        assertEquals(Money.of(0.5, User.Currency.USD), costPerUnit.times(1000L));
+        assertEquals(Money.of(1.25, User.Currency.USD), costPerUnit.times(2500.0));
+    }
+
+    @Test
+    void testRoundToMinorUnit() {
+        assertEquals(Money.of(2.35, User.Currency.USD), Money.of(2.345, User.Currency.USD).roundToMinorUnit());
+        assertEquals(Money.of(2.34, User.Currency.USD), Money.of(2.344, User.Currency.USD).roundToMinorUnit());
+        assertEquals(Money.of(-2.35, User.Currency.USD), Money.of(-2.345, User.Currency.USD).roundToMinorUnit());
+    }
+
+    @Test
+    void testCurrencyMismatchIsRejected() {
+        Money usd = Money.of(10.0, User.Currency.USD);
+        Money inr = Money.of(10.0, User.Currency.INR);
+
+        assertThrows(IllegalArgumentException.class, () -> usd.plus(inr));
+        assertThrows(IllegalArgumentException.class, () -> usd.compareTo(inr));
+        assertNotEquals(usd, inr);
+    }
+
+    @Test
+    void testComparisonsAndPercentages() {
+        Money spent = Money.of(50.0, User.Currency.USD);
+        Money budget = Money.of(200.0, User.Currency.USD);
+
+        assertTrue(budget.isGreaterThan(spent));
+        assertTrue(spent.minus(budget).isNegative());
+        assertEquals(budget, spent.max(budget));
+        assertEquals(25.0, spent.percentageOf(budget), 0.0001);
+        assertEquals(0.0, spent.percentageOf(Money.zero(User.Currency.USD)));
+    }
+
+    @Test
+    void testDividedBy() {
+        assertEquals(Money.of(33.333333, User.Currency.USD), Money.of(100.0, User.Currency.USD).dividedBy(3));
+        assertThrows(ArithmeticException.class, () -> Money.of(1.0, User.Currency.USD).dividedBy(0));
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("1234.567800 INR", Money.of(new BigDecimal("1234.5678"), User.Currency.INR).toString());
+    }
+
+    @Test
+    void testNullableEntityAmounts() {
+        assertTrue(Money.ofNullable(null, User.Currency.USD).isZero());
+        assertSame(Money.zero(User.Currency.USD), Money.of(0.0, User.Currency.USD));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(Double.NaN, User.Currency.USD));
+    }
+}
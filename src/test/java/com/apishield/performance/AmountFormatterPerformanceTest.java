@@ -0,0 +1,66 @@
+package com.apishield.performance;
+
+import com.apishield.model.User;
+import com.apishield.util.AmountFormatter;
+import org.junit.jupiter.api.Test;
+
+import java.text.DecimalFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Formatting cost of the fixed-point formatter against the per-call DecimalFormat and
+ * String.format paths it replaces
+ */
+class AmountFormatterPerformanceTest {
+
+    private static final int AMOUNTS = 500_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    @Test
+    void testFixedPointVersusDecimalFormat() {
+        double[] amounts = new double[AMOUNTS];
+        Random random = new Random(5);
+        for (int i = 0; i < AMOUNTS; i++) {
+            amounts[i] = random.nextInt(100_000_000) / 100.0;
+        }
+
+        long decimalFormatNanos = 0L;
+        long stringFormatNanos = 0L;
+        long fixedPointNanos = 0L;
+        long checksum = 0L;
+
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (double amount : amounts) {
+                checksum += ("$" + new DecimalFormat("#,##0.00").format(amount)).length();
+            }
+            decimalFormatNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (double amount : amounts) {
+                checksum += String.format("%s%.2f", "$", amount).length();
+            }
+            stringFormatNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (double amount : amounts) {
+                checksum += AmountFormatter.DEFAULT.format(amount, User.Currency.USD).length();
+            }
+            fixedPointNanos = System.nanoTime() - start;
+        }
+
+        System.out.printf("new DecimalFormat per call: %d amounts in %.2f ms%n", AMOUNTS, decimalFormatNanos / 1_000_000.0);
+        System.out.printf("String.format:              %d amounts in %.2f ms%n", AMOUNTS, stringFormatNanos / 1_000_000.0);
+        System.out.printf("AmountFormatter:            %d amounts in %.2f ms (checksum %d)%n",
+                AMOUNTS, fixedPointNanos / 1_000_000.0, checksum);
+
+        assertTrue(fixedPointNanos < decimalFormatNanos,
+                "Fixed-point formatting should beat DecimalFormat: " + fixedPointNanos / 1_000_000 + "ms vs "
+                        + decimalFormatNanos / 1_000_000 + "ms");
+        assertTrue(fixedPointNanos < stringFormatNanos,
+                "Fixed-point formatting should beat String.format: " + fixedPointNanos / 1_000_000 + "ms vs "
+                        + stringFormatNanos / 1_000_000 + "ms");
+    }
+}
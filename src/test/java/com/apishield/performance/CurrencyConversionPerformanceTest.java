@@ -0,0 +1,81 @@
+package com.apishield.performance;
+
+import com.apishield.model.CurrencyRate;
+import com.apishield.model.User;
+import com.apishield.repository.CurrencyRateRepository;
+import com.apishield.util.CurrencyConverter;
+import com.apishield.util.ExchangeRateHistory;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput of batch conversion of mixed-currency amounts against per-amount conversion
+ */
+class CurrencyConversionPerformanceTest {
+
+    private static final int AMOUNTS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    @Test
+    void testBatchConvertMixedCurrencies() {
+        CurrencyRateRepository repository = mock(CurrencyRateRepository.class);
+        List<CurrencyRate> rates = new ArrayList<>();
+        for (User.Currency currency : User.Currency.values()) {
+            if (currency != CurrencyConverter.BASE_CURRENCY) {
+                rates.add(CurrencyRate.builder()
+                        .fromCurrency(CurrencyConverter.BASE_CURRENCY)
+                        .toCurrency(currency)
+                        .rate(1.0 + currency.ordinal())
+                        .source("TEST")
+                        .isActive(true)
+                        .updatedAt(LocalDateTime.now())
+                        .build());
+            }
+        }
+        when(repository.findAllActiveRates()).thenReturn(rates);
+        CurrencyConverter currencyConverter = new CurrencyConverter(repository, mock(ExchangeRateHistory.class));
+
+        Random random = new Random(11);
+        User.Currency[] currencies = User.Currency.values();
+        double[] amounts = new double[AMOUNTS];
+        User.Currency[] fromCurrencies = new User.Currency[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            amounts[i] = random.nextInt(1_000_000) / 100.0;
+            fromCurrencies[i] = currencies[random.nextInt(currencies.length)];
+        }
+
+        double[] batch = null;
+        double[] single = new double[AMOUNTS];
+        long batchNanos = 0L;
+        long singleNanos = 0L;
+
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < AMOUNTS; i++) {
+                single[i] = currencyConverter.convertCurrency(amounts[i], fromCurrencies[i], User.Currency.EUR);
+            }
+            singleNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            batch = currencyConverter.batchConvert(amounts, fromCurrencies, User.Currency.EUR);
+            batchNanos = System.nanoTime() - start;
+        }
+
+        System.out.printf("Per-amount conversion: %d amounts in %.2f ms%n", AMOUNTS, singleNanos / 1_000_000.0);
+        System.out.printf("Batch conversion:      %d amounts in %.2f ms%n", AMOUNTS, batchNanos / 1_000_000.0);
+
+        for (int i = 0; i < AMOUNTS; i += 997) {
+            assertEquals(single[i], batch[i], 1e-9);
+        }
+        assertTrue(batchNanos < 500_000_000L, "Batch conversion took too long: " + batchNanos / 1_000_000 + "ms");
+    }
+}
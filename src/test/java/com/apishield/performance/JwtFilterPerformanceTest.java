@@ -0,0 +1,141 @@
+package com.apishield.performance;
+
+import com.apishield.model.User;
+import com.apishield.security.JwtRequestFilter;
+import com.apishield.security.JwtTokenUtil;
+import com.apishield.security.PrincipalCache;
+import com.apishield.security.VerifiedTokenCache;
+import com.apishield.security.UserPrincipal;
+import com.apishield.service.CustomUserDetailsService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-request cost of JWT handling: the old validate-then-extract path, which built a key
+ * and parser and verified the signature twice, against a single parse with the shared parser,
+ * a hit in the verified-token cache, and the whole filter, where the principal cache means
+ * the user is looked up only once
+ */
+class JwtFilterPerformanceTest {
+
+    private static final String SECRET = "testSecretKey123456789012345678901234567890123456789012345678901234567890";
+    private static final int REQUESTS = 50_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testFilterOverheadPerRequest() throws Exception {
+        JwtTokenUtil uncached = newJwtTokenUtil(new VerifiedTokenCache(0));
+        VerifiedTokenCache tokenCache = new VerifiedTokenCache(10_000);
+        JwtTokenUtil jwtTokenUtil = newJwtTokenUtil(tokenCache);
+
+        User user = User.builder()
+                .id(1L)
+                .name("Perf User")
+                .email("perf@example.com")
+                .username("perfuser")
+                .password("hashed")
+                .role(User.Role.USER)
+                .build();
+        UserPrincipal principal = UserPrincipal.create(user);
+        String token = jwtTokenUtil.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(anyString())).thenReturn(principal);
+        JwtRequestFilter filter = new JwtRequestFilter(jwtTokenUtil, userDetailsService, new PrincipalCache(10_000, 300));
+
+        long legacyNanos = 0L;
+        long parseOnceNanos = 0L;
+        long cachedNanos = 0L;
+        long filterNanos = 0L;
+
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                assertNotNull(legacyValidateThenExtract(token));
+            }
+            legacyNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                assertTrue(uncached.parseAndValidate(token).isPresent());
+            }
+            parseOnceNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                assertTrue(jwtTokenUtil.parseAndValidate(token).isPresent());
+            }
+            cachedNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/services");
+                request.addHeader("Authorization", "Bearer " + token);
+                filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            }
+            filterNanos = System.nanoTime() - start;
+        }
+
+        assertEquals("perf@example.com", SecurityContextHolder.getContext().getAuthentication().getName());
+        verify(userDetailsService, times(1)).loadUserByUsername("perf@example.com");
+
+        System.out.printf("Validate then extract (old): %.2f us/request%n", legacyNanos / 1_000.0 / REQUESTS);
+        System.out.printf("parseAndValidate:            %.2f us/request%n", parseOnceNanos / 1_000.0 / REQUESTS);
+        System.out.printf("parseAndValidate (cached):   %.2f us/request, hit ratio %.4f%n",
+                cachedNanos / 1_000.0 / REQUESTS, tokenCache.getHitRatio());
+        System.out.printf("Whole filter:                %.2f us/request%n", filterNanos / 1_000.0 / REQUESTS);
+
+        assertTrue(parseOnceNanos < legacyNanos,
+                "Single parse should beat validate-then-extract: " + parseOnceNanos / 1_000_000 + "ms vs "
+                        + legacyNanos / 1_000_000 + "ms");
+        assertTrue(cachedNanos < parseOnceNanos,
+                "Cache hit should beat verifying the signature: " + cachedNanos / 1_000_000 + "ms vs "
+                        + parseOnceNanos / 1_000_000 + "ms");
+    }
+
+    private JwtTokenUtil newJwtTokenUtil(VerifiedTokenCache tokenCache) {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(tokenCache);
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.invokeMethod(jwtTokenUtil, "init");
+        return jwtTokenUtil;
+    }
+
+    private String legacyValidateThenExtract(String token) {
+        Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token);
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
+    }
+}
@@ -0,0 +1,152 @@
+package com.apishield.performance;
+
+import com.apishield.dto.auth.LoginRequest;
+import com.apishield.model.User;
+import com.apishield.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Latency of a non-auth endpoint on its own and while many clients sign in at once. Password
+ * checks run on the bounded hashing pool, so the storm should queue or be shed with 429 rather
+ * than take the cores the rest of the API needs.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginStormPerformanceTest {
+
+    private static final String EMAIL = "storm@example.com";
+    private static final String PASSWORD = "password123";
+    private static final int PROBES = 200;
+    private static final int STORM_THREADS = 32;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+        userRepository.save(User.builder()
+                .name("Storm User")
+                .username(EMAIL)
+                .email(EMAIL)
+                .password(passwordEncoder.encode(PASSWORD))
+                .role(User.Role.USER)
+                .currency(User.Currency.USD)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void testHealthLatencyDuringLoginStorm() throws Exception {
+        // Warm up
+        measureHealthLatency(PROBES);
+
+        long[] baseline = measureHealthLatency(PROBES);
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(EMAIL);
+        loginRequest.setPassword(PASSWORD);
+        String body = objectMapper.writeValueAsString(loginRequest);
+
+        AtomicBoolean storming = new AtomicBoolean(true);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        ExecutorService storm = Executors.newFixedThreadPool(STORM_THREADS);
+        for (int t = 0; t < STORM_THREADS; t++) {
+            String clientIp = "10.0.0." + (t + 1);
+            storm.submit(() -> {
+                while (storming.get()) {
+                    try {
+                        int status = mockMvc.perform(post("/api/auth/login")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(body)
+                                        .with(request -> {
+                                            request.setRemoteAddr(clientIp);
+                                            return request;
+                                        }))
+                                .andReturn().getResponse().getStatus();
+                        if (status == 200) {
+                            succeeded.incrementAndGet();
+                        } else if (status == 429) {
+                            shed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+        }
+
+        Thread.sleep(500);
+        long[] duringStorm = measureHealthLatency(PROBES);
+
+        storming.set(false);
+        storm.shutdown();
+        assertTrue(storm.awaitTermination(60, TimeUnit.SECONDS));
+
+        double baselineMedian = percentileMs(baseline, 0.50);
+        double stormMedian = percentileMs(duringStorm, 0.50);
+        System.out.printf("Health p50: %.3f ms alone, %.3f ms during login storm%n", baselineMedian, stormMedian);
+        System.out.printf("Health p95: %.3f ms alone, %.3f ms during login storm%n",
+                percentileMs(baseline, 0.95), percentileMs(duringStorm, 0.95));
+        System.out.printf("Logins: %d succeeded, %d shed with 429%n", succeeded.get(), shed.get());
+
+        assertTrue(succeeded.get() > 0, "Some logins should get through during the storm");
+        // Loose bound, the point is that health checks are not stuck behind BCrypt
+        assertTrue(stormMedian < baselineMedian * 20 + 50,
+                "Health latency during the storm was " + stormMedian + "ms against " + baselineMedian + "ms");
+    }
+
+    private long[] measureHealthLatency(int probes) throws Exception {
+        long[] latencies = new long[probes];
+        for (int i = 0; i < probes; i++) {
+            long start = System.nanoTime();
+            mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    private static double percentileMs(long[] latencies, double percentile) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
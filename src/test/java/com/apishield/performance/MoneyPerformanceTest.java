@@ -0,0 +1,72 @@
+package com.apishield.performance;
+
+import com.apishield.model.Money;
+import com.apishield.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the Money fixed-point path with the Double path it replaces when accumulating
+ * per-request costs: speed, and how far the Double total drifts from the exact sum.
+ */
+class MoneyPerformanceTest {
+
+    private static final int INCREMENTS = 5_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    @Test
+    void testMoneyVersusDoubleAccumulation() {
+        double[] costs = new double[1024];
+        Random random = new Random(7);
+        for (int i = 0; i < costs.length; i++) {
+            // Per-request costs with up to four decimal places, e.g. 0.0013
+            costs[i] = random.nextInt(10_000) / 10_000.0;
+        }
+
+        Money[] moneyCosts = new Money[costs.length];
+        long exactMicros = 0L;
+        for (int i = 0; i < costs.length; i++) {
+            moneyCosts[i] = Money.of(costs[i], User.Currency.USD);
+        }
+        for (int i = 0; i < INCREMENTS; i++) {
+            exactMicros += moneyCosts[i & 1023].getMicros();
+        }
+
+        double doubleTotal = 0.0;
+        Money moneyTotal = null;
+        long doubleNanos = 0L;
+        long moneyNanos = 0L;
+
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            long start = System.nanoTime();
+            doubleTotal = 0.0;
+            for (int i = 0; i < INCREMENTS; i++) {
+                doubleTotal += costs[i & 1023];
+            }
+            doubleNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            moneyTotal = Money.zero(User.Currency.USD);
+            for (int i = 0; i < INCREMENTS; i++) {
+                moneyTotal = moneyTotal.plus(moneyCosts[i & 1023]);
+            }
+            moneyNanos = System.nanoTime() - start;
+        }
+
+        double doubleDrift = Math.abs(doubleTotal - exactMicros / 1_000_000.0);
+
+        System.out.printf("Double path: %d increments in %.2f ms (drift %.6f)%n",
+                INCREMENTS, doubleNanos / 1_000_000.0, doubleDrift);
+        System.out.printf("Money path:  %d increments in %.2f ms (drift 0)%n",
+                INCREMENTS, moneyNanos / 1_000_000.0);
+
+        assertEquals(exactMicros, moneyTotal.getMicros());
+        // Fixed-point addition allocates, so allow some headroom over primitive double addition
+        assertTrue(moneyNanos < doubleNanos * 5 + 50_000_000L,
+                "Money path too slow: " + moneyNanos / 1_000_000 + "ms vs " + doubleNanos / 1_000_000 + "ms");
+    }
+}
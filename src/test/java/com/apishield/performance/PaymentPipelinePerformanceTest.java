@@ -0,0 +1,192 @@
+package com.apishield.performance;
+
+import com.apishield.dto.plan.SubscribeRequest;
+import com.apishield.model.PaymentIntent;
+import com.apishield.model.SubscriptionPlan;
+import com.apishield.model.User;
+import com.apishield.model.UserSubscription;
+import com.apishield.repository.PaymentIntentRepository;
+import com.apishield.repository.SubscriptionPlanRepository;
+import com.apishield.repository.UserRepository;
+import com.apishield.repository.UserSubscriptionRepository;
+import com.apishield.security.JwtTokenUtil;
+import com.apishield.security.UserPrincipal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Many users subscribe to a paid plan at once against the mock gateway, which takes 1-3 s
+ * per charge. Requests should return in milliseconds and the connection pool should stay
+ * nearly idle while the gateway calls are outstanding, since no transaction is open then.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PaymentPipelinePerformanceTest {
+
+    private static final int USERS = 40;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SubscriptionPlanRepository planRepository;
+
+    @Autowired
+    private UserSubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private PaymentIntentRepository paymentIntentRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private SubscriptionPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        plan = planRepository.save(SubscriptionPlan.builder()
+                .name("Load Test Plan")
+                .priceUsd(25.0)
+                .priceInr(2075.0)
+                .features("Load testing")
+                .maxApis(20)
+                .maxRequestsPerMonth(100000L)
+                .supportLevel(SubscriptionPlan.SupportLevel.PRIORITY)
+                .isActive(true)
+                .displayOrder(99)
+                .build());
+
+        for (int i = 0; i < USERS; i++) {
+            users.add(userRepository.save(User.builder()
+                    .name("Payment Load " + i)
+                    .username("payment-load-" + i + "@example.com")
+                    .email("payment-load-" + i + "@example.com")
+                    .password("not-used")
+                    .role(User.Role.USER)
+                    .currency(User.Currency.USD)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentIntentRepository.deleteAll();
+        subscriptionRepository.deleteAll(subscriptionRepository.findAll().stream()
+                .filter(subscription -> subscription.getPlan().getId().equals(plan.getId()))
+                .toList());
+        userRepository.deleteAll(users);
+        planRepository.delete(plan);
+        users.clear();
+    }
+
+    @Test
+    void testConnectionUsageDuringSlowGateway() throws Exception {
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+
+        List<String> tokens = users.stream().map(user -> {
+            UserPrincipal principal = UserPrincipal.create(user);
+            return jwtTokenUtil.generateJwtToken(
+                    new TestingAuthenticationToken(principal, null, principal.getAuthorities()));
+        }).toList();
+
+        AtomicBoolean sampling = new AtomicBoolean(true);
+        AtomicInteger maxActive = new AtomicInteger();
+        AtomicInteger maxWaiting = new AtomicInteger();
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (sampling.get()) {
+                maxActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+                maxWaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+                LockSupport.parkNanos(200_000);
+            }
+        });
+
+        ExecutorService clients = Executors.newFixedThreadPool(USERS);
+        long[] latencies = new long[USERS];
+        long start = System.nanoTime();
+        CompletableFuture<?>[] requests = new CompletableFuture<?>[USERS];
+        for (int i = 0; i < USERS; i++) {
+            int index = i;
+            requests[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    SubscribeRequest request = new SubscribeRequest();
+                    request.setPlanId(plan.getId());
+                    request.setPaymentMode(UserSubscription.PaymentMode.STRIPE);
+
+                    long requestStart = System.nanoTime();
+                    mockMvc.perform(post("/api/plans/subscribe")
+                                    .header("Authorization", "Bearer " + tokens.get(index))
+                                    .header("Idempotency-Key", "load-" + index)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(request)))
+                            .andExpect(status().isAccepted());
+                    latencies[index] = System.nanoTime() - requestStart;
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }, clients);
+        }
+        CompletableFuture.allOf(requests).join();
+        long acceptedMs = (System.nanoTime() - start) / 1_000_000;
+        clients.shutdown();
+
+        // Wait for the gateway to answer every intent
+        long deadline = System.currentTimeMillis() + 30_000;
+        EnumSet<PaymentIntent.Status> finished = EnumSet.of(PaymentIntent.Status.SUCCEEDED, PaymentIntent.Status.FAILED);
+        while (paymentIntentRepository.countByStatusIn(finished) < USERS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        long completedMs = (System.nanoTime() - start) / 1_000_000;
+        sampling.set(false);
+        sampler.join();
+
+        Arrays.sort(latencies);
+        double p95Ms = latencies[(int) Math.ceil(0.95 * USERS) - 1] / 1_000_000.0;
+        System.out.printf("%d subscribe requests accepted in %d ms, p95 %.2f ms%n", USERS, acceptedMs, p95Ms);
+        System.out.printf("All payments finished after %d ms%n", completedMs);
+        System.out.printf("Connection pool: max %d active of %d, max %d threads waiting%n",
+                maxActive.get(), pool.getTotalConnections(), maxWaiting.get());
+
+        assertEquals(USERS, paymentIntentRepository.countByStatusIn(finished), "Every payment should finish");
+        // The mock gateway takes at least a second, so a fast response proves nothing waited on it
+        assertTrue(p95Ms < 1000, "Subscribe requests waited on the gateway: p95 " + p95Ms + " ms");
+    }
+}
@@ -0,0 +1,109 @@
+package com.apishield.performance;
+
+import com.apishield.util.SpendForecaster;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Accuracy and latency of the spend forecaster on synthetic daily spend for 10k services
+ * with trend, weekly seasonality and noise.
+ */
+class SpendForecastPerformanceTest {
+
+    private static final int SERVICES = 10_000;
+    private static final int HISTORY_DAYS = 56;
+    private static final int HORIZON_DAYS = 14;
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void testForecastAccuracyAndLatency() {
+        SpendForecaster spendForecaster = new SpendForecaster();
+        double[][] series = generateSeries(new Random(42));
+        SpendForecaster.Model[] models = new SpendForecaster.Model[SERVICES];
+
+        // Initial fit: all history but the last day
+        long startTime = System.nanoTime();
+        for (int s = 0; s < SERVICES; s++) {
+            models[s] = new SpendForecaster.Model();
+            for (int day = 0; day < HISTORY_DAYS - 1; day++) {
+                spendForecaster.update(models[s], START.plusDays(day), series[s][day]);
+            }
+        }
+        long fitNanos = System.nanoTime() - startTime;
+
+        // Incremental refit: one new day per service
+        startTime = System.nanoTime();
+        for (int s = 0; s < SERVICES; s++) {
+            spendForecaster.update(models[s], START.plusDays(HISTORY_DAYS - 1), series[s][HISTORY_DAYS - 1]);
+        }
+        long updateNanos = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        double modelError = 0.0;
+        double linearError = 0.0;
+        int covered = 0;
+        for (int s = 0; s < SERVICES; s++) {
+            SpendForecaster.Forecast forecast = spendForecaster.forecast(models[s],
+                    START.plusDays(HISTORY_DAYS), START.plusDays(HISTORY_DAYS + HORIZON_DAYS - 1));
+
+            double actual = 0.0;
+            for (int day = HISTORY_DAYS; day < HISTORY_DAYS + HORIZON_DAYS; day++) {
+                actual += series[s][day];
+            }
+
+            // Linear extrapolation of the last four weeks' daily rate, as DateUtil does month-to-date
+            double recent = 0.0;
+            for (int day = HISTORY_DAYS - 28; day < HISTORY_DAYS; day++) {
+                recent += series[s][day];
+            }
+            double linear = recent / 28 * HORIZON_DAYS;
+
+            modelError += Math.abs(forecast.getExpected() - actual) / actual;
+            linearError += Math.abs(linear - actual) / actual;
+
+            if (actual >= spendForecaster.lowerBound(forecast.getExpected(), forecast.getVariance())
+                    && actual <= spendForecaster.upperBound(forecast.getExpected(), forecast.getVariance())) {
+                covered++;
+            }
+        }
+        long forecastNanos = System.nanoTime() - startTime;
+
+        double modelMape = modelError / SERVICES * 100.0;
+        double linearMape = linearError / SERVICES * 100.0;
+        double coverage = covered * 100.0 / SERVICES;
+
+        System.out.printf("Initial fit of %d services x %d days: %d ms%n", SERVICES, HISTORY_DAYS - 1, fitNanos / 1_000_000);
+        System.out.printf("Incremental refit of %d services: %.2f ms%n", SERVICES, updateNanos / 1_000_000.0);
+        System.out.printf("%d-day forecast of %d services: %d ms%n", HORIZON_DAYS, SERVICES, forecastNanos / 1_000_000);
+        System.out.printf("MAPE: model %.2f%%, linear extrapolation %.2f%%%n", modelMape, linearMape);
+        System.out.printf("95%% interval coverage: %.2f%%%n", coverage);
+
+        assertTrue(modelMape < linearMape, "Model should beat linear extrapolation: " + modelMape + "% vs " + linearMape + "%");
+        assertTrue(coverage >= 90.0, "Interval coverage too low: " + coverage + "%");
+        assertTrue(fitNanos < 5_000_000_000L, "Initial fit took too long: " + fitNanos / 1_000_000 + "ms");
+        assertTrue(updateNanos < 500_000_000L, "Incremental refit took too long: " + updateNanos / 1_000_000 + "ms");
+        assertTrue(forecastNanos < 2_000_000_000L, "Forecast took too long: " + forecastNanos / 1_000_000 + "ms");
+    }
+
+    private double[][] generateSeries(Random random) {
+        double[][] series = new double[SERVICES][HISTORY_DAYS + HORIZON_DAYS];
+        for (int s = 0; s < SERVICES; s++) {
+            double base = 1 + random.nextDouble() * 99;
+            double trend = base * (random.nextDouble() * 0.02 - 0.005);
+            double weekendDip = random.nextDouble() * 0.6;
+
+            for (int day = 0; day < series[s].length; day++) {
+                boolean weekend = START.plusDays(day).getDayOfWeek().getValue() >= 6;
+                // Weekday lift balances the weekend dip so the weekly mean stays at the trend line
+                double seasonal = weekend ? -weekendDip : weekendDip * 2 / 5;
+                double noise = 1 + 0.1 * random.nextGaussian();
+                series[s][day] = Math.max(0.0, (base + trend * day) * (1 + seasonal) * noise);
+            }
+        }
+        return series;
+    }
+}
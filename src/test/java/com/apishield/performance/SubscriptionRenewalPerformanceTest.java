@@ -0,0 +1,138 @@
+package com.apishield.performance;
+
+import com.apishield.model.SubscriptionPlan;
+import com.apishield.model.User;
+import com.apishield.model.UserSubscription;
+import com.apishield.repository.PaymentIntentRepository;
+import com.apishield.repository.SubscriptionPlanRepository;
+import com.apishield.repository.UserRepository;
+import com.apishield.repository.UserSubscriptionRepository;
+import com.apishield.service.SubscriptionRenewalEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A nightly renewal run against the mock gateway (1-3 s per charge). With renewals running
+ * in parallel the run takes a few gateway round trips rather than one per subscription;
+ * the printed projection scales the measured rate to 100k subscriptions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SubscriptionRenewalPerformanceTest {
+
+    private static final int DUE = 1_000;
+    private static final int LAPSED = 200;
+
+    @Autowired
+    private SubscriptionRenewalEngine renewalEngine;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SubscriptionPlanRepository planRepository;
+
+    @Autowired
+    private UserSubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private PaymentIntentRepository paymentIntentRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private SubscriptionPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        plan = planRepository.save(SubscriptionPlan.builder()
+                .name("Renewal Load Plan")
+                .priceUsd(25.0)
+                .priceInr(2075.0)
+                .features("Load testing")
+                .maxApis(20)
+                .maxRequestsPerMonth(100000L)
+                .supportLevel(SubscriptionPlan.SupportLevel.PRIORITY)
+                .isActive(true)
+                .displayOrder(98)
+                .build());
+
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        List<UserSubscription> subscriptions = new ArrayList<>();
+        for (int i = 0; i < DUE + LAPSED; i++) {
+            User user = userRepository.save(User.builder()
+                    .name("Renewal Load " + i)
+                    .username("renewal-load-" + i + "@example.com")
+                    .email("renewal-load-" + i + "@example.com")
+                    .password("not-used")
+                    .role(User.Role.USER)
+                    .currency(User.Currency.USD)
+                    .build());
+            users.add(user);
+
+            boolean lapsed = i >= DUE;
+            subscriptions.add(UserSubscription.builder()
+                    .user(user)
+                    .plan(plan)
+                    .paymentMode(UserSubscription.PaymentMode.STRIPE)
+                    .status(UserSubscription.Status.ACTIVE)
+                    .startDate(lapsed ? LocalDate.now().minusMonths(1).minusDays(3) : tomorrow.minusMonths(1))
+                    .endDate(lapsed ? LocalDate.now().minusDays(3) : tomorrow)
+                    .amountPaid(25.0)
+                    .currencyPaid(User.Currency.USD)
+                    .paymentReference("STR_seed_" + i)
+                    .autoRenew(!lapsed)
+                    .build());
+        }
+        subscriptionRepository.saveAll(subscriptions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentIntentRepository.deleteAll();
+        subscriptionRepository.deleteAll(subscriptionRepository.findAll().stream()
+                .filter(subscription -> subscription.getPlan().getId().equals(plan.getId()))
+                .toList());
+        userRepository.deleteAll(users);
+        planRepository.delete(plan);
+        users.clear();
+    }
+
+    @Test
+    void testNightlyRun() {
+        long expireStart = System.nanoTime();
+        int expiredUsers = renewalEngine.expireLapsed(LocalDate.now());
+        long expireMs = (System.nanoTime() - expireStart) / 1_000_000;
+
+        SubscriptionRenewalEngine.RenewalRun run = renewalEngine.renewDueOn(LocalDate.now().plusDays(1));
+
+        double perSubscriptionMs = (double) run.durationMs() / DUE;
+        System.out.printf("Expired lapsed subscriptions of %d users in %d ms%n", expiredUsers, expireMs);
+        System.out.printf("Renewed %d subscriptions in %d ms (%d paid, %d declined, %d errors)%n",
+                run.scanned(), run.durationMs(), run.paid(), run.declined(), run.errors());
+        System.out.printf("Projected for 100k subscriptions: %.1f minutes%n", perSubscriptionMs * 100_000 / 60_000);
+
+        assertEquals(LAPSED, expiredUsers);
+        assertEquals(DUE, run.scanned());
+        assertEquals(DUE, run.paid() + run.declined());
+        assertEquals(0, run.errors());
+
+        long renewed = subscriptionRepository.findAll().stream()
+                .filter(subscription -> subscription.getPlan().getId().equals(plan.getId()))
+                .filter(subscription -> LocalDate.now().plusDays(1).plusMonths(1).equals(subscription.getEndDate()))
+                .count();
+        assertEquals(run.paid(), renewed);
+
+        // Serially this would take DUE gateway calls of 1-3 s each
+        assertTrue(run.durationMs() < 60_000, "Renewal run took " + run.durationMs() + " ms");
+    }
+}
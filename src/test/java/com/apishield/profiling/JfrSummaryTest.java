@@ -0,0 +1,52 @@
+package com.apishield.profiling;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrSummaryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSummarize_GroupsApplicationEventsByType() throws Exception {
+        Path file = tempDir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            ApplicationEvents.ALL.forEach(recording::enable);
+            recording.start();
+
+            for (int i = 0; i < 3; i++) {
+                UsageSummaryEvent event = new UsageSummaryEvent();
+                event.begin();
+                event.userId = i == 0 ? 7L : 8L;
+                event.rows = 10;
+                event.commit();
+            }
+            AlertEvaluationEvent alert = new AlertEvaluationEvent();
+            alert.begin();
+            alert.thresholdId = 3L;
+            alert.rows = 2;
+            alert.commit();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, JfrSummary.EventStats> summary = JfrSummary.summarize(file);
+
+        assertEquals(3L, summary.get("UsageSummary").count());
+        assertEquals(1L, summary.get("AlertEvaluation").count());
+        assertEquals(30L, summary.get("UsageSummary").rows());
+        assertEquals(2L, summary.get("AlertEvaluation").rows());
+        assertEquals(2, summary.get("UsageSummary").topUsersByMs().size());
+        // Events without a user are not attributed to anyone
+        assertTrue(summary.get("AlertEvaluation").topUsersByMs().isEmpty());
+        assertFalse(summary.containsKey("JwtFilter"));
+    }
+}
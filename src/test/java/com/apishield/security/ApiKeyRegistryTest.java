@@ -0,0 +1,112 @@
+package com.apishield.security;
+
+import com.apishield.repository.ApiKeyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApiKeyRegistryTest {
+
+    private static final String RAW_KEY = ApiKeyRegistry.format("a1b2c3d4", "c2VjcmV0LXNlY3JldC1zZWNyZXQtc2VjcmV0LXNlY3I");
+
+    @Mock
+    private ApiKeyRepository apiKeyRepository;
+
+    @InjectMocks
+    private ApiKeyRegistry apiKeyRegistry;
+
+    @Test
+    void testVerify_MatchesStoredHash() {
+        when(apiKeyRepository.findActiveKeyIndex()).thenReturn(List.<Object[]>of(new Object[]{
+                7L, "a1b2c3d4", ApiKeyRegistry.hashHex(RAW_KEY), "collector@example.com", 3L, LocalDateTime.now()}));
+
+        Optional<ApiKeyRegistry.ActiveKey> key = apiKeyRegistry.verify(RAW_KEY);
+
+        assertTrue(key.isPresent());
+        assertEquals(7L, key.get().id());
+        assertEquals("collector@example.com", key.get().email());
+        assertEquals(3L, key.get().apiServiceId());
+        assertNotNull(key.get().issuedAt());
+
+        // Loaded once, then served from memory
+        assertTrue(apiKeyRegistry.verify(RAW_KEY).isPresent());
+        verify(apiKeyRepository, times(1)).findActiveKeyIndex();
+    }
+
+    @Test
+    void testVerify_RejectsWrongSecretAndMalformedKeys() {
+        when(apiKeyRepository.findActiveKeyIndex()).thenReturn(List.<Object[]>of(new Object[]{
+                7L, "a1b2c3d4", ApiKeyRegistry.hashHex(RAW_KEY), "collector@example.com", null, LocalDateTime.now()}));
+
+        assertFalse(apiKeyRegistry.verify(ApiKeyRegistry.format("a1b2c3d4", "not-the-secret")).isPresent());
+        assertFalse(apiKeyRegistry.verify(ApiKeyRegistry.format("ffffffff", "c2VjcmV0")).isPresent());
+        assertFalse(apiKeyRegistry.verify("a1b2c3d4.secret").isPresent());
+        assertFalse(apiKeyRegistry.verify(null).isPresent());
+    }
+
+    @Test
+    void testReload_DropsRevokedKeys() {
+        when(apiKeyRepository.findActiveKeyIndex())
+                .thenReturn(List.<Object[]>of(new Object[]{
+                        7L, "a1b2c3d4", ApiKeyRegistry.hashHex(RAW_KEY), "collector@example.com", null, LocalDateTime.now()}))
+                .thenReturn(List.of());
+
+        assertTrue(apiKeyRegistry.verify(RAW_KEY).isPresent());
+
+        // No transaction is active, so the index is rebuilt straight away
+        apiKeyRegistry.reloadAfterCommit();
+
+        assertFalse(apiKeyRegistry.verify(RAW_KEY).isPresent());
+    }
+
+    @Test
+    void testRefresh_PicksUpKeysRevokedOnAnotherInstance() {
+        when(apiKeyRepository.findActiveKeyIndex())
+                .thenReturn(List.<Object[]>of(new Object[]{
+                        7L, "a1b2c3d4", ApiKeyRegistry.hashHex(RAW_KEY), "collector@example.com", null, LocalDateTime.now()}))
+                .thenReturn(List.of());
+
+        assertTrue(apiKeyRegistry.verify(RAW_KEY).isPresent());
+
+        apiKeyRegistry.refresh();
+
+        assertFalse(apiKeyRegistry.verify(RAW_KEY).isPresent());
+    }
+
+    @Test
+    void testRefresh_LeavesUnloadedIndexAlone() {
+        apiKeyRegistry.refresh();
+
+        verifyNoInteractions(apiKeyRepository);
+    }
+
+    @Test
+    void testPrefixOf() {
+        assertEquals("a1b2c3d4", ApiKeyRegistry.prefixOf(RAW_KEY));
+        assertNull(ApiKeyRegistry.prefixOf("ask_a1b2c3d4"));
+        assertNull(ApiKeyRegistry.prefixOf("ask_a1b2c3d4_secret"));
+        assertNull(ApiKeyRegistry.prefixOf("Bearer token"));
+    }
+
+    @Test
+    void testIsOutsideKeyScope() {
+        ApiKeyRegistry.ActiveKey bound = new ApiKeyRegistry.ActiveKey(1L, "a1b2c3d4", new byte[32], "a@example.com", 3L, null);
+        ApiKeyRegistry.ActiveKey unbound = new ApiKeyRegistry.ActiveKey(2L, "e5f6a7b8", new byte[32], "a@example.com", null, null);
+
+        assertFalse(ApiKeyAuthenticationFilter.isOutsideKeyScope(bound, 3L));
+        assertTrue(ApiKeyAuthenticationFilter.isOutsideKeyScope(bound, 4L));
+        assertFalse(ApiKeyAuthenticationFilter.isOutsideKeyScope(unbound, 4L));
+        // JWT callers carry web details, not a key
+        assertFalse(ApiKeyAuthenticationFilter.isOutsideKeyScope(null, 4L));
+    }
+}
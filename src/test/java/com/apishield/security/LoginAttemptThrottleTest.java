@@ -0,0 +1,57 @@
+package com.apishield.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginAttemptThrottleTest {
+
+    @Test
+    void testRetryAfterSeconds_LocksAccountAfterMaxFailures() {
+        LoginAttemptThrottle throttle = new LoginAttemptThrottle(3, 100, 60);
+
+        throttle.recordFailure("user@example.com", "10.0.0.1");
+        throttle.recordFailure("user@example.com", "10.0.0.2");
+        assertEquals(0L, throttle.retryAfterSeconds("user@example.com", "10.0.0.3"));
+
+        throttle.recordFailure("User@Example.com ", "10.0.0.3");
+
+        long retryAfter = throttle.retryAfterSeconds("user@example.com", "10.0.0.4");
+        assertTrue(retryAfter > 0 && retryAfter <= 60, "Locked until the window ends: " + retryAfter);
+        // Other accounts are not affected
+        assertEquals(0L, throttle.retryAfterSeconds("other@example.com", "10.0.0.4"));
+    }
+
+    @Test
+    void testRetryAfterSeconds_LocksAddressAcrossAccounts() {
+        LoginAttemptThrottle throttle = new LoginAttemptThrottle(100, 3, 60);
+
+        throttle.recordFailure("a@example.com", "10.0.0.1");
+        throttle.recordFailure("b@example.com", "10.0.0.1");
+        throttle.recordFailure("c@example.com", "10.0.0.1");
+
+        assertTrue(throttle.retryAfterSeconds("d@example.com", "10.0.0.1") > 0);
+        assertEquals(0L, throttle.retryAfterSeconds("d@example.com", "10.0.0.2"));
+    }
+
+    @Test
+    void testRecordSuccess_ClearsAccountFailures() {
+        LoginAttemptThrottle throttle = new LoginAttemptThrottle(2, 100, 60);
+
+        throttle.recordFailure("user@example.com", "10.0.0.1");
+        throttle.recordSuccess("user@example.com");
+        throttle.recordFailure("user@example.com", "10.0.0.1");
+
+        assertEquals(0L, throttle.retryAfterSeconds("user@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void testWindowExpiry_Unlocks() throws InterruptedException {
+        LoginAttemptThrottle throttle = new LoginAttemptThrottle(1, 1, 0);
+
+        throttle.recordFailure("user@example.com", "10.0.0.1");
+        Thread.sleep(1);
+
+        assertEquals(0L, throttle.retryAfterSeconds("user@example.com", "10.0.0.1"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.apishield.security;
+
+import com.apishield.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    @Test
+    void testMatches_RunsOnHashingPool() {
+        PasswordHasher passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(4), 4, 1, 4, 10_000);
+        try {
+            String hash = passwordHasher.encode("password123");
+
+            assertTrue(passwordHasher.matches("password123", hash));
+            assertFalse(passwordHasher.matches("wrong", hash));
+        } finally {
+            passwordHasher.shutdown();
+        }
+    }
+
+    @Test
+    void testNeedsRehash_ComparesCostWithTarget() {
+        PasswordHasher passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(4), 5, 1, 4, 10_000);
+        try {
+            assertTrue(passwordHasher.needsRehash(new BCryptPasswordEncoder(4).encode("password123")));
+            assertFalse(passwordHasher.needsRehash(new BCryptPasswordEncoder(5).encode("password123")));
+            assertFalse(passwordHasher.needsRehash("not-a-bcrypt-hash"));
+        } finally {
+            passwordHasher.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmit_ShedsWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        PasswordHasher passwordHasher = new PasswordHasher(blockingEncoder, 4, 1, 1, 10_000);
+        AtomicInteger shed = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 4; i++) {
+                callers.submit(() -> {
+                    try {
+                        passwordHasher.matches("password123", "$2a$04$hash");
+                    } catch (TooManyRequestsException e) {
+                        shed.incrementAndGet();
+                    }
+                });
+            }
+            // One running and one queued, the other two are turned away
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (shed.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(2, shed.get());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+            passwordHasher.shutdown();
+        }
+    }
+
+    @Test
+    void testCostOf_ReadsBcryptCost() {
+        assertEquals(10, PasswordHasher.costOf("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy"));
+        assertEquals(12, PasswordHasher.costOf("$2b$12$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy"));
+        assertEquals(-1, PasswordHasher.costOf("plain-text"));
+        assertEquals(-1, PasswordHasher.costOf(null));
+    }
+}
@@ -0,0 +1,92 @@
+package com.apishield.security;
+
+import com.apishield.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private static final Date ISSUED_AT = new Date(1_700_000_000_000L);
+
+    private PrincipalCache principalCache;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(100, 300);
+        testUser = User.builder()
+                .id(1L)
+                .name("Test User")
+                .email("test@example.com")
+                .username("testuser")
+                .password("hashed")
+                .role(User.Role.USER)
+                .currency(User.Currency.USD)
+                .build();
+    }
+
+    @Test
+    void testGet_HitForSameSubjectAndIssueTime() {
+        UserPrincipal principal = UserPrincipal.create(testUser);
+        principalCache.put("test@example.com", ISSUED_AT, principal);
+
+        assertSame(principal, principalCache.get("test@example.com", ISSUED_AT));
+        // Milliseconds are not part of a JWT timestamp
+        assertSame(principal, principalCache.get("test@example.com", new Date(ISSUED_AT.getTime() + 500)));
+        assertNull(principalCache.get("test@example.com", new Date(ISSUED_AT.getTime() + 1000)));
+        assertNull(principalCache.get("other@example.com", ISSUED_AT));
+        assertEquals(2, principalCache.getHitCount());
+        assertEquals(2, principalCache.getMissCount());
+    }
+
+    @Test
+    void testGet_ExpiredEntryIsAMiss() {
+        PrincipalCache expiring = new PrincipalCache(100, 0);
+        expiring.put("test@example.com", ISSUED_AT, UserPrincipal.create(testUser));
+
+        assertNull(expiring.get("test@example.com", ISSUED_AT));
+        assertEquals(0, expiring.size());
+    }
+
+    @Test
+    void testInvalidate_DropsEveryTokenForTheUser() {
+        principalCache.put("test@example.com", ISSUED_AT, UserPrincipal.create(testUser));
+        principalCache.put("test@example.com", new Date(ISSUED_AT.getTime() + 60_000), UserPrincipal.create(testUser));
+        principalCache.put("old@example.com", ISSUED_AT, UserPrincipal.create(testUser));
+
+        User other = User.builder().id(2L).email("other@example.com").role(User.Role.USER).build();
+        principalCache.put("other@example.com", ISSUED_AT, UserPrincipal.create(other));
+
+        // Matches by email and by id, so tokens for a previous email go too
+        principalCache.invalidate(testUser);
+
+        assertEquals(1, principalCache.size());
+        assertNotNull(principalCache.get("other@example.com", ISSUED_AT));
+    }
+
+    @Test
+    void testPut_StaysWithinMaxSize() {
+        for (int i = 0; i < 1_000; i++) {
+            principalCache.put("user" + i + "@example.com", ISSUED_AT, UserPrincipal.create(testUser));
+        }
+
+        assertTrue(principalCache.size() <= 100, "Cache grew to " + principalCache.size());
+        assertNotNull(principalCache.get("user999@example.com", ISSUED_AT));
+    }
+
+    @Test
+    void testPrincipalHandsOutCopiesOfTheUser() {
+        UserPrincipal principal = UserPrincipal.create(testUser);
+
+        User first = principal.getUser();
+        first.setCurrency(User.Currency.EUR);
+
+        assertEquals(User.Currency.USD, principal.getUser().getCurrency());
+        assertEquals(testUser.getId(), principal.getUser().getId());
+        assertNotSame(first, principal.getUser());
+    }
+}
@@ -0,0 +1,81 @@
+package com.apishield.security;
+
+import com.apishield.model.User;
+import com.apishield.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "apishield.rate-limit.requests-per-second=0.01",
+        "apishield.rate-limit.burst=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    private String jwtToken;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .name("Rate Limit User")
+                .username("ratelimituser")
+                .email("ratelimit@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .role(User.Role.USER)
+                .currency(User.Currency.USD)
+                .build());
+
+        UserPrincipal principal = UserPrincipal.create(user);
+        jwtToken = jwtTokenUtil.generateJwtToken(
+                new TestingAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    void testRequestsBeyondBurstAreRejectedWithRetryAfter() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/plans")
+                            .header("Authorization", "Bearer " + jwtToken))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/plans")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.error").value("Too Many Requests"));
+    }
+
+    @Test
+    void testUnauthenticatedRequestsAreNotRateLimited() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(get("/health"))
+                    .andExpect(status().isOk());
+        }
+    }
+}
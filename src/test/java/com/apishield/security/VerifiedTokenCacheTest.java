@@ -0,0 +1,109 @@
+package com.apishield.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "testSecretKey123456789012345678901234567890123456789012345678901234567890";
+
+    private VerifiedTokenCache tokenCache;
+
+    @BeforeEach
+    void setUp() {
+        tokenCache = new VerifiedTokenCache(100);
+    }
+
+    @Test
+    void testGet_HitAfterPut() {
+        VerifiedTokenCache.TokenHash hash = VerifiedTokenCache.hash("token-a");
+        Claims claims = claims("a@example.com", 60_000);
+
+        assertNull(tokenCache.get(hash));
+        tokenCache.put(hash, claims);
+
+        assertSame(claims, tokenCache.get(VerifiedTokenCache.hash("token-a")));
+        assertNull(tokenCache.get(VerifiedTokenCache.hash("token-b")));
+        assertEquals(1, tokenCache.getHitCount());
+        assertEquals(2, tokenCache.getMissCount());
+    }
+
+    @Test
+    void testPut_SkipsExpiredTokens() {
+        tokenCache.put(VerifiedTokenCache.hash("token-a"), claims("a@example.com", -1_000));
+
+        assertEquals(0, tokenCache.size());
+    }
+
+    @Test
+    void testPut_StaysWithinMaxSize() {
+        for (int i = 0; i < 1_000; i++) {
+            tokenCache.put(VerifiedTokenCache.hash("token-" + i), claims("user" + i + "@example.com", 60_000));
+        }
+
+        assertTrue(tokenCache.size() <= 100, "Cache grew to " + tokenCache.size());
+        assertTrue(tokenCache.getEvictionCount() >= 900);
+        assertNotNull(tokenCache.get(VerifiedTokenCache.hash("token-999")));
+    }
+
+    @Test
+    void testRevoke_RejectsTokenUntilExpiry() {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(tokenCache);
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.invokeMethod(jwtTokenUtil, "init");
+
+        UserPrincipal principal = new UserPrincipal(1L, "Test", "a@example.com", "hashed", List.of(), null);
+        String token = jwtTokenUtil.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null));
+
+        assertTrue(jwtTokenUtil.parseAndValidate(token).isPresent());
+        assertTrue(jwtTokenUtil.parseAndValidate(token).isPresent());
+        assertEquals(1, tokenCache.getHitCount());
+
+        assertTrue(jwtTokenUtil.revokeToken(token));
+
+        // Not cached any more and not re-admitted by verifying the signature again
+        assertFalse(jwtTokenUtil.parseAndValidate(token).isPresent());
+        assertTrue(tokenCache.isRevoked(VerifiedTokenCache.hash(token)));
+        assertEquals(0, tokenCache.size());
+    }
+
+    @Test
+    void testRotateSigningKey_PurgesTokensVerifiedWithTheOldKey() {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(tokenCache);
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.invokeMethod(jwtTokenUtil, "init");
+
+        UserPrincipal principal = new UserPrincipal(1L, "Test", "a@example.com", "hashed", List.of(), null);
+        String token = jwtTokenUtil.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null));
+        assertTrue(jwtTokenUtil.parseAndValidate(token).isPresent());
+        assertEquals(1, tokenCache.size());
+
+        jwtTokenUtil.rotateSigningKey(new StringBuilder(SECRET).reverse().toString());
+
+        assertEquals(0, tokenCache.size());
+        assertFalse(jwtTokenUtil.parseAndValidate(token).isPresent());
+        String rotated = jwtTokenUtil.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null));
+        assertTrue(jwtTokenUtil.parseAndValidate(rotated).isPresent());
+    }
+
+    private Claims claims(String subject, long expiresInMs) {
+        return Jwts.claims()
+                .subject(subject)
+                .expiration(new Date(System.currentTimeMillis() + expiresInMs))
+                .build();
+    }
+}
@@ -32,6 +32,12 @@ class ApiServiceServiceTest {
     @Mock
     private BudgetCalculator budgetCalculator;
 
+    @Mock
+    private SpendLedgerService spendLedgerService;
+
+    @Mock
+    private QuotaService quotaService;
+
     @InjectMocks
     private ApiServiceService apiServiceService;
 
@@ -101,6 +107,26 @@ class ApiServiceServiceTest {
         verify(apiServiceRepository, never()).save(any());
     }
 
+    @Test
+    void testCreateApiService_PlanLimitReached() {
+        ApiServiceRequest request = new ApiServiceRequest();
+        request.setName("Sixth API");
+        request.setEndpointUrl("https://api.sixth.com");
+        request.setBudget(100.0);
+        request.setCostPerUnit(0.01);
+        request.setUsageCount(0.0);
+
+        when(apiServiceRepository.existsByNameAndUser(request.getName(), testUser)).thenReturn(false);
+        when(quotaService.getMaxApiServices(testUser.getId())).thenReturn(5);
+        when(apiServiceRepository.countByUser(testUser)).thenReturn(5L);
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () ->
+                apiServiceService.createApiService(testUser, request));
+
+        assertTrue(exception.getMessage().contains("at most 5"));
+        verify(apiServiceRepository, never()).save(any());
+    }
+
     @Test
     void testGetAllApiServices() {
         List<ApiService> mockServices = Arrays.asList(testApiService);
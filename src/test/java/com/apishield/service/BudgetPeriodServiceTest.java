@@ -0,0 +1,218 @@
+package com.apishield.service;
+
+import com.apishield.dto.budget.BudgetPeriodResponse;
+import com.apishield.model.Budget;
+import com.apishield.model.BudgetPeriod;
+import com.apishield.model.User;
+import com.apishield.model.UserSettings;
+import com.apishield.repository.BudgetPeriodRepository;
+import com.apishield.repository.BudgetRepository;
+import com.apishield.repository.UsageLogRepository;
+import com.apishield.repository.UserSettingsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BudgetPeriodServiceTest {
+
+    @Mock
+    private BudgetPeriodRepository budgetPeriodRepository;
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private UserSettingsRepository userSettingsRepository;
+
+    @Mock
+    private UsageLogRepository usageLogRepository;
+
+    @InjectMocks
+    private BudgetPeriodService budgetPeriodService;
+
+    private User testUser;
+    private UserSettings testSettings;
+
+    @BeforeEach
+    void setUp() {
+        testUser = User.builder()
+                .id(1L)
+                .name("Test User")
+                .email("test@example.com")
+                .role(User.Role.USER)
+                .currency(User.Currency.USD)
+                .build();
+
+        testSettings = new UserSettings();
+        testSettings.setUser(testUser);
+        testSettings.setTimezone("America/New_York");
+    }
+
+    @Test
+    void testSyncOpenPeriod_FirstPeriodSeededFromUsageLogs() {
+        when(budgetPeriodRepository.findFirstByUserAndStatus(testUser, BudgetPeriod.Status.OPEN))
+                .thenReturn(Optional.empty());
+        when(userSettingsRepository.findByUser(testUser)).thenReturn(Optional.of(testSettings));
+        when(budgetPeriodRepository.existsByUser(testUser)).thenReturn(false);
+        when(usageLogRepository.getTotalCostByUserAndDateRange(eq(testUser), any(), any()))
+                .thenReturn(Optional.of(42.0));
+        when(budgetPeriodRepository.save(any(BudgetPeriod.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BudgetPeriod period = budgetPeriodService.syncOpenPeriod(testUser, 500.0);
+
+        YearMonth month = YearMonth.now(ZoneId.of("America/New_York"));
+        assertEquals(month.atDay(1), period.getPeriodStart());
+        assertEquals(month.atEndOfMonth(), period.getPeriodEnd());
+        assertEquals("America/New_York", period.getTimezone());
+        assertEquals(500.0, period.getBudgetAmount());
+        assertEquals(42.0, period.getSpentAmount());
+        assertEquals(BudgetPeriod.Status.OPEN, period.getStatus());
+    }
+
+    @Test
+    void testSyncOpenPeriod_ExistingPeriodOnlyUpdatesBudget() {
+        BudgetPeriod openPeriod = period(YearMonth.now(ZoneId.of("UTC")), 100.0, BudgetPeriod.Status.OPEN);
+        when(budgetPeriodRepository.findFirstByUserAndStatus(testUser, BudgetPeriod.Status.OPEN))
+                .thenReturn(Optional.of(openPeriod));
+        when(budgetPeriodRepository.save(openPeriod)).thenReturn(openPeriod);
+
+        BudgetPeriod period = budgetPeriodService.syncOpenPeriod(testUser, 750.0);
+
+        assertEquals(750.0, period.getBudgetAmount());
+        assertEquals(100.0, period.getSpentAmount());
+        verifyNoInteractions(usageLogRepository, userSettingsRepository);
+    }
+
+    @Test
+    void testRollOver_ClosesEndedPeriodAndOpensCurrentMonth() {
+        BudgetPeriod endedPeriod = period(YearMonth.now(ZoneId.of("UTC")).minusMonths(1), 300.0, BudgetPeriod.Status.OPEN);
+        Budget budget = Budget.builder().user(testUser).monthlyBudget(800.0).spentAmount(300.0).build();
+
+        when(budgetPeriodRepository.findById(5L)).thenReturn(Optional.of(endedPeriod));
+        when(budgetPeriodRepository.closeOpenPeriod(eq(5L), any())).thenReturn(1);
+        when(budgetRepository.findByUser(testUser)).thenReturn(Optional.of(budget));
+        when(userSettingsRepository.findByUser(testUser)).thenReturn(Optional.empty());
+        when(budgetPeriodRepository.save(any(BudgetPeriod.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertTrue(budgetPeriodService.rollOver(5L));
+
+        ArgumentCaptor<BudgetPeriod> captor = ArgumentCaptor.forClass(BudgetPeriod.class);
+        verify(budgetPeriodRepository).save(captor.capture());
+
+        BudgetPeriod next = captor.getValue();
+        assertEquals(BudgetPeriod.Status.OPEN, next.getStatus());
+        assertEquals(YearMonth.now(ZoneId.of("UTC")).atDay(1), next.getPeriodStart());
+        assertEquals(800.0, next.getBudgetAmount());
+        assertEquals(0.0, next.getSpentAmount());
+    }
+
+    @Test
+    void testRollOver_CurrentPeriodIsLeftOpen() {
+        BudgetPeriod currentPeriod = period(YearMonth.now(ZoneId.of("UTC")).plusMonths(1), 10.0, BudgetPeriod.Status.OPEN);
+        when(budgetPeriodRepository.findById(5L)).thenReturn(Optional.of(currentPeriod));
+
+        assertFalse(budgetPeriodService.rollOver(5L));
+        verify(budgetPeriodRepository, never()).closeOpenPeriod(any(), any());
+        verify(budgetPeriodRepository, never()).save(any());
+    }
+
+    @Test
+    void testRollOver_AlreadyClosedElsewhereDoesNotOpenAnotherPeriod() {
+        BudgetPeriod endedPeriod = period(YearMonth.now(ZoneId.of("UTC")).minusMonths(1), 300.0, BudgetPeriod.Status.OPEN);
+        when(budgetPeriodRepository.findById(5L)).thenReturn(Optional.of(endedPeriod));
+        when(budgetPeriodRepository.closeOpenPeriod(eq(5L), any())).thenReturn(0);
+
+        assertFalse(budgetPeriodService.rollOver(5L));
+        verify(budgetPeriodRepository, never()).save(any());
+    }
+
+    @Test
+    void testRecordSpend_BooksToPeriodContainingUsageDate() {
+        LocalDate usageDate = LocalDate.of(2024, 2, 28);
+        when(budgetPeriodRepository.incrementSpentOn(testUser, usageDate, 12.5)).thenReturn(1);
+
+        budgetPeriodService.recordSpend(testUser, 12.5, usageDate);
+
+        verify(budgetPeriodRepository, never()).incrementOpenPeriodSpent(any(), any());
+        verifyNoInteractions(userSettingsRepository);
+    }
+
+    @Test
+    void testRecordSpend_RollsOverEndedOpenPeriodFirst() {
+        YearMonth currentMonth = YearMonth.now(ZoneId.of("UTC"));
+        BudgetPeriod endedPeriod = period(currentMonth.minusMonths(1), 300.0, BudgetPeriod.Status.OPEN);
+        endedPeriod.setId(5L);
+        LocalDate usageDate = currentMonth.atDay(1);
+
+        when(budgetPeriodRepository.incrementSpentOn(testUser, usageDate, 12.5)).thenReturn(0, 1);
+        when(budgetPeriodRepository.findFirstByUserAndStatus(testUser, BudgetPeriod.Status.OPEN))
+                .thenReturn(Optional.of(endedPeriod));
+        when(budgetPeriodRepository.findById(5L)).thenReturn(Optional.of(endedPeriod));
+        when(budgetPeriodRepository.closeOpenPeriod(eq(5L), any())).thenReturn(1);
+        when(budgetRepository.findByUser(testUser)).thenReturn(Optional.empty());
+        when(userSettingsRepository.findByUser(testUser)).thenReturn(Optional.empty());
+        when(budgetPeriodRepository.save(any(BudgetPeriod.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        budgetPeriodService.recordSpend(testUser, 12.5, usageDate);
+
+        verify(budgetPeriodRepository, times(2)).incrementSpentOn(testUser, usageDate, 12.5);
+        verify(budgetPeriodRepository, never()).incrementOpenPeriodSpent(any(), any());
+    }
+
+    @Test
+    void testRecordSpend_DateBeforeFirstPeriodIsNotBooked() {
+        BudgetPeriod openPeriod = period(YearMonth.now(ZoneId.of("UTC")), 10.0, BudgetPeriod.Status.OPEN);
+        LocalDate usageDate = openPeriod.getPeriodStart().minusMonths(3);
+        when(budgetPeriodRepository.incrementSpentOn(testUser, usageDate, 12.5)).thenReturn(0);
+        when(budgetPeriodRepository.findFirstByUserAndStatus(testUser, BudgetPeriod.Status.OPEN))
+                .thenReturn(Optional.of(openPeriod));
+
+        budgetPeriodService.recordSpend(testUser, 12.5, usageDate);
+
+        verify(budgetPeriodRepository, never()).closeOpenPeriod(any(), any());
+        verify(budgetPeriodRepository, never()).incrementOpenPeriodSpent(any(), any());
+    }
+
+    @Test
+    void testGetHistory_ComparesWithPreviousPeriod() {
+        YearMonth month = YearMonth.of(2024, 3);
+        BudgetPeriod march = period(month, 150.0, BudgetPeriod.Status.OPEN);
+        BudgetPeriod february = period(month.minusMonths(1), 100.0, BudgetPeriod.Status.CLOSED);
+        when(budgetPeriodRepository.findByUserOrderByPeriodStartDesc(eq(testUser), any()))
+                .thenReturn(List.of(march, february));
+
+        List<BudgetPeriodResponse> history = budgetPeriodService.getHistory(testUser, 6);
+
+        assertEquals(2, history.size());
+        assertEquals(LocalDate.of(2024, 3, 1), history.get(0).getPeriodStart());
+        assertEquals(50.0, history.get(0).getChangeFromPreviousPercentage());
+        assertNull(history.get(1).getChangeFromPreviousPercentage());
+    }
+
+    private BudgetPeriod period(YearMonth month, double spent, BudgetPeriod.Status status) {
+        return BudgetPeriod.builder()
+                .user(testUser)
+                .periodStart(month.atDay(1))
+                .periodEnd(month.atEndOfMonth())
+                .timezone("UTC")
+                .budgetAmount(1000.0)
+                .spentAmount(spent)
+                .status(status)
+                .build();
+    }
+}
@@ -3,6 +3,7 @@ package com.apishield.service;
 import com.apishield.dto.budget.BudgetRequest;
 import com.apishield.dto.budget.BudgetResponse;
 import com.apishield.model.Budget;
+import com.apishield.model.BudgetPeriod;
 import com.apishield.model.User;
 import com.apishield.repository.ApiServiceRepository;
 import com.apishield.repository.BudgetRepository;
@@ -15,10 +16,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,11 +40,18 @@ class BudgetServiceTest {
     @Mock
     private DateUtil dateUtil;
 
+    @Mock
+    private SpendLedgerService spendLedgerService;
+
+    @Mock
+    private BudgetPeriodService budgetPeriodService;
+
     @InjectMocks
     private BudgetService budgetService;
 
     private User testUser;
     private Budget testBudget;
+    private BudgetPeriod testPeriod;
 
     @BeforeEach
     void setUp() {
@@ -58,6 +69,17 @@ class BudgetServiceTest {
                 .monthlyBudget(1000.0)
                 .spentAmount(250.0)
                 .build();
+
+        testPeriod = BudgetPeriod.builder()
+                .id(1L)
+                .user(testUser)
+                .periodStart(LocalDate.of(2024, 3, 1))
+                .periodEnd(LocalDate.of(2024, 3, 31))
+                .timezone("Asia/Kolkata")
+                .budgetAmount(1000.0)
+                .spentAmount(80.0)
+                .status(BudgetPeriod.Status.OPEN)
+                .build();
     }
 
     @Test
@@ -66,11 +88,12 @@ class BudgetServiceTest {
         request.setMonthlyBudget(500.0);
 
         when(budgetRepository.findByUser(testUser)).thenReturn(Optional.empty());
-        when(apiServiceRepository.getTotalSpentByUser(testUser)).thenReturn(Optional.of(100.0));
+        when(spendLedgerService.reconcile(testUser)).thenReturn(100.0);
         when(budgetRepository.save(any(Budget.class))).thenReturn(testBudget);
-        when(dateUtil.getDaysLeftInMonth()).thenReturn(15);
-        when(dateUtil.calculateDailySpendingRate(anyDouble())).thenReturn(5.0);
-        when(dateUtil.projectMonthlySpending(anyDouble())).thenReturn(150.0);
+        when(budgetPeriodService.syncOpenPeriod(testUser, 1000.0)).thenReturn(testPeriod);
+        when(dateUtil.getDaysLeftInMonth(any(ZoneId.class))).thenReturn(15);
+        when(dateUtil.calculateDailySpendingRate(anyDouble(), any(ZoneId.class))).thenReturn(5.0);
+        when(dateUtil.projectMonthlySpending(anyDouble(), any(ZoneId.class))).thenReturn(150.0);
         when(apiServiceRepository.countByUser(testUser)).thenReturn(2L);
         when(budgetCalculator.getCurrencySymbol(User.Currency.USD)).thenReturn("$");
 
@@ -78,16 +101,40 @@ class BudgetServiceTest {
 
         assertNotNull(response);
         verify(budgetRepository).save(any(Budget.class));
-        verify(apiServiceRepository).getTotalSpentByUser(testUser);
+        verify(spendLedgerService).reconcile(testUser);
+        verify(budgetPeriodService).syncOpenPeriod(testUser, 1000.0);
+    }
+
+    @Test
+    void testCreateBudget_ExistingBudgetKeepsLedgerSpend() {
+        BudgetRequest request = new BudgetRequest();
+        request.setMonthlyBudget(2000.0);
+
+        when(budgetRepository.findByUser(testUser)).thenReturn(Optional.of(testBudget));
+        when(budgetRepository.save(any(Budget.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(budgetPeriodService.syncOpenPeriod(testUser, 2000.0)).thenReturn(testPeriod);
+        when(dateUtil.getDaysLeftInMonth(any(ZoneId.class))).thenReturn(15);
+        when(dateUtil.calculateDailySpendingRate(anyDouble(), any(ZoneId.class))).thenReturn(10.0);
+        when(dateUtil.projectMonthlySpending(anyDouble(), any(ZoneId.class))).thenReturn(300.0);
+        when(apiServiceRepository.countByUser(testUser)).thenReturn(2L);
+        when(budgetCalculator.getCurrencySymbol(User.Currency.USD)).thenReturn("$");
+
+        BudgetResponse response = budgetService.createOrUpdateBudget(testUser, request);
+
+        assertEquals(2000.0, response.getMonthlyBudget());
+        assertEquals(250.0, response.getSpentAmount());
+        verify(spendLedgerService, never()).reconcile(any());
+        verify(apiServiceRepository, never()).getTotalSpentByUser(any());
     }
 
     @Test
     void testGetBudget_ExistingBudget() {
+        ZoneId kolkata = ZoneId.of("Asia/Kolkata");
         when(budgetRepository.findByUser(testUser)).thenReturn(Optional.of(testBudget));
-        when(apiServiceRepository.getTotalSpentByUser(testUser)).thenReturn(Optional.of(250.0));
-        when(dateUtil.getDaysLeftInMonth()).thenReturn(10);
-        when(dateUtil.calculateDailySpendingRate(250.0)).thenReturn(12.5);
-        when(dateUtil.projectMonthlySpending(250.0)).thenReturn(375.0);
+        when(budgetPeriodService.findOpenPeriod(testUser)).thenReturn(Optional.of(testPeriod));
+        when(dateUtil.getDaysLeftInMonth(kolkata)).thenReturn(10);
+        when(dateUtil.calculateDailySpendingRate(80.0, kolkata)).thenReturn(4.0);
+        when(dateUtil.projectMonthlySpending(80.0, kolkata)).thenReturn(124.0);
         when(apiServiceRepository.countByUser(testUser)).thenReturn(3L);
         when(budgetCalculator.getCurrencySymbol(User.Currency.USD)).thenReturn("$");
 
@@ -97,17 +144,23 @@ class BudgetServiceTest {
         assertEquals(1000.0, response.getMonthlyBudget());
         assertEquals(250.0, response.getSpentAmount());
         assertEquals(10, response.getDaysLeftInMonth());
-        assertEquals(12.5, response.getDailySpendingRate());
-        assertEquals(375.0, response.getProjectedMonthlySpending());
+        assertEquals(4.0, response.getDailySpendingRate());
+        assertEquals(124.0, response.getProjectedMonthlySpending());
+        assertEquals(80.0, response.getPeriodSpentAmount());
+        assertEquals(920.0, response.getPeriodRemainingBudget());
+        assertEquals(LocalDate.of(2024, 3, 1), response.getPeriodStart());
+        verify(apiServiceRepository, never()).getTotalSpentByUser(any());
+        verify(budgetRepository, never()).save(any());
     }
 
     @Test
     void testGetBudget_NoBudgetExists() {
         when(budgetRepository.findByUser(testUser)).thenReturn(Optional.empty());
-        when(apiServiceRepository.getTotalSpentByUser(testUser)).thenReturn(Optional.of(0.0));
-        when(dateUtil.getDaysLeftInMonth()).thenReturn(20);
-        when(dateUtil.calculateDailySpendingRate(0.0)).thenReturn(0.0);
-        when(dateUtil.projectMonthlySpending(0.0)).thenReturn(0.0);
+        when(spendLedgerService.getBalance(testUser)).thenReturn(0.0);
+        when(budgetPeriodService.findOpenPeriod(testUser)).thenReturn(Optional.empty());
+        when(dateUtil.getDaysLeftInMonth(eq(ZoneId.of("UTC")))).thenReturn(20);
+        when(dateUtil.calculateDailySpendingRate(0.0, ZoneId.of("UTC"))).thenReturn(0.0);
+        when(dateUtil.projectMonthlySpending(0.0, ZoneId.of("UTC"))).thenReturn(0.0);
         when(apiServiceRepository.countByUser(testUser)).thenReturn(0L);
         when(budgetCalculator.getCurrencySymbol(User.Currency.USD)).thenReturn("$");
 
@@ -116,18 +169,20 @@ class BudgetServiceTest {
         assertNotNull(response);
         assertEquals(0.0, response.getMonthlyBudget());
         assertEquals(0.0, response.getSpentAmount());
+        assertNull(response.getPeriodStart());
     }
 
     @Test
     void testRefreshBudgetSpentAmount() {
         when(budgetRepository.findByUser(testUser)).thenReturn(Optional.of(testBudget));
-        when(apiServiceRepository.getTotalSpentByUser(testUser)).thenReturn(Optional.of(300.0));
+        when(spendLedgerService.reconcile(testUser)).thenReturn(300.0);
         when(budgetRepository.save(any(Budget.class))).thenReturn(testBudget);
 
         budgetService.refreshBudgetSpentAmount(testUser);
 
         verify(budgetRepository).save(any(Budget.class));
-        verify(apiServiceRepository).getTotalSpentByUser(testUser);
+        verify(spendLedgerService).reconcile(testUser);
+        assertEquals(300.0, testBudget.getSpentAmount());
     }
 
     @Test
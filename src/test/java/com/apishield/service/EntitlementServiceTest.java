@@ -0,0 +1,146 @@
+package com.apishield.service;
+
+import com.apishield.event.SubscriptionChangedEvent;
+import com.apishield.model.SubscriptionPlan;
+import com.apishield.repository.SubscriptionPlanRepository;
+import com.apishield.repository.UserSubscriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EntitlementServiceTest {
+
+    @Mock
+    private SubscriptionPlanRepository planRepository;
+
+    @Mock
+    private UserSubscriptionRepository subscriptionRepository;
+
+    private EntitlementService entitlementService;
+
+    private SubscriptionPlan starter;
+    private SubscriptionPlan pro;
+    private SubscriptionPlan legacy;
+
+    @BeforeEach
+    void setUp() {
+        entitlementService = new EntitlementService(planRepository, subscriptionRepository, 300L, 600L, 0L);
+
+        starter = plan(1L, "Starter", 1, true, 3, null, 1_000L);
+        pro = plan(2L, "Pro", 2, true, 10, 20, 100_000L);
+        pro.setFeatures("Webhooks,Priority Support");
+        legacy = plan(3L, "Legacy", 0, false, 5, null, 5_000L);
+    }
+
+    @Test
+    void testGetEntitlement_LoadsOnceFromActiveSubscription() {
+        LocalDate endDate = LocalDate.now().plusMonths(1);
+        when(planRepository.findAll()).thenReturn(List.of(starter, pro, legacy));
+        when(subscriptionRepository.findActiveEntitlement(1L))
+                .thenReturn(List.<Object[]>of(new Object[]{50L, 2L, endDate}));
+
+        EntitlementService.Entitlement entitlement = entitlementService.getEntitlement(1L);
+        entitlementService.getEntitlement(1L);
+
+        assertTrue(entitlement.isActive());
+        assertEquals("Pro", entitlement.planName());
+        // maxApiServices takes precedence over maxApis
+        assertEquals(20, entitlement.maxApiServices());
+        assertEquals(100_000L, entitlement.maxRequestsPerMonth());
+        assertEquals(endDate, entitlement.expiresOn());
+        assertTrue(entitlementService.hasFeature(1L, "webhooks"));
+        assertFalse(entitlementService.hasFeature(1L, "SSO"));
+        verify(subscriptionRepository, times(1)).findActiveEntitlement(1L);
+    }
+
+    @Test
+    void testGetEntitlement_NoActiveSubscriptionIsUnlimited() {
+        when(subscriptionRepository.findActiveEntitlement(1L)).thenReturn(List.of());
+
+        EntitlementService.Entitlement entitlement = entitlementService.getEntitlement(1L);
+
+        assertFalse(entitlement.isActive());
+        assertEquals(0, entitlement.maxApiServices());
+        assertEquals(0L, entitlement.maxRequestsPerMonth());
+        assertNull(entitlementService.getCurrentPlan(1L));
+        verifyNoInteractions(planRepository);
+    }
+
+    @Test
+    void testSubscriptionChangedEvent_ReloadsEntitlement() {
+        when(planRepository.findAll()).thenReturn(List.of(starter, pro, legacy));
+        when(subscriptionRepository.findActiveEntitlement(1L))
+                .thenReturn(List.<Object[]>of(new Object[]{50L, 1L, LocalDate.now().plusMonths(1)}))
+                .thenReturn(List.<Object[]>of(new Object[]{51L, 2L, LocalDate.now().plusMonths(1)}));
+
+        assertEquals(3, entitlementService.getEntitlement(1L).maxApiServices());
+
+        entitlementService.onSubscriptionChanged(
+                new SubscriptionChangedEvent(1L, SubscriptionChangedEvent.Reason.SUBSCRIBED));
+
+        assertEquals(20, entitlementService.getEntitlement(1L).maxApiServices());
+        assertSame(pro, entitlementService.getCurrentPlan(1L));
+    }
+
+    @Test
+    void testGetActivePlans_CachedInDisplayOrder() {
+        when(planRepository.findAll()).thenReturn(List.of(pro, legacy, starter));
+
+        assertEquals(List.of(starter, pro), entitlementService.getActivePlans());
+        assertEquals(List.of(starter, pro), entitlementService.getActivePlans());
+        assertSame(legacy, entitlementService.findPlan(3L).orElseThrow());
+        verify(planRepository, times(1)).findAll();
+
+        entitlementService.invalidateCatalogue();
+        entitlementService.getActivePlans();
+        verify(planRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testFindPlan_ReloadsCatalogueForUnknownPlan() {
+        when(planRepository.findAll())
+                .thenReturn(List.of(starter))
+                .thenReturn(List.of(starter, pro));
+
+        assertEquals(List.of(starter), entitlementService.getActivePlans());
+        assertSame(pro, entitlementService.findPlan(2L).orElseThrow());
+        assertTrue(entitlementService.findPlan(99L).isEmpty());
+    }
+
+    @Test
+    void testFindPlan_UnknownPlanReloadsAtMostOncePerInterval() {
+        entitlementService = new EntitlementService(planRepository, subscriptionRepository, 300L, 600L, 60L);
+        when(planRepository.findAll()).thenReturn(List.of(starter));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(entitlementService.findPlan(99L).isEmpty());
+        }
+
+        verify(planRepository, times(1)).findAll();
+    }
+
+    private SubscriptionPlan plan(Long id, String name, int displayOrder, boolean active,
+                                  Integer maxApis, Integer maxApiServices, Long maxRequests) {
+        return SubscriptionPlan.builder()
+                .id(id)
+                .name(name)
+                .priceUsd(id == 1L ? 0.0 : 25.0)
+                .priceInr(id == 1L ? 0.0 : 2000.0)
+                .displayOrder(displayOrder)
+                .isActive(active)
+                .maxApis(maxApis)
+                .maxApiServices(maxApiServices)
+                .maxRequestsPerMonth(maxRequests)
+                .supportLevel(SubscriptionPlan.SupportLevel.BASIC)
+                .build();
+    }
+}
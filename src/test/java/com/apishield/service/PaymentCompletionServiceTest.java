@@ -0,0 +1,171 @@
+package com.apishield.service;
+
+import com.apishield.event.SubscriptionChangedEvent;
+import com.apishield.model.PaymentIntent;
+import com.apishield.model.SubscriptionPlan;
+import com.apishield.model.User;
+import com.apishield.model.UserSubscription;
+import com.apishield.repository.PaymentIntentRepository;
+import com.apishield.repository.UserSubscriptionRepository;
+import com.apishield.util.PaymentProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentCompletionServiceTest {
+
+    @Mock
+    private PaymentIntentRepository paymentIntentRepository;
+
+    @Mock
+    private UserSubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private PaymentCompletionService paymentCompletionService;
+
+    private User testUser;
+    private UserSubscription pending;
+    private PaymentIntent intent;
+
+    @BeforeEach
+    void setUp() {
+        testUser = User.builder()
+                .id(1L)
+                .name("Test User")
+                .email("test@example.com")
+                .currency(User.Currency.USD)
+                .build();
+
+        SubscriptionPlan plan = SubscriptionPlan.builder()
+                .id(2L)
+                .name("Pro")
+                .priceUsd(25.0)
+                .build();
+
+        pending = UserSubscription.builder()
+                .id(10L)
+                .user(testUser)
+                .plan(plan)
+                .paymentMode(UserSubscription.PaymentMode.STRIPE)
+                .status(UserSubscription.Status.PENDING)
+                .startDate(LocalDate.now())
+                .build();
+
+        intent = PaymentIntent.builder()
+                .id(100L)
+                .idempotencyKey("key-1")
+                .user(testUser)
+                .subscription(pending)
+                .type(PaymentIntent.Type.SUBSCRIBE)
+                .amount(25.0)
+                .currency(User.Currency.USD)
+                .paymentMode(UserSubscription.PaymentMode.STRIPE)
+                .build();
+    }
+
+    @Test
+    void testComplete_SuccessActivatesAndReplacesExistingSubscription() {
+        UserSubscription existing = UserSubscription.builder()
+                .id(9L)
+                .user(testUser)
+                .status(UserSubscription.Status.ACTIVE)
+                .build();
+        finishesIntent();
+        when(paymentIntentRepository.findById(100L)).thenReturn(Optional.of(intent));
+        when(subscriptionRepository.findActiveSubscription(testUser)).thenReturn(Optional.of(existing));
+
+        PaymentIntent.Status status = paymentCompletionService.complete(100L, success("STR_1"));
+
+        assertEquals(PaymentIntent.Status.SUCCEEDED, status);
+        assertEquals(UserSubscription.Status.ACTIVE, pending.getStatus());
+        assertEquals("STR_1", pending.getPaymentReference());
+        assertEquals(LocalDate.now().plusMonths(1), pending.getEndDate());
+        assertEquals(UserSubscription.Status.CANCELLED, existing.getStatus());
+        verify(eventPublisher).publishEvent(new SubscriptionChangedEvent(1L, SubscriptionChangedEvent.Reason.SUBSCRIBED));
+        assertEquals(PaymentIntent.Status.SUCCEEDED, intent.getStatus());
+    }
+
+    @Test
+    void testComplete_FailureMarksSubscriptionFailed() {
+        finishesIntent();
+        when(paymentIntentRepository.findById(100L)).thenReturn(Optional.of(intent));
+
+        PaymentIntent.Status status = paymentCompletionService.complete(100L, PaymentProcessor.PaymentResult.builder()
+                .success(false)
+                .message("Payment failed: Card declined")
+                .paymentDetails(Map.of("failureReason", "Card declined"))
+                .build());
+
+        assertEquals(PaymentIntent.Status.FAILED, status);
+        assertEquals(UserSubscription.Status.FAILED, pending.getStatus());
+        assertEquals("Payment failed: Card declined", intent.getFailureReason());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testComplete_RenewalExtendsEndDate() {
+        LocalDate endDate = LocalDate.now().plusDays(1);
+        pending.setStatus(UserSubscription.Status.ACTIVE);
+        pending.setEndDate(endDate);
+        intent.setType(PaymentIntent.Type.RENEWAL);
+        finishesIntent();
+        when(paymentIntentRepository.findById(100L)).thenReturn(Optional.of(intent));
+
+        paymentCompletionService.complete(100L, success("STR_2"));
+
+        assertEquals(endDate.plusMonths(1), pending.getEndDate());
+        verify(subscriptionRepository, never()).findActiveSubscription(any());
+        verify(eventPublisher).publishEvent(new SubscriptionChangedEvent(1L, SubscriptionChangedEvent.Reason.RENEWED));
+    }
+
+    @Test
+    void testComplete_RepeatedOutcomeIsIgnored() {
+        intent.setStatus(PaymentIntent.Status.SUCCEEDED);
+        when(paymentIntentRepository.finish(eq(100L), any(), any(), any(), any(), any())).thenReturn(0);
+        when(paymentIntentRepository.findById(100L)).thenReturn(Optional.of(intent));
+
+        PaymentIntent.Status status = paymentCompletionService.complete(100L, success("STR_3"));
+
+        assertEquals(PaymentIntent.Status.SUCCEEDED, status);
+        verify(paymentIntentRepository, never()).save(any());
+        verifyNoInteractions(subscriptionRepository, eventPublisher);
+    }
+
+    /**
+     * Apply the conditional update to the in-memory intent, as the database would
+     */
+    private void finishesIntent() {
+        when(paymentIntentRepository.finish(eq(100L), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            intent.setStatus(invocation.getArgument(1));
+            intent.setTransactionId(invocation.getArgument(2));
+            intent.setFailureReason(invocation.getArgument(3));
+            intent.setPaymentDetails(invocation.getArgument(4));
+            return 1;
+        });
+    }
+
+    private PaymentProcessor.PaymentResult success(String transactionId) {
+        return PaymentProcessor.PaymentResult.builder()
+                .success(true)
+                .transactionId(transactionId)
+                .message("Payment processed successfully")
+                .paymentDetails(Map.of("transactionId", transactionId))
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.apishield.service;
+
+import com.apishield.model.RequestQuotaUsage;
+import com.apishield.repository.RequestQuotaUsageRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuotaServiceTest {
+
+    private static final LocalDate PERIOD = LocalDate.now().withDayOfMonth(1);
+
+    @Mock
+    private EntitlementService entitlementService;
+
+    @Mock
+    private RequestQuotaUsageRepository quotaUsageRepository;
+
+    @InjectMocks
+    private QuotaService quotaService;
+
+    @Test
+    void testTryConsumeRequest_StopsAtPlanQuota() {
+        when(entitlementService.getEntitlement(1L)).thenReturn(entitlement(10L, 5));
+        when(quotaUsageRepository.findRequestCount(1L, PERIOD)).thenReturn(Optional.of(8L));
+
+        assertTrue(quotaService.tryConsumeRequest(1L));
+        assertTrue(quotaService.tryConsumeRequest(1L));
+        assertFalse(quotaService.tryConsumeRequest(1L));
+        assertEquals(10L, quotaService.getRequestsUsed(1L));
+
+        // The stored count is read once, not per request
+        verify(quotaUsageRepository, times(1)).findRequestCount(1L, PERIOD);
+    }
+
+    @Test
+    void testTryConsumeRequest_UnlimitedWithoutActivePlan() {
+        when(entitlementService.getEntitlement(1L)).thenReturn(EntitlementService.Entitlement.none(Long.MAX_VALUE));
+        when(quotaUsageRepository.findRequestCount(1L, PERIOD)).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(quotaService.tryConsumeRequest(1L));
+        }
+        assertEquals(0, quotaService.getMaxApiServices(1L));
+    }
+
+    @Test
+    void testGetMaxApiServices_ComesFromEntitlement() {
+        when(entitlementService.getEntitlement(1L)).thenReturn(entitlement(10_000L, 7));
+
+        assertEquals(7, quotaService.getMaxApiServices(1L));
+    }
+
+    @Test
+    void testFlushCounters_WritesIncrementsOnce() {
+        when(entitlementService.getEntitlement(1L)).thenReturn(EntitlementService.Entitlement.none(Long.MAX_VALUE));
+        when(quotaUsageRepository.findRequestCount(1L, PERIOD)).thenReturn(Optional.of(100L));
+        when(quotaUsageRepository.incrementRequestCount(eq(1L), eq(PERIOD), eq(3L), any())).thenReturn(1);
+
+        quotaService.tryConsumeRequest(1L);
+        quotaService.tryConsumeRequest(1L);
+        quotaService.tryConsumeRequest(1L);
+
+        assertEquals(1, quotaService.flushCounters());
+        // Nothing new to write the second time
+        assertEquals(0, quotaService.flushCounters());
+        verify(quotaUsageRepository, times(1)).incrementRequestCount(any(), any(), any(), any());
+        verify(quotaUsageRepository, never()).save(any());
+    }
+
+    @Test
+    void testFlushCounters_PicksUpRequestsFlushedByOtherInstances() {
+        when(entitlementService.getEntitlement(1L)).thenReturn(entitlement(500L, 5));
+        // Seeded at 100; after our flush of 2 the row holds 450 because other instances flushed too
+        when(quotaUsageRepository.findRequestCount(1L, PERIOD)).thenReturn(Optional.of(100L), Optional.of(450L));
+        when(quotaUsageRepository.incrementRequestCount(eq(1L), eq(PERIOD), eq(2L), any())).thenReturn(1);
+
+        quotaService.tryConsumeRequest(1L);
+        quotaService.tryConsumeRequest(1L);
+        assertEquals(102L, quotaService.getRequestsUsed(1L));
+
+        quotaService.flushCounters();
+
+        assertEquals(450L, quotaService.getRequestsUsed(1L));
+    }
+
+    @Test
+    void testFlushCounters_InsertsFirstRowOfTheMonth() {
+        when(entitlementService.getEntitlement(1L)).thenReturn(EntitlementService.Entitlement.none(Long.MAX_VALUE));
+        when(quotaUsageRepository.findRequestCount(1L, PERIOD)).thenReturn(Optional.empty());
+        when(quotaUsageRepository.incrementRequestCount(eq(1L), eq(PERIOD), eq(1L), any())).thenReturn(0);
+
+        quotaService.tryConsumeRequest(1L);
+        quotaService.flushCounters();
+
+        verify(quotaUsageRepository).save(argThat((RequestQuotaUsage usage) ->
+                usage.getUserId().equals(1L) && usage.getPeriodStart().equals(PERIOD) && usage.getRequestCount() == 1L));
+    }
+
+    private EntitlementService.Entitlement entitlement(long maxRequests, int maxApiServices) {
+        return new EntitlementService.Entitlement(20L, 2L, "Pro", maxApiServices, maxRequests,
+                null, Set.of(), LocalDate.now().plusMonths(1), Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,124 @@
+package com.apishield.service;
+
+import com.apishield.model.RefreshToken;
+import com.apishield.model.User;
+import com.apishield.repository.RefreshTokenRepository;
+import com.apishield.security.ApiKeyRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpirationDays", 30L);
+        testUser = User.builder()
+                .id(1L)
+                .name("Test User")
+                .email("test@example.com")
+                .build();
+    }
+
+    @Test
+    void testIssue_StoresOnlyTheHash() {
+        String rawToken = refreshTokenService.issue(testUser);
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        RefreshToken saved = captor.getValue();
+        assertEquals(ApiKeyRegistry.hashHex(rawToken), saved.getTokenHash());
+        assertNotEquals(rawToken, saved.getTokenHash());
+        assertNotNull(saved.getFamilyId());
+        assertTrue(saved.getExpiresAt().isAfter(LocalDateTime.now().plusDays(29)));
+    }
+
+    @Test
+    void testRotate_IssuesSuccessorInSameFamily() {
+        RefreshToken token = storedToken("raw-token", null, null);
+        when(refreshTokenRepository.findByTokenHashWithUser(ApiKeyRegistry.hashHex("raw-token")))
+                .thenReturn(Optional.of(token));
+        when(refreshTokenRepository.markUsed(eq(10L), any())).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw-token");
+
+        assertSame(testUser, rotation.user());
+        assertNotEquals("raw-token", rotation.refreshToken());
+        verify(refreshTokenRepository).save(argThat((RefreshToken next) ->
+                next.getFamilyId().equals("family-1")
+                        && next.getTokenHash().equals(ApiKeyRegistry.hashHex(rotation.refreshToken()))));
+        verify(refreshTokenRepository, never()).revokeFamily(any(), any());
+    }
+
+    @Test
+    void testRotate_ReuseRevokesFamily() {
+        RefreshToken token = storedToken("raw-token", LocalDateTime.now().minusMinutes(1), null);
+        when(refreshTokenRepository.findByTokenHashWithUser(ApiKeyRegistry.hashHex("raw-token")))
+                .thenReturn(Optional.of(token));
+
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate("raw-token"));
+
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void testRotate_LosingConcurrentExchangeIsTreatedAsReuse() {
+        RefreshToken token = storedToken("raw-token", null, null);
+        when(refreshTokenRepository.findByTokenHashWithUser(ApiKeyRegistry.hashHex("raw-token")))
+                .thenReturn(Optional.of(token));
+        when(refreshTokenRepository.markUsed(eq(10L), any())).thenReturn(0);
+
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate("raw-token"));
+
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any());
+    }
+
+    @Test
+    void testRotate_RejectsRevokedAndUnknownTokens() {
+        RefreshToken token = storedToken("raw-token", null, LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHashWithUser(ApiKeyRegistry.hashHex("raw-token")))
+                .thenReturn(Optional.of(token));
+        when(refreshTokenRepository.findByTokenHashWithUser(ApiKeyRegistry.hashHex("unknown")))
+                .thenReturn(Optional.empty());
+
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate("raw-token"));
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.rotate("unknown"));
+
+        verify(refreshTokenRepository, never()).markUsed(any(), any());
+    }
+
+    private RefreshToken storedToken(String rawToken, LocalDateTime usedAt, LocalDateTime revokedAt) {
+        return RefreshToken.builder()
+                .id(10L)
+                .user(testUser)
+                .tokenHash(ApiKeyRegistry.hashHex(rawToken))
+                .familyId("family-1")
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .usedAt(usedAt)
+                .revokedAt(revokedAt)
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.apishield.service;
+
+import com.apishield.model.ApiService;
+import com.apishield.model.SpendLedgerEntry;
+import com.apishield.model.User;
+import com.apishield.repository.ApiServiceRepository;
+import com.apishield.repository.BudgetRepository;
+import com.apishield.repository.SpendLedgerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpendLedgerServiceTest {
+
+    @Mock
+    private SpendLedgerRepository spendLedgerRepository;
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private ApiServiceRepository apiServiceRepository;
+
+    @Mock
+    private BudgetPeriodService budgetPeriodService;
+
+    @InjectMocks
+    private SpendLedgerService spendLedgerService;
+
+    private User testUser;
+    private ApiService testApiService;
+
+    @BeforeEach
+    void setUp() {
+        testUser = User.builder()
+                .id(1L)
+                .name("Test User")
+                .email("test@example.com")
+                .role(User.Role.USER)
+                .currency(User.Currency.USD)
+                .build();
+
+        testApiService = ApiService.builder()
+                .id(7L)
+                .user(testUser)
+                .name("Test API")
+                .endpointUrl("https://api.test.com")
+                .budget(100.0)
+                .costPerUnit(0.02)
+                .usageCount(1000.0)
+                .build();
+    }
+
+    @Test
+    void testRecordUsage_AppendsEntryAndIncrementsBudget() {
+        spendLedgerService.recordUsage(testApiService, 500.0);
+
+        ArgumentCaptor<SpendLedgerEntry> captor = ArgumentCaptor.forClass(SpendLedgerEntry.class);
+        verify(spendLedgerRepository).save(captor.capture());
+        SpendLedgerEntry entry = captor.getValue();
+
+        assertEquals(SpendLedgerEntry.EntryType.USAGE, entry.getEntryType());
+        assertEquals(7L, entry.getApiServiceId());
+        assertEquals(10.0, entry.getAmount(), 0.0001);
+        verify(budgetRepository).incrementSpentAmount(testUser, 10.0);
+        verify(budgetPeriodService).recordSpend(testUser, 10.0, null);
+    }
+
+    @Test
+    void testRecordUsage_ZeroDeltaIsIgnored() {
+        spendLedgerService.recordUsage(testApiService, 0.0);
+
+        verifyNoInteractions(spendLedgerRepository, budgetRepository, budgetPeriodService);
+    }
+
+    @Test
+    void testRecordCostChange_RepricesPreviousUsage() {
+        testApiService.setCostPerUnit(0.05);
+
+        spendLedgerService.recordCostChange(testApiService, 1000.0, 0.02);
+
+        ArgumentCaptor<SpendLedgerEntry> captor = ArgumentCaptor.forClass(SpendLedgerEntry.class);
+        verify(spendLedgerRepository).save(captor.capture());
+        assertEquals(SpendLedgerEntry.EntryType.COST_CHANGE, captor.getValue().getEntryType());
+        assertEquals(30.0, captor.getValue().getAmount(), 0.0001);
+        // Re-pricing is not spend incurred this month
+        verify(budgetPeriodService, never()).recordSpend(any(), anyDouble(), any());
+    }
+
+    @Test
+    void testRecordServiceRemoval_ReversesSpend() {
+        spendLedgerService.recordServiceRemoval(testApiService);
+
+        ArgumentCaptor<SpendLedgerEntry> captor = ArgumentCaptor.forClass(SpendLedgerEntry.class);
+        verify(spendLedgerRepository).save(captor.capture());
+        assertEquals(-20.0, captor.getValue().getAmount(), 0.0001);
+        assertEquals(-1000.0, captor.getValue().getUsageDelta(), 0.0001);
+    }
+
+    @Test
+    void testReconcile_RecordsDriftAsAdjustment() {
+        when(apiServiceRepository.getTotalSpentByUser(testUser)).thenReturn(Optional.of(120.0));
+        when(spendLedgerRepository.getBalanceByUser(testUser)).thenReturn(Optional.of(100.0));
+
+        double reconciled = spendLedgerService.reconcile(testUser);
+
+        assertEquals(120.0, reconciled, 0.0001);
+        ArgumentCaptor<SpendLedgerEntry> captor = ArgumentCaptor.forClass(SpendLedgerEntry.class);
+        verify(spendLedgerRepository).save(captor.capture());
+        assertEquals(SpendLedgerEntry.EntryType.ADJUSTMENT, captor.getValue().getEntryType());
+        assertEquals(20.0, captor.getValue().getAmount(), 0.0001);
+        verify(budgetRepository, never()).incrementSpentAmount(any(), any());
+    }
+
+    @Test
+    void testReconcile_NoDriftWritesNothing() {
+        when(apiServiceRepository.getTotalSpentByUser(testUser)).thenReturn(Optional.of(50.0));
+        when(spendLedgerRepository.getBalanceByUser(testUser)).thenReturn(Optional.of(50.0));
+
+        assertEquals(50.0, spendLedgerService.reconcile(testUser), 0.0001);
+        verify(spendLedgerRepository, never()).save(any());
+    }
+}
@@ -40,6 +40,9 @@ class UsageLogServiceTest {
     @Mock
     private AnalyticsCalculator analyticsCalculator;
 
+    @Mock
+    private SpendLedgerService spendLedgerService;
+
     @InjectMocks
     private UsageLogService usageLogService;
 
@@ -94,7 +97,7 @@ class UsageLogServiceTest {
         when(usageLogRepository.save(any(UsageLog.class))).thenReturn(testUsageLog);
         when(apiServiceRepository.save(any(ApiService.class))).thenReturn(testApiService);
         when(analyticsCalculator.determineUsageStatus(any(), any())).thenReturn("normal");
-        when(analyticsCalculator.calculateCostIncurred(any(), anyDouble())).thenReturn(10.0);
+        when(analyticsCalculator.calculateCostIncurred(any(), anyDouble(), any())).thenReturn(10.0);
 
         UsageLogResponse response = usageLogService.createUsageLog(testUser, request);
 
@@ -162,7 +165,7 @@ class UsageLogServiceTest {
         when(usageLogRepository.findByApiServiceOrderByLogDateDesc(testApiService))
                 .thenReturn(Arrays.asList(testUsageLog));
         when(analyticsCalculator.determineUsageStatus(any(), any())).thenReturn("normal");
-        when(analyticsCalculator.calculateCostIncurred(any(), anyDouble())).thenReturn(10.0);
+        when(analyticsCalculator.calculateCostIncurred(any(), anyDouble(), any())).thenReturn(10.0);
 
         List<UsageLogResponse> responses = usageLogService.getUsageLogsByApiService(testUser, 1L);
 
@@ -4,6 +4,7 @@ import com.apishield.dto.settings.UserSettingsRequest;
 import com.apishield.dto.settings.UserSettingsResponse;
 import com.apishield.model.User;
 import com.apishield.model.UserSettings;
+import com.apishield.repository.UserRepository;
 import com.apishield.repository.UserSettingsRepository;
 import com.apishield.util.CurrencyConverter;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,6 +26,9 @@ class UserSettingsServiceTest {
     @Mock
     private UserSettingsRepository settingsRepository;
 
+    @Mock
+    private UserRepository userRepository;
+
     @Mock
     private CurrencyConverter currencyConverter;
 
@@ -96,6 +100,8 @@ class UserSettingsServiceTest {
         request.setEmailNotifications(false);
         request.setItemsPerPage(50);
 
+        User managedUser = User.builder().id(1L).email("test@example.com").currency(User.Currency.USD).build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(managedUser));
         when(settingsRepository.findByUser(testUser)).thenReturn(Optional.of(testSettings));
         when(settingsRepository.save(any(UserSettings.class))).thenReturn(testSettings);
         when(currencyConverter.getCurrencySymbol(User.Currency.INR)).thenReturn("₹");
@@ -105,10 +111,15 @@ class UserSettingsServiceTest {
         assertNotNull(response);
         assertEquals(User.Currency.INR, testUser.getCurrencyPreference());
         verify(settingsRepository).save(any(UserSettings.class));
+        assertEquals(User.Currency.INR, managedUser.getCurrencyPreference());
+        // Only the managed row is changed; the detached principal copy is never merged
+        verify(userRepository, never()).save(any());
     }
 
     @Test
     void testUpdateCurrencyPreference() {
+        User managedUser = User.builder().id(1L).email("test@example.com").currency(User.Currency.USD).build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(managedUser));
         when(settingsRepository.findByUser(testUser)).thenReturn(Optional.of(testSettings));
         when(settingsRepository.save(any(UserSettings.class))).thenReturn(testSettings);
         when(currencyConverter.getCurrencySymbol(User.Currency.INR)).thenReturn("₹");
@@ -118,6 +129,9 @@ class UserSettingsServiceTest {
         assertNotNull(response);
         assertEquals(User.Currency.INR, testUser.getCurrencyPreference());
         verify(settingsRepository).save(any(UserSettings.class));
+        assertEquals(User.Currency.INR, managedUser.getCurrencyPreference());
+        // Only the managed row is changed; the detached principal copy is never merged
+        verify(userRepository, never()).save(any());
     }
 
     @Test
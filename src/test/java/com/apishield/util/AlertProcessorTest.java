@@ -114,6 +114,19 @@ class AlertProcessorTest {
         assertTrue(alert.getMessage().contains("15.0%"));
     }
 
+    @Test
+    void testProcessCostAnomaly_FormatsInOwnersCurrency() {
+        testUser.setCurrencyPreference(User.Currency.INR);
+        when(alertRepository.findDuplicateAlerts(any(), any(), any())).thenReturn(Collections.emptyList());
+        when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Alert alert = alertProcessor.processCostAnomaly(testApiService, 2500.0, 1000.0);
+
+        assertNotNull(alert);
+        assertEquals(Alert.AlertType.COST_ANOMALY, alert.getAlertType());
+        assertTrue(alert.getMessage().contains("(₹2,500.00 vs ₹1,000.00 expected)"));
+    }
+
     @Test
     void testGetAlertTypeDescription() {
         String description = alertProcessor.getAlertTypeDescription(Alert.AlertType.BUDGET_WARNING);
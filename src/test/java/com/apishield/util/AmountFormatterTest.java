@@ -0,0 +1,57 @@
+package com.apishield.util;
+
+import com.apishield.model.Money;
+import com.apishield.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmountFormatterTest {
+
+    private final AmountFormatter formatter = AmountFormatter.DEFAULT;
+
+    @Test
+    void testFormat_GroupsAndRounds() {
+        assertEquals("$0.00", formatter.format(0.0, User.Currency.USD));
+        assertEquals("$1,234,567.89", formatter.format(1234567.891, User.Currency.USD));
+        assertEquals("₹1,000.00", formatter.format(999.999, User.Currency.INR));
+        assertEquals("$-12.50", formatter.format(-12.5, User.Currency.USD));
+    }
+
+    @Test
+    void testFormat_UsesCurrencyMinorUnits() {
+        assertEquals("¥1,235", formatter.format(1234.5, User.Currency.JPY));
+        assertEquals("€10.05", formatter.format(Money.of(10.049999, User.Currency.EUR)));
+    }
+
+    @Test
+    void testFormatUngroupedAndWithCode() {
+        assertEquals("$1234.50", formatter.formatUngrouped(1234.5, User.Currency.USD));
+        assertEquals("1,234.50 USD", formatter.formatWithCode(1234.5, User.Currency.USD));
+        assertEquals("83.1235", formatter.formatDecimal(83.12345, 4));
+    }
+
+    @Test
+    void testForLocale_UsesLocaleSeparators() {
+        AmountFormatter german = AmountFormatter.forLocale(Locale.GERMANY);
+
+        assertEquals("1.234,50 EUR", german.formatWithCode(1234.5, User.Currency.EUR));
+        assertSame(german, AmountFormatter.forLocale(Locale.GERMANY));
+    }
+
+    @Test
+    void testFormat_MatchesDecimalFormat() {
+        DecimalFormat decimalFormat = new DecimalFormat("#,##0.00", DecimalFormatSymbols.getInstance(Locale.US));
+        Random random = new Random(3);
+
+        for (int i = 0; i < 100_000; i++) {
+            double amount = random.nextInt(1_000_000_000) / 100.0;
+            assertEquals("$" + decimalFormat.format(amount), formatter.format(amount, User.Currency.USD));
+        }
+    }
+}
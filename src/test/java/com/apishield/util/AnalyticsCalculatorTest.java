@@ -134,10 +134,17 @@ class AnalyticsCalculatorTest {
     @Test
     void testCalculateCostIncurred() {
         UsageLog log = testLogs.get(0);
-        double cost = analyticsCalculator.calculateCostIncurred(log, 0.01);
+        double cost = analyticsCalculator.calculateCostIncurred(log, 0.01, User.Currency.USD);
         assertEquals(10.0, cost, 0.01); // 1000 requests * 0.01
     }
 
+    @Test
+    void testCalculateCostIncurred_RoundsToOwnersCurrency() {
+        UsageLog log = testLogs.get(0);
+        // 1000 requests * 0.0125 yen; yen has no minor unit
+        assertEquals(13.0, analyticsCalculator.calculateCostIncurred(log, 0.0125, User.Currency.JPY), 0.0001);
+    }
+
     @Test
     void testDetermineUsageStatus_Normal() {
         UsageLog normalLog = testLogs.get(0);
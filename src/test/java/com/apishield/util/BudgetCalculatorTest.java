@@ -61,6 +61,16 @@ class BudgetCalculatorTest {
         assertEquals(50.0, totalSpent, 0.01);
     }
 
+    @Test
+    void testCalculateTotalSpent_RoundsToOwnersMinorUnit() {
+        testApiService.setUser(User.builder().currency(User.Currency.JPY).build());
+        testApiService.setCostPerUnit(0.015);
+        testApiService.setUsageCount(1001.0); // 15.015 yen
+
+        assertEquals(15.0, budgetCalculator.calculateTotalSpent(testApiService));
+        assertEquals(85.0, budgetCalculator.calculateRemainingBudget(testApiService));
+    }
+
     @Test
     void testDetermineStatus_Healthy() {
         String status = budgetCalculator.determineStatus(50.0);
@@ -79,18 +89,6 @@ class BudgetCalculatorTest {
         assertEquals("critical", status);
     }
 
-    @Test
-    void testConvertCurrency_SameCurrency() {
-        double converted = budgetCalculator.convertCurrency(100.0, User.Currency.USD, User.Currency.USD);
-        assertEquals(100.0, converted);
-    }
-
-    @Test
-    void testConvertCurrency_UsdToInr() {
-        double converted = budgetCalculator.convertCurrency(100.0, User.Currency.USD, User.Currency.INR);
-        assertEquals(8300.0, converted, 1.0); // Approximate due to mock rate
-    }
-
     @Test
     void testGetCurrencySymbol() {
         assertEquals("$", budgetCalculator.getCurrencySymbol(User.Currency.USD));
@@ -0,0 +1,204 @@
+package com.apishield.util;
+
+import com.apishield.model.CurrencyRate;
+import com.apishield.model.User;
+import com.apishield.repository.CurrencyRateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyConverterTest {
+
+    @Mock
+    private CurrencyRateRepository currencyRateRepository;
+
+    @Mock
+    private ExchangeRateHistory exchangeRateHistory;
+
+    @InjectMocks
+    private CurrencyConverter currencyConverter;
+
+    @Test
+    void testConvertCurrency_ReadsDatabaseOnlyOnce() {
+        when(currencyRateRepository.findAllActiveRates())
+                .thenReturn(List.of(rate(User.Currency.USD, User.Currency.INR, 84.0, LocalDateTime.now())));
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(840.0, currencyConverter.convertCurrency(10.0, User.Currency.USD, User.Currency.INR), 0.0001);
+        }
+
+        verify(currencyRateRepository, times(1)).findAllActiveRates();
+        verify(currencyRateRepository, never()).findLatestRate(any(), any());
+    }
+
+    @Test
+    void testGetExchangeRate_StaleRateUsesFallback() {
+        when(currencyRateRepository.findAllActiveRates())
+                .thenReturn(List.of(rate(User.Currency.USD, User.Currency.INR, 84.0, LocalDateTime.now().minusHours(25))));
+
+        assertEquals(83.0, currencyConverter.getExchangeRate(User.Currency.USD, User.Currency.INR), 0.0001);
+        assertTrue(currencyConverter.isRateStale(User.Currency.USD, User.Currency.INR));
+    }
+
+    @Test
+    void testGetExchangeRate_NewestRateWins() {
+        when(currencyRateRepository.findAllActiveRates()).thenReturn(List.of(
+                rate(User.Currency.USD, User.Currency.INR, 85.0, LocalDateTime.now()),
+                rate(User.Currency.USD, User.Currency.INR, 80.0, LocalDateTime.now().minusHours(1))));
+
+        assertEquals(85.0, currencyConverter.getExchangeRate(User.Currency.USD, User.Currency.INR), 0.0001);
+    }
+
+    @Test
+    void testReloadRates_SwapsSnapshot() {
+        when(currencyRateRepository.findAllActiveRates())
+                .thenReturn(List.of(rate(User.Currency.USD, User.Currency.INR, 84.0, LocalDateTime.now())))
+                .thenReturn(List.of(rate(User.Currency.USD, User.Currency.INR, 86.0, LocalDateTime.now())));
+
+        CurrencyConverter.RateSnapshot before = currencyConverter.getSnapshot();
+        assertEquals(84.0, currencyConverter.getExchangeRate(User.Currency.USD, User.Currency.INR), 0.0001);
+
+        // No transaction is active, so the reload happens straight away
+        currencyConverter.reloadRatesAfterCommit();
+
+        assertEquals(86.0, currencyConverter.getExchangeRate(User.Currency.USD, User.Currency.INR), 0.0001);
+        // Readers holding the old snapshot are unaffected
+        assertEquals(84.0, before.getRate(User.Currency.USD, User.Currency.INR), 0.0001);
+    }
+
+    @Test
+    void testReloadRates_SlowerEarlierLoadDoesNotOverwriteNewerOne() {
+        List<CurrencyRate> older = List.of(rate(User.Currency.USD, User.Currency.INR, 84.0, LocalDateTime.now()));
+        List<CurrencyRate> newer = List.of(rate(User.Currency.USD, User.Currency.INR, 86.0, LocalDateTime.now()));
+        // The first load's query returns only after a second reload has read and published newer rates
+        when(currencyRateRepository.findAllActiveRates())
+                .thenAnswer(invocation -> {
+                    currencyConverter.reloadRates();
+                    return older;
+                })
+                .thenReturn(newer);
+
+        CurrencyConverter.RateSnapshot published = currencyConverter.reloadRates();
+
+        assertEquals(86.0, published.getRate(User.Currency.USD, User.Currency.INR), 0.0001);
+        assertEquals(86.0, currencyConverter.getExchangeRate(User.Currency.USD, User.Currency.INR), 0.0001);
+    }
+
+    @Test
+    void testSnapshot_CarriesRateMetadata() {
+        LocalDateTime updatedAt = LocalDateTime.now().minusHours(2);
+        when(currencyRateRepository.findAllActiveRates())
+                .thenReturn(List.of(rate(User.Currency.USD, User.Currency.EUR, 0.9, updatedAt)));
+
+        CurrencyConverter.RateSnapshot snapshot = currencyConverter.getSnapshot();
+
+        assertEquals(updatedAt, snapshot.getUpdatedAt(User.Currency.USD, User.Currency.EUR));
+        assertEquals(updatedAt, snapshot.getUpdatedAt(User.Currency.EUR, User.Currency.USD));
+        assertEquals("TEST", snapshot.getSource(User.Currency.USD, User.Currency.EUR));
+        assertTrue(snapshot.isRecent(User.Currency.USD, User.Currency.EUR));
+        // INR has no database rate, so EUR -> INR uses the INR fallback
+        assertNull(snapshot.getUpdatedAt(User.Currency.EUR, User.Currency.INR));
+        assertEquals("Fallback", snapshot.getSource(User.Currency.EUR, User.Currency.INR));
+        assertFalse(snapshot.isRecent(User.Currency.EUR, User.Currency.INR));
+        assertEquals(1, snapshot.getRateCount());
+    }
+
+    @Test
+    void testGetExchangeRate_TriangulatesCrossPairs() {
+        when(currencyRateRepository.findAllActiveRates()).thenReturn(List.of(
+                rate(User.Currency.USD, User.Currency.EUR, 0.8, LocalDateTime.now()),
+                rate(User.Currency.USD, User.Currency.JPY, 160.0, LocalDateTime.now())));
+
+        assertEquals(200.0, currencyConverter.getExchangeRate(User.Currency.EUR, User.Currency.JPY), 0.0001);
+        assertEquals(0.005, currencyConverter.getExchangeRate(User.Currency.JPY, User.Currency.EUR), 0.000001);
+        assertEquals(1.25, currencyConverter.getExchangeRate(User.Currency.EUR, User.Currency.USD), 0.0001);
+    }
+
+    @Test
+    void testGetExchangeRate_InverseRateUsedWhenNoBaseRate() {
+        when(currencyRateRepository.findAllActiveRates())
+                .thenReturn(List.of(rate(User.Currency.INR, User.Currency.USD, 0.0125, LocalDateTime.now())));
+
+        assertEquals(80.0, currencyConverter.getExchangeRate(User.Currency.USD, User.Currency.INR), 0.0001);
+        assertEquals(0.0125, currencyConverter.getExchangeRate(User.Currency.INR, User.Currency.USD), 0.000001);
+    }
+
+    @Test
+    void testUpdateExchangeRate_RejectsCrossPair() {
+        assertThrows(IllegalArgumentException.class,
+                () -> currencyConverter.updateExchangeRate(User.Currency.EUR, User.Currency.GBP, 0.85, "TEST"));
+
+        verify(currencyRateRepository, never()).save(any());
+    }
+
+    @Test
+    void testBatchConvert_MixedCurrencies() {
+        when(currencyRateRepository.findAllActiveRates()).thenReturn(List.of(
+                rate(User.Currency.USD, User.Currency.EUR, 0.8, LocalDateTime.now()),
+                rate(User.Currency.USD, User.Currency.GBP, 0.5, LocalDateTime.now())));
+
+        double[] converted = currencyConverter.batchConvert(
+                new double[]{10.0, 8.0, 5.0},
+                new User.Currency[]{User.Currency.USD, User.Currency.EUR, User.Currency.GBP},
+                User.Currency.USD);
+
+        assertArrayEquals(new double[]{10.0, 10.0, 10.0}, converted, 0.0001);
+        verify(currencyRateRepository, times(1)).findAllActiveRates();
+    }
+
+    @Test
+    void testBatchConvertAsOf_UsesRateInForceAtEachTime() {
+        LocalDateTime january = LocalDateTime.of(2024, 1, 15, 12, 0);
+        LocalDateTime june = LocalDateTime.of(2024, 6, 15, 12, 0);
+        when(currencyRateRepository.findAllActiveRates())
+                .thenReturn(List.of(rate(User.Currency.USD, User.Currency.EUR, 0.9, LocalDateTime.now())));
+        when(exchangeRateHistory.series(User.Currency.EUR)).thenReturn(new ExchangeRateHistory.Series(
+                new long[]{ExchangeRateHistory.toKey(january.minusDays(1)), ExchangeRateHistory.toKey(june.minusDays(1))},
+                new double[]{0.8, 0.5}, 2));
+
+        double[] converted = currencyConverter.batchConvertAsOf(
+                new double[]{8.0, 5.0, 9.0},
+                new User.Currency[]{User.Currency.EUR, User.Currency.EUR, User.Currency.EUR},
+                new LocalDateTime[]{january, june, null},
+                User.Currency.USD);
+
+        assertArrayEquals(new double[]{10.0, 10.0, 10.0}, converted, 0.0001);
+        // One series fetch for the currency, however many rows use it
+        verify(exchangeRateHistory, times(1)).series(User.Currency.EUR);
+    }
+
+    @Test
+    void testUpdateExchangeRate_AppendsHistory() {
+        when(currencyRateRepository.findByFromCurrencyAndToCurrencyAndIsActive(User.Currency.USD, User.Currency.GBP, true))
+                .thenReturn(java.util.Optional.empty());
+        when(currencyRateRepository.findAllActiveRates()).thenReturn(List.of());
+
+        // A rate into the base currency is stored as its inverse
+        currencyConverter.updateExchangeRate(User.Currency.GBP, User.Currency.USD, 1.25, "TEST");
+
+        verify(currencyRateRepository).save(any(CurrencyRate.class));
+        verify(exchangeRateHistory).record(eq(User.Currency.USD), eq(User.Currency.GBP), eq(0.8), eq("TEST"), any());
+    }
+
+    private CurrencyRate rate(User.Currency from, User.Currency to, double rate, LocalDateTime updatedAt) {
+        return CurrencyRate.builder()
+                .fromCurrency(from)
+                .toCurrency(to)
+                .rate(rate)
+                .source("TEST")
+                .isActive(true)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
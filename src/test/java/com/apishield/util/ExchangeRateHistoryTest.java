@@ -0,0 +1,79 @@
+package com.apishield.util;
+
+import com.apishield.model.CurrencyRateHistory;
+import com.apishield.model.User;
+import com.apishield.repository.CurrencyRateHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateHistoryTest {
+
+    private static final LocalDateTime MARCH = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime APRIL = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    @Mock
+    private CurrencyRateHistoryRepository historyRepository;
+
+    @InjectMocks
+    private ExchangeRateHistory exchangeRateHistory;
+
+    @Test
+    void testUnitsPerBaseAsOf_PicksRateInForce() {
+        when(historyRepository.findSeries(User.Currency.USD, User.Currency.INR)).thenReturn(List.of(
+                new Object[]{User.Currency.USD, MARCH, 82.0},
+                new Object[]{User.Currency.USD, APRIL, 84.0}));
+
+        assertEquals(82.0, exchangeRateHistory.unitsPerBaseAsOf(User.Currency.INR, MARCH.plusDays(10)));
+        assertEquals(84.0, exchangeRateHistory.unitsPerBaseAsOf(User.Currency.INR, APRIL));
+        assertEquals(84.0, exchangeRateHistory.unitsPerBaseAsOf(User.Currency.INR, APRIL.plusYears(1)));
+        // Before the first recorded rate, the earliest rate is the closest known
+        assertEquals(82.0, exchangeRateHistory.unitsPerBaseAsOf(User.Currency.INR, MARCH.minusYears(1)));
+
+        verify(historyRepository, times(1)).findSeries(User.Currency.USD, User.Currency.INR);
+    }
+
+    @Test
+    void testUnitsPerBaseAsOf_InvertsRatesIntoBase() {
+        when(historyRepository.findSeries(User.Currency.USD, User.Currency.GBP))
+                .thenReturn(List.<Object[]>of(new Object[]{User.Currency.GBP, MARCH, 1.25}));
+
+        assertEquals(0.8, exchangeRateHistory.unitsPerBaseAsOf(User.Currency.GBP, APRIL), 0.000001);
+    }
+
+    @Test
+    void testUnitsPerBaseAsOf_NoHistory() {
+        when(historyRepository.findSeries(User.Currency.USD, User.Currency.EUR)).thenReturn(List.of());
+
+        assertTrue(Double.isNaN(exchangeRateHistory.unitsPerBaseAsOf(User.Currency.EUR, APRIL)));
+        assertEquals(1.0, exchangeRateHistory.unitsPerBaseAsOf(User.Currency.USD, APRIL));
+    }
+
+    @Test
+    void testRecord_InvalidatesCachedSeries() {
+        when(historyRepository.findSeries(User.Currency.USD, User.Currency.INR))
+                .thenReturn(List.<Object[]>of(new Object[]{User.Currency.USD, MARCH, 82.0}))
+                .thenReturn(List.of(
+                        new Object[]{User.Currency.USD, MARCH, 82.0},
+                        new Object[]{User.Currency.USD, APRIL, 84.0}));
+
+        assertEquals(82.0, exchangeRateHistory.unitsPerBaseAsOf(User.Currency.INR, APRIL));
+
+        // No transaction is active, so the cache is dropped straight away
+        exchangeRateHistory.record(User.Currency.USD, User.Currency.INR, 84.0, "TEST", APRIL);
+
+        assertEquals(84.0, exchangeRateHistory.unitsPerBaseAsOf(User.Currency.INR, APRIL));
+        verify(historyRepository).save(any(CurrencyRateHistory.class));
+        verify(historyRepository, times(2)).findSeries(User.Currency.USD, User.Currency.INR);
+    }
+}
@@ -0,0 +1,121 @@
+package com.apishield.util;
+
+import com.apishield.model.SubscriptionPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanRecommenderTest {
+
+    private PlanRecommender planRecommender;
+
+    private SubscriptionPlan starter;
+    private SubscriptionPlan pro;
+    private SubscriptionPlan enterprise;
+
+    @BeforeEach
+    void setUp() {
+        planRecommender = new PlanRecommender();
+        starter = plan(1L, "Starter", 0.0, 3, 1_000L);
+        pro = plan(2L, "Pro", 25.0, 20, 100_000L);
+        enterprise = plan(3L, "Enterprise", 99.0, -1, -1L);
+    }
+
+    @Test
+    void testProject_SteadyUsage() {
+        PlanRecommender.Projection projection = planRecommender.project(List.of(1_000L, 1_000L, 1_000L), 0L, 0.1, 2);
+
+        assertEquals(1_000L, projection.requests());
+        assertEquals(2, projection.apiServices());
+        assertEquals(3, projection.monthsObserved());
+    }
+
+    @Test
+    void testProject_FollowsGrowthInFull() {
+        PlanRecommender.Projection projection = planRecommender.project(List.of(1_000L, 2_000L, 3_000L), 0L, 0.1, 1);
+
+        assertEquals(4_000L, projection.requests());
+    }
+
+    @Test
+    void testProject_FollowsDeclineHalfway() {
+        PlanRecommender.Projection projection = planRecommender.project(List.of(3_000L, 2_000L, 1_000L), 0L, 0.1, 1);
+
+        // The trend says 0, the mean 2,000
+        assertEquals(1_000L, projection.requests());
+    }
+
+    @Test
+    void testProject_ExtrapolatesCurrentMonth() {
+        PlanRecommender.Projection projection = planRecommender.project(List.of(), 500L, 0.5, 1);
+
+        assertEquals(1_000L, projection.requests());
+        assertEquals(1, projection.monthsObserved());
+    }
+
+    @Test
+    void testProject_NeverBelowThisMonthsUsage() {
+        PlanRecommender.Projection projection = planRecommender.project(List.of(100L), 5_000L, 0.1, 1);
+
+        assertEquals(5_000L, projection.requests());
+    }
+
+    @Test
+    void testRecommend_CheapestPlanWithHeadroom() {
+        List<SubscriptionPlan> plans = List.of(starter, pro, enterprise);
+
+        assertSame(starter, recommend(500L, 2, plans));
+        // 900 fits under Starter's 1,000 but not with 20% to spare
+        assertSame(pro, recommend(900L, 2, plans));
+        assertSame(pro, recommend(500L, 10, plans));
+        assertSame(enterprise, recommend(1_000_000L, 2, plans));
+    }
+
+    @Test
+    void testRecommend_ApiServicesNeedHeadroomToo() {
+        List<SubscriptionPlan> plans = List.of(starter, pro, enterprise);
+
+        // Starter allows 3 API services: 2 leaves 20% to spare, 3 fills it exactly
+        assertSame(starter, recommend(100L, 2, plans));
+        assertSame(pro, recommend(100L, 3, plans));
+        // Pro allows 20: 16 is the most that still leaves 20% to spare
+        assertSame(pro, recommend(100L, 16, plans));
+        assertSame(enterprise, recommend(100L, 17, plans));
+    }
+
+    @Test
+    void testRecommend_LargestPlanWhenNothingFits() {
+        PlanRecommender.Scored best = planRecommender.recommend(
+                new PlanRecommender.Projection(1_000_000L, 2, 3), List.of(starter, pro)).orElseThrow();
+
+        assertSame(pro, best.plan());
+        assertFalse(best.fits());
+        assertTrue(best.headroom() < 0);
+    }
+
+    @Test
+    void testRecommend_NoPlans() {
+        assertTrue(planRecommender.recommend(new PlanRecommender.Projection(10L, 1, 1), List.of()).isEmpty());
+    }
+
+    private SubscriptionPlan recommend(long requests, int apiServices, List<SubscriptionPlan> plans) {
+        return planRecommender.recommend(new PlanRecommender.Projection(requests, apiServices, 3), plans)
+                .orElseThrow()
+                .plan();
+    }
+
+    private SubscriptionPlan plan(Long id, String name, double priceUsd, int maxApis, long maxRequests) {
+        return SubscriptionPlan.builder()
+                .id(id)
+                .name(name)
+                .priceUsd(priceUsd)
+                .priceInr(priceUsd * 80)
+                .maxApis(maxApis)
+                .maxRequestsPerMonth(maxRequests)
+                .isActive(true)
+                .build();
+    }
+}
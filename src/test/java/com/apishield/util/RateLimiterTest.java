@@ -0,0 +1,71 @@
+package com.apishield.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    @Test
+    void testTryAcquire_AllowsBurstThenWaits() {
+        RateLimiter rateLimiter = new RateLimiter(1.0, 3);
+
+        assertEquals(0L, rateLimiter.tryAcquire(1L));
+        assertEquals(0L, rateLimiter.tryAcquire(1L));
+        assertEquals(0L, rateLimiter.tryAcquire(1L));
+
+        long waitNanos = rateLimiter.tryAcquire(1L);
+        assertTrue(waitNanos > 0, "Fourth request in the burst should wait");
+        assertTrue(waitNanos <= 1_000_000_000L, "One token refills per second: " + waitNanos);
+
+        // Other users have their own bucket
+        assertEquals(0L, rateLimiter.tryAcquire(2L));
+    }
+
+    @Test
+    void testTryAcquire_RefillsOverTime() throws InterruptedException {
+        RateLimiter rateLimiter = new RateLimiter(100.0, 1);
+
+        assertEquals(0L, rateLimiter.tryAcquire(1L));
+        assertTrue(rateLimiter.tryAcquire(1L) > 0);
+
+        Thread.sleep(20);
+
+        assertEquals(0L, rateLimiter.tryAcquire(1L));
+    }
+
+    @Test
+    void testTryAcquire_NeverGrantsMoreThanBurstUnderContention() throws InterruptedException {
+        // Slow enough that no token refills while the threads race
+        RateLimiter rateLimiter = new RateLimiter(0.001, 50);
+        AtomicInteger granted = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1_000; i++) {
+            executor.submit(() -> {
+                if (rateLimiter.tryAcquire(1L) == 0L) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, granted.get());
+    }
+
+    @Test
+    void testEvictIdle_KeepsBucketsStillRefilling() {
+        RateLimiter rateLimiter = new RateLimiter(0.001, 5);
+        rateLimiter.tryAcquire(1L);
+
+        rateLimiter.evictIdle();
+
+        assertEquals(1, rateLimiter.size());
+    }
+}
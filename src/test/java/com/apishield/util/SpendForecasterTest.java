@@ -0,0 +1,99 @@
+package com.apishield.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpendForecasterTest {
+
+    // A Monday, so weeks line up with the seasonal slots
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private SpendForecaster spendForecaster;
+
+    @BeforeEach
+    void setUp() {
+        spendForecaster = new SpendForecaster();
+    }
+
+    @Test
+    void testForecast_EmptyModel() {
+        SpendForecaster.Forecast forecast = spendForecaster.forecast(
+                new SpendForecaster.Model(), START, START.plusDays(6));
+
+        assertEquals(0.0, forecast.getExpected());
+        assertEquals(SpendForecaster.Method.NONE, forecast.getMethod());
+    }
+
+    @Test
+    void testForecast_ShortHistoryUsesEwma() {
+        SpendForecaster.Model model = new SpendForecaster.Model();
+        for (int day = 0; day < 5; day++) {
+            spendForecaster.update(model, START.plusDays(day), 10.0);
+        }
+
+        SpendForecaster.Forecast forecast = spendForecaster.forecast(model, START.plusDays(5), START.plusDays(7));
+
+        assertEquals(SpendForecaster.Method.EWMA, forecast.getMethod());
+        assertEquals(30.0, forecast.getExpected(), 0.0001);
+        assertEquals(0.0, forecast.getVariance(), 0.0001);
+        assertEquals(5, model.getObservations());
+        assertEquals(START.plusDays(4), model.getLastDate());
+    }
+
+    @Test
+    void testForecast_WeeklyPatternUsesHoltWinters() {
+        SpendForecaster.Model model = new SpendForecaster.Model();
+        for (int day = 0; day < 56; day++) {
+            spendForecaster.update(model, START.plusDays(day), weekdayWeekendSpend(START.plusDays(day)));
+        }
+
+        SpendForecaster.Forecast forecast = spendForecaster.forecast(model, START.plusDays(56), START.plusDays(62));
+
+        assertEquals(SpendForecaster.Method.HOLT_WINTERS, forecast.getMethod());
+        // Five weekdays at 10 plus two weekend days at 2
+        assertEquals(54.0, forecast.getExpected(), 0.5);
+    }
+
+    @Test
+    void testForecast_SkipsDaysBeforeFrom() {
+        SpendForecaster.Model model = new SpendForecaster.Model();
+        for (int day = 0; day < 5; day++) {
+            spendForecaster.update(model, START.plusDays(day), 10.0);
+        }
+
+        SpendForecaster.Forecast all = spendForecaster.forecast(model, START.plusDays(5), START.plusDays(9));
+        SpendForecaster.Forecast tail = spendForecaster.forecast(model, START.plusDays(7), START.plusDays(9));
+
+        assertEquals(50.0, all.getExpected(), 0.0001);
+        assertEquals(30.0, tail.getExpected(), 0.0001);
+    }
+
+    @Test
+    void testForecast_IntervalWidensWithNoise() {
+        SpendForecaster.Model steady = new SpendForecaster.Model();
+        SpendForecaster.Model noisy = new SpendForecaster.Model();
+        for (int day = 0; day < 28; day++) {
+            spendForecaster.update(steady, START.plusDays(day), 10.0);
+            spendForecaster.update(noisy, START.plusDays(day), day % 2 == 0 ? 5.0 : 15.0);
+        }
+
+        SpendForecaster.Forecast steadyForecast = spendForecaster.forecast(steady, START.plusDays(28), START.plusDays(34));
+        SpendForecaster.Forecast noisyForecast = spendForecaster.forecast(noisy, START.plusDays(28), START.plusDays(34));
+
+        double steadyWidth = spendForecaster.upperBound(steadyForecast.getExpected(), steadyForecast.getVariance())
+                - spendForecaster.lowerBound(steadyForecast.getExpected(), steadyForecast.getVariance());
+        double noisyWidth = spendForecaster.upperBound(noisyForecast.getExpected(), noisyForecast.getVariance())
+                - spendForecaster.lowerBound(noisyForecast.getExpected(), noisyForecast.getVariance());
+
+        assertTrue(noisyWidth > steadyWidth);
+        assertTrue(spendForecaster.lowerBound(noisyForecast.getExpected(), noisyForecast.getVariance()) >= 0.0);
+    }
+
+    private double weekdayWeekendSpend(LocalDate date) {
+        return date.getDayOfWeek().getValue() >= 6 ? 2.0 : 10.0;
+    }
+}